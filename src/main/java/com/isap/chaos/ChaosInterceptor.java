@@ -0,0 +1,361 @@
+package com.isap.chaos;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.exception.AbortedException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.isap.codec.Attributes.PK;
+
+/**
+ * Execution interceptor that delays, throttles and fails the data calls of a DynamoDB client, so that DynamoDB Local,
+ * which answers at once and never throttles, shows the tail latency and throttling of a loaded table.
+ *
+ * Faults are injected just before each attempt is sent, below the SDK's retry layer, so the client retries injected
+ * failures and throttles with its own retry strategy, as it would real ones. Every attempt first waits for a latency
+ * drawn from its operation's distribution, then fails with an {@link InternalServerErrorException} at its operation's
+ * failure rate. Each table and index is split into {@code partitions} partitions by the hash of the partition key,
+ * each serving {@code partitionReadUnits} and {@code partitionWriteUnits} per second with up to a second of burst. An
+ * attempt whose partition holds less than one unit is rejected with a {@link ProvisionedThroughputExceededException};
+ * otherwise the capacity the call consumed is taken from the partition once it returns. Scans are charged to a
+ * partition by segment. As in DynamoDB, a batch write returns the writes to throttled partitions as unprocessed, and
+ * fails only when all of them are; a retry of such a batch is sent whole once any of its partitions has capacity again.
+ *
+ * Injected faults are counted per attempt in {@code poll.chaos.faults}, tagged with the kind and the operation.
+ */
+public class ChaosInterceptor implements ExecutionInterceptor {
+
+    // The partition key attribute a key condition starts with, such as "GSI1PK = :pollId AND ..."
+    private static final Pattern PARTITION_CONDITION = Pattern.compile("^\\s*#?\\w+\\s*=\\s*(:\\w+)");
+
+    private static final ExecutionAttribute<Charge> CHARGE = new ExecutionAttribute<>("ChaosCharge");
+    private static final ExecutionAttribute<Map<String, List<WriteRequest>>> THROTTLED_WRITES =
+            new ExecutionAttribute<>("ChaosThrottledWrites");
+    private static final ExecutionAttribute<Boolean> BATCH_THROTTLED = new ExecutionAttribute<>("ChaosBatchThrottled");
+
+    private final ChaosSettings settings;
+    private final MeterRegistry registry;
+    private final Map<String, Partition[]> partitionsByTable = new ConcurrentHashMap<>();
+
+    public ChaosInterceptor(ChaosSettings settings, MeterRegistry registry) {
+        this.settings = settings;
+        this.registry = registry;
+    }
+
+    /**
+     * Takes the writes to throttled partitions out of a batch, once per call rather than per attempt.
+     */
+    @Override
+    public SdkRequest modifyRequest(Context.ModifyRequest context, ExecutionAttributes attributes) {
+        if (!(context.request() instanceof BatchWriteItemRequest request)) {
+            return context.request();
+        }
+
+        Map<String, List<WriteRequest>> admitted = new HashMap<>();
+        Map<String, List<WriteRequest>> throttled = new HashMap<>();
+        for (Map.Entry<String, List<WriteRequest>> table : request.requestItems().entrySet()) {
+            for (WriteRequest write : table.getValue()) {
+                boolean admit = partition(table.getKey(), null, keyOf(write)).tryTake(true, 1);
+                (admit ? admitted : throttled).computeIfAbsent(table.getKey(), t -> new ArrayList<>()).add(write);
+            }
+        }
+        if (admitted.isEmpty()) {
+            attributes.putAttribute(BATCH_THROTTLED, true);
+            return request;
+        }
+        if (!throttled.isEmpty()) {
+            registry.counter("poll.chaos.faults", "kind", "throttle", "operation", "BatchWriteItem").increment();
+            attributes.putAttribute(THROTTLED_WRITES, throttled);
+        }
+        return request.toBuilder().requestItems(admitted).build();
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes attributes) {
+        SdkRequest request = context.request();
+        String operation = attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+
+        if (request instanceof BatchWriteItemRequest batch) {
+            inject(operation);
+            if (Boolean.TRUE.equals(attributes.getAttribute(BATCH_THROTTLED))) {
+                if (!admitAny(batch)) {
+                    registry.counter("poll.chaos.faults", "kind", "throttle", "operation", operation).increment();
+                    throw throttled(operation);
+                }
+                attributes.putAttribute(BATCH_THROTTLED, false);
+            }
+            return;
+        }
+
+        // Throttled when the partition of any of its items is; transactional writes take two units per item
+        if (request instanceof TransactWriteItemsRequest transaction) {
+            inject(operation);
+            for (TransactWriteItem item : transaction.transactItems()) {
+                if (!partitionOf(item).tryTake(true, 2)) {
+                    registry.counter("poll.chaos.faults", "kind", "throttle", "operation", operation).increment();
+                    throw throttled(operation);
+                }
+            }
+            return;
+        }
+
+        Charge charge = chargeOf(request);
+        if (charge == null) {
+            return;
+        }
+        inject(operation);
+        if (!charge.partition().tryTake(charge.write(), 0)) {
+            registry.counter("poll.chaos.faults", "kind", "throttle", "operation", operation).increment();
+            throw throttled(operation);
+        }
+        attributes.putAttribute(CHARGE, charge);
+    }
+
+    /**
+     * Takes the capacity a call consumed from its partition, and adds the throttled writes of a batch to its
+     * unprocessed items.
+     */
+    @Override
+    public SdkResponse modifyResponse(Context.ModifyResponse context, ExecutionAttributes attributes) {
+        SdkResponse response = context.response();
+        Charge charge = attributes.getAttribute(CHARGE);
+        if (charge != null) {
+            charge.partition().take(charge.write(), units(response));
+        }
+
+        Map<String, List<WriteRequest>> throttled = attributes.getAttribute(THROTTLED_WRITES);
+        if (throttled == null || !(response instanceof BatchWriteItemResponse batch)) {
+            return response;
+        }
+        Map<String, List<WriteRequest>> unprocessed = new HashMap<>();
+        throttled.forEach((table, writes) -> unprocessed.put(table, new ArrayList<>(writes)));
+        if (batch.hasUnprocessedItems()) {
+            batch.unprocessedItems().forEach((table, writes) ->
+                    unprocessed.computeIfAbsent(table, t -> new ArrayList<>()).addAll(writes));
+        }
+        return batch.toBuilder().unprocessedItems(unprocessed).build();
+    }
+
+    /**
+     * @return the partition a single-item call, query or scan is served by, or null for calls that are not faulted,
+     * such as DescribeTable.
+     */
+    private Charge chargeOf(SdkRequest request) {
+        if (request instanceof GetItemRequest get) {
+            return new Charge(partition(get.tableName(), null, keyOf(get.key())), false);
+        }
+        if (request instanceof PutItemRequest put) {
+            return new Charge(partition(put.tableName(), null, keyOf(put.item())), true);
+        }
+        if (request instanceof UpdateItemRequest update) {
+            return new Charge(partition(update.tableName(), null, keyOf(update.key())), true);
+        }
+        if (request instanceof DeleteItemRequest delete) {
+            return new Charge(partition(delete.tableName(), null, keyOf(delete.key())), true);
+        }
+        if (request instanceof QueryRequest query) {
+            String key = null;
+            Matcher matcher = PARTITION_CONDITION.matcher(query.keyConditionExpression());
+            if (matcher.find() && query.hasExpressionAttributeValues()) {
+                key = keyOf(query.expressionAttributeValues().get(matcher.group(1)));
+            }
+            return new Charge(partition(query.tableName(), query.indexName(), key), false);
+        }
+        if (request instanceof ScanRequest scan) {
+            String key = "segment#" + (scan.segment() == null ? 0 : scan.segment());
+            return new Charge(partition(scan.tableName(), scan.indexName(), key), false);
+        }
+        return null;
+    }
+
+    private Partition partitionOf(TransactWriteItem item) {
+        if (item.put() != null) {
+            return partition(item.put().tableName(), null, keyOf(item.put().item()));
+        } else if (item.update() != null) {
+            return partition(item.update().tableName(), null, keyOf(item.update().key()));
+        } else if (item.delete() != null) {
+            return partition(item.delete().tableName(), null, keyOf(item.delete().key()));
+        }
+        return partition(item.conditionCheck().tableName(), null, keyOf(item.conditionCheck().key()));
+    }
+
+    private boolean admitAny(BatchWriteItemRequest request) {
+        boolean admitted = false;
+        for (Map.Entry<String, List<WriteRequest>> table : request.requestItems().entrySet()) {
+            for (WriteRequest write : table.getValue()) {
+                admitted |= partition(table.getKey(), null, keyOf(write)).tryTake(true, 1);
+            }
+        }
+        return admitted;
+    }
+
+    /**
+     * Waits for the operation's latency, then fails at its failure rate.
+     */
+    private void inject(String operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delayNanos = settings.latencyOf(operation).sampleNanos(random);
+        if (delayNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delayNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw AbortedException.create("Interrupted while delaying " + operation, e);
+            }
+        }
+
+        if (random.nextDouble() < settings.failureRateOf(operation)) {
+            registry.counter("poll.chaos.faults", "kind", "failure", "operation", operation).increment();
+            throw InternalServerErrorException.builder()
+                    .message("Injected failure of " + operation)
+                    .statusCode(500)
+                    .awsErrorDetails(AwsErrorDetails.builder().errorCode("InternalServerError").serviceName("DynamoDb").build())
+                    .build();
+        }
+    }
+
+    private static ProvisionedThroughputExceededException throttled(String operation) {
+        return ProvisionedThroughputExceededException.builder()
+                .message("Injected throttling of " + operation + ": the partition's throughput was exceeded")
+                .statusCode(400)
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode("ProvisionedThroughputExceededException")
+                        .serviceName("DynamoDb").build())
+                .build();
+    }
+
+    private Partition partition(String table, String index, String key) {
+        Partition[] partitions = partitionsByTable.computeIfAbsent(index == null ? table : table + "/" + index, name -> {
+            Partition[] created = new Partition[settings.partitions()];
+            for (int i = 0; i < created.length; i++) {
+                created[i] = new Partition(settings.partitionReadUnits(), settings.partitionWriteUnits());
+            }
+            return created;
+        });
+        return partitions[partitionOf(key, partitions.length)];
+    }
+
+    static int partitionOf(String key, int partitions) {
+        if (key == null) {
+            return 0;
+        }
+        // Spread similar keys, such as consecutive ULIDs, over all partitions
+        int hash = key.hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ hash >>> 16, partitions);
+    }
+
+    private static String keyOf(WriteRequest write) {
+        return keyOf(write.putRequest() != null ? write.putRequest().item() : write.deleteRequest().key());
+    }
+
+    private static String keyOf(Map<String, AttributeValue> item) {
+        return item == null ? null : keyOf(item.get(PK));
+    }
+
+    private static String keyOf(AttributeValue value) {
+        if (value == null) {
+            return null;
+        }
+        return value.s() != null ? value.s() : value.n() != null ? value.n() : value.toString();
+    }
+
+    private static double units(SdkResponse response) {
+        if (response instanceof GetItemResponse get) {
+            return units(get.consumedCapacity());
+        }
+        if (response instanceof PutItemResponse put) {
+            return units(put.consumedCapacity());
+        }
+        if (response instanceof UpdateItemResponse update) {
+            return units(update.consumedCapacity());
+        }
+        if (response instanceof DeleteItemResponse delete) {
+            return units(delete.consumedCapacity());
+        }
+        if (response instanceof QueryResponse query) {
+            return units(query.consumedCapacity(), query.count());
+        }
+        if (response instanceof ScanResponse scan) {
+            return units(scan.consumedCapacity(), scan.count());
+        }
+        return 1;
+    }
+
+    private static double units(ConsumedCapacity consumed) {
+        return consumed == null || consumed.capacityUnits() == null ? 1 : consumed.capacityUnits();
+    }
+
+    // Without reported capacity, a unit per item read
+    private static double units(ConsumedCapacity consumed, Integer count) {
+        if (consumed != null && consumed.capacityUnits() != null) {
+            return consumed.capacityUnits();
+        }
+        return Math.max(1, count == null ? 0 : count);
+    }
+
+    private record Charge(Partition partition, boolean write) {
+    }
+
+    /**
+     * Read and write token buckets of one partition. Capacity consumed by a call is only known once it returns, so a
+     * bucket may go into debt; calls are admitted while it holds at least one unit.
+     */
+    private static final class Partition {
+        private final double readUnitsPerSecond;
+        private final double writeUnitsPerSecond;
+        private double readUnits;
+        private double writeUnits;
+        private long lastRefill = System.nanoTime();
+
+        private Partition(double readUnitsPerSecond, double writeUnitsPerSecond) {
+            this.readUnitsPerSecond = readUnitsPerSecond;
+            this.writeUnitsPerSecond = writeUnitsPerSecond;
+            this.readUnits = readUnitsPerSecond;
+            this.writeUnits = writeUnitsPerSecond;
+        }
+
+        /**
+         * Takes the units if the bucket holds at least one.
+         */
+        synchronized boolean tryTake(boolean write, double units) {
+            refill();
+            if ((write ? writeUnits : readUnits) < 1) {
+                return false;
+            }
+            take(write, units);
+            return true;
+        }
+
+        synchronized void take(boolean write, double units) {
+            if (write) {
+                writeUnits -= units;
+            } else {
+                readUnits -= units;
+            }
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            double seconds = (now - lastRefill) / (double) TimeUnit.SECONDS.toNanos(1);
+            readUnits = Math.min(readUnitsPerSecond, readUnits + seconds * readUnitsPerSecond);
+            writeUnits = Math.min(writeUnitsPerSecond, writeUnits + seconds * writeUnitsPerSecond);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.isap.chaos;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * What {@link ChaosInterceptor} injects: a latency distribution and a failure rate for every attempt, each of which
+ * may be set per operation, and the read and write units per second every partition of a table or index serves.
+ *
+ * @param partitions number of partitions each table and index is split into by partition key hash.
+ */
+public record ChaosSettings(Latency latency, Map<String, Latency> latencies, double failureRate,
+                            Map<String, Double> failureRates, int partitions, double partitionReadUnits,
+                            double partitionWriteUnits) {
+
+    public ChaosSettings {
+        if (partitions < 1 || partitionReadUnits <= 0 || partitionWriteUnits <= 0) {
+            throw new IllegalArgumentException("Partitions and their read and write units must be positive");
+        }
+        latencies = Map.copyOf(latencies);
+        failureRates = Map.copyOf(failureRates);
+    }
+
+    public Latency latencyOf(String operation) {
+        return latencies.getOrDefault(operation, latency);
+    }
+
+    public double failureRateOf(String operation) {
+        return failureRates.getOrDefault(operation, failureRate);
+    }
+
+    /**
+     * Parses {@code Operation=median/p99} entries, both in milliseconds, such as {@code Query=8/60}.
+     */
+    static Map<String, Latency> parseLatencies(List<String> entries) {
+        Map<String, Latency> latencies = new HashMap<>();
+        for (String entry : entries) {
+            int separator = entry.indexOf('=');
+            int slash = entry.indexOf('/', separator);
+            if (separator <= 0 || slash < 0) {
+                throw new IllegalArgumentException("Expected operation=median/p99 in milliseconds but got: " + entry);
+            }
+            latencies.put(entry.substring(0, separator).trim(), new Latency(
+                    Duration.ofMillis(Long.parseLong(entry.substring(separator + 1, slash).trim())),
+                    Duration.ofMillis(Long.parseLong(entry.substring(slash + 1).trim()))));
+        }
+        return latencies;
+    }
+
+    static Map<String, Double> parseFailureRates(List<String> entries) {
+        Map<String, Double> rates = new HashMap<>();
+        for (String entry : entries) {
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected operation=rate but got: " + entry);
+            }
+            rates.put(entry.substring(0, separator).trim(), Double.parseDouble(entry.substring(separator + 1).trim()));
+        }
+        return rates;
+    }
+
+    /**
+     * Log-normal latency with the given median and 99th percentile, the long right tail network and service latency
+     * usually shows. Equal median and p99 give a constant delay.
+     */
+    public record Latency(Duration median, Duration p99) {
+
+        // 99th percentile of the standard normal distribution
+        private static final double Z_99 = 2.326;
+
+        public static final Latency NONE = new Latency(Duration.ZERO, Duration.ZERO);
+
+        public Latency {
+            if (median.isNegative() || p99.compareTo(median) < 0) {
+                throw new IllegalArgumentException("Latency needs 0 <= median <= p99, got " + median + " and " + p99);
+            }
+        }
+
+        long sampleNanos(Random random) {
+            if (median.isZero()) {
+                return 0;
+            }
+            double sigma = Math.log((double) p99.toNanos() / median.toNanos()) / Z_99;
+            return (long) (median.toNanos() * Math.exp(sigma * random.nextGaussian()));
+        }
+    }
+}
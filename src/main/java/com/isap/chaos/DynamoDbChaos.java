@@ -0,0 +1,69 @@
+package com.isap.chaos;
+
+import io.micrometer.core.instrument.Metrics;
+import io.quarkus.arc.Unremovable;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Execution interceptor of the DynamoDB client, registered with {@code quarkus.dynamodb.interceptors}, that hands every
+ * call to a {@link ChaosInterceptor} when {@code poll.chaos.enabled} is set, as in the {@code chaos} profile, and
+ * leaves calls alone otherwise. Meant for benchmarking retries, caching and batching against DynamoDB Local, never for
+ * a real table.
+ */
+@Slf4j
+@Unremovable  // Only looked up by the DynamoDB extension, never injected
+@ApplicationScoped
+public class DynamoDbChaos implements ExecutionInterceptor {
+
+    private final ChaosInterceptor interceptor;
+
+    @Inject
+    public DynamoDbChaos(@ConfigProperty(name = "poll.chaos.enabled", defaultValue = "false") boolean enabled,
+                         @ConfigProperty(name = "poll.chaos.latency.median", defaultValue = "0ms") Duration median,
+                         @ConfigProperty(name = "poll.chaos.latency.p99", defaultValue = "0ms") Duration p99,
+                         @ConfigProperty(name = "poll.chaos.latency.operations") Optional<List<String>> latencies,
+                         @ConfigProperty(name = "poll.chaos.failure-rate", defaultValue = "0") double failureRate,
+                         @ConfigProperty(name = "poll.chaos.failure-rates") Optional<List<String>> failureRates,
+                         @ConfigProperty(name = "poll.chaos.partitions", defaultValue = "4") int partitions,
+                         @ConfigProperty(name = "poll.chaos.partition.read-units", defaultValue = "3000") double readUnits,
+                         @ConfigProperty(name = "poll.chaos.partition.write-units", defaultValue = "1000") double writeUnits) {
+        if (!enabled) {
+            this.interceptor = null;
+            return;
+        }
+        ChaosSettings settings = new ChaosSettings(new ChaosSettings.Latency(median, p99),
+                ChaosSettings.parseLatencies(latencies.orElse(List.of())), failureRate,
+                ChaosSettings.parseFailureRates(failureRates.orElse(List.of())), partitions, readUnits, writeUnits);
+        log.warn("Injecting DynamoDB faults: {}", settings);
+        this.interceptor = new ChaosInterceptor(settings, Metrics.globalRegistry);
+    }
+
+    @Override
+    public SdkRequest modifyRequest(Context.ModifyRequest context, ExecutionAttributes attributes) {
+        return interceptor == null ? context.request() : interceptor.modifyRequest(context, attributes);
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes attributes) {
+        if (interceptor != null) {
+            interceptor.beforeTransmission(context, attributes);
+        }
+    }
+
+    @Override
+    public SdkResponse modifyResponse(Context.ModifyResponse context, ExecutionAttributes attributes) {
+        return interceptor == null ? context.response() : interceptor.modifyResponse(context, attributes);
+    }
+}
@@ -0,0 +1,66 @@
+package com.isap.codec;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.isap.domain.Option.SK_OPTION;
+import static com.isap.domain.Poll.SK_POLL;
+import static com.isap.domain.Vote.SK_VOTE;
+
+/**
+ * Attribute names and the attribute values every item of a kind shares. AttributeValue is immutable, so one
+ * instance of each constant is reused across items, keys and expression values.
+ */
+public final class Attributes {
+
+    public static final String PK = "PK";
+    public static final String SK = "SK";
+    public static final String GSI1PK = "GSI1PK";
+    public static final String GSI1SK = "GSI1SK";
+    public static final String GSI2PK = "GSI2PK";
+    public static final String GSI2SK = "GSI2SK";
+    public static final String GSI3PK = "GSI3PK";
+    public static final String GSI3SK = "GSI3SK";
+
+    public static final AttributeValue POLL = AttributeValue.fromS(SK_POLL);
+    public static final AttributeValue OPTION = AttributeValue.fromS(SK_OPTION);
+    public static final AttributeValue VOTE = AttributeValue.fromS(SK_VOTE);
+    public static final AttributeValue ZERO = AttributeValue.fromN("0");
+    public static final AttributeValue ONE = AttributeValue.fromN("1");
+
+    private Attributes() {
+    }
+
+    public static AttributeValue s(String value) {
+        return AttributeValue.fromS(value);
+    }
+
+    public static AttributeValue n(long value) {
+        return value == 0 ? ZERO : value == 1 ? ONE : AttributeValue.fromN(Long.toString(value));
+    }
+
+    public static AttributeValue epochMillis(Instant instant) {
+        return n(instant.toEpochMilli());
+    }
+
+    public static Instant instant(AttributeValue epochMillis) {
+        return epochMillis == null ? null : Instant.ofEpochMilli(Long.parseLong(epochMillis.n()));
+    }
+
+    public static Map<String, AttributeValue> key(String pk, AttributeValue sk) {
+        Map<String, AttributeValue> key = newItem(2);
+        key.put(PK, s(pk));
+        key.put(SK, sk);
+        return key;
+    }
+
+    /**
+     * A HashMap that holds {@code attributes} entries without resizing.
+     */
+    static <V> Map<String, V> newItem(int attributes) {
+        return new HashMap<>((int) (attributes / 0.75f) + 1);
+    }
+}
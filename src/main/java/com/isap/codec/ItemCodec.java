@@ -0,0 +1,28 @@
+package com.isap.codec;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps a domain record to and from its DynamoDB item without reflection.
+ */
+public interface ItemCodec<T> {
+
+    Map<String, AttributeValue> encode(T value);
+
+    T decode(Map<String, AttributeValue> item);
+
+    /**
+     * Decodes items in one pass into a list sized up front.
+     */
+    default List<T> decodeAll(List<Map<String, AttributeValue>> items) {
+        List<T> values = new ArrayList<>(items.size());
+        for (Map<String, AttributeValue> item : items) {
+            values.add(decode(item));
+        }
+        return values;
+    }
+}
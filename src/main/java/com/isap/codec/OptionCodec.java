@@ -0,0 +1,49 @@
+package com.isap.codec;
+
+import com.isap.domain.Option;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+import static com.isap.codec.Attributes.*;
+
+public final class OptionCodec implements ItemCodec<Option> {
+
+    public static final OptionCodec INSTANCE = new OptionCodec();
+
+    private OptionCodec() {
+    }
+
+    /**
+     * The returned map is mutable and has room for one more attribute, such as the poll's endsAt.
+     */
+    @Override
+    public Map<String, AttributeValue> encode(Option option) {
+        AttributeValue pollId = s(option.pollId());
+
+        Map<String, AttributeValue> item = newItem(8);
+        item.put(PK, s(option.optionId()));
+        item.put(SK, OPTION);
+        item.put(GSI1PK, pollId);
+        item.put(GSI1SK, OPTION);
+        item.put("pollId", pollId);
+        item.put("text", s(option.text()));
+        item.put("votes", n(option.votes()));
+        return item;
+    }
+
+    /**
+     * Reads pollId from the pollId attribute, falling back to GSI1PK which always holds the same value.
+     */
+    @Override
+    public Option decode(Map<String, AttributeValue> item) {
+        AttributeValue pollId = item.get("pollId");
+        if (pollId == null) {
+            pollId = item.get(GSI1PK);
+        }
+        AttributeValue votes = item.get("votes");
+
+        return new Option(item.get(PK).s(), pollId == null ? null : pollId.s(), item.get("text").s(),
+                votes == null ? 0 : Integer.parseInt(votes.n()));
+    }
+}
@@ -0,0 +1,77 @@
+package com.isap.codec;
+
+import com.isap.domain.Poll;
+import com.isap.listing.PollBuckets;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+import static com.isap.codec.Attributes.*;
+
+public final class PollCodec implements ItemCodec<Poll> {
+
+    public static final PollCodec INSTANCE = new PollCodec();
+
+    private PollCodec() {
+    }
+
+    @Override
+    public Map<String, AttributeValue> encode(Poll poll) {
+        Map<String, AttributeValue> options = newItem(poll.options().size());
+        for (Map.Entry<String, String> option : poll.options().entrySet()) {
+            options.put(option.getKey(), s(option.getValue()));
+        }
+
+        Map<String, AttributeValue> item = newItem(10);
+        item.put(PK, s(poll.pollId()));
+        item.put(SK, POLL);
+        item.put("question", s(poll.question()));
+        item.put("options", AttributeValue.fromM(options));
+        if (poll.endsAt() != null) {
+            item.put("endsAt", epochMillis(poll.endsAt()));
+        }
+        if (poll.closedAt() != null) {
+            item.put("closedAt", epochMillis(poll.closedAt()));
+        }
+        if (poll.finalResults() != null) {
+            item.put("finalResults", encodeCounts(poll.finalResults()));
+        }
+        if (poll.createdAt() != null) {
+            // Sparse: only polls with a creation time are on the listing index
+            item.put("createdAt", epochMillis(poll.createdAt()));
+            item.put(GSI3PK, s(PollBuckets.partition(poll.createdAt(), poll.pollId())));
+            item.put(GSI3SK, s(PollBuckets.sortKey(poll.createdAt(), poll.pollId())));
+        }
+        return item;
+    }
+
+    @Override
+    public Poll decode(Map<String, AttributeValue> item) {
+        Map<String, AttributeValue> encodedOptions = item.get("options").m();
+        Map<String, String> options = newItem(encodedOptions.size());
+        for (Map.Entry<String, AttributeValue> option : encodedOptions.entrySet()) {
+            options.put(option.getKey(), option.getValue().s());
+        }
+
+        AttributeValue finalResults = item.get("finalResults");
+        return new Poll(item.get(PK).s(), item.get("question").s(), options,
+                instant(item.get("endsAt")), instant(item.get("closedAt")),
+                finalResults == null ? null : decodeCounts(finalResults), instant(item.get("createdAt")));
+    }
+
+    public static AttributeValue encodeCounts(Map<String, Integer> counts) {
+        Map<String, AttributeValue> encoded = newItem(counts.size());
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            encoded.put(count.getKey(), n(count.getValue()));
+        }
+        return AttributeValue.fromM(encoded);
+    }
+
+    public static Map<String, Integer> decodeCounts(AttributeValue counts) {
+        Map<String, Integer> decoded = newItem(counts.m().size());
+        for (Map.Entry<String, AttributeValue> count : counts.m().entrySet()) {
+            decoded.put(count.getKey(), Integer.parseInt(count.getValue().n()));
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,42 @@
+package com.isap.codec;
+
+import com.isap.domain.Vote;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+import static com.isap.codec.Attributes.*;
+import static com.isap.domain.Vote.GSI1SK_VOTE_PREFIX;
+
+public final class VoteCodec implements ItemCodec<Vote> {
+
+    public static final VoteCodec INSTANCE = new VoteCodec();
+
+    private VoteCodec() {
+    }
+
+    @Override
+    public Map<String, AttributeValue> encode(Vote vote) {
+        AttributeValue pollId = s(vote.pollId());
+        AttributeValue optionId = s(vote.optionId());
+
+        Map<String, AttributeValue> item = newItem(9);
+        item.put(PK, s(vote.voteId()));
+        item.put(SK, VOTE);
+        item.put(GSI1PK, pollId);
+        item.put(GSI1SK, s(GSI1SK_VOTE_PREFIX + vote.voteId()));
+        item.put(GSI2PK, optionId);
+        item.put(GSI2SK, OPTION);
+        item.put("pollId", pollId);
+        item.put("optionId", optionId);
+        item.put("timestamp", s(vote.timestamp()));
+        return item;
+    }
+
+    @Override
+    public Vote decode(Map<String, AttributeValue> item) {
+        AttributeValue timestamp = item.get("timestamp");
+        return new Vote(item.get(PK).s(), item.get("pollId").s(), item.get("optionId").s(),
+                timestamp == null ? null : timestamp.s());
+    }
+}
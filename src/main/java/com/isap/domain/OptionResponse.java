@@ -1,16 +1,12 @@
 package com.isap.domain;
 
-import lombok.AllArgsConstructor;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
+/**
+ * A poll option as returned to clients.
+ * voteCount is null when the option comes from the poll definition rather than the tallies.
+ */
+public record OptionResponse(String optionId, String text, Integer voteCount) {
 
-@Getter
-@Setter
-@NoArgsConstructor
-@AllArgsConstructor
-public class OptionResponse {
-    private String optionId;
-    private String text;
-    private int voteCount;
+    public static OptionResponse fromOption(Option option) {
+        return new OptionResponse(option.optionId(), option.text(), option.votes());
+    }
 }
@@ -1,41 +1,45 @@
 package com.isap.domain;
 
+import com.isap.codec.PollCodec;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
+import java.time.Instant;
 import java.util.Map;
-import java.util.stream.Collectors;
 
-public record Poll(String pollId, String question, Map<String, String> options) {
+/**
+ * @param endsAt       when voting stops on its own, or null for polls that stay open until closed.
+ * @param closedAt     when the poll was closed and its results frozen, or null while it is open.
+ * @param finalResults vote count per option ID, written when the poll is closed.
+ * @param createdAt    when the poll was created, or null for polls created before it was recorded. Only polls with
+ *                     it are listed by {@code GET /poll/list}.
+ */
+public record Poll(String pollId, String question, Map<String, String> options,
+                   Instant endsAt, Instant closedAt, Map<String, Integer> finalResults, Instant createdAt) {
 
     public static final String SK_POLL = "poll";
 
+    public Poll(String pollId, String question, Map<String, String> options) {
+        this(pollId, question, options, null, null, null);
+    }
+
+    public Poll(String pollId, String question, Map<String, String> options,
+                Instant endsAt, Instant closedAt, Map<String, Integer> finalResults) {
+        this(pollId, question, options, endsAt, closedAt, finalResults, null);
+    }
+
+    public boolean isClosed(Instant now) {
+        return closedAt != null || (endsAt != null && !now.isBefore(endsAt));
+    }
+
     public Map<String, AttributeValue> toDynamoDbItem() {
-        Map<String, AttributeValue> optionsMap = options.entrySet().stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        entry -> AttributeValue.builder().s(entry.getValue()).build()
-                ));
-
-        return Map.of(
-                "PK", AttributeValue.builder().s(pollId).build(),
-                "SK", AttributeValue.builder().s(SK_POLL).build(),
-                "question", AttributeValue.builder().s(question).build(),
-                "options", AttributeValue.builder().m(optionsMap).build()
-        );
+        return PollCodec.INSTANCE.encode(this);
+    }
+
+    public static AttributeValue finalResultsAttribute(Map<String, Integer> finalResults) {
+        return PollCodec.encodeCounts(finalResults);
     }
 
     public static Poll fromDynamoDbItem(Map<String, AttributeValue> item) {
-        String pollId = item.get("PK").s();
-        String question = item.get("question").s();
-
-        Map<String, String> options = item.get("options").m()
-                .entrySet()
-                .stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        entry -> entry.getValue().s()
-                ));
-
-        return new Poll(pollId, question, options);
+        return PollCodec.INSTANCE.decode(item);
     }
 }
@@ -0,0 +1,13 @@
+package com.isap.domain;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One page of polls, newest first.
+ *
+ * @param nextCursor opaque position after the last poll of the page, or null when there are no older polls.
+ * @param readAt     when the page was read, for telling which polls are closed.
+ */
+public record PollPage(List<Poll> polls, String nextCursor, Instant readAt) {
+}
@@ -1,17 +1,26 @@
 package com.isap.domain;
 
-import lombok.AllArgsConstructor;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
-
 import java.util.List;
 
-@Getter
-@Setter
-@NoArgsConstructor
-@AllArgsConstructor
-public class PollRequest {
-    private String question;
-    private List<String> options;
+/**
+ * Body of POST /poll/create, parsed by {@link com.isap.json.PollRequestReader}.
+ * @param endsAt optional ISO-8601 instant after which no more votes are accepted.
+ * @param type   optional; {@value #TYPE_RANKED} for a poll taking ranked ballots, otherwise {@value #TYPE_SINGLE}.
+ */
+public record PollRequest(String question, List<String> options, String endsAt, String type) {
+
+    public static final String TYPE_SINGLE = "single";
+    public static final String TYPE_RANKED = "ranked";
+
+    public PollRequest(String question, List<String> options, String endsAt) {
+        this(question, options, endsAt, null);
+    }
+
+    public PollRequest(String question, List<String> options) {
+        this(question, options, null);
+    }
+
+    public boolean ranked() {
+        return TYPE_RANKED.equals(type);
+    }
 }
@@ -1,18 +1,25 @@
 package com.isap.domain;
 
-import lombok.AllArgsConstructor;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
-
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+
+/**
+ * @param endsAt when voting stops on its own, or null if the poll has no end time.
+ */
+public record PollResponse(String pollId, String question, List<OptionResponse> options, Instant endsAt, boolean closed) {
+
+    public PollResponse(String pollId, String question, List<OptionResponse> options) {
+        this(pollId, question, options, null, false);
+    }
+
+    public static PollResponse fromPoll(Poll poll) {
+        List<OptionResponse> options = new ArrayList<>(poll.options().size());
+        for (Map.Entry<String, String> entry : poll.options().entrySet()) {
+            options.add(new OptionResponse(entry.getKey(), entry.getValue(), null));
+        }
 
-@Getter
-@Setter
-@NoArgsConstructor
-@AllArgsConstructor
-public class PollResponse {
-    private String pollId;
-    private String question;
-    private List<OptionResponse> options;
+        return new PollResponse(poll.pollId(), poll.question(), options, poll.endsAt(), poll.isClosed(Instant.now()));
+    }
 }
@@ -0,0 +1,50 @@
+package com.isap.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @param closed true when these are the frozen final results of a closed poll.
+ * @param uniqueVoters estimated number of distinct voter ids, or null when unknown.
+ */
+public record PollResults(String pollId, List<OptionResponse> options, boolean closed, Long uniqueVoters) {
+
+    public PollResults(String pollId, List<OptionResponse> options, boolean closed) {
+        this(pollId, options, closed, null);
+    }
+
+    public PollResults(String pollId, List<OptionResponse> options) {
+        this(pollId, options, false);
+    }
+
+    public PollResults withUniqueVoters(long estimate) {
+        return new PollResults(pollId, options, closed, estimate);
+    }
+
+    public static PollResults fromOptions(String pollId, List<Option> options) {
+        List<OptionResponse> results = new ArrayList<>(options.size());
+        for (Option option : options) {
+            results.add(OptionResponse.fromOption(option));
+        }
+
+        return new PollResults(pollId, results);
+    }
+
+    public static PollResults fromFinalResults(Poll poll, Map<String, Integer> finalResults) {
+        List<OptionResponse> results = new ArrayList<>(poll.options().size());
+        for (Map.Entry<String, String> option : poll.options().entrySet()) {
+            results.add(new OptionResponse(option.getKey(), option.getValue(), finalResults.getOrDefault(option.getKey(), 0)));
+        }
+
+        return new PollResults(poll.pollId(), results, true);
+    }
+
+    public long totalVotes() {
+        long total = 0;
+        for (OptionResponse option : options) {
+            total += option.voteCount();
+        }
+        return total;
+    }
+}
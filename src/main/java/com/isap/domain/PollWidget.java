@@ -0,0 +1,57 @@
+package com.isap.domain;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Poll definition and results in one response, for rendering a poll widget with a single request.
+ *
+ * @param question null when the poll item could not be read; the options then come from the option items.
+ * @param options  option texts with vote counts and percentages; counts and percentages are null when the options
+ *                 could not be read.
+ * @param degraded the parts that could not be read, {@value #POLL} and/or {@value #RESULTS}; empty when complete.
+ */
+public record PollWidget(String pollId, String question, List<Option> options, Instant endsAt, boolean closed,
+                         Long totalVotes, List<String> degraded) {
+
+    public static final String POLL = "poll";
+    public static final String RESULTS = "results";
+
+    /**
+     * @param percentage share of all votes with one decimal; the percentages of a poll add up to exactly 100.
+     */
+    public record Option(String optionId, String text, Integer voteCount, Double percentage) {
+    }
+
+    /**
+     * Shares of the counts in tenths of a percent, rounded so they add up to 1000 (largest remainder first).
+     */
+    public static int[] tenthsOfPercent(int[] counts) {
+        long total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        int[] tenths = new int[counts.length];
+        if (total == 0) {
+            return tenths;
+        }
+
+        long[] remainders = new long[counts.length];
+        int assigned = 0;
+        for (int i = 0; i < counts.length; i++) {
+            tenths[i] = (int) (counts[i] * 1000L / total);
+            remainders[i] = counts[i] * 1000L % total;
+            assigned += tenths[i];
+        }
+        List<Integer> order = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            order.add(i);
+        }
+        order.sort((a, b) -> Long.compare(remainders[b], remainders[a]));
+        for (int i = 0; assigned < 1000; i++, assigned++) {
+            tenths[order.get(i)]++;
+        }
+        return tenths;
+    }
+}
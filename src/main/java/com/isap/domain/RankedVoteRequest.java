@@ -0,0 +1,10 @@
+package com.isap.domain;
+
+import java.util.List;
+
+/**
+ * Body of POST /poll/ranked/vote, parsed by {@link com.isap.json.RankedVoteRequestReader}.
+ * @param ranking optionIds in order of preference; options left out are ranked below all listed ones.
+ */
+public record RankedVoteRequest(String pollId, List<String> ranking) {
+}
@@ -1,28 +1,31 @@
 package com.isap.domain;
 
+import com.isap.codec.VoteCodec;
+import com.isap.utils.Ulid;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
 import java.time.Instant;
 import java.util.Map;
-import java.util.UUID;
-
-import static com.isap.domain.Option.SK_OPTION;
 
+/**
+ * @param voteId    a ULID, so votes sort by time on GSI1.
+ * @param timestamp ISO-8601 instant the vote was cast, matching the time of the voteId.
+ */
 public record Vote(String voteId, String pollId, String optionId, String timestamp) {
 
     public static final String SK_VOTE = "vote";
+    // GSI1SK of a vote is this prefix followed by the voteId; votes written before ULIDs have GSI1SK = "vote"
+    public static final String GSI1SK_VOTE_PREFIX = SK_VOTE + "#";
+
+    public static Vote create(String pollId, String optionId, Instant now) {
+        return new Vote(Ulid.next(now), pollId, optionId, now.toString());
+    }
 
     public Map<String, AttributeValue> toDynamoDbItem() {
-        return Map.of(
-                "PK", AttributeValue.builder().s(UUID.randomUUID().toString()).build(),
-                "SK", AttributeValue.builder().s(SK_VOTE).build(),
-                "GSI1PK", AttributeValue.builder().s(pollId).build(),
-                "GSI1SK", AttributeValue.builder().s(SK_VOTE).build(),
-                "GSI2PK", AttributeValue.builder().s(optionId).build(),
-                "GSI2SK", AttributeValue.builder().s(SK_OPTION).build(),
-                "pollId", AttributeValue.builder().s(pollId).build(),
-                "optionId", AttributeValue.builder().s(optionId).build(),
-                "timestamp", AttributeValue.builder().s(Instant.now().toString()).build()
-        );
+        return VoteCodec.INSTANCE.encode(this);
+    }
+
+    public static Vote fromDynamoDbItem(Map<String, AttributeValue> item) {
+        return VoteCodec.INSTANCE.decode(item);
     }
 }
@@ -1,15 +1,13 @@
 package com.isap.domain;
 
-import lombok.AllArgsConstructor;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
+/**
+ * Body of POST /poll/vote, parsed by {@link com.isap.json.VoteRequestReader}.
+ *
+ * @param voterId optional; when present the voter is counted in the poll's unique voter estimate.
+ */
+public record VoteRequest(String pollId, String optionId, String voterId) {
 
-@Getter
-@Setter
-@NoArgsConstructor
-@AllArgsConstructor
-public class VoteRequest {
-    private String pollId;
-    private String optionId;
+    public VoteRequest(String pollId, String optionId) {
+        this(pollId, optionId, null);
+    }
 }
@@ -0,0 +1,13 @@
+package com.isap.domain;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+/**
+ * Vote items for a poll, serialized straight from the DynamoDB items by
+ * {@link com.isap.json.VotesResponseWriter} without building a map per vote. The items may be read from DynamoDB
+ * page by page as they are iterated, so they can be iterated only once.
+ */
+public record VotesResponse(Iterable<Map<String, AttributeValue>> items) {
+}
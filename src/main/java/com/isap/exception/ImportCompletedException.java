@@ -0,0 +1,10 @@
+package com.isap.exception;
+
+public class ImportCompletedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ImportCompletedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.isap.exception;
+
+public class PollClosedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PollClosedException(String message) {
+        super(message);
+    }
+
+    public PollClosedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,21 @@
+package com.isap.exception;
+
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * A request body that was malformed or over a limit, answered with the given status and the message as plain text.
+ */
+public class RequestRejectedException extends WebApplicationException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RequestRejectedException(String message, Response.Status status) {
+        super(message, Response.status(status).entity(message).type(MediaType.TEXT_PLAIN).build());
+    }
+
+    public RequestRejectedException(String message, Response.Status status, Throwable cause) {
+        super(message, cause, Response.status(status).entity(message).type(MediaType.TEXT_PLAIN).build());
+    }
+}
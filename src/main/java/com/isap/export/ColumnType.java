@@ -0,0 +1,15 @@
+package com.isap.export;
+
+/**
+ * How the values of a column are encoded inside a row group. Every column may hold nulls.
+ */
+public enum ColumnType {
+    /** Strings replaced by varint indexes into a dictionary written per row group. */
+    DICTIONARY,
+    /** Strings written inline as length-prefixed UTF-8. */
+    STRING,
+    /** Epoch millis written as zigzag varint deltas from the previous value in the row group. */
+    TIMESTAMP,
+    /** Longs written as zigzag varints. */
+    LONG
+}
@@ -0,0 +1,177 @@
+package com.isap.export;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads files written by {@link ColumnarFileWriter} one row group at a time.
+ */
+public class ColumnarFileReader implements Closeable {
+
+    private final DataInputStream in;
+    private final ColumnarSchema schema;
+    private Object[][] columns;
+    private int groupSize;
+    private int position;
+    private boolean finished;
+
+    public ColumnarFileReader(Path file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file), 64 * 1024)));
+        try {
+            this.schema = readHeader();
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    public ColumnarSchema schema() {
+        return schema;
+    }
+
+    /**
+     * @return the values of the next row in schema column order, or null at the end of the file.
+     */
+    public Object[] next() throws IOException {
+        if (position == groupSize) {
+            if (finished || !readRowGroup()) {
+                return null;
+            }
+        }
+
+        Object[] row = new Object[columns.length];
+        for (int column = 0; column < columns.length; column++) {
+            row[column] = columns[column][position];
+        }
+        position++;
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private ColumnarSchema readHeader() throws IOException {
+        byte[] magic = new byte[ColumnarFileWriter.MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, ColumnarFileWriter.MAGIC)) {
+            throw new IOException("Not a columnar export file");
+        }
+        int version = in.readUnsignedByte();
+        if (version != ColumnarFileWriter.VERSION) {
+            throw new IOException("Unsupported columnar export version " + version);
+        }
+
+        String name = Varints.readString(in);
+        int columnCount = Varints.readCount(in);
+        ColumnType[] types = ColumnType.values();
+        List<ColumnarSchema.Column> columnList = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            String columnName = Varints.readString(in);
+            int type = in.readUnsignedByte();
+            if (type >= types.length) {
+                throw new IOException("Unknown column type " + type);
+            }
+            columnList.add(new ColumnarSchema.Column(columnName, types[type]));
+        }
+        return new ColumnarSchema(name, List.copyOf(columnList), (int) Varints.readSigned(in));
+    }
+
+    private boolean readRowGroup() throws IOException {
+        groupSize = Varints.readCount(in);
+        position = 0;
+        if (groupSize == 0) {
+            finished = true;
+            return false;
+        }
+
+        columns = new Object[schema.columns().size()][];
+        for (int column = 0; column < columns.length; column++) {
+            boolean[] present = readPresence();
+            columns[column] = switch (schema.columns().get(column).type()) {
+                case DICTIONARY -> readDictionaryColumn(present);
+                case STRING -> readStringColumn(present);
+                case TIMESTAMP -> readTimestampColumn(present);
+                case LONG -> readLongColumn(present);
+            };
+        }
+        return true;
+    }
+
+    /**
+     * @return which rows have a value, or null when all of them do.
+     */
+    private boolean[] readPresence() throws IOException {
+        if (in.readUnsignedByte() == 0) {
+            return null;
+        }
+
+        byte[] bitmap = new byte[(groupSize + 7) / 8];
+        in.readFully(bitmap);
+        boolean[] present = new boolean[groupSize];
+        for (int row = 0; row < groupSize; row++) {
+            present[row] = (bitmap[row >>> 3] & (1 << (row & 7))) != 0;
+        }
+        return present;
+    }
+
+    private Object[] readDictionaryColumn(boolean[] present) throws IOException {
+        String[] dictionary = new String[Varints.readCount(in)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = Varints.readString(in);
+        }
+
+        Object[] values = new Object[groupSize];
+        for (int row = 0; row < groupSize; row++) {
+            if (present == null || present[row]) {
+                int index = Varints.readCount(in);
+                if (index >= dictionary.length) {
+                    throw new IOException("Corrupt file: dictionary index " + index + " out of range");
+                }
+                values[row] = dictionary[index];
+            }
+        }
+        return values;
+    }
+
+    private Object[] readStringColumn(boolean[] present) throws IOException {
+        Object[] values = new Object[groupSize];
+        for (int row = 0; row < groupSize; row++) {
+            if (present == null || present[row]) {
+                values[row] = Varints.readString(in);
+            }
+        }
+        return values;
+    }
+
+    private Object[] readTimestampColumn(boolean[] present) throws IOException {
+        Object[] values = new Object[groupSize];
+        long previous = 0;
+        for (int row = 0; row < groupSize; row++) {
+            if (present == null || present[row]) {
+                previous += Varints.readSigned(in);
+                values[row] = previous;
+            }
+        }
+        return values;
+    }
+
+    private Object[] readLongColumn(boolean[] present) throws IOException {
+        Object[] values = new Object[groupSize];
+        for (int row = 0; row < groupSize; row++) {
+            if (present == null || present[row]) {
+                values[row] = Varints.readSigned(in);
+            }
+        }
+        return values;
+    }
+}
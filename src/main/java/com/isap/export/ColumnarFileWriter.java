@@ -0,0 +1,186 @@
+package com.isap.export;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes rows to a GZIP compressed columnar file, buffering at most one row group in memory.
+ *
+ * <pre>
+ * file      := "PCOL" version:u8 schema rowGroup* 0:varint
+ * schema    := name:string columnCount:varint (name:string type:u8)* sortColumn:zigzag
+ * rowGroup  := rowCount:varint column*
+ * column    := hasNulls:u8 [presence bitmap, one bit per row] values of the present rows
+ * </pre>
+ *
+ * Values are encoded as described by {@link ColumnType}. Rows of a schema with a sort column are sorted within
+ * each row group, so timestamp deltas stay small.
+ */
+public class ColumnarFileWriter implements Closeable {
+
+    static final byte[] MAGIC = {'P', 'C', 'O', 'L'};
+    static final int VERSION = 1;
+
+    private final ColumnarSchema schema;
+    private final Object[][] rows;
+    private final DataOutputStream out;
+    private int buffered;
+    private long rowsWritten;
+
+    public ColumnarFileWriter(Path file, ColumnarSchema schema, int rowGroupSize) throws IOException {
+        if (rowGroupSize <= 0) {
+            throw new IllegalArgumentException("rowGroupSize must be positive");
+        }
+        this.schema = schema;
+        this.rows = new Object[rowGroupSize][];
+        this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file), 64 * 1024)));
+        writeHeader();
+    }
+
+    /**
+     * @param row one value per column: a String for string columns, a Long for timestamp and long columns, or null.
+     */
+    public void write(Object... row) throws IOException {
+        if (row.length != schema.columns().size()) {
+            throw new IllegalArgumentException("Expected " + schema.columns().size() + " values but got " + row.length);
+        }
+        rows[buffered++] = row;
+        if (buffered == rows.length) {
+            flushRowGroup();
+        }
+    }
+
+    public long rowsWritten() {
+        return rowsWritten + buffered;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushRowGroup();
+            Varints.writeUnsigned(out, 0);
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        Varints.writeString(out, schema.name());
+        Varints.writeUnsigned(out, schema.columns().size());
+        for (ColumnarSchema.Column column : schema.columns()) {
+            Varints.writeString(out, column.name());
+            out.writeByte(column.type().ordinal());
+        }
+        Varints.writeSigned(out, schema.sortColumn());
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (buffered == 0) {
+            return;
+        }
+
+        if (schema.sortColumn() >= 0) {
+            int sortColumn = schema.sortColumn();
+            Arrays.sort(rows, 0, buffered, Comparator.comparing((Object[] row) -> (Long) row[sortColumn],
+                    Comparator.nullsLast(Comparator.naturalOrder())));
+        }
+
+        Varints.writeUnsigned(out, buffered);
+        for (int column = 0; column < schema.columns().size(); column++) {
+            writePresence(column);
+            switch (schema.columns().get(column).type()) {
+                case DICTIONARY -> writeDictionaryColumn(column);
+                case STRING -> writeStringColumn(column);
+                case TIMESTAMP -> writeTimestampColumn(column);
+                case LONG -> writeLongColumn(column);
+            }
+        }
+
+        Arrays.fill(rows, 0, buffered, null);
+        rowsWritten += buffered;
+        buffered = 0;
+    }
+
+    private void writePresence(int column) throws IOException {
+        byte[] bitmap = new byte[(buffered + 7) / 8];
+        boolean hasNulls = false;
+        for (int row = 0; row < buffered; row++) {
+            if (rows[row][column] != null) {
+                bitmap[row >>> 3] |= (byte) (1 << (row & 7));
+            } else {
+                hasNulls = true;
+            }
+        }
+
+        out.writeByte(hasNulls ? 1 : 0);
+        if (hasNulls) {
+            out.write(bitmap);
+        }
+    }
+
+    private void writeDictionaryColumn(int column) throws IOException {
+        Map<String, Integer> dictionary = new HashMap<>();
+        String[] entries = new String[buffered];
+        int[] indexes = new int[buffered];
+        int present = 0;
+        for (int row = 0; row < buffered; row++) {
+            String value = (String) rows[row][column];
+            if (value != null) {
+                Integer index = dictionary.putIfAbsent(value, dictionary.size());
+                if (index == null) {
+                    index = dictionary.size() - 1;
+                    entries[index] = value;
+                }
+                indexes[present++] = index;
+            }
+        }
+
+        Varints.writeUnsigned(out, dictionary.size());
+        for (int i = 0; i < dictionary.size(); i++) {
+            Varints.writeString(out, entries[i]);
+        }
+        for (int i = 0; i < present; i++) {
+            Varints.writeUnsigned(out, indexes[i]);
+        }
+    }
+
+    private void writeStringColumn(int column) throws IOException {
+        for (int row = 0; row < buffered; row++) {
+            String value = (String) rows[row][column];
+            if (value != null) {
+                Varints.writeString(out, value);
+            }
+        }
+    }
+
+    private void writeTimestampColumn(int column) throws IOException {
+        long previous = 0;
+        for (int row = 0; row < buffered; row++) {
+            Long value = (Long) rows[row][column];
+            if (value != null) {
+                Varints.writeSigned(out, value - previous);
+                previous = value;
+            }
+        }
+    }
+
+    private void writeLongColumn(int column) throws IOException {
+        for (int row = 0; row < buffered; row++) {
+            Long value = (Long) rows[row][column];
+            if (value != null) {
+                Varints.writeSigned(out, value);
+            }
+        }
+    }
+}
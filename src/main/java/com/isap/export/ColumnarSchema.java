@@ -0,0 +1,44 @@
+package com.isap.export;
+
+import java.util.List;
+
+/**
+ * Columns of an exported table.
+ *
+ * @param sortColumn index of the column rows are sorted by within each row group, or -1 to keep scan order.
+ */
+public record ColumnarSchema(String name, List<Column> columns, int sortColumn) {
+
+    public static final ColumnarSchema POLLS = new ColumnarSchema("polls", List.of(
+            new Column("pollId", ColumnType.DICTIONARY),
+            new Column("question", ColumnType.STRING),
+            new Column("endsAt", ColumnType.TIMESTAMP),
+            new Column("closedAt", ColumnType.TIMESTAMP)
+    ), -1);
+
+    public static final ColumnarSchema OPTIONS = new ColumnarSchema("options", List.of(
+            new Column("optionId", ColumnType.DICTIONARY),
+            new Column("pollId", ColumnType.DICTIONARY),
+            new Column("text", ColumnType.STRING),
+            new Column("votes", ColumnType.LONG)
+    ), -1);
+
+    public static final ColumnarSchema VOTES = new ColumnarSchema("votes", List.of(
+            new Column("voteId", ColumnType.STRING),
+            new Column("pollId", ColumnType.DICTIONARY),
+            new Column("optionId", ColumnType.DICTIONARY),
+            new Column("timestamp", ColumnType.TIMESTAMP)
+    ), 3);
+
+    public record Column(String name, ColumnType type) {
+    }
+
+    public int columnIndex(String columnName) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).name().equals(columnName)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown column: " + columnName);
+    }
+}
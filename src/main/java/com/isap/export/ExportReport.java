@@ -0,0 +1,19 @@
+package com.isap.export;
+
+import java.util.List;
+
+/**
+ * @param files part files written, relative to directory. Each scan segment writes its own polls, options and
+ *              votes part, so readers can process parts independently.
+ */
+public record ExportReport(String exportId,
+                           String directory,
+                           int segments,
+                           long pollsExported,
+                           long optionsExported,
+                           long votesExported,
+                           long bytesWritten,
+                           double consumedReadUnits,
+                           long durationMillis,
+                           List<String> files) {
+}
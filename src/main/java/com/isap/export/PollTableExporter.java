@@ -0,0 +1,199 @@
+package com.isap.export;
+
+import com.isap.utils.DynamoDbHelper;
+import com.isap.utils.RateLimiter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import static com.isap.domain.Option.SK_OPTION;
+import static com.isap.domain.Poll.SK_POLL;
+import static com.isap.domain.Vote.SK_VOTE;
+
+/**
+ * Exports PollTable to columnar files with a parallel segmented scan.
+ *
+ * Each segment streams its pages straight into its own polls, options and votes part files, so memory is bounded
+ * by one row group per file whatever the table size, and segments never contend on a writer. Reads are throttled
+ * to {@code read-units-per-second} shared by all segments.
+ */
+@Slf4j
+@ApplicationScoped
+public class PollTableExporter {
+
+    static final String FILE_SUFFIX = ".pcol.gz";
+    private static final Pattern EXPORT_ID = Pattern.compile("[A-Za-z0-9._-]{1,128}");
+
+    private final DynamoDbHelper dynamoDbHelper;
+    private final Path directory;
+    private final int segments;
+    private final int rowGroupSize;
+    private final int pageSize;
+    private final double readUnitsPerSecond;
+
+    @Inject
+    public PollTableExporter(DynamoDbHelper dynamoDbHelper,
+                             @ConfigProperty(name = "poll.export.directory", defaultValue = "export") Path directory,
+                             @ConfigProperty(name = "poll.export.segments", defaultValue = "4") int segments,
+                             @ConfigProperty(name = "poll.export.row-group-size", defaultValue = "65536") int rowGroupSize,
+                             @ConfigProperty(name = "poll.export.page-size", defaultValue = "1000") int pageSize,
+                             @ConfigProperty(name = "poll.export.read-units-per-second", defaultValue = "200") double readUnitsPerSecond) {
+        this.dynamoDbHelper = dynamoDbHelper;
+        this.directory = directory;
+        this.segments = segments;
+        this.rowGroupSize = rowGroupSize;
+        this.pageSize = pageSize;
+        this.readUnitsPerSecond = readUnitsPerSecond;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the exportId is not a plain file name or an export with it already exists.
+     */
+    public ExportReport export(String exportId) throws IOException {
+        if (exportId == null || !EXPORT_ID.matcher(exportId).matches() || exportId.startsWith(".")) {
+            throw new IllegalArgumentException("Invalid exportId: " + exportId);
+        }
+        Path exportDirectory = directory.resolve(exportId);
+        if (Files.exists(exportDirectory)) {
+            throw new IllegalArgumentException("Export already exists: " + exportId);
+        }
+        Files.createDirectories(exportDirectory);
+
+        Instant startedAt = Instant.now();
+        RateLimiter rateLimiter = new RateLimiter(readUnitsPerSecond);
+        log.info("Starting export {} to {} with {} segments", exportId, exportDirectory, segments);
+
+        SegmentResult total = new SegmentResult();
+        List<String> tables = dynamoDbHelper.allTables();
+        ExecutorService executor = Executors.newFixedThreadPool(segments);
+        try {
+            List<Future<SegmentResult>> futures = new ArrayList<>(tables.size() * segments);
+            for (int t = 0; t < tables.size(); t++) {
+                for (int segment = 0; segment < segments; segment++) {
+                    String table = tables.get(t);
+                    int current = segment;
+                    int part = t * segments + segment;
+                    futures.add(executor.submit(() -> exportSegment(exportDirectory, table, current, part, rateLimiter)));
+                }
+            }
+            for (Future<SegmentResult> future : futures) {
+                total.merge(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Export interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IllegalStateException("Export failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ExportReport report = new ExportReport(exportId, exportDirectory.toString(), segments, total.polls, total.options,
+                total.votes, total.bytes, total.consumedReadUnits, Duration.between(startedAt, Instant.now()).toMillis(),
+                List.copyOf(total.files));
+        log.info("Export {} finished: {} polls, {} options, {} votes in {} bytes",
+                exportId, report.pollsExported(), report.optionsExported(), report.votesExported(), report.bytesWritten());
+        return report;
+    }
+
+    /**
+     * @param part number of the part files, unique across tables and segments.
+     */
+    private SegmentResult exportSegment(Path exportDirectory, String table, int segment, int part, RateLimiter rateLimiter)
+            throws IOException, InterruptedException {
+        String suffix = String.format("-%05d%s", part, FILE_SUFFIX);
+        List<Path> files = List.of(
+                exportDirectory.resolve(ColumnarSchema.POLLS.name() + suffix),
+                exportDirectory.resolve(ColumnarSchema.OPTIONS.name() + suffix),
+                exportDirectory.resolve(ColumnarSchema.VOTES.name() + suffix));
+
+        SegmentResult result = new SegmentResult();
+        try (ColumnarFileWriter polls = new ColumnarFileWriter(files.get(0), ColumnarSchema.POLLS, rowGroupSize);
+             ColumnarFileWriter options = new ColumnarFileWriter(files.get(1), ColumnarSchema.OPTIONS, rowGroupSize);
+             ColumnarFileWriter votes = new ColumnarFileWriter(files.get(2), ColumnarSchema.VOTES, rowGroupSize)) {
+            Map<String, AttributeValue> startKey = null;
+            do {
+                ScanResponse page = dynamoDbHelper.scanSegment(table, segment, segments, null, null, null, startKey, pageSize);
+                for (Map<String, AttributeValue> item : page.items()) {
+                    String sk = string(item, "SK");
+                    if (SK_VOTE.equals(sk)) {
+                        votes.write(string(item, "PK"), string(item, "pollId"), string(item, "optionId"), timestamp(item));
+                    } else if (SK_OPTION.equals(sk)) {
+                        options.write(string(item, "PK"), string(item, "pollId"), string(item, "text"), number(item, "votes"));
+                    } else if (SK_POLL.equals(sk)) {
+                        polls.write(string(item, "PK"), string(item, "question"), number(item, "endsAt"), number(item, "closedAt"));
+                    }
+                }
+
+                double consumed = page.consumedCapacity() == null ? 0 : page.consumedCapacity().capacityUnits();
+                result.consumedReadUnits += consumed;
+                rateLimiter.acquire(consumed);
+                startKey = page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty() ? page.lastEvaluatedKey() : null;
+            } while (startKey != null);
+
+            result.polls = polls.rowsWritten();
+            result.options = options.rowsWritten();
+            result.votes = votes.rowsWritten();
+        }
+
+        for (Path file : files) {
+            result.bytes += Files.size(file);
+            result.files.add(file.getFileName().toString());
+        }
+        log.debug("Export segment {} of {} in {} done", segment, segments, table);
+        return result;
+    }
+
+    private static String string(Map<String, AttributeValue> item, String name) {
+        AttributeValue value = item.get(name);
+        return value == null ? null : value.s();
+    }
+
+    private static Long number(Map<String, AttributeValue> item, String name) {
+        AttributeValue value = item.get(name);
+        return value == null || value.n() == null ? null : Long.parseLong(value.n());
+    }
+
+    private static Long timestamp(Map<String, AttributeValue> item) {
+        String value = string(item, "timestamp");
+        return value == null ? null : Instant.parse(value).toEpochMilli();
+    }
+
+    private static final class SegmentResult {
+        private final List<String> files = new ArrayList<>();
+        private long polls;
+        private long options;
+        private long votes;
+        private long bytes;
+        private double consumedReadUnits;
+
+        private void merge(SegmentResult other) {
+            files.addAll(other.files);
+            polls += other.polls;
+            options += other.options;
+            votes += other.votes;
+            bytes += other.bytes;
+            consumedReadUnits += other.consumedReadUnits;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.isap.hotkeys;
+
+import com.isap.utils.HyperLogLog;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate per-key counts in fixed memory. Every key increments one counter in each of {@code depth} rows and its
+ * estimate is the smallest of those counters, so estimates never undercount and overcount by at most
+ * {@code e / width} of the total with probability {@code 1 - e^-depth}.
+ *
+ * Counters are updated atomically and without locks; {@link #clear()} racing an {@link #add} may lose that increment,
+ * which only ever lowers an estimate by one.
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final AtomicLongArray counters;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("Sketch depth and width must be positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counters = new AtomicLongArray(depth * width);
+    }
+
+    /**
+     * Adds one occurrence of the key and returns its estimate including this occurrence.
+     */
+    public long add(String key) {
+        long hash = HyperLogLog.hash(key);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    public long estimate(String key) {
+        long hash = HyperLogLog.hash(key);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    public void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    // Row hashes are derived from the two halves of one 64-bit hash (Kirsch-Mitzenmacher)
+    private int index(long hash, int row) {
+        int combined = (int) hash + row * (int) (hash >>> 32);
+        return row * width + Math.floorMod(combined, width);
+    }
+}
@@ -0,0 +1,8 @@
+package com.isap.hotkeys;
+
+/**
+ * @param count     requests for the key over the detection window; may overcount slightly, never undercounts.
+ * @param perSecond {@code count} divided by the window length.
+ */
+public record HotKey(String key, long count, double perSecond, boolean hot) {
+}
@@ -0,0 +1,199 @@
+package com.isap.hotkeys;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Finds the most frequent keys of one request path over a sliding window.
+ *
+ * The window is a ring of count-min sketches, one per bucket; the oldest bucket is cleared as the window slides, and a
+ * key's count is the sum of its estimates over all buckets. Next to the sketches a min-heap holds the {@code topK}
+ * keys with the highest counts seen, so the hottest keys can be listed without remembering every key. A key is hot
+ * while its count over the window reaches {@code thresholdPerSecond} times the window length.
+ *
+ * Publishes {@code poll.hotkeys.detected} (keys becoming hot), {@code poll.hotkeys.hot} (keys hot right now) and
+ * {@code poll.hotkeys.top.rate} (requests per second of the hottest key), all tagged with the path.
+ */
+@Slf4j
+public class HotKeyDetector {
+
+    static final int DEPTH = 4;
+    static final int WIDTH = 2048;
+
+    private final String path;
+    private final CountMinSketch[] buckets;
+    private final long bucketMillis;
+    private final double windowSeconds;
+    private final long threshold;
+    private final int topK;
+    private final LongSupplier clock;
+    private final Counter detected;
+
+    private final PriorityQueue<Candidate> heap = new PriorityQueue<>(Comparator.comparingLong(Candidate::count));
+    private final Map<String, Candidate> candidates = new HashMap<>();
+    // Smallest count in a full heap; keys below it cannot enter, so they skip the lock
+    private volatile long floor;
+    private volatile long epoch;
+
+    public HotKeyDetector(String path, Duration window, int bucketCount, int topK, double thresholdPerSecond,
+                          MeterRegistry registry) {
+        this(path, window, bucketCount, topK, thresholdPerSecond, registry, System::currentTimeMillis);
+    }
+
+    HotKeyDetector(String path, Duration window, int bucketCount, int topK, double thresholdPerSecond,
+                   MeterRegistry registry, LongSupplier clock) {
+        if (bucketCount < 1 || topK < 1 || window.toMillis() < bucketCount) {
+            throw new IllegalArgumentException("Hot key window needs at least one bucket of at least 1ms and topK > 0");
+        }
+        this.path = path;
+        this.buckets = new CountMinSketch[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new CountMinSketch(DEPTH, WIDTH);
+        }
+        this.bucketMillis = window.toMillis() / bucketCount;
+        this.windowSeconds = bucketMillis * bucketCount / 1000.0;
+        this.threshold = Math.max(1, Math.round(thresholdPerSecond * windowSeconds));
+        this.topK = topK;
+        this.clock = clock;
+        this.epoch = clock.getAsLong() / bucketMillis;
+        this.detected = Counter.builder("poll.hotkeys.detected").tag("path", path).register(registry);
+        Gauge.builder("poll.hotkeys.hot", this, detector -> detector.top().stream().filter(HotKey::hot).count())
+                .tag("path", path).register(registry);
+        Gauge.builder("poll.hotkeys.top.rate", this, detector -> detector.top().stream()
+                        .mapToDouble(HotKey::perSecond).findFirst().orElse(0))
+                .tag("path", path).register(registry);
+    }
+
+    /**
+     * Counts one request for the key and returns whether the key is hot, including this request.
+     */
+    public boolean record(String key) {
+        advance();
+        buckets[(int) (epoch % buckets.length)].add(key);
+        long count = count(key);
+        if (count >= floor) {
+            offer(key, count);
+        }
+        return count >= threshold;
+    }
+
+    public boolean isHot(String key) {
+        advance();
+        return count(key) >= threshold;
+    }
+
+    /**
+     * The tracked keys, hottest first.
+     */
+    public List<HotKey> top() {
+        advance();
+        List<HotKey> top = new ArrayList<>();
+        synchronized (this) {
+            for (Candidate candidate : candidates.values()) {
+                top.add(new HotKey(candidate.key, candidate.count, candidate.count / windowSeconds, candidate.hot));
+            }
+        }
+        top.sort(Comparator.comparingLong(HotKey::count).reversed());
+        return top;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    private long count(String key) {
+        long count = 0;
+        for (CountMinSketch bucket : buckets) {
+            count += bucket.estimate(key);
+        }
+        return count;
+    }
+
+    private synchronized void offer(String key, long count) {
+        Candidate candidate = candidates.get(key);
+        if (candidate != null) {
+            heap.remove(candidate);
+            candidate.count = Math.max(candidate.count, count);
+        } else if (candidates.size() < topK) {
+            candidate = new Candidate(key, count);
+            candidates.put(key, candidate);
+        } else if (count > heap.peek().count) {
+            candidates.remove(heap.poll().key);
+            candidate = new Candidate(key, count);
+            candidates.put(key, candidate);
+        } else {
+            return;
+        }
+        heap.add(candidate);
+
+        if (!candidate.hot && candidate.count >= threshold) {
+            candidate.hot = true;
+            detected.increment();
+            log.warn("Hot key on {}: {} with {} requests in the last {}s", path, key, candidate.count, windowSeconds);
+        }
+        updateFloor();
+    }
+
+    // Clears the buckets the window slid past and re-counts the tracked keys, which now cover less time
+    private void advance() {
+        long now = clock.getAsLong() / bucketMillis;
+        if (now <= epoch) {
+            return;
+        }
+        synchronized (this) {
+            long current = epoch;
+            if (now <= current) {
+                return;
+            }
+            for (long e = current + 1; e <= now && e <= current + buckets.length; e++) {
+                buckets[(int) (e % buckets.length)].clear();
+            }
+            epoch = now;
+
+            heap.clear();
+            candidates.values().removeIf(candidate -> {
+                candidate.count = count(candidate.key);
+                if (candidate.count == 0) {
+                    return true;
+                }
+                if (candidate.hot && candidate.count < threshold) {
+                    candidate.hot = false;
+                    log.info("Key on {} cooled down: {}", path, candidate.key);
+                }
+                heap.add(candidate);
+                return false;
+            });
+            updateFloor();
+        }
+    }
+
+    private void updateFloor() {
+        floor = candidates.size() < topK ? 0 : heap.peek().count;
+    }
+
+    private static final class Candidate {
+        private final String key;
+        private long count;
+        private boolean hot;
+
+        private Candidate(String key, long count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        private long count() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.isap.hotkeys;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * @param votes hottest options on the vote path.
+ * @param reads hottest polls on the getPoll path.
+ */
+public record HotKeyReport(Instant generatedAt,
+                           Duration window,
+                           boolean enabled,
+                           List<HotKey> votes,
+                           List<HotKey> reads) {
+}
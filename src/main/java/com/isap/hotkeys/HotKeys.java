@@ -0,0 +1,70 @@
+package com.isap.hotkeys;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Hot-key detection for the two paths that concentrate on single items: votes, keyed by option since each vote
+ * increments one option item, and poll reads, keyed by poll.
+ *
+ * A hot option has its vote count increments coalesced by the repository for {@code poll.hotkeys.coalescing-window},
+ * so only the keys that would otherwise be throttled pay for the batching delay.
+ */
+@ApplicationScoped
+public class HotKeys {
+
+    private final boolean enabled;
+    private final Duration window;
+    private final Duration coalescingWindow;
+    private final HotKeyDetector votes;
+    private final HotKeyDetector reads;
+
+    @Inject
+    public HotKeys(@ConfigProperty(name = "poll.hotkeys.enabled", defaultValue = "true") boolean enabled,
+                   @ConfigProperty(name = "poll.hotkeys.window", defaultValue = "10s") Duration window,
+                   @ConfigProperty(name = "poll.hotkeys.buckets", defaultValue = "5") int buckets,
+                   @ConfigProperty(name = "poll.hotkeys.top-k", defaultValue = "20") int topK,
+                   @ConfigProperty(name = "poll.hotkeys.vote-threshold", defaultValue = "50") double voteThreshold,
+                   @ConfigProperty(name = "poll.hotkeys.read-threshold", defaultValue = "500") double readThreshold,
+                   @ConfigProperty(name = "poll.hotkeys.coalescing-window", defaultValue = "20ms") Duration coalescingWindow) {
+        this(enabled, window, buckets, topK, voteThreshold, readThreshold, coalescingWindow, Metrics.globalRegistry);
+    }
+
+    HotKeys(boolean enabled, Duration window, int buckets, int topK, double voteThreshold, double readThreshold,
+            Duration coalescingWindow, MeterRegistry registry) {
+        this.enabled = enabled;
+        this.window = window;
+        this.coalescingWindow = coalescingWindow;
+        this.votes = new HotKeyDetector("vote", window, buckets, topK, voteThreshold, registry);
+        this.reads = new HotKeyDetector("getPoll", window, buckets, topK, readThreshold, registry);
+    }
+
+    /**
+     * Counts a vote for the option and returns whether its increments should be coalesced.
+     */
+    public boolean recordVote(String optionId) {
+        return enabled && votes.record(optionId) && !coalescingWindow.isZero();
+    }
+
+    public void recordRead(String pollId) {
+        if (enabled) {
+            reads.record(pollId);
+        }
+    }
+
+    public Duration coalescingWindow() {
+        return coalescingWindow;
+    }
+
+    public HotKeyReport report() {
+        return new HotKeyReport(Instant.now(), window, enabled,
+                enabled ? votes.top() : List.of(), enabled ? reads.top() : List.of());
+    }
+}
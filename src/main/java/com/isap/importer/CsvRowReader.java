@@ -0,0 +1,86 @@
+package com.isap.importer;
+
+import com.isap.domain.PollRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 records of the form question,option1,option2,... Quoted fields may contain commas,
+ * doubled quotes and line breaks. A first record starting with "question" is treated as a header.
+ * Row numbers count records, not physical lines.
+ */
+class CsvRowReader implements ImportRowReader {
+
+    private final BufferedReader reader;
+    private long row;
+
+    CsvRowReader(Reader reader) {
+        this.reader = new BufferedReader(reader);
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        List<String> fields;
+        do {
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+            row++;
+        } while (isBlank(fields) || (row == 1 && "question".equalsIgnoreCase(fields.get(0).trim())));
+
+        List<String> options = new ArrayList<>(fields.size() - 1);
+        for (String option : fields.subList(1, fields.size())) {
+            if (!option.isBlank()) {
+                options.add(option.trim());
+            }
+        }
+        return ImportRow.parsed(row, new PollRequest(fields.get(0).trim(), options));
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static boolean isBlank(List<String> fields) {
+        return fields.size() == 1 && fields.get(0).isBlank();
+    }
+}
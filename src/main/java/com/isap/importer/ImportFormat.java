@@ -0,0 +1,15 @@
+package com.isap.importer;
+
+import java.util.Locale;
+
+public enum ImportFormat {
+    JSONL,
+    CSV;
+
+    public static ImportFormat fromString(String value) {
+        if (value == null || value.isBlank()) {
+            return JSONL;
+        }
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,20 @@
+package com.isap.importer;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. To resume an interrupted or partly failed import, run it again with the same
+ * importId and startRow = resumeFromRow; poll IDs are derived from importId and row, so rows that were
+ * already written are overwritten with identical items rather than duplicated.
+ *
+ * @param resumeFromRow first row that is not known to be written, or null when every valid row was written.
+ * @param errors        per-row errors, capped at {@link PollImporter#MAX_REPORTED_ERRORS}.
+ */
+public record ImportReport(String importId,
+                           long rowsRead,
+                           long rowsImported,
+                           long rowsRejected,
+                           long rowsFailed,
+                           Long resumeFromRow,
+                           List<RowError> errors) {
+}
@@ -0,0 +1,17 @@
+package com.isap.importer;
+
+import com.isap.domain.PollRequest;
+
+/**
+ * One input record. Either data or error is set; error means the record could not be parsed.
+ */
+record ImportRow(long row, PollRequest data, String error) {
+
+    static ImportRow parsed(long row, PollRequest data) {
+        return new ImportRow(row, data, null);
+    }
+
+    static ImportRow malformed(long row, String error) {
+        return new ImportRow(row, null, error);
+    }
+}
@@ -0,0 +1,26 @@
+package com.isap.importer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads import records one at a time, so the input never has to fit in memory.
+ */
+interface ImportRowReader {
+
+    /**
+     * @return the next record, or null at the end of the input.
+     */
+    ImportRow next() throws IOException;
+
+    static ImportRowReader of(ImportFormat format, InputStream input) {
+        Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8);
+        return switch (format) {
+            case JSONL -> new JsonLinesRowReader(reader);
+            case CSV -> new CsvRowReader(reader);
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.isap.importer;
+
+import com.isap.exception.RequestRejectedException;
+import com.isap.json.PollRequestReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * One JSON object per line: {"question": "...", "options": ["...", "..."]}, parsed with the same reader and limits as
+ * POST /poll/create. Blank lines are skipped but still counted, so row numbers match line numbers.
+ */
+class JsonLinesRowReader implements ImportRowReader {
+
+    private static final PollRequestReader PARSER = new PollRequestReader();
+
+    private final BufferedReader reader;
+    private long line;
+
+    JsonLinesRowReader(Reader reader) {
+        this.reader = new BufferedReader(reader);
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+
+        try {
+            return ImportRow.parsed(line, PARSER.read(text));
+        } catch (RequestRejectedException e) {
+            return ImportRow.malformed(line, e.getMessage());
+        }
+    }
+}
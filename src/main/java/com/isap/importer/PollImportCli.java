@@ -0,0 +1,92 @@
+package com.isap.importer;
+
+import com.isap.json.ImportReportWriter;
+import com.isap.utils.DynamoDbHelper;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line entry point for imports too large to send over HTTP.
+ *
+ * <pre>
+ * java -cp ... com.isap.importer.PollImportCli --file polls.jsonl [--format jsonl|csv] --import-id migration-1
+ *     [--start-row 1] [--concurrency 8] [--report report.json] [--endpoint http://localhost:8000] [--region eu-west-1]
+ * </pre>
+ *
+ * The report file is rewritten as the import progresses, so after a crash its resumeFromRow can be passed
+ * back as --start-row with the same --import-id.
+ */
+public class PollImportCli {
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseArgs(args);
+        Path file = Path.of(required(options, "file"));
+        String importId = required(options, "import-id");
+        ImportFormat format = ImportFormat.fromString(options.get("format"));
+        long startRow = Long.parseLong(options.getOrDefault("start-row", "1"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "4"));
+        Path reportFile = Path.of(options.getOrDefault("report", importId + "-report.json"));
+
+        DynamoDbClientBuilder clientBuilder = DynamoDbClient.builder()
+                .region(Region.of(options.getOrDefault("region", "eu-west-1")));
+        if (options.containsKey("endpoint")) {
+            clientBuilder.endpointOverride(URI.create(options.get("endpoint")));
+        }
+
+        try (DynamoDbClient client = clientBuilder.build(); InputStream input = Files.newInputStream(file)) {
+            PollImporter importer = new PollImporter(new DynamoDbHelper(client), concurrency);
+            ImportReport report = importer.importPolls(input, format, importId, startRow, progress -> writeReport(progress, reportFile));
+            writeReport(report, reportFile);
+
+            System.out.printf("Import %s: %d rows read, %d imported, %d rejected, %d failed. Report: %s%n",
+                    importId, report.rowsRead(), report.rowsImported(), report.rowsRejected(), report.rowsFailed(), reportFile);
+            if (report.resumeFromRow() != null) {
+                System.out.printf("Resume with --import-id %s --start-row %d%n", importId, report.resumeFromRow());
+                System.exit(2);
+            }
+        }
+    }
+
+    private static void writeReport(ImportReport report, Path reportFile) {
+        try {
+            Path temp = reportFile.resolveSibling(reportFile.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                new ImportReportWriter().writeTo(report, out);
+            }
+            Files.move(temp, reportFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write import report " + reportFile, e);
+        }
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected an option but got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing required option --" + name);
+        }
+        return value;
+    }
+}
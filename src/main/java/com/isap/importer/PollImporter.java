@@ -0,0 +1,397 @@
+package com.isap.importer;
+
+import com.isap.domain.Option;
+import com.isap.domain.Poll;
+import com.isap.domain.PollRequest;
+import com.isap.exception.ImportCompletedException;
+import com.isap.utils.DynamoDbHelper;
+import com.isap.utils.ValidationUtils;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Streams polls from JSONL or CSV input into DynamoDB with BatchWriteItem.
+ *
+ * Rows are read one at a time, validated, and packed into batches of at most 25 items without splitting a poll
+ * across batches. At most {@code concurrency} batches are in flight; the reader blocks until one completes, so memory
+ * stays bounded whatever the input size. Batches are not transactional: a poll is only reported as imported once its
+ * whole batch, including retried unprocessed items, has been written.
+ *
+ * Poll IDs are derived from the importId, so running an importId again would overwrite polls that may have taken
+ * votes since. Each import records a marker item: an importId that completed is refused, and one that started before
+ * is resumed with conditional PutItem calls that leave existing items alone instead of BatchWriteItem.
+ */
+@Slf4j
+@ApplicationScoped
+public class PollImporter {
+
+    static final int MAX_BATCH_ITEMS = 25;
+    static final int MAX_REPORTED_ERRORS = 1000;
+    static final int MAX_WRITE_ATTEMPTS = 6;
+    static final int PROGRESS_EVERY_BATCHES = 100;
+    static final String MARKER_PREFIX = "import#";
+    static final String SK_IMPORT = "import";
+
+    private final DynamoDbHelper dynamoDbHelper;
+    private final int concurrency;
+
+    @Inject
+    public PollImporter(DynamoDbHelper dynamoDbHelper,
+                        @ConfigProperty(name = "poll.import.concurrency", defaultValue = "4") int concurrency) {
+        this.dynamoDbHelper = dynamoDbHelper;
+        this.concurrency = concurrency;
+    }
+
+    public ImportReport importPolls(InputStream input, ImportFormat format, String importId, long startRow) throws IOException {
+        return importPolls(input, format, importId, startRow, report -> { });
+    }
+
+    /**
+     * @param startRow first row to import; earlier rows are skipped. Use the resumeFromRow of a previous report.
+     * @param progress receives an interim report every {@value #PROGRESS_EVERY_BATCHES} batches.
+     * @throws ImportCompletedException if an import with this importId already completed.
+     */
+    public ImportReport importPolls(InputStream input, ImportFormat format, String importId, long startRow,
+                                    Consumer<ImportReport> progress) throws IOException {
+        log.info("Starting import {} from row {} in {} format with concurrency {}", importId, startRow, format, concurrency);
+
+        ImportRun run = new ImportRun(importId, begin(importId));
+        if (run.resumed) {
+            log.info("Import {} was started before, writing only the items it has not written yet", importId);
+        }
+        ImportRowReader reader = ImportRowReader.of(format, input);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        Semaphore inFlight = new Semaphore(concurrency);
+        Batch batch = new Batch(run.nextBatchId());
+
+        try {
+            ImportRow row;
+            while ((row = reader.next()) != null) {
+                run.rowRead();
+                if (row.row() < startRow) {
+                    continue;
+                }
+
+                List<WriteRequest> writes = toWriteRequests(importId, row, run);
+                if (writes == null) {
+                    continue;
+                }
+
+                if (batch.writes.size() + writes.size() > MAX_BATCH_ITEMS) {
+                    submit(batch, run, executor, inFlight);
+                    if (batch.id % PROGRESS_EVERY_BATCHES == 0) {
+                        progress.accept(run.report(row.row()));
+                    }
+                    batch = new Batch(run.nextBatchId());
+                }
+                batch.add(row.row(), writes);
+            }
+
+            if (!batch.rows.isEmpty()) {
+                submit(batch, run, executor, inFlight);
+            }
+
+            inFlight.acquire(concurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Import {} interrupted, report reflects the batches written so far", importId);
+            return run.report(batch.rows.isEmpty() ? null : batch.rows.get(0));
+        } finally {
+            executor.shutdown();
+        }
+
+        ImportReport report = run.report(null);
+        if (report.resumeFromRow() == null) {
+            complete(importId, run);
+        }
+        log.info("Import {} finished: {} rows read, {} imported, {} rejected, {} failed",
+                importId, report.rowsRead(), report.rowsImported(), report.rowsRejected(), report.rowsFailed());
+        return report;
+    }
+
+    /**
+     * Records the start of an import.
+     * @return true if the importId was used before, so its items may already exist.
+     */
+    private boolean begin(String importId) {
+        String markerId = MARKER_PREFIX + importId;
+        if (dynamoDbHelper.putItemIfAbsent(markerId, Map.of(
+                "PK", AttributeValue.builder().s(markerId).build(),
+                "SK", AttributeValue.builder().s(SK_IMPORT).build(),
+                "startedAt", AttributeValue.builder().n(String.valueOf(Instant.now().toEpochMilli())).build()))) {
+            return false;
+        }
+
+        GetItemResponse marker = dynamoDbHelper.getItemConsistent(markerId, Map.of(
+                "PK", AttributeValue.builder().s(markerId).build(),
+                "SK", AttributeValue.builder().s(SK_IMPORT).build()));
+        if (marker != null && marker.hasItem() && marker.item().containsKey("completedAt")) {
+            throw new ImportCompletedException("Import " + importId + " already completed");
+        }
+        return true;
+    }
+
+    private void complete(String importId, ImportRun run) {
+        String markerId = MARKER_PREFIX + importId;
+        dynamoDbHelper.putItem(markerId, Map.of(
+                "PK", AttributeValue.builder().s(markerId).build(),
+                "SK", AttributeValue.builder().s(SK_IMPORT).build(),
+                "startedAt", AttributeValue.builder().n(String.valueOf(run.startedAt.toEpochMilli())).build(),
+                "completedAt", AttributeValue.builder().n(String.valueOf(Instant.now().toEpochMilli())).build()));
+    }
+
+    private List<WriteRequest> toWriteRequests(String importId, ImportRow row, ImportRun run) {
+        if (row.error() != null) {
+            run.rejected(row.row(), row.error());
+            return null;
+        }
+
+        PollRequest data = row.data();
+        if (!ValidationUtils.validateCreatePollRequest(data)
+                || data.question().isBlank()
+                || !ValidationUtils.validateNewPollOptions(data.options())) {
+            run.rejected(row.row(), "Invalid poll data: a question and 2 to 7 non-empty options are required");
+            return null;
+        }
+
+        String pollId = deterministicId(importId, row.row(), -1);
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> optionTexts = data.options();
+        for (int i = 0; i < optionTexts.size(); i++) {
+            options.put(deterministicId(importId, row.row(), i), optionTexts.get(i));
+        }
+
+        List<WriteRequest> writes = new ArrayList<>(options.size() + 1);
+        writes.add(put(new Poll(pollId, data.question(), options, null, null, null, run.startedAt).toDynamoDbItem()));
+        options.forEach((optionId, text) -> writes.add(put(new Option(optionId, pollId, text, 0).toDynamoDbItem())));
+        return writes;
+    }
+
+    private void submit(Batch batch, ImportRun run, ExecutorService executor, Semaphore inFlight) throws InterruptedException {
+        inFlight.acquire();
+        run.batchStarted(batch);
+        executor.execute(() -> {
+            try {
+                run.batchFinished(batch, writeWithRetries(batch.writes, run.resumed));
+            } catch (RuntimeException e) {
+                log.error("Batch {} of import {} failed: {}", batch.id, run.importId, e.getMessage());
+                run.batchFinished(batch, "Write failed: " + e.getMessage());
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    /**
+     * @return null on success, otherwise the reason the batch could not be written.
+     */
+    private String writeWithRetries(List<WriteRequest> writes, boolean resumed) {
+        List<WriteRequest> pending = writes;
+        for (int attempt = 1; attempt <= MAX_WRITE_ATTEMPTS; attempt++) {
+            try {
+                pending = resumed ? writeIfAbsent(pending) : dynamoDbHelper.batchWriteItems(pending);
+                if (pending.isEmpty()) {
+                    return null;
+                }
+            } catch (ProvisionedThroughputExceededException e) {
+                log.debug("Batch throttled on attempt {}", attempt);
+            } catch (DynamoDbException e) {
+                return "Write failed: " + e.getMessage();
+            }
+            if (attempt < MAX_WRITE_ATTEMPTS) {
+                backOff(attempt);
+            }
+        }
+        return "Write failed: " + pending.size() + " items still unprocessed after " + MAX_WRITE_ATTEMPTS + " attempts";
+    }
+
+    /**
+     * Writes the items one by one, skipping those that already exist.
+     * @return the writes left when DynamoDB throttled, to be retried by the caller.
+     */
+    private List<WriteRequest> writeIfAbsent(List<WriteRequest> writes) {
+        for (int i = 0; i < writes.size(); i++) {
+            Map<String, AttributeValue> item = writes.get(i).putRequest().item();
+            try {
+                dynamoDbHelper.putItemIfAbsent(DynamoDbHelper.routingKeyOf(item), item);
+            } catch (ProvisionedThroughputExceededException e) {
+                log.debug("Conditional write throttled after {} of {} items", i, writes.size());
+                return writes.subList(i, writes.size());
+            }
+        }
+        return List.of();
+    }
+
+    private static void backOff(int attempt) {
+        long delay = (25L << attempt) + ThreadLocalRandom.current().nextLong(25);
+        try {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static WriteRequest put(Map<String, AttributeValue> item) {
+        return WriteRequest.builder().putRequest(PutRequest.builder().item(item).build()).build();
+    }
+
+    static String deterministicId(String importId, long row, int option) {
+        String name = importId + ":" + row + (option < 0 ? "" : ":" + option);
+        return UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static final class Batch {
+        private final long id;
+        private final List<WriteRequest> writes = new ArrayList<>(MAX_BATCH_ITEMS);
+        private final List<Long> rows = new ArrayList<>();
+
+        private Batch(long id) {
+            this.id = id;
+        }
+
+        private void add(long row, List<WriteRequest> rowWrites) {
+            rows.add(row);
+            writes.addAll(rowWrites);
+        }
+    }
+
+    /**
+     * Counters and the resume watermark of one import, shared by the reader and the batch writers.
+     * Guarded by a ReentrantLock rather than synchronized so a reader on a virtual thread never pins its carrier.
+     */
+    private static final class ImportRun {
+        private final String importId;
+        private final boolean resumed;
+        // Creation time of every poll of the run, so imported polls list together
+        private final Instant startedAt = Instant.now();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<RowError> errors = new ArrayList<>();
+        private final TreeMap<Long, Long> unfinishedBatchFirstRows = new TreeMap<>();
+        private long batchIds;
+        private long rowsRead;
+        private long rowsImported;
+        private long rowsRejected;
+        private long rowsFailed;
+        private Long firstFailedRow;
+
+        private ImportRun(String importId, boolean resumed) {
+            this.importId = importId;
+            this.resumed = resumed;
+        }
+
+        private long nextBatchId() {
+            lock.lock();
+            try {
+                return ++batchIds;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void rowRead() {
+            lock.lock();
+            try {
+                rowsRead++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void rejected(long row, String message) {
+            lock.lock();
+            try {
+                rowsRejected++;
+                addError(row, message);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void batchStarted(Batch batch) {
+            lock.lock();
+            try {
+                unfinishedBatchFirstRows.put(batch.id, batch.rows.get(0));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void batchFinished(Batch batch, String failure) {
+            lock.lock();
+            try {
+                unfinishedBatchFirstRows.remove(batch.id);
+                if (failure == null) {
+                    rowsImported += batch.rows.size();
+                    return;
+                }
+
+                rowsFailed += batch.rows.size();
+                for (long row : batch.rows) {
+                    addError(row, failure);
+                }
+                long firstRow = batch.rows.get(0);
+                if (firstFailedRow == null || firstRow < firstFailedRow) {
+                    firstFailedRow = firstRow;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void addError(long row, String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(row, message));
+            }
+        }
+
+        /**
+         * @param firstPendingRow first row read but not yet handed to a batch writer, or null if there is none.
+         */
+        private ImportReport report(Long firstPendingRow) {
+            lock.lock();
+            try {
+                Long resumeFrom = min(firstFailedRow, firstPendingRow);
+                if (!unfinishedBatchFirstRows.isEmpty()) {
+                    resumeFrom = min(resumeFrom, unfinishedBatchFirstRows.firstEntry().getValue());
+                }
+                return new ImportReport(importId, rowsRead, rowsImported, rowsRejected, rowsFailed, resumeFrom,
+                        List.copyOf(errors));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private static Long min(Long a, Long b) {
+            if (a == null) {
+                return b;
+            }
+            return b == null ? a : Math.min(a, b);
+        }
+    }
+}
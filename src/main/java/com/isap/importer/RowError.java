@@ -0,0 +1,4 @@
+package com.isap.importer;
+
+public record RowError(long row, String message) {
+}
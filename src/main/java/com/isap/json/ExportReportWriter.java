@@ -0,0 +1,38 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.isap.export.ExportReport;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class ExportReportWriter extends JsonEntityWriter<ExportReport> {
+
+    public ExportReportWriter() {
+        super(ExportReport.class);
+    }
+
+    @Override
+    protected void write(ExportReport report, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("exportId", report.exportId());
+        generator.writeStringField("directory", report.directory());
+        generator.writeNumberField("segments", report.segments());
+        generator.writeNumberField("pollsExported", report.pollsExported());
+        generator.writeNumberField("optionsExported", report.optionsExported());
+        generator.writeNumberField("votesExported", report.votesExported());
+        generator.writeNumberField("bytesWritten", report.bytesWritten());
+        generator.writeNumberField("consumedReadUnits", report.consumedReadUnits());
+        generator.writeNumberField("durationMillis", report.durationMillis());
+        generator.writeArrayFieldStart("files");
+        for (String file : report.files()) {
+            generator.writeString(file);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,44 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.isap.hotkeys.HotKey;
+import com.isap.hotkeys.HotKeyReport;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.util.List;
+
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class HotKeyReportWriter extends JsonEntityWriter<HotKeyReport> {
+
+    public HotKeyReportWriter() {
+        super(HotKeyReport.class);
+    }
+
+    @Override
+    protected void write(HotKeyReport report, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("generatedAt", report.generatedAt().toString());
+        generator.writeNumberField("windowSeconds", report.window().toSeconds());
+        generator.writeBooleanField("enabled", report.enabled());
+        writeKeys("votes", report.votes(), generator);
+        writeKeys("reads", report.reads(), generator);
+        generator.writeEndObject();
+    }
+
+    private static void writeKeys(String field, List<HotKey> keys, JsonGenerator generator) throws IOException {
+        generator.writeArrayFieldStart(field);
+        for (HotKey key : keys) {
+            generator.writeStartObject();
+            generator.writeStringField("key", key.key());
+            generator.writeNumberField("count", key.count());
+            generator.writeNumberField("perSecond", key.perSecond());
+            generator.writeBooleanField("hot", key.hot());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+}
@@ -0,0 +1,41 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.isap.importer.ImportReport;
+import com.isap.importer.RowError;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class ImportReportWriter extends JsonEntityWriter<ImportReport> {
+
+    public ImportReportWriter() {
+        super(ImportReport.class);
+    }
+
+    @Override
+    protected void write(ImportReport report, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("importId", report.importId());
+        generator.writeNumberField("rowsRead", report.rowsRead());
+        generator.writeNumberField("rowsImported", report.rowsImported());
+        generator.writeNumberField("rowsRejected", report.rowsRejected());
+        generator.writeNumberField("rowsFailed", report.rowsFailed());
+        if (report.resumeFromRow() != null) {
+            generator.writeNumberField("resumeFromRow", report.resumeFromRow());
+        }
+        generator.writeArrayFieldStart("errors");
+        for (RowError error : report.errors()) {
+            generator.writeStartObject();
+            generator.writeNumberField("row", error.row());
+            generator.writeStringField("message", error.message());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,179 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.isap.exception.RequestRejectedException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.MessageBodyReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base for the hand-written request parsers. Each subclass reads its entity token by token with a streaming
+ * {@link JsonParser} under {@link RequestLimits}: a declared Content-Length over the limit is rejected before the
+ * body is read, and a body, string or object that grows past a limit is rejected as soon as the parser reaches it,
+ * so junk payloads are never fully buffered. Over-limit bodies get 413 and malformed ones 400.
+ */
+public abstract class JsonEntityReader<T> implements MessageBodyReader<T> {
+
+    private final Class<T> entityType;
+    protected final RequestLimits limits;
+    private final JsonFactory jsonFactory;
+
+    protected JsonEntityReader(Class<T> entityType, RequestLimits limits) {
+        this.entityType = entityType;
+        this.limits = limits;
+        this.jsonFactory = JsonFactory.builder()
+                .streamReadConstraints(StreamReadConstraints.builder()
+                        .maxDocumentLength(limits.maxBytes())
+                        .maxStringLength(limits.maxStringLength())
+                        .maxNameLength(limits.maxStringLength())
+                        .maxNestingDepth(4)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Reads the entity; the parser is positioned before the first token.
+     */
+    protected abstract T read(JsonParser parser) throws IOException;
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return entityType.equals(type);
+    }
+
+    @Override
+    public T readFrom(Class<T> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                      MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+        String contentLength = httpHeaders.getFirst(HttpHeaders.CONTENT_LENGTH);
+        if (contentLength != null && parseLength(contentLength) > limits.maxBytes()) {
+            throw tooLarge();
+        }
+        return read(entityStream);
+    }
+
+    public T read(InputStream input) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(input)) {
+            return readDocument(parser);
+        }
+    }
+
+    public T read(String input) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(input)) {
+            return readDocument(parser);
+        }
+    }
+
+    private T readDocument(JsonParser parser) throws IOException {
+        try {
+            T entity = read(parser);
+            if (parser.nextToken() != null) {
+                throw malformed("Unexpected content after the request body");
+            }
+            return entity;
+        } catch (StreamConstraintsException e) {
+            throw tooLarge();
+        } catch (JsonProcessingException e) {
+            throw new RequestRejectedException("Malformed JSON: " + e.getOriginalMessage(), Response.Status.BAD_REQUEST, e);
+        }
+    }
+
+    private static long parseLength(String contentLength) {
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    protected RequestRejectedException tooLarge() {
+        return new RequestRejectedException("Request body exceeds limits: at most " + limits.maxBytes() + " bytes, "
+                + limits.maxFields() + " fields and " + limits.maxStringLength() + " characters per string",
+                Response.Status.REQUEST_ENTITY_TOO_LARGE);
+    }
+
+    protected static RequestRejectedException malformed(String message) {
+        return new RequestRejectedException(message, Response.Status.BAD_REQUEST);
+    }
+
+    protected static void expect(JsonParser parser, JsonToken expected, String what) throws IOException {
+        if (parser.nextToken() != expected) {
+            throw malformed("Expected " + what);
+        }
+    }
+
+    /**
+     * Advances to the next field name of the current object, or returns null at its end. Counts fields against the
+     * limit, including unknown ones, which callers skip with {@link JsonParser#skipChildren()}.
+     */
+    protected String nextField(JsonParser parser, int[] fieldCount) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_OBJECT) {
+            return null;
+        }
+        if (token != JsonToken.FIELD_NAME) {
+            throw malformed("Expected a field name");
+        }
+        if (++fieldCount[0] > limits.maxFields()) {
+            throw tooLarge();
+        }
+        return parser.currentName();
+    }
+
+    /**
+     * Reads the value of the current field as a string; JSON null reads as null.
+     */
+    protected static String readString(JsonParser parser, String field) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            throw malformed(field + " must be a string");
+        }
+        return parser.getText();
+    }
+
+    /**
+     * Reads the value of the current field as an array of strings; JSON null reads as null.
+     */
+    protected List<String> readStringArray(JsonParser parser, String field) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw malformed(field + " must be an array of strings");
+        }
+
+        List<String> values = new ArrayList<>();
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.VALUE_STRING) {
+                throw malformed(field + " must be an array of strings");
+            }
+            if (values.size() == limits.maxFields()) {
+                throw tooLarge();
+            }
+            values.add(parser.getText());
+        }
+        return values;
+    }
+
+    protected static void skipValue(JsonParser parser) throws IOException {
+        parser.nextToken();
+        parser.skipChildren();
+    }
+}
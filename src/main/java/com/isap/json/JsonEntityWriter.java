@@ -0,0 +1,50 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Base for the hand-written response serializers. Each subclass writes its entity field by field
+ * with a streaming {@link JsonGenerator}, so no reflection or intermediate tree is involved.
+ */
+public abstract class JsonEntityWriter<T> implements MessageBodyWriter<T> {
+
+    static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private final Class<T> entityType;
+
+    protected JsonEntityWriter(Class<T> entityType) {
+        this.entityType = entityType;
+    }
+
+    protected abstract void write(T entity, JsonGenerator generator) throws IOException;
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return entityType.isAssignableFrom(type);
+    }
+
+    @Override
+    public void writeTo(T entity, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        writeTo(entity, entityStream);
+    }
+
+    public void writeTo(T entity, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(outputStream, JsonEncoding.UTF8)) {
+            write(entity, generator);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.isap.domain.Poll;
+import com.isap.domain.PollPage;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.util.Map;
+
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class PollPageWriter extends JsonEntityWriter<PollPage> {
+
+    public PollPageWriter() {
+        super(PollPage.class);
+    }
+
+    @Override
+    protected void write(PollPage page, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("polls");
+        for (Poll poll : page.polls()) {
+            generator.writeStartObject();
+            generator.writeStringField("pollId", poll.pollId());
+            generator.writeStringField("question", poll.question());
+            generator.writeArrayFieldStart("options");
+            for (Map.Entry<String, String> option : poll.options().entrySet()) {
+                generator.writeStartObject();
+                generator.writeStringField("optionId", option.getKey());
+                generator.writeStringField("text", option.getValue());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeStringField("createdAt", poll.createdAt().toString());
+            if (poll.endsAt() != null) {
+                generator.writeStringField("endsAt", poll.endsAt().toString());
+            }
+            generator.writeBooleanField("closed", poll.isClosed(page.readAt()));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        if (page.nextCursor() != null) {
+            generator.writeStringField("nextCursor", page.nextCursor());
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,48 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.isap.domain.PollRequest;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.util.List;
+
+@Provider
+@Consumes(MediaType.APPLICATION_JSON)
+public class PollRequestReader extends JsonEntityReader<PollRequest> {
+
+    public PollRequestReader() {
+        this(RequestLimits.DEFAULT);
+    }
+
+    @Inject
+    public PollRequestReader(RequestLimits limits) {
+        super(PollRequest.class, limits);
+    }
+
+    @Override
+    protected PollRequest read(JsonParser parser) throws IOException {
+        expect(parser, JsonToken.START_OBJECT, "a JSON object");
+
+        String question = null;
+        List<String> options = null;
+        String endsAt = null;
+        String type = null;
+        int[] fields = new int[1];
+        String field;
+        while ((field = nextField(parser, fields)) != null) {
+            switch (field) {
+                case "question" -> question = readString(parser, field);
+                case "options" -> options = readStringArray(parser, field);
+                case "endsAt" -> endsAt = readString(parser, field);
+                case "type" -> type = readString(parser, field);
+                default -> skipValue(parser);
+            }
+        }
+        return new PollRequest(question, options, endsAt, type);
+    }
+}
@@ -0,0 +1,48 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.isap.domain.OptionResponse;
+import com.isap.domain.PollResponse;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.util.List;
+
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class PollResponseWriter extends JsonEntityWriter<PollResponse> {
+
+    public PollResponseWriter() {
+        super(PollResponse.class);
+    }
+
+    @Override
+    protected void write(PollResponse poll, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("pollId", poll.pollId());
+        generator.writeStringField("question", poll.question());
+        generator.writeFieldName("options");
+        writeOptions(poll.options(), generator);
+        if (poll.endsAt() != null) {
+            generator.writeStringField("endsAt", poll.endsAt().toString());
+        }
+        generator.writeBooleanField("closed", poll.closed());
+        generator.writeEndObject();
+    }
+
+    static void writeOptions(List<OptionResponse> options, JsonGenerator generator) throws IOException {
+        generator.writeStartArray();
+        for (OptionResponse option : options) {
+            generator.writeStartObject();
+            generator.writeStringField("optionId", option.optionId());
+            generator.writeStringField("text", option.text());
+            if (option.voteCount() != null) {
+                generator.writeNumberField("voteCount", option.voteCount());
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+}
@@ -0,0 +1,33 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.isap.domain.PollResults;
+import com.isap.utils.HyperLogLog;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class PollResultsWriter extends JsonEntityWriter<PollResults> {
+
+    public PollResultsWriter() {
+        super(PollResults.class);
+    }
+
+    @Override
+    protected void write(PollResults results, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("pollId", results.pollId());
+        generator.writeFieldName("options");
+        PollResponseWriter.writeOptions(results.options(), generator);
+        generator.writeBooleanField("closed", results.closed());
+        if (results.uniqueVoters() != null) {
+            generator.writeNumberField("uniqueVoters", results.uniqueVoters());
+            generator.writeNumberField("uniqueVotersStandardError", HyperLogLog.STANDARD_ERROR);
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,52 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.isap.domain.PollWidget;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class PollWidgetWriter extends JsonEntityWriter<PollWidget> {
+
+    public PollWidgetWriter() {
+        super(PollWidget.class);
+    }
+
+    @Override
+    protected void write(PollWidget widget, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("pollId", widget.pollId());
+        if (widget.question() != null) {
+            generator.writeStringField("question", widget.question());
+        }
+        generator.writeArrayFieldStart("options");
+        for (PollWidget.Option option : widget.options()) {
+            generator.writeStartObject();
+            generator.writeStringField("optionId", option.optionId());
+            generator.writeStringField("text", option.text());
+            if (option.voteCount() != null) {
+                generator.writeNumberField("voteCount", option.voteCount());
+                generator.writeNumberField("percentage", option.percentage());
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        if (widget.endsAt() != null) {
+            generator.writeStringField("endsAt", widget.endsAt().toString());
+        }
+        generator.writeBooleanField("closed", widget.closed());
+        if (widget.totalVotes() != null) {
+            generator.writeNumberField("totalVotes", widget.totalVotes());
+        }
+        generator.writeArrayFieldStart("degraded");
+        for (String part : widget.degraded()) {
+            generator.writeString(part);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,51 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.isap.ranked.RankedResults;
+import com.isap.ranked.RankedRound;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.util.Map;
+
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class RankedResultsWriter extends JsonEntityWriter<RankedResults> {
+
+    public RankedResultsWriter() {
+        super(RankedResults.class);
+    }
+
+    @Override
+    protected void write(RankedResults results, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("pollId", results.pollId());
+        generator.writeObjectFieldStart("options");
+        for (Map.Entry<String, String> option : results.options().entrySet()) {
+            generator.writeStringField(option.getKey(), option.getValue());
+        }
+        generator.writeEndObject();
+        generator.writeNumberField("ballots", results.ballots());
+        if (results.winner() != null) {
+            generator.writeStringField("winner", results.winner());
+        }
+        generator.writeArrayFieldStart("rounds");
+        for (RankedRound round : results.rounds()) {
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("counts");
+            for (Map.Entry<String, Long> count : round.counts().entrySet()) {
+                generator.writeNumberField(count.getKey(), count.getValue());
+            }
+            generator.writeEndObject();
+            generator.writeNumberField("exhausted", round.exhausted());
+            if (round.eliminated() != null) {
+                generator.writeStringField("eliminated", round.eliminated());
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+}
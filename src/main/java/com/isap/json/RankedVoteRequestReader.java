@@ -0,0 +1,44 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.isap.domain.RankedVoteRequest;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.util.List;
+
+@Provider
+@Consumes(MediaType.APPLICATION_JSON)
+public class RankedVoteRequestReader extends JsonEntityReader<RankedVoteRequest> {
+
+    public RankedVoteRequestReader() {
+        this(RequestLimits.DEFAULT);
+    }
+
+    @Inject
+    public RankedVoteRequestReader(RequestLimits limits) {
+        super(RankedVoteRequest.class, limits);
+    }
+
+    @Override
+    protected RankedVoteRequest read(JsonParser parser) throws IOException {
+        expect(parser, JsonToken.START_OBJECT, "a JSON object");
+
+        String pollId = null;
+        List<String> ranking = null;
+        int[] fields = new int[1];
+        String field;
+        while ((field = nextField(parser, fields)) != null) {
+            switch (field) {
+                case "pollId" -> pollId = readString(parser, field);
+                case "ranking" -> ranking = readStringArray(parser, field);
+                default -> skipValue(parser);
+            }
+        }
+        return new RankedVoteRequest(pollId, ranking);
+    }
+}
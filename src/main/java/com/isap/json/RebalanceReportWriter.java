@@ -0,0 +1,36 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.isap.routing.RebalanceReport;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class RebalanceReportWriter extends JsonEntityWriter<RebalanceReport> {
+
+    public RebalanceReportWriter() {
+        super(RebalanceReport.class);
+    }
+
+    @Override
+    protected void write(RebalanceReport report, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("startedAt", report.startedAt().toString());
+        generator.writeNumberField("durationMillis", report.durationMillis());
+        generator.writeBooleanField("dryRun", report.dryRun());
+        generator.writeArrayFieldStart("tables");
+        for (String table : report.tables()) {
+            generator.writeString(table);
+        }
+        generator.writeEndArray();
+        generator.writeNumberField("itemsScanned", report.itemsScanned());
+        generator.writeNumberField("itemsMisplaced", report.itemsMisplaced());
+        generator.writeNumberField("itemsMoved", report.itemsMoved());
+        generator.writeNumberField("consumedReadUnits", report.consumedReadUnits());
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,49 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.isap.reconcile.CountDrift;
+import com.isap.reconcile.ReconciliationReport;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class ReconciliationReportWriter extends JsonEntityWriter<ReconciliationReport> {
+
+    public ReconciliationReportWriter() {
+        super(ReconciliationReport.class);
+    }
+
+    @Override
+    protected void write(ReconciliationReport report, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("startedAt", report.startedAt().toString());
+        generator.writeNumberField("durationMillis", report.durationMillis());
+        generator.writeBooleanField("dryRun", report.dryRun());
+        generator.writeNumberField("segments", report.segments());
+        generator.writeNumberField("itemsScanned", report.itemsScanned());
+        generator.writeNumberField("consumedReadUnits", report.consumedReadUnits());
+        generator.writeNumberField("optionsChecked", report.optionsChecked());
+        generator.writeNumberField("driftsDetected", report.driftsDetected());
+        generator.writeNumberField("driftsFixed", report.driftsFixed());
+        generator.writeArrayFieldStart("drifts");
+        for (CountDrift drift : report.drifts()) {
+            generator.writeStartObject();
+            generator.writeStringField("optionId", drift.optionId());
+            if (drift.pollId() != null) {
+                generator.writeStringField("pollId", drift.pollId());
+            }
+            if (drift.storedCount() != null) {
+                generator.writeNumberField("storedCount", drift.storedCount());
+            }
+            generator.writeNumberField("countedVotes", drift.countedVotes());
+            generator.writeStringField("action", drift.action().name());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,49 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.isap.profiling.RecordingStatus;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.time.Duration;
+
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class RecordingStatusWriter extends JsonEntityWriter<RecordingStatus> {
+
+    public RecordingStatusWriter() {
+        super(RecordingStatus.class);
+    }
+
+    @Override
+    protected void write(RecordingStatus status, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeBooleanField("available", status.available());
+        if (status.state() != null) {
+            generator.writeStringField("state", status.state());
+        }
+        if (status.startedAt() != null) {
+            generator.writeStringField("startedAt", status.startedAt().toString());
+        }
+        writeMillis("durationMillis", status.duration(), generator);
+        writeMillis("requestThresholdMillis", status.requestThreshold(), generator);
+        writeMillis("dynamoDbThresholdMillis", status.dynamoDbThreshold(), generator);
+        writeMillis("maxAgeMillis", status.maxAge(), generator);
+        if (status.maxSizeBytes() != null) {
+            generator.writeNumberField("maxSizeBytes", status.maxSizeBytes());
+        }
+        if (status.file() != null) {
+            generator.writeStringField("file", status.file());
+            generator.writeNumberField("fileBytes", status.fileBytes());
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeMillis(String field, Duration duration, JsonGenerator generator) throws IOException {
+        if (duration != null) {
+            generator.writeNumberField(field, duration.toMillis());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.isap.json;
+
+/**
+ * Bounds enforced while a request body is parsed.
+ * @param maxBytes        largest body accepted.
+ * @param maxFields       most object fields, or array elements, accepted in one object or array.
+ * @param maxStringLength longest string value or field name accepted, in characters.
+ */
+public record RequestLimits(long maxBytes, int maxFields, int maxStringLength) {
+
+    public static final RequestLimits DEFAULT = new RequestLimits(16 * 1024, 16, 1024);
+}
@@ -0,0 +1,19 @@
+package com.isap.json;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ApplicationScoped
+public class RequestLimitsConfiguration {
+
+    @Produces
+    @Singleton
+    public RequestLimits requestLimits(
+            @ConfigProperty(name = "poll.request.max-bytes", defaultValue = "16384") long maxBytes,
+            @ConfigProperty(name = "poll.request.max-fields", defaultValue = "16") int maxFields,
+            @ConfigProperty(name = "poll.request.max-string-length", defaultValue = "1024") int maxStringLength) {
+        return new RequestLimits(maxBytes, maxFields, maxStringLength);
+    }
+}
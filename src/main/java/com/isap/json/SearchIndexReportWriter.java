@@ -0,0 +1,31 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.isap.search.SearchIndexReport;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class SearchIndexReportWriter extends JsonEntityWriter<SearchIndexReport> {
+
+    public SearchIndexReportWriter() {
+        super(SearchIndexReport.class);
+    }
+
+    @Override
+    protected void write(SearchIndexReport report, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("startedAt", report.startedAt().toString());
+        generator.writeNumberField("durationMillis", report.durationMillis());
+        generator.writeNumberField("itemsScanned", report.itemsScanned());
+        generator.writeNumberField("polls", report.polls());
+        generator.writeNumberField("terms", report.terms());
+        generator.writeNumberField("postingBytes", report.postingBytes());
+        generator.writeNumberField("consumedReadUnits", report.consumedReadUnits());
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,38 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.isap.search.SearchHit;
+import com.isap.search.SearchResults;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class SearchResultsWriter extends JsonEntityWriter<SearchResults> {
+
+    public SearchResultsWriter() {
+        super(SearchResults.class);
+    }
+
+    @Override
+    protected void write(SearchResults results, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("query", results.query());
+        generator.writeNumberField("total", results.total());
+        generator.writeArrayFieldStart("hits");
+        for (SearchHit hit : results.hits()) {
+            generator.writeStartObject();
+            generator.writeStringField("pollId", hit.pollId());
+            generator.writeStringField("question", hit.question());
+            generator.writeNumberField("score", hit.score());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeNumberField("indexedPolls", results.indexedPolls());
+        generator.writeBooleanField("complete", results.complete());
+        generator.writeEndObject();
+    }
+}
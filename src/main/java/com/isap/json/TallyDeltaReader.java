@@ -0,0 +1,71 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.isap.tally.TallyDelta;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the deltas peers post to /internal/tallies. Peers send the counts of every poll that changed within a sync
+ * interval, so the limits are far wider than for client requests.
+ */
+@Provider
+@Consumes(MediaType.APPLICATION_JSON)
+public class TallyDeltaReader extends JsonEntityReader<TallyDelta> {
+
+    static final RequestLimits LIMITS = new RequestLimits(4 * 1024 * 1024, 50_000, 256);
+
+    public TallyDeltaReader() {
+        super(TallyDelta.class, LIMITS);
+    }
+
+    @Override
+    protected TallyDelta read(JsonParser parser) throws IOException {
+        expect(parser, JsonToken.START_OBJECT, "a JSON object");
+
+        String node = null;
+        Map<String, Map<String, Long>> polls = Map.of();
+        int[] fields = new int[1];
+        String field;
+        while ((field = nextField(parser, fields)) != null) {
+            switch (field) {
+                case "node" -> node = readString(parser, field);
+                case "polls" -> polls = readPolls(parser);
+                default -> skipValue(parser);
+            }
+        }
+        if (node == null) {
+            throw malformed("node is required");
+        }
+        return new TallyDelta(node, polls);
+    }
+
+    private Map<String, Map<String, Long>> readPolls(JsonParser parser) throws IOException {
+        expect(parser, JsonToken.START_OBJECT, "polls to be an object");
+
+        Map<String, Map<String, Long>> polls = new HashMap<>();
+        int[] pollCount = new int[1];
+        String pollId;
+        while ((pollId = nextField(parser, pollCount)) != null) {
+            expect(parser, JsonToken.START_OBJECT, "the counts of poll " + pollId + " to be an object");
+            Map<String, Long> counts = new HashMap<>();
+            int[] optionCount = new int[1];
+            String optionId;
+            while ((optionId = nextField(parser, optionCount)) != null) {
+                if (parser.nextToken() != JsonToken.VALUE_NUMBER_INT || parser.getLongValue() < 0
+                        || parser.getLongValue() > Integer.MAX_VALUE) {
+                    throw malformed("Counts must be integers from 0 to " + Integer.MAX_VALUE);
+                }
+                counts.put(optionId, parser.getLongValue());
+            }
+            polls.put(pollId, counts);
+        }
+        return polls;
+    }
+}
@@ -0,0 +1,35 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.isap.tally.TallyDelta;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.util.Map;
+
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class TallyDeltaWriter extends JsonEntityWriter<TallyDelta> {
+
+    public TallyDeltaWriter() {
+        super(TallyDelta.class);
+    }
+
+    @Override
+    protected void write(TallyDelta delta, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("node", delta.node());
+        generator.writeObjectFieldStart("polls");
+        for (Map.Entry<String, Map<String, Long>> poll : delta.polls().entrySet()) {
+            generator.writeObjectFieldStart(poll.getKey());
+            for (Map.Entry<String, Long> count : poll.getValue().entrySet()) {
+                generator.writeNumberField(count.getKey(), count.getValue());
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+}
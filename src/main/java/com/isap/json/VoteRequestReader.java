@@ -0,0 +1,45 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.isap.domain.VoteRequest;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+
+@Provider
+@Consumes(MediaType.APPLICATION_JSON)
+public class VoteRequestReader extends JsonEntityReader<VoteRequest> {
+
+    public VoteRequestReader() {
+        this(RequestLimits.DEFAULT);
+    }
+
+    @Inject
+    public VoteRequestReader(RequestLimits limits) {
+        super(VoteRequest.class, limits);
+    }
+
+    @Override
+    protected VoteRequest read(JsonParser parser) throws IOException {
+        expect(parser, JsonToken.START_OBJECT, "a JSON object");
+
+        String pollId = null;
+        String optionId = null;
+        String voterId = null;
+        int[] fields = new int[1];
+        String field;
+        while ((field = nextField(parser, fields)) != null) {
+            switch (field) {
+                case "pollId" -> pollId = readString(parser, field);
+                case "optionId" -> optionId = readString(parser, field);
+                case "voterId" -> voterId = readString(parser, field);
+                default -> skipValue(parser);
+            }
+        }
+        return new VoteRequest(pollId, optionId, voterId);
+    }
+}
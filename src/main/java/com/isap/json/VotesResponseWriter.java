@@ -0,0 +1,44 @@
+package com.isap.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.isap.domain.VotesResponse;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Streams vote items as a JSON array, reading the attributes directly from each DynamoDB item.
+ * Output is flushed every {@value #FLUSH_EVERY} votes so large polls are not buffered in full.
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class VotesResponseWriter extends JsonEntityWriter<VotesResponse> {
+
+    private static final int FLUSH_EVERY = 1024;
+
+    public VotesResponseWriter() {
+        super(VotesResponse.class);
+    }
+
+    @Override
+    protected void write(VotesResponse votes, JsonGenerator generator) throws IOException {
+        generator.writeStartArray();
+        int written = 0;
+        for (Map<String, AttributeValue> item : votes.items()) {
+            generator.writeStartObject();
+            generator.writeStringField("optionId", item.get("optionId").s());
+            generator.writeStringField("voteId", item.get("PK").s());
+            generator.writeStringField("timestamp", item.get("timestamp").s());
+            generator.writeEndObject();
+
+            if (++written % FLUSH_EVERY == 0) {
+                generator.flush();
+            }
+        }
+        generator.writeEndArray();
+    }
+}
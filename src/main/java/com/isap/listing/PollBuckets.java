@@ -0,0 +1,57 @@
+package com.isap.listing;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Keys of poll items on GSI3, the index listing polls by creation time.
+ *
+ * Polls are bucketed by the UTC day they were created, and each day is split over {@link #SHARDS} partitions by a hash
+ * of the poll ID, so a burst of creations does not land on one partition. The partition key is
+ * {@code <day>#<shard>}. The sort key is the creation time in epoch milliseconds, zero-padded so keys sort by time,
+ * then the poll ID to break ties. Changing either the bucket or the shard count moves existing polls off the keys the
+ * listing queries.
+ */
+public final class PollBuckets {
+
+    public static final int SHARDS = 4;
+    private static final int MILLIS_DIGITS = 13;
+
+    private PollBuckets() {
+    }
+
+    public static String partition(Instant createdAt, String pollId) {
+        return partition(day(createdAt), Math.floorMod(pollId.hashCode(), SHARDS));
+    }
+
+    public static String partition(LocalDate day, int shard) {
+        return day + "#" + shard;
+    }
+
+    public static String sortKey(Instant createdAt, String pollId) {
+        String millis = Long.toString(createdAt.toEpochMilli());
+        return "0".repeat(Math.max(0, MILLIS_DIGITS - millis.length())) + millis + "#" + pollId;
+    }
+
+    public static LocalDate day(Instant instant) {
+        return LocalDate.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    /**
+     * The creation time in a sort key.
+     *
+     * @throws IllegalArgumentException if the key was not made by {@link #sortKey}.
+     */
+    public static Instant createdAt(String sortKey) {
+        int separator = sortKey.indexOf('#');
+        if (separator != MILLIS_DIGITS) {
+            throw new IllegalArgumentException("Not a listing sort key: " + sortKey);
+        }
+        try {
+            return Instant.ofEpochMilli(Long.parseLong(sortKey.substring(0, separator)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a listing sort key: " + sortKey, e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.isap.listing;
+
+import com.isap.domain.Poll;
+import com.isap.domain.PollPage;
+import com.isap.utils.DynamoDbHelper;
+import io.opentelemetry.context.Context;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.isap.codec.Attributes.GSI3SK;
+
+/**
+ * Lists polls newest first from GSI3, see {@link PollBuckets}.
+ *
+ * A page queries the partitions of {@code parallel-buckets} days at once, newest day first, every shard of every day
+ * in every table in parallel. Each query reads at most one page size of polls below the cursor in descending order, so
+ * merging them gives the newest polls of those days. When the days hold fewer polls than the page needs, the next
+ * older days are queried, going back at most {@code lookback} from today. A page therefore reads at most
+ * tables x shards x parallel-buckets x page size items per round, however many polls the table holds.
+ *
+ * The cursor is the sort key of the last poll of the page, so the next page continues below it in its own day.
+ */
+@Slf4j
+@ApplicationScoped
+public class RecentPolls {
+
+    static final String INDEX = "GSI3";
+
+    private final DynamoDbHelper dynamoDbHelper;
+    private final int parallelBuckets;
+    private final Duration lookback;
+    private final ExecutorService executor;
+
+    @Inject
+    public RecentPolls(DynamoDbHelper dynamoDbHelper,
+                       @ConfigProperty(name = "poll.list.parallel-buckets", defaultValue = "2") int parallelBuckets,
+                       @ConfigProperty(name = "poll.list.lookback", defaultValue = "90d") Duration lookback,
+                       @ConfigProperty(name = "poll.list.threads", defaultValue = "32") int threads) {
+        this.dynamoDbHelper = dynamoDbHelper;
+        this.parallelBuckets = parallelBuckets;
+        this.lookback = lookback;
+        AtomicInteger created = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "poll-list-" + created.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param cursor the previous page's {@link PollPage#nextCursor()}, or null for the newest polls.
+     * @throws IllegalArgumentException if the cursor was not made by this class.
+     */
+    public PollPage list(String cursor, int limit) {
+        Instant now = Instant.now();
+        String before = cursor == null ? null : decodeCursor(cursor);
+        LocalDate oldest = PollBuckets.day(now.minus(lookback));
+        LocalDate day = before == null ? PollBuckets.day(now) : PollBuckets.day(PollBuckets.createdAt(before));
+
+        List<Map<String, AttributeValue>> page = new ArrayList<>(limit);
+        while (page.size() < limit && !day.isBefore(oldest)) {
+            List<LocalDate> days = new ArrayList<>(parallelBuckets);
+            for (int i = 0; i < parallelBuckets && !day.isBefore(oldest); i++) {
+                days.add(day);
+                day = day.minusDays(1);
+            }
+
+            page.addAll(newest(days, before, limit - page.size()));
+        }
+
+        List<Poll> polls = page.stream().map(Poll::fromDynamoDbItem).toList();
+        String nextCursor = page.size() < limit ? null : encodeCursor(page.get(page.size() - 1).get(GSI3SK).s());
+        log.debug("Listed {} polls before {}", polls.size(), before);
+        return new PollPage(polls, nextCursor, now);
+    }
+
+    /**
+     * The newest {@code limit} poll items of the days below {@code before}, newest first.
+     */
+    private List<Map<String, AttributeValue>> newest(List<LocalDate> days, String before, int limit) {
+        String condition = before == null ? "GSI3PK = :bucket" : "GSI3PK = :bucket AND GSI3SK < :before";
+        List<Future<List<Map<String, AttributeValue>>>> queries = new ArrayList<>();
+        for (String table : dynamoDbHelper.allTables()) {
+            for (LocalDate day : days) {
+                for (int shard = 0; shard < PollBuckets.SHARDS; shard++) {
+                    Map<String, AttributeValue> values = before == null
+                            ? Map.of(":bucket", AttributeValue.fromS(PollBuckets.partition(day, shard)))
+                            : Map.of(":bucket", AttributeValue.fromS(PollBuckets.partition(day, shard)),
+                            ":before", AttributeValue.fromS(before));
+                    queries.add(executor.submit(Context.current().wrap(
+                            () -> dynamoDbHelper.queryTable(table, INDEX, condition, values, true, limit).items())));
+                }
+            }
+        }
+
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        try {
+            for (Future<List<Map<String, AttributeValue>>> query : queries) {
+                items.addAll(query.get());
+            }
+        } catch (ExecutionException e) {
+            queries.forEach(query -> query.cancel(true));
+            throw e.getCause() instanceof RuntimeException runtimeException
+                    ? runtimeException : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queries.forEach(query -> query.cancel(true));
+            throw new IllegalStateException("Listing polls interrupted", e);
+        }
+
+        // Polls being moved between tables may briefly be on both; the sort key includes the poll ID
+        TreeMap<String, Map<String, AttributeValue>> bySortKey = new TreeMap<>(Comparator.reverseOrder());
+        for (Map<String, AttributeValue> item : items) {
+            bySortKey.putIfAbsent(item.get(GSI3SK).s(), item);
+        }
+        return bySortKey.values().stream().limit(limit).toList();
+    }
+
+    static String encodeCursor(String sortKey) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sortKey.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decodeCursor(String cursor) {
+        String sortKey = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        PollBuckets.createdAt(sortKey);
+        return sortKey;
+    }
+}
@@ -0,0 +1,32 @@
+package com.isap.logging;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.Provider;
+import org.slf4j.MDC;
+
+/**
+ * Puts the name of the resource method being served into the MDC, so log sampling can be set per endpoint.
+ */
+@Provider
+public class EndpointLogTagger implements ContainerRequestFilter, ContainerResponseFilter {
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        if (resourceInfo != null && resourceInfo.getResourceMethod() != null) {
+            MDC.put(LogSampler.ENDPOINT_MDC_KEY, resourceInfo.getResourceMethod().getName());
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        MDC.remove(LogSampler.ENDPOINT_MDC_KEY);
+    }
+}
@@ -0,0 +1,95 @@
+package com.isap.logging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Handler;
+import java.util.logging.Logger;
+
+/**
+ * Hot-path logging mode. When enabled, the handlers of the root logger are moved behind one
+ * {@link RingBufferHandler} filtered by a {@link LogSampler}; on shutdown the buffer is drained and the original
+ * handlers are put back. Records dropped by sampling, rate limiting or a full buffer are counted in
+ * {@code poll.logging.dropped}, tagged with the reason.
+ */
+@Slf4j
+@ApplicationScoped
+public class HotPathLogging {
+
+    private final boolean enabled;
+    private final int bufferSize;
+    private final Map<String, Double> sampleRates;
+    private final double defaultSampleRate;
+    private final double warnPerSecond;
+    private RingBufferHandler handler;
+
+    @Inject
+    public HotPathLogging(@ConfigProperty(name = "poll.logging.hot-path.enabled", defaultValue = "false") boolean enabled,
+                          @ConfigProperty(name = "poll.logging.buffer-size", defaultValue = "8192") int bufferSize,
+                          @ConfigProperty(name = "poll.logging.sample-rates") Optional<List<String>> sampleRates,
+                          @ConfigProperty(name = "poll.logging.default-sample-rate", defaultValue = "1.0") double defaultSampleRate,
+                          @ConfigProperty(name = "poll.logging.warn-per-second", defaultValue = "5") double warnPerSecond) {
+        this.enabled = enabled;
+        this.bufferSize = bufferSize;
+        this.sampleRates = parseSampleRates(sampleRates.orElse(List.of()));
+        this.defaultSampleRate = defaultSampleRate;
+        this.warnPerSecond = warnPerSecond;
+    }
+
+    /**
+     * @param entries {@code endpoint=rate} pairs, the endpoint being the resource method name.
+     */
+    static Map<String, Double> parseSampleRates(List<String> entries) {
+        Map<String, Double> rates = new HashMap<>();
+        for (String entry : entries) {
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected endpoint=rate but got: " + entry);
+            }
+            rates.put(entry.substring(0, separator).trim(), Double.parseDouble(entry.substring(separator + 1).trim()));
+        }
+        return rates;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        Logger root = Logger.getLogger("");
+        List<Handler> handlers = List.of(root.getHandlers());
+        handler = new RingBufferHandler(handlers, bufferSize, dropped("overflow"));
+        handler.setFilter(new LogSampler(sampleRates, defaultSampleRate, warnPerSecond, dropped("sampled"), dropped("rate_limited")));
+        handlers.forEach(root::removeHandler);
+        root.addHandler(handler);
+        log.info("Hot-path logging on: buffer of {} records, sample rates {} (default {}), {} warnings per second per message",
+                bufferSize, sampleRates, defaultSampleRate, warnPerSecond);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (handler == null) {
+            return;
+        }
+
+        Logger root = Logger.getLogger("");
+        root.removeHandler(handler);
+        handler.close();
+        handler.delegates().forEach(root::addHandler);
+        handler = null;
+    }
+
+    private static Counter dropped(String reason) {
+        return Counter.builder("poll.logging.dropped").tag("reason", reason).register(Metrics.globalRegistry);
+    }
+}
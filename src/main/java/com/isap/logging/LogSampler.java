@@ -0,0 +1,60 @@
+package com.isap.logging;
+
+import com.isap.utils.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Filter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Thins out logging on hot request paths. Records below WARNING are kept with the sampling rate of the endpoint
+ * being served, read from the {@value #ENDPOINT_MDC_KEY} MDC entry. WARNING and above are never sampled but each
+ * message template may only be logged {@code warnPerSecond} times a second, so a failing dependency cannot flood
+ * the log. Decisions use the unformatted record, so a dropped record is never rendered.
+ */
+public class LogSampler implements Filter {
+
+    public static final String ENDPOINT_MDC_KEY = "endpoint";
+
+    private final Map<String, Double> sampleRates;
+    private final double defaultSampleRate;
+    private final double warnPerSecond;
+    private final ConcurrentHashMap<String, RateLimiter> limiters = new ConcurrentHashMap<>();
+    private final Counter sampled;
+    private final Counter rateLimited;
+
+    public LogSampler(Map<String, Double> sampleRates, double defaultSampleRate, double warnPerSecond,
+                      Counter sampled, Counter rateLimited) {
+        this.sampleRates = Map.copyOf(sampleRates);
+        this.defaultSampleRate = defaultSampleRate;
+        this.warnPerSecond = warnPerSecond;
+        this.sampled = sampled;
+        this.rateLimited = rateLimited;
+    }
+
+    @Override
+    public boolean isLoggable(LogRecord record) {
+        if (record.getLevel().intValue() >= Level.WARNING.intValue()) {
+            RateLimiter limiter = limiters.computeIfAbsent(record.getLoggerName() + '|' + record.getMessage(),
+                    template -> new RateLimiter(warnPerSecond));
+            if (limiter.tryAcquire(1)) {
+                return true;
+            }
+            rateLimited.increment();
+            return false;
+        }
+
+        String endpoint = MDC.get(ENDPOINT_MDC_KEY);
+        double rate = endpoint == null ? defaultSampleRate : sampleRates.getOrDefault(endpoint, defaultSampleRate);
+        if (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate) {
+            return true;
+        }
+        sampled.increment();
+        return false;
+    }
+}
@@ -0,0 +1,117 @@
+package com.isap.logging;
+
+import io.micrometer.core.instrument.Counter;
+import org.jboss.logmanager.ExtLogRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+/**
+ * Hands log records to a single writer thread through a bounded buffer, so formatting and I/O happen off the request
+ * thread. When the buffer is full the record is dropped and counted rather than making the request wait.
+ *
+ * Records are passed on unformatted, so message arguments are rendered by the writer thread and only for records
+ * that are actually written. The MDC and thread name are captured when the record is queued.
+ */
+public class RingBufferHandler extends Handler {
+
+    private final List<Handler> delegates;
+    private final BlockingQueue<LogRecord> buffer;
+    private final Counter overflowed;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    public RingBufferHandler(List<Handler> delegates, int capacity, Counter overflowed) {
+        this.delegates = List.copyOf(delegates);
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.overflowed = overflowed;
+        this.writer = new Thread(this::drain, "log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+        if (record instanceof ExtLogRecord extRecord) {
+            extRecord.disableCallerCalculation();
+            extRecord.copyMdc();
+        }
+        if (!buffer.offer(record)) {
+            overflowed.increment();
+        }
+    }
+
+    private void drain() {
+        List<LogRecord> batch = new ArrayList<>();
+        while (!closed || !buffer.isEmpty()) {
+            try {
+                LogRecord first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch);
+                for (LogRecord record : batch) {
+                    write(record);
+                }
+                batch.clear();
+                flushDelegates();
+            } catch (InterruptedException e) {
+                // close() interrupts to stop waiting; the loop drains what is left
+            }
+        }
+    }
+
+    private void write(LogRecord record) {
+        for (Handler delegate : delegates) {
+            try {
+                delegate.publish(record);
+            } catch (RuntimeException e) {
+                reportError("Failed to write log record", e, ErrorManager.WRITE_FAILURE);
+            }
+        }
+    }
+
+    private void flushDelegates() {
+        for (Handler delegate : delegates) {
+            delegate.flush();
+        }
+    }
+
+    int buffered() {
+        return buffer.size();
+    }
+
+    @Override
+    public void flush() {
+        // The writer flushes after every batch
+    }
+
+    /**
+     * Stops accepting records and waits briefly for the buffered ones to be written. The delegates stay open,
+     * they belong to the log manager.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    List<Handler> delegates() {
+        return delegates;
+    }
+}
@@ -0,0 +1,88 @@
+package com.isap.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One DynamoDB call made through DynamoDbHelper. Every call is also added to the {@link RequestEvent} of its thread,
+ * whether or not it passes its own threshold.
+ */
+@Name(DynamoDbCallEvent.NAME)
+@Label("DynamoDB Call")
+@Category({"Polling App"})
+@Description("A DynamoDB operation, with the bytes it returned and the capacity it consumed")
+@StackTrace(false)
+@Threshold("10 ms")
+public class DynamoDbCallEvent extends Event {
+
+    public static final String NAME = "com.isap.DynamoDbCall";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Poll ID")
+    String pollId;
+
+    @Label("Table")
+    String table;
+
+    @Label("Index")
+    String index;
+
+    @Label("Response Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Consumed Capacity")
+    double consumedCapacity;
+
+    @Label("Failed")
+    boolean failed;
+
+    private transient boolean recording;
+    private transient long startedNanos;
+
+    public static DynamoDbCallEvent begin(String operation, String pollId, String table, String index) {
+        DynamoDbCallEvent event = new DynamoDbCallEvent();
+        if (event.isEnabled() || RequestEvent.current() != null) {
+            event.operation = operation;
+            event.pollId = pollId;
+            event.table = table;
+            event.index = index;
+            event.recording = true;
+            event.startedNanos = System.nanoTime();
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * Whether the call is being recorded, so its bytes and capacity are worth working out.
+     */
+    public boolean recording() {
+        return recording;
+    }
+
+    public void finish(long bytes, double consumedCapacity, boolean failed) {
+        if (!recording()) {
+            return;
+        }
+        end();
+        RequestEvent request = RequestEvent.current();
+        if (request != null) {
+            request.dynamoDbCall(System.nanoTime() - startedNanos, bytes);
+        }
+        if (shouldCommit()) {
+            this.bytes = bytes;
+            this.consumedCapacity = consumedCapacity;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.isap.profiling;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Starts, dumps and stops one JDK Flight Recorder recording at a time.
+ *
+ * A recording uses the JDK's {@code default} settings, which are meant for production at about 1% overhead, plus
+ * {@link RequestEvent} and {@link DynamoDbCallEvent} above their thresholds. It keeps at most {@code max-age} and
+ * {@code max-size} of data and can stop on its own after a duration, so one left running stays bounded. Dumps are
+ * written to {@code directory} and only the newest {@code max-dumps} are kept.
+ *
+ * Native executables built without JFR support report the recorder as unavailable; the events then cost one
+ * {@code isEnabled()} check.
+ */
+@Slf4j
+@ApplicationScoped
+public class FlightRecordings {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
+    private final Path directory;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private final int maxDumps;
+    private final Duration defaultRequestThreshold;
+    private final Duration defaultDynamoDbThreshold;
+    private final boolean startOnBoot;
+    private Recording recording;
+    private Duration requestThreshold;
+    private Duration dynamoDbThreshold;
+    private Instant lastDumpAt = Instant.EPOCH;
+
+    @Inject
+    public FlightRecordings(@ConfigProperty(name = "poll.jfr.directory", defaultValue = "recordings") Path directory,
+                            @ConfigProperty(name = "poll.jfr.max-age", defaultValue = "15m") Duration maxAge,
+                            @ConfigProperty(name = "poll.jfr.max-size-mb", defaultValue = "100") long maxSizeMb,
+                            @ConfigProperty(name = "poll.jfr.max-dumps", defaultValue = "5") int maxDumps,
+                            @ConfigProperty(name = "poll.jfr.request-threshold", defaultValue = "20ms") Duration requestThreshold,
+                            @ConfigProperty(name = "poll.jfr.dynamodb-threshold", defaultValue = "10ms") Duration dynamoDbThreshold,
+                            @ConfigProperty(name = "poll.jfr.start-on-boot", defaultValue = "false") boolean startOnBoot) {
+        this.directory = directory;
+        this.maxAge = maxAge;
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.maxDumps = maxDumps;
+        this.defaultRequestThreshold = requestThreshold;
+        this.defaultDynamoDbThreshold = dynamoDbThreshold;
+        this.startOnBoot = startOnBoot;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (startOnBoot && available()) {
+            start(null, null, null);
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    public static boolean available() {
+        try {
+            return FlightRecorder.isAvailable();
+        } catch (RuntimeException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param requestThreshold  shortest request recorded, or null for {@code request-threshold}.
+     * @param dynamoDbThreshold shortest DynamoDB call recorded, or null for {@code dynamodb-threshold}.
+     * @param duration          when to stop on its own, or null to run until stopped.
+     * @throws IllegalStateException if a recording is already running.
+     */
+    public synchronized RecordingStatus start(Duration requestThreshold, Duration dynamoDbThreshold, Duration duration) {
+        requireAvailable();
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        close();
+
+        Configuration settings;
+        try {
+            settings = Configuration.getConfiguration("default");
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Cannot read the default JFR settings: " + e.getMessage(), e);
+        }
+
+        this.requestThreshold = requestThreshold == null ? defaultRequestThreshold : requestThreshold;
+        this.dynamoDbThreshold = dynamoDbThreshold == null ? defaultDynamoDbThreshold : dynamoDbThreshold;
+        recording = new Recording(settings);
+        recording.setName("poll-app");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeBytes);
+        if (duration != null) {
+            recording.setDuration(duration);
+        }
+        recording.enable(RequestEvent.NAME).withThreshold(this.requestThreshold).withoutStackTrace();
+        recording.enable(DynamoDbCallEvent.NAME).withThreshold(this.dynamoDbThreshold).withoutStackTrace();
+        recording.start();
+        log.info("Started JFR recording with request threshold {} and DynamoDB threshold {}",
+                this.requestThreshold, this.dynamoDbThreshold);
+        return status(null);
+    }
+
+    /**
+     * Writes what the recording holds so far to a new file, leaving it running.
+     *
+     * @throws IllegalStateException if there is no recording.
+     */
+    public synchronized RecordingStatus dump() {
+        requireAvailable();
+        if (recording == null) {
+            throw new IllegalStateException("No recording has been started");
+        }
+        return status(write());
+    }
+
+    /**
+     * Stops the recording and writes it to a new file.
+     *
+     * @throws IllegalStateException if there is no recording.
+     */
+    public synchronized RecordingStatus stop(boolean dump) {
+        requireAvailable();
+        if (recording == null) {
+            throw new IllegalStateException("No recording has been started");
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        Path file = dump ? write() : null;
+        RecordingStatus status = status(file);
+        close();
+        log.info("Stopped JFR recording{}", file == null ? "" : ", written to " + file);
+        return status;
+    }
+
+    public synchronized RecordingStatus status() {
+        return status(null);
+    }
+
+    private RecordingStatus status(Path file) {
+        if (!available()) {
+            return new RecordingStatus(false, null, null, null, null, null, null, null, null, null);
+        }
+        if (recording == null) {
+            return new RecordingStatus(true, null, null, null, null, null, maxAge, maxSizeBytes, null, null);
+        }
+        Long fileBytes = null;
+        if (file != null) {
+            try {
+                fileBytes = Files.size(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new RecordingStatus(true, recording.getState().name(), recording.getStartTime(), recording.getDuration(),
+                requestThreshold, dynamoDbThreshold, maxAge, maxSizeBytes, file == null ? null : file.toString(), fileBytes);
+    }
+
+    private Path write() {
+        try {
+            Files.createDirectories(directory);
+            // Names sort by time for pruning, so two dumps within a millisecond get distinct, ordered times
+            Instant dumpAt = Instant.now();
+            lastDumpAt = dumpAt.isAfter(lastDumpAt.plusMillis(1)) ? dumpAt : lastDumpAt.plusMillis(1);
+            Path file = directory.resolve("poll-app-" + FILE_TIME.format(lastDumpAt) + ".jfr");
+            recording.dump(file);
+            pruneDumps();
+            log.info("Wrote JFR recording to {}", file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write the recording: " + e.getMessage(), e);
+        }
+    }
+
+    private void pruneDumps() throws IOException {
+        List<Path> dumps;
+        try (Stream<Path> files = Files.list(directory)) {
+            dumps = files.filter(path -> path.getFileName().toString().startsWith("poll-app-")
+                            && path.getFileName().toString().endsWith(".jfr"))
+                    .sorted()
+                    .toList();
+        }
+        for (Path old : dumps.subList(0, Math.max(0, dumps.size() - maxDumps))) {
+            Files.deleteIfExists(old);
+        }
+    }
+
+    private static void requireAvailable() {
+        if (!available()) {
+            throw new UnsupportedOperationException("JDK Flight Recorder is not available in this build");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.isap.profiling;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * @param available false in builds without JDK Flight Recorder; everything else is then null.
+ * @param state     NEW, RUNNING, STOPPED or CLOSED, or null when no recording has been started.
+ * @param duration  when the recording stops on its own, or null.
+ * @param file      the file just written by a dump or stop, or null.
+ */
+public record RecordingStatus(boolean available, String state, Instant startedAt, Duration duration,
+                              Duration requestThreshold, Duration dynamoDbThreshold, Duration maxAge, Long maxSizeBytes,
+                              String file, Long fileBytes) {
+}
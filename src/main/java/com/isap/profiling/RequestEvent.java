@@ -0,0 +1,87 @@
+package com.isap.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * One request to a poll endpoint, with the DynamoDB calls made on its thread, so a slow request can be split into
+ * DynamoDB time and everything else: GC pauses, lock waits and CPU show as JFR's own events in the same interval.
+ *
+ * Outside a recording that enables the event, {@link #begin(String, String)} only checks {@link #isEnabled()} and
+ * {@link #finish(int)} only clears the thread's current request, which a recording stopped mid-request leaves behind.
+ */
+@Name(RequestEvent.NAME)
+@Label("Poll Request")
+@Category({"Polling App"})
+@Description("A vote or poll read, with the DynamoDB calls it made")
+@StackTrace(false)
+@Threshold("20 ms")
+public class RequestEvent extends Event {
+
+    public static final String NAME = "com.isap.Request";
+
+    private static final ThreadLocal<RequestEvent> CURRENT = new ThreadLocal<>();
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Poll ID")
+    String pollId;
+
+    @Label("Status")
+    int status;
+
+    @Label("DynamoDB Calls")
+    int dynamoDbCalls;
+
+    @Label("DynamoDB Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long dynamoDbTime;
+
+    @Label("DynamoDB Bytes")
+    @DataAmount
+    long dynamoDbBytes;
+
+    public static RequestEvent begin(String endpoint, String pollId) {
+        RequestEvent event = new RequestEvent();
+        if (event.isEnabled()) {
+            event.endpoint = endpoint;
+            event.pollId = pollId;
+            CURRENT.set(event);
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * The request being recorded on this thread, or null.
+     */
+    static RequestEvent current() {
+        return CURRENT.get();
+    }
+
+    void dynamoDbCall(long nanos, long bytes) {
+        dynamoDbCalls++;
+        dynamoDbTime += nanos;
+        dynamoDbBytes += bytes;
+    }
+
+    public void finish(int status) {
+        CURRENT.remove();
+        if (!isEnabled()) {
+            return;
+        }
+        end();
+        if (shouldCommit()) {
+            this.status = status;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.isap.ranked;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Instant-runoff count over a {@link RankedTally}.
+ *
+ * Each round counts every ballot for its highest-ranked option still in the race. An option with more than half of
+ * the counted ballots wins; otherwise the option with the fewest is eliminated and its ballots move on to their next
+ * choice. Ties for last place eliminate the option with fewer first-round ballots, then the one later in optionId
+ * order.
+ *
+ * A round walks the per-ranking counters, not the ballots, split over the common fork/join pool once there are more
+ * than {@link #SPLIT_THRESHOLD} of them.
+ */
+public final class InstantRunoff {
+
+    static final int SPLIT_THRESHOLD = 2048;
+
+    private InstantRunoff() {
+    }
+
+    public static RankedResults count(String pollId, RankedTally tally) {
+        List<String> optionIds = tally.optionIds();
+        int options = optionIds.size();
+        long ballots = tally.ballots();
+
+        List<RankedRound> rounds = new ArrayList<>();
+        long[] firstRound = null;
+        int eliminated = 0;
+        while (true) {
+            long[] round = ForkJoinPool.commonPool().invoke(new RoundCount(tally, options, eliminated, 0, tally.size()));
+            if (firstRound == null) {
+                firstRound = round;
+            }
+
+            int leader = -1;
+            int last = -1;
+            long counted = 0;
+            for (int option = 0; option < options; option++) {
+                if ((eliminated & 1 << option) != 0) {
+                    continue;
+                }
+                counted += round[option];
+                if (leader < 0 || round[option] > round[leader]) {
+                    leader = option;
+                }
+                if (last < 0 || round[option] < round[last]
+                        || round[option] == round[last] && firstRound[option] <= firstRound[last]) {
+                    last = option;
+                }
+            }
+
+            boolean decided = counted == 0 || 2 * round[leader] > counted
+                    || Integer.bitCount(eliminated) == options - 1;
+            rounds.add(new RankedRound(counts(round, optionIds, eliminated), round[options],
+                    decided ? null : optionIds.get(last)));
+            if (decided) {
+                return new RankedResults(pollId, tally.texts(), ballots, counted == 0 ? null : optionIds.get(leader),
+                        rounds);
+            }
+            eliminated |= 1 << last;
+        }
+    }
+
+    private static Map<String, Long> counts(long[] round, List<String> optionIds, int eliminated) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int option = 0; option < optionIds.size(); option++) {
+            if ((eliminated & 1 << option) == 0) {
+                counts.put(optionIds.get(option), round[option]);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Ballots per option, and exhausted ballots in the last slot, over a range of ranking indexes.
+     */
+    private static final class RoundCount extends RecursiveTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final RankedTally tally;
+        private final int options;
+        private final int eliminated;
+        private final int from;
+        private final int to;
+
+        private RoundCount(RankedTally tally, int options, int eliminated, int from, int to) {
+            this.tally = tally;
+            this.options = options;
+            this.eliminated = eliminated;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                RoundCount left = new RoundCount(tally, options, eliminated, from, middle);
+                left.fork();
+                long[] right = new RoundCount(tally, options, eliminated, middle, to).compute();
+                long[] sum = left.join();
+                for (int i = 0; i < sum.length; i++) {
+                    sum[i] += right[i];
+                }
+                return sum;
+            }
+
+            long[] round = new long[options + 1];
+            for (int index = from; index < to; index++) {
+                long ballots = tally.count(index);
+                if (ballots == 0) {
+                    continue;
+                }
+                round[nextChoice(Rankings.code(options, index))] += ballots;
+            }
+            return round;
+        }
+
+        private int nextChoice(int code) {
+            for (int position = 0; position < Rankings.length(code); position++) {
+                int option = Rankings.choice(code, position);
+                if ((eliminated & 1 << option) == 0) {
+                    return option;
+                }
+            }
+            return options;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.isap.ranked;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Instant-runoff results of a ranked poll.
+ * @param options option texts by optionId.
+ * @param winner  the optionId holding a majority of the ballots still counted, or null before any ballot.
+ */
+public record RankedResults(String pollId, Map<String, String> options, long ballots, String winner,
+                            List<RankedRound> rounds) {
+}
@@ -0,0 +1,11 @@
+package com.isap.ranked;
+
+import java.util.Map;
+
+/**
+ * @param counts     ballots counted for each option still in the race, by optionId.
+ * @param exhausted  ballots whose ranked options have all been eliminated.
+ * @param eliminated the option eliminated at the end of the round, or null in the final round.
+ */
+public record RankedRound(Map<String, Long> counts, long exhausted, String eliminated) {
+}
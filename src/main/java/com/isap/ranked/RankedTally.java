@@ -0,0 +1,95 @@
+package com.isap.ranked;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ballot counts of a ranked poll, one counter per possible ranking rather than one entry per ballot. Adding ballots
+ * is a counter increment, and a recount walks at most {@link Rankings#count(int)} counters however many ballots
+ * were cast.
+ */
+public class RankedTally {
+
+    // A ranked poll's item has pollType = "ranked"; its option items count ballots in a map keyed by packed ranking
+    public static final String POLL_TYPE = "pollType";
+    public static final String RANKED = "ranked";
+    public static final String RANKINGS = "rankings";
+
+    private final List<String> optionIds;
+    private final Map<String, String> texts;
+    private final AtomicLongArray counts;
+
+    /**
+     * @param options option texts by optionId.
+     */
+    public RankedTally(Map<String, String> options) {
+        if (options.size() < Rankings.MIN_OPTIONS || options.size() > Rankings.MAX_OPTIONS) {
+            throw new IllegalArgumentException("Ranked polls have between " + Rankings.MIN_OPTIONS + " and "
+                    + Rankings.MAX_OPTIONS + " options");
+        }
+        this.texts = new TreeMap<>(options);
+        this.optionIds = List.copyOf(texts.keySet());
+        this.counts = new AtomicLongArray(Rankings.count(optionIds.size()));
+    }
+
+    /**
+     * Builds the tally of a poll from its option items, which hold the counts of the ballots they are the first
+     * choice of.
+     */
+    public static RankedTally fromOptionItems(List<Map<String, AttributeValue>> items) {
+        Map<String, String> options = new TreeMap<>();
+        for (Map<String, AttributeValue> item : items) {
+            options.put(item.get("PK").s(), item.get("text").s());
+        }
+        RankedTally tally = new RankedTally(options);
+        for (Map<String, AttributeValue> item : items) {
+            AttributeValue rankings = item.get(RANKINGS);
+            if (rankings == null || !rankings.hasM()) {
+                continue;
+            }
+            for (Map.Entry<String, AttributeValue> ranking : rankings.m().entrySet()) {
+                tally.add(Integer.parseInt(ranking.getKey()), Long.parseLong(ranking.getValue().n()));
+            }
+        }
+        return tally;
+    }
+
+    public int pack(List<String> ranking) {
+        return Rankings.pack(ranking, optionIds);
+    }
+
+    public void add(int code, long ballots) {
+        counts.addAndGet(Rankings.index(optionIds.size(), code), ballots);
+    }
+
+    public long ballots() {
+        long ballots = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            ballots += counts.get(i);
+        }
+        return ballots;
+    }
+
+    /**
+     * Option IDs in sorted order; a ranking's option numbers index this list.
+     */
+    public List<String> optionIds() {
+        return optionIds;
+    }
+
+    public Map<String, String> texts() {
+        return texts;
+    }
+
+    long count(int index) {
+        return counts.get(index);
+    }
+
+    int size() {
+        return counts.length();
+    }
+}
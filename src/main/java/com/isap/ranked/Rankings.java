@@ -0,0 +1,142 @@
+package com.isap.ranked;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bit-packed rankings over the options of a poll, and a dense numbering of every possible ranking.
+ *
+ * Options are numbered by the sort order of their IDs. A ranking of k of them packs into an int: k in the low 3 bits,
+ * then the option number of each preference, 3 bits each, first preference lowest. Seven options fit in 24 bits.
+ *
+ * The dense index of a ranking orders all rankings of n options by length, then lexicographically; it runs from 0 to
+ * {@link #count(int)}, at most 13,699 for seven options, so counts per ranking fit in a plain array.
+ */
+public final class Rankings {
+
+    public static final int MIN_OPTIONS = 2;
+    public static final int MAX_OPTIONS = 7;
+    private static final int BITS = 3;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final int[][] CODES_BY_INDEX = new int[MAX_OPTIONS + 1][];
+
+    static {
+        for (int options = MIN_OPTIONS; options <= MAX_OPTIONS; options++) {
+            CODES_BY_INDEX[options] = enumerate(options);
+        }
+    }
+
+    private Rankings() {
+    }
+
+    /**
+     * Packs a ranking of option IDs, rejecting unknown, repeated or missing choices.
+     *
+     * @param optionIds the poll's option IDs in sorted order.
+     */
+    public static int pack(List<String> ranking, List<String> optionIds) {
+        if (ranking == null || ranking.isEmpty() || ranking.size() > optionIds.size()) {
+            throw new IllegalArgumentException("A ranking must list between 1 and " + optionIds.size() + " options");
+        }
+        int code = ranking.size();
+        int seen = 0;
+        for (int position = 0; position < ranking.size(); position++) {
+            int option = optionIds.indexOf(ranking.get(position));
+            if (option < 0) {
+                throw new IllegalArgumentException("Unknown option in ranking: " + ranking.get(position));
+            }
+            if ((seen & 1 << option) != 0) {
+                throw new IllegalArgumentException("Option ranked twice: " + ranking.get(position));
+            }
+            seen |= 1 << option;
+            code |= option << BITS * (position + 1);
+        }
+        return code;
+    }
+
+    public static int length(int code) {
+        return code & MASK;
+    }
+
+    public static int choice(int code, int position) {
+        return code >>> BITS * (position + 1) & MASK;
+    }
+
+    /**
+     * Number of distinct rankings of at least one of {@code options} options.
+     */
+    public static int count(int options) {
+        return CODES_BY_INDEX[options].length;
+    }
+
+    public static int code(int options, int index) {
+        return CODES_BY_INDEX[options][index];
+    }
+
+    public static int index(int options, int code) {
+        int length = length(code);
+        if (length < 1 || length > options) {
+            throw new IllegalArgumentException("Not a ranking of " + options + " options: " + code);
+        }
+        int index = 0;
+        for (int k = 1; k < length; k++) {
+            index += arrangements(options, k);
+        }
+        int used = 0;
+        for (int position = 0; position < length; position++) {
+            int option = choice(code, position);
+            if (option >= options || (used & 1 << option) != 0) {
+                throw new IllegalArgumentException("Not a ranking of " + options + " options: " + code);
+            }
+            int smallerUnused = Integer.bitCount(~used & ((1 << option) - 1));
+            index += smallerUnused * arrangements(options - position - 1, length - position - 1);
+            used |= 1 << option;
+        }
+        return index;
+    }
+
+    /**
+     * The ranking as option IDs, for display and tests.
+     */
+    public static List<String> unpack(int code, List<String> optionIds) {
+        List<String> ranking = new ArrayList<>(length(code));
+        for (int position = 0; position < length(code); position++) {
+            ranking.add(optionIds.get(choice(code, position)));
+        }
+        return ranking;
+    }
+
+    // n! / (n - k)!
+    private static int arrangements(int n, int k) {
+        int arrangements = 1;
+        for (int i = 0; i < k; i++) {
+            arrangements *= n - i;
+        }
+        return arrangements;
+    }
+
+    private static int[] enumerate(int options) {
+        int total = 0;
+        for (int k = 1; k <= options; k++) {
+            total += arrangements(options, k);
+        }
+        int[] codes = new int[total];
+        for (int length = 1; length <= options; length++) {
+            fill(options, length, 0, length, 0, codes);
+        }
+        return codes;
+    }
+
+    private static void fill(int options, int length, int position, int code, int used, int[] codes) {
+        if (position == length) {
+            codes[index(options, code)] = code;
+            return;
+        }
+        for (int option = 0; option < options; option++) {
+            if ((used & 1 << option) == 0) {
+                fill(options, length, position + 1, code | option << BITS * (position + 1), used | 1 << option, codes);
+            }
+        }
+    }
+}
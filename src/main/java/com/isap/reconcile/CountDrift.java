@@ -0,0 +1,24 @@
+package com.isap.reconcile;
+
+/**
+ * An option whose stored counter did not match its vote items.
+ *
+ * @param storedCount counter on the option item, or null when vote items reference a missing option.
+ * @param countedVotes number of vote items for the option.
+ * @param action what the reconciler did about it.
+ */
+public record CountDrift(String optionId, String pollId, Long storedCount, long countedVotes, Action action) {
+
+    public enum Action {
+        /** Counter corrected with a conditional update. */
+        FIXED,
+        /** Reported only, because the run was a dry run. */
+        REPORTED,
+        /** Counter or votes changed while verifying, left for the next run. */
+        SKIPPED_CONCURRENT_UPDATE,
+        /** The poll was closed, so its final results are kept as they were taken. */
+        SKIPPED_CLOSED_POLL,
+        /** Vote items reference an option item that does not exist. */
+        ORPHANED_VOTES
+    }
+}
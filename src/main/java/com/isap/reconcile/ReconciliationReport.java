@@ -0,0 +1,19 @@
+package com.isap.reconcile;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * @param drifts drifted options, capped at {@link VoteCountReconciler#MAX_REPORTED_DRIFTS}.
+ */
+public record ReconciliationReport(Instant startedAt,
+                                   long durationMillis,
+                                   boolean dryRun,
+                                   int segments,
+                                   long itemsScanned,
+                                   double consumedReadUnits,
+                                   long optionsChecked,
+                                   long driftsDetected,
+                                   long driftsFixed,
+                                   List<CountDrift> drifts) {
+}
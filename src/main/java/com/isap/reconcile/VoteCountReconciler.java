@@ -0,0 +1,347 @@
+package com.isap.reconcile;
+
+import com.isap.tally.VoteTally;
+import com.isap.utils.DynamoDbHelper;
+import com.isap.utils.RateLimiter;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.isap.domain.Option.SK_OPTION;
+import static com.isap.domain.Poll.SK_POLL;
+import static com.isap.domain.Vote.SK_VOTE;
+
+/**
+ * Repairs option vote counters that drifted from the vote items, e.g. when incrementVoteCount succeeded
+ * but the following putVote failed.
+ *
+ * A run recounts vote items per option with a parallel segmented scan and compares them with the counters.
+ * The scan is not a snapshot, so every mismatch is verified twice, {@code settle-delay} apart, with a consistent
+ * read of the counter and a count of the option's votes on GSI2. Only a mismatch that stays identical across both
+ * checks is fixed, with an update conditioned on the counter still holding the value that was checked. Options of
+ * polls that have been closed are left alone, since their final results were already taken from the counters.
+ *
+ * Reads are throttled to {@code read-units-per-second} and pages are kept small so a run can share the table
+ * with live traffic.
+ */
+@Slf4j
+@ApplicationScoped
+public class VoteCountReconciler {
+
+    static final int MAX_REPORTED_DRIFTS = 1000;
+
+    private final DynamoDbHelper dynamoDbHelper;
+    private final VoteTally voteTally;
+    private final int segments;
+    private final double readUnitsPerSecond;
+    private final int pageSize;
+    private final Duration settleDelay;
+    private final Duration interval;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+
+    @Inject
+    public VoteCountReconciler(DynamoDbHelper dynamoDbHelper, VoteTally voteTally,
+                               @ConfigProperty(name = "poll.reconcile.segments", defaultValue = "4") int segments,
+                               @ConfigProperty(name = "poll.reconcile.read-units-per-second", defaultValue = "100") double readUnitsPerSecond,
+                               @ConfigProperty(name = "poll.reconcile.page-size", defaultValue = "500") int pageSize,
+                               @ConfigProperty(name = "poll.reconcile.settle-delay", defaultValue = "2s") Duration settleDelay,
+                               @ConfigProperty(name = "poll.reconcile.interval", defaultValue = "0s") Duration interval) {
+        this.dynamoDbHelper = dynamoDbHelper;
+        this.voteTally = voteTally;
+        this.segments = segments;
+        this.readUnitsPerSecond = readUnitsPerSecond;
+        this.pageSize = pageSize;
+        this.settleDelay = settleDelay;
+        this.interval = interval;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (interval.isZero() || interval.isNegative()) {
+            return;
+        }
+
+        log.info("Scheduling vote count reconciliation every {}", interval);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "vote-count-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile(false);
+            } catch (RuntimeException e) {
+                log.error("Scheduled vote count reconciliation failed: {}", e.getMessage(), e);
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * @param dryRun when true, drift is reported but not fixed.
+     * @throws IllegalStateException if a run is already in progress.
+     */
+    public ReconciliationReport reconcile(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A reconciliation run is already in progress");
+        }
+
+        try {
+            return run(dryRun);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconciliation interrupted", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ReconciliationReport run(boolean dryRun) throws InterruptedException {
+        Instant startedAt = Instant.now();
+        RateLimiter rateLimiter = new RateLimiter(readUnitsPerSecond);
+        log.info("Starting vote count reconciliation with {} segments at {} RCU/s (dry run: {})", segments, readUnitsPerSecond, dryRun);
+
+        SegmentTally tally = scanAll(rateLimiter);
+        log.info("Reconciliation scan read {} items using {} RCU", tally.itemsScanned, tally.consumedReadUnits);
+
+        List<CountDrift> candidates = new ArrayList<>();
+        for (Map.Entry<String, OptionCounter> entry : tally.counters.entrySet()) {
+            long counted = tally.votes.getOrDefault(entry.getKey(), 0L);
+            if (entry.getValue().votes != counted) {
+                candidates.add(new CountDrift(entry.getKey(), entry.getValue().pollId, entry.getValue().votes, counted, null));
+            }
+        }
+        List<CountDrift> orphaned = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : tally.votes.entrySet()) {
+            if (!tally.counters.containsKey(entry.getKey())) {
+                orphaned.add(new CountDrift(entry.getKey(), null, null, entry.getValue(), CountDrift.Action.ORPHANED_VOTES));
+            }
+        }
+
+        List<CountDrift> drifts = verifyAndFix(candidates, rateLimiter, dryRun);
+        long fixed = drifts.stream().filter(drift -> drift.action() == CountDrift.Action.FIXED).count();
+        long detected = drifts.size() + orphaned.size();
+        drifts.addAll(orphaned);
+
+        ReconciliationReport report = new ReconciliationReport(startedAt, Duration.between(startedAt, Instant.now()).toMillis(),
+                dryRun, segments, tally.itemsScanned, tally.consumedReadUnits, tally.counters.size(), detected, fixed,
+                List.copyOf(drifts.subList(0, Math.min(drifts.size(), MAX_REPORTED_DRIFTS))));
+        log.info("Vote count reconciliation finished: {} options checked, {} drifted, {} fixed",
+                report.optionsChecked(), report.driftsDetected(), report.driftsFixed());
+        return report;
+    }
+
+    private SegmentTally scanAll(RateLimiter rateLimiter) throws InterruptedException {
+        List<String> tables = dynamoDbHelper.allTables();
+        ExecutorService executor = Executors.newFixedThreadPool(segments);
+        try {
+            List<Future<SegmentTally>> futures = new ArrayList<>(tables.size() * segments);
+            for (String table : tables) {
+                for (int segment = 0; segment < segments; segment++) {
+                    int current = segment;
+                    futures.add(executor.submit(() -> scanSegment(table, current, rateLimiter)));
+                }
+            }
+
+            SegmentTally total = new SegmentTally();
+            for (Future<SegmentTally> future : futures) {
+                total.merge(future.get());
+            }
+            return total;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Reconciliation scan failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private SegmentTally scanSegment(String table, int segment, RateLimiter rateLimiter) throws InterruptedException {
+        Map<String, AttributeValue> values = Map.of(
+                ":vote", AttributeValue.builder().s(SK_VOTE).build(),
+                ":option", AttributeValue.builder().s(SK_OPTION).build()
+        );
+
+        SegmentTally tally = new SegmentTally();
+        Map<String, AttributeValue> startKey = null;
+        do {
+            ScanResponse page = dynamoDbHelper.scanSegment(table, segment, segments, "SK = :vote OR SK = :option",
+                    "PK, SK, optionId, pollId, votes", values, startKey, pageSize);
+            tally.add(page.items());
+            tally.itemsScanned += page.scannedCount();
+
+            double consumed = page.consumedCapacity() == null ? 0 : page.consumedCapacity().capacityUnits();
+            tally.consumedReadUnits += consumed;
+            rateLimiter.acquire(consumed);
+
+            startKey = page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty() ? page.lastEvaluatedKey() : null;
+        } while (startKey != null);
+
+        log.debug("Reconciliation segment {} of {} in {} done", segment, segments, table);
+        return tally;
+    }
+
+    private List<CountDrift> verifyAndFix(List<CountDrift> candidates, RateLimiter rateLimiter, boolean dryRun)
+            throws InterruptedException {
+        if (candidates.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, Boolean> closedPolls = new HashMap<>();
+        Map<String, long[]> firstCheck = new HashMap<>();
+        for (CountDrift candidate : candidates) {
+            firstCheck.put(candidate.optionId(), check(candidate.optionId(), candidate.pollId(), rateLimiter));
+        }
+
+        TimeUnit.MILLISECONDS.sleep(settleDelay.toMillis());
+
+        List<CountDrift> drifts = new ArrayList<>();
+        for (CountDrift candidate : candidates) {
+            long[] first = firstCheck.get(candidate.optionId());
+            if (first[0] == first[1]) {
+                continue;  // the scan caught the option mid-vote
+            }
+
+            long[] second = check(candidate.optionId(), candidate.pollId(), rateLimiter);
+            CountDrift.Action action;
+            if (first[0] != second[0] || first[1] != second[1]) {
+                action = CountDrift.Action.SKIPPED_CONCURRENT_UPDATE;
+            } else if (closedPolls.computeIfAbsent(candidate.pollId(), pollId -> isClosed(pollId, rateLimiter))) {
+                action = CountDrift.Action.SKIPPED_CLOSED_POLL;
+            } else if (dryRun) {
+                action = CountDrift.Action.REPORTED;
+            } else {
+                action = fix(candidate.optionId(), candidate.pollId(), second[0], second[1]);
+            }
+            drifts.add(new CountDrift(candidate.optionId(), candidate.pollId(), second[0], second[1], action));
+        }
+        return drifts;
+    }
+
+    /**
+     * @return the stored counter and the number of vote items for the option, read now.
+     */
+    private long[] check(String optionId, String pollId, RateLimiter rateLimiter) throws InterruptedException {
+        rateLimiter.acquire(1);
+
+        Map<String, AttributeValue> option = dynamoDbHelper.getItemConsistent(pollId, optionKey(optionId)).item();
+        AttributeValue votes = option == null ? null : option.get("votes");
+        long stored = votes == null ? 0 : Long.parseLong(votes.n());
+
+        // A popular option's votes take many pages, each charged once read like the scan's
+        long counted = dynamoDbHelper.countItems(pollId, "GSI2", "GSI2PK = :optionId AND GSI2SK = :SK", Map.of(
+                ":optionId", AttributeValue.builder().s(optionId).build(),
+                ":SK", AttributeValue.builder().s(SK_OPTION).build()
+        ), units -> acquire(rateLimiter, units));
+        return new long[]{stored, counted};
+    }
+
+    /**
+     * @return whether the poll has final results, read now.
+     */
+    private boolean isClosed(String pollId, RateLimiter rateLimiter) {
+        acquire(rateLimiter, 1);
+        Map<String, AttributeValue> poll = dynamoDbHelper.getItemConsistent(pollId, Map.of(
+                "PK", AttributeValue.builder().s(pollId).build(),
+                "SK", AttributeValue.builder().s(SK_POLL).build()
+        )).item();
+        return poll != null && poll.containsKey("finalResults");
+    }
+
+    // For callbacks, which cannot throw InterruptedException; reported as reconcile() does
+    private static void acquire(RateLimiter rateLimiter, double units) {
+        try {
+            rateLimiter.acquire(units);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconciliation interrupted", e);
+        }
+    }
+
+    private CountDrift.Action fix(String optionId, String pollId, long stored, long counted) {
+        Map<String, AttributeValue> values = Map.of(
+                ":seen", AttributeValue.builder().n(String.valueOf(stored)).build(),
+                ":actual", AttributeValue.builder().n(String.valueOf(counted)).build()
+        );
+
+        try {
+            dynamoDbHelper.updateItem(pollId, optionKey(optionId), "SET votes = :actual", "votes = :seen", values);
+            log.info("Fixed vote count for OptionID: {} from {} to {}", optionId, stored, counted);
+            // Reads of the options are eventually consistent and only raise the tally, so a correction down is set here
+            voteTally.correct(pollId, optionId, counted);
+            return CountDrift.Action.FIXED;
+        } catch (ConditionalCheckFailedException e) {
+            log.info("Vote count for OptionID: {} changed before it could be fixed", optionId);
+            return CountDrift.Action.SKIPPED_CONCURRENT_UPDATE;
+        }
+    }
+
+    private static Map<String, AttributeValue> optionKey(String optionId) {
+        return Map.of(
+                "PK", AttributeValue.builder().s(optionId).build(),
+                "SK", AttributeValue.builder().s(SK_OPTION).build()
+        );
+    }
+
+    private record OptionCounter(String pollId, long votes) {
+    }
+
+    /**
+     * Vote counts and option counters seen by one scan segment, merged after all segments finish.
+     */
+    private static final class SegmentTally {
+        private final Map<String, Long> votes = new HashMap<>();
+        private final Map<String, OptionCounter> counters = new HashMap<>();
+        private long itemsScanned;
+        private double consumedReadUnits;
+
+        private void add(List<Map<String, AttributeValue>> items) {
+            for (Map<String, AttributeValue> item : items) {
+                if (SK_VOTE.equals(item.get("SK").s())) {
+                    AttributeValue optionId = item.get("optionId");
+                    if (optionId != null) {
+                        votes.merge(optionId.s(), 1L, Long::sum);
+                    }
+                } else {
+                    AttributeValue stored = item.get("votes");
+                    AttributeValue pollId = item.get("pollId");
+                    counters.put(item.get("PK").s(), new OptionCounter(pollId == null ? null : pollId.s(),
+                            stored == null ? 0 : Long.parseLong(stored.n())));
+                }
+            }
+        }
+
+        private void merge(SegmentTally other) {
+            other.votes.forEach((optionId, count) -> votes.merge(optionId, count, Long::sum));
+            counters.putAll(other.counters);
+            itemsScanned += other.itemsScanned;
+            consumedReadUnits += other.consumedReadUnits;
+        }
+    }
+}
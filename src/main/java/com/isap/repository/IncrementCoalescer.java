@@ -0,0 +1,103 @@
+package com.isap.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * Batches increments of the same key arriving within a short window into one write of their sum.
+ *
+ * The first caller for a key opens a batch, waits out the window and then writes the number of increments the batch
+ * collected; callers arriving while the batch is open join it and wait for that write. Every caller gets the outcome
+ * of the shared write, including its exception, so a rejected write rejects all of its increments. A caller arriving
+ * after the batch closed opens the next one.
+ *
+ * Publishes the same {@code poll.repository.coalesced.requests} and {@code poll.repository.coalesced.calls} counters as
+ * {@link SingleFlight}, tagged with the operation.
+ */
+@Slf4j
+public class IncrementCoalescer<K, V> {
+
+    private final long windowNanos;
+    private final ConcurrentHashMap<K, Batch<V>> open = new ConcurrentHashMap<>();
+    private final Counter requests;
+    private final Counter calls;
+
+    public IncrementCoalescer(String operation, Duration window, MeterRegistry registry) {
+        this.windowNanos = window.toNanos();
+        this.requests = Counter.builder("poll.repository.coalesced.requests").tag("operation", operation).register(registry);
+        this.calls = Counter.builder("poll.repository.coalesced.calls").tag("operation", operation).register(registry);
+    }
+
+    public V increment(K key, LongFunction<V> write) {
+        requests.increment();
+
+        while (true) {
+            Batch<V> batch = new Batch<>();
+            Batch<V> existing = open.putIfAbsent(key, batch);
+            if (existing == null) {
+                return lead(key, batch, write);
+            }
+            if (existing.join()) {
+                try {
+                    return existing.result.join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    throw e;
+                }
+            }
+            // Closed between lookup and join; its leader removes it before writing
+            Thread.onSpinWait();
+        }
+    }
+
+    private V lead(K key, Batch<V> batch, LongFunction<V> write) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(windowNanos);
+        } catch (InterruptedException e) {
+            // The batch holds other callers' increments, so it is written regardless
+            Thread.currentThread().interrupt();
+        }
+
+        long increments = batch.close();
+        open.remove(key, batch);
+        calls.increment();
+        log.debug("Writing {} coalesced increments for {}", increments, key);
+        try {
+            V result = write.apply(increments);
+            batch.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            batch.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static final class Batch<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private long increments = 1;
+        private boolean closed;
+
+        private synchronized boolean join() {
+            if (closed) {
+                return false;
+            }
+            increments++;
+            return true;
+        }
+
+        private synchronized long close() {
+            closed = true;
+            return increments;
+        }
+    }
+}
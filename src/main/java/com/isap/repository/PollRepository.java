@@ -1,8 +1,11 @@
 package com.isap.repository;
 
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -11,9 +14,25 @@ public interface PollRepository {
 
     boolean incrementVoteCount(String pollId, String optionId);
 
-    QueryResponse getVotesByPollId(String pollId);
+    boolean addRankedBallot(String pollId, String firstChoice, int ranking);
+
+    Iterable<Map<String, AttributeValue>> getVotesByPollId(String pollId);
+
+    Iterable<Map<String, AttributeValue>> getVotesByPollId(String pollId, Instant from, Instant to);
 
     QueryResponse getOptionsByPollId(String pollId);
 
+    /**
+     * Reads the options without joining a read already in flight, whose result may predate a write the caller has
+     * just made.
+     */
+    QueryResponse getOptionsByPollIdUncoalesced(String pollId);
+
     boolean createPoll(Map<String, List<String>> newPollData);
+
+    boolean createPoll(Map<String, List<String>> newPollData, Instant endsAt);
+
+    boolean createPoll(Map<String, List<String>> newPollData, Instant endsAt, boolean ranked);
+
+    Map<String, Integer> closePoll(String pollId, Collection<String> optionIds);
 }
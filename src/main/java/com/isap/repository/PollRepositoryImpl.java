@@ -1,35 +1,60 @@
 package com.isap.repository;
 
+import com.isap.domain.Poll;
 import com.isap.domain.Vote;
 import com.isap.exception.NotFoundException;
+import com.isap.exception.PollClosedException;
+import com.isap.exception.RequestRejectedException;
+import com.isap.hotkeys.HotKeys;
+import com.isap.ranked.RankedTally;
 import com.isap.utils.DynamoDbHelper;
+import com.isap.utils.Ulid;
+import io.micrometer.core.instrument.Metrics;
+import io.opentelemetry.instrumentation.annotations.SpanAttribute;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
-import static com.isap.domain.Option.SK_OPTION;
-import static com.isap.domain.Poll.SK_POLL;
-import static com.isap.domain.Vote.SK_VOTE;
+import static com.isap.codec.Attributes.*;
+import static com.isap.domain.Vote.GSI1SK_VOTE_PREFIX;
 
 @ApplicationScoped
 @Slf4j
 public class PollRepositoryImpl implements PollRepository {
 
     private final DynamoDbHelper dynamoDbHelper;
+    // Concurrent reads of the same poll share one DynamoDB call
+    private final SingleFlight<String, GetItemResponse> pollReads;
+    private final SingleFlight<String, QueryResponse> optionReads;
+    // Votes for hot options are added to their option item in batches
+    private final HotKeys hotKeys;
+    private final IncrementCoalescer<String, UpdateItemResponse> voteIncrements;
 
     @Inject
-    public PollRepositoryImpl(DynamoDbHelper dynamoDbHelper) {
+    public PollRepositoryImpl(DynamoDbHelper dynamoDbHelper,
+                              @ConfigProperty(name = "poll.repository.coalescing-timeout", defaultValue = "500ms") Duration coalescingTimeout,
+                              HotKeys hotKeys) {
         this.dynamoDbHelper = dynamoDbHelper;
+        this.pollReads = new SingleFlight<>("getPollByPollId", coalescingTimeout, Metrics.globalRegistry);
+        this.optionReads = new SingleFlight<>("getOptionsByPollId", coalescingTimeout, Metrics.globalRegistry);
+        this.hotKeys = hotKeys;
+        this.voteIncrements = new IncrementCoalescer<>("incrementVoteCount", hotKeys.coalescingWindow(), Metrics.globalRegistry);
     }
 
     @Override
-    public GetItemResponse getPollByPollId(String pollId) {
+    @WithSpan
+    public GetItemResponse getPollByPollId(@SpanAttribute("poll.id") String pollId) {
         log.debug("Requesting Poll with ID: {}", pollId);
 
         if (pollId == null || pollId.isEmpty()) {
@@ -37,35 +62,31 @@ public class PollRepositoryImpl implements PollRepository {
             throw new IllegalArgumentException("Poll ID cannot be null or empty");
         }
 
-        Map<String, AttributeValue> key = Map.of(
-                "PK", AttributeValue.builder().s(pollId).build(),
-                "SK", AttributeValue.builder().s(SK_POLL).build()
-        );
+        hotKeys.recordRead(pollId);
+        return pollReads.execute(pollId, () -> {
+            Map<String, AttributeValue> key = key(pollId, POLL);
 
-        GetItemResponse response = dynamoDbHelper.getItem(key);
+            GetItemResponse response = dynamoDbHelper.getItem(pollId, key);
 
-        if (response == null || response.item().isEmpty()) {
-            log.warn("Poll not found for PollID: {}", pollId);
-            throw new NotFoundException("Poll not found with ID: " + pollId);
-        }
+            if (response == null || response.item().isEmpty()) {
+                log.warn("Poll not found for PollID: {}", pollId);
+                throw new NotFoundException("Poll not found with ID: " + pollId);
+            }
 
-        log.debug("Poll retrieved: {}", response.item());
-        return response;
+            log.debug("Poll retrieved: {}", response.item());
+            return response;
+        });
     }
 
     @Override
-    public boolean incrementVoteCount(String pollId, String optionId) {
+    @WithSpan
+    public boolean incrementVoteCount(@SpanAttribute("poll.id") String pollId, String optionId) {
         log.debug("Incrementing vote count for PollID: {} and OptionID: {}", pollId, optionId);
 
-        Map<String, AttributeValue> key = Map.of(
-                "PK", AttributeValue.builder().s(optionId).build(),
-                "SK", AttributeValue.builder().s(SK_OPTION).build()
-        );
-
-        Map<String, AttributeValue> values = Map.of(":increment", AttributeValue.builder().n("1").build());
-        String updateExpression = "SET VoteCount = VoteCount + :increment";
-
-        UpdateItemResponse updateItemResponse = dynamoDbHelper.updateItem(key, updateExpression, values);
+        // Votes for a hot option share one write, so its partition sees a fraction of the requests
+        UpdateItemResponse updateItemResponse = hotKeys.recordVote(optionId)
+                ? voteIncrements.increment(pollId + "#" + optionId, increments -> addVotes(pollId, optionId, increments))
+                : addVotes(pollId, optionId, 1);
 
         if (updateItemResponse.sdkHttpResponse().isSuccessful()) {
             log.info("Vote count incremented successfully for OptionID: {}", optionId);
@@ -77,11 +98,83 @@ public class PollRepositoryImpl implements PollRepository {
         return false;
     }
 
+    private UpdateItemResponse addVotes(String pollId, String optionId, long increments) {
+        Map<String, AttributeValue> key = key(optionId, OPTION);
+
+        Map<String, AttributeValue> values = Map.of(
+                ":increment", n(increments),
+                ":pollId", AttributeValue.builder().s(pollId).build(),
+                ":now", epochMillis(Instant.now())
+        );
+        String updateExpression = "ADD votes :increment";
+        // Rejects votes for options of other polls, of ranked polls and of closed or expired polls without writing anything
+        String conditionExpression = "pollId = :pollId AND attribute_not_exists(" + RankedTally.RANKINGS + ") "
+                + "AND attribute_not_exists(closedAt) AND (attribute_not_exists(endsAt) OR endsAt > :now)";
+
+        try {
+            return dynamoDbHelper.updateItem(pollId, key, updateExpression, conditionExpression, values);
+        } catch (ConditionalCheckFailedException e) {
+            throw rejectedVote(pollId, optionId, e, false);
+        }
+    }
+
+    /**
+     * Counts a ranked ballot on the option item of its first choice: one more first-choice vote and one more ballot
+     * with this ranking. Every ballot also gets its own vote item, carrying the packed ranking.
+     */
+    @Override
+    @WithSpan
+    public boolean addRankedBallot(@SpanAttribute("poll.id") String pollId, String firstChoice, int ranking) {
+        log.debug("Adding ranked ballot {} for PollID: {}", ranking, pollId);
+
+        Map<String, AttributeValue> key = key(firstChoice, OPTION);
+        Map<String, AttributeValue> values = Map.of(
+                ":one", ONE,
+                ":zero", ZERO,
+                ":pollId", AttributeValue.builder().s(pollId).build(),
+                ":now", epochMillis(Instant.now())
+        );
+        String updateExpression = "ADD votes :one SET #rankings.#ranking = if_not_exists(#rankings.#ranking, :zero) + :one";
+        String conditionExpression = "pollId = :pollId AND attribute_exists(#rankings) AND attribute_not_exists(closedAt) "
+                + "AND (attribute_not_exists(endsAt) OR endsAt > :now)";
+        Map<String, String> names = Map.of("#rankings", RankedTally.RANKINGS, "#ranking", Integer.toString(ranking));
+
+        try {
+            dynamoDbHelper.updateItem(pollId, key, updateExpression, conditionExpression, names, values);
+        } catch (ConditionalCheckFailedException e) {
+            throw rejectedVote(pollId, firstChoice, e, true);
+        }
+
+        Map<String, AttributeValue> item = Vote.create(pollId, firstChoice, Instant.now()).toDynamoDbItem();
+        item.put("ranking", n(ranking));
+        PutItemResponse putItemResponse = dynamoDbHelper.putItem(pollId, item);
+        if (!putItemResponse.sdkHttpResponse().isSuccessful()) {
+            log.error("Failed to insert ranked ballot for PollID: {}. Response: {}", pollId, putItemResponse.sdkHttpResponse());
+            return false;
+        }
+        return true;
+    }
+
+    private RuntimeException rejectedVote(String pollId, String optionId, ConditionalCheckFailedException e, boolean ranked) {
+        Map<String, AttributeValue> option = e.item();
+        if (option == null || option.isEmpty() || !option.containsKey("pollId") || !pollId.equals(option.get("pollId").s())) {
+            log.warn("Option {} not found for PollID: {}", optionId, pollId);
+            return new NotFoundException("Option not found with ID: " + optionId);
+        }
+        if (option.containsKey(RankedTally.RANKINGS) != ranked) {
+            log.info("Rejected {} vote for PollID: {}", ranked ? "ranked" : "single-choice", pollId);
+            return new RequestRejectedException(ranked ? "Poll does not take ranked ballots"
+                    : "Poll takes ranked ballots, vote with POST /poll/ranked/vote", Response.Status.CONFLICT);
+        }
+        log.info("Rejected vote for closed PollID: {}", pollId);
+        return new PollClosedException("Poll is closed: " + pollId);
+    }
+
     private boolean putVote(String pollId, String optionId) {
         log.debug("Inserting vote for PollID: {} and OptionID: {}", pollId, optionId);
 
-        Map<String, AttributeValue> item = new Vote(UUID.randomUUID().toString(), pollId, optionId, Instant.now().toString()).toDynamoDbItem();
-        PutItemResponse putItemResponse = dynamoDbHelper.putItem(item);
+        Map<String, AttributeValue> item = Vote.create(pollId, optionId, Instant.now()).toDynamoDbItem();
+        PutItemResponse putItemResponse = dynamoDbHelper.putItem(pollId, item);
 
         if (putItemResponse.sdkHttpResponse().isSuccessful()) {
             log.info("Vote inserted successfully for PollID: {} and OptionID: {}", pollId, optionId);
@@ -94,30 +187,69 @@ public class PollRepositoryImpl implements PollRepository {
     }
 
     @Override
-    public QueryResponse getVotesByPollId(String pollId) {
+    @WithSpan
+    public Iterable<Map<String, AttributeValue>> getVotesByPollId(@SpanAttribute("poll.id") String pollId) {
         log.debug("Querying votes for PollID: {}", pollId);
 
+        // Matches both "vote#<voteId>" and the plain "vote" of votes written before time-ordered IDs
+        Map<String, AttributeValue> expressionValues = Map.of(
+                ":pollId", AttributeValue.builder().s(pollId).build(),
+                ":SK", VOTE
+        );
+
+        return dynamoDbHelper.queryAllItems(pollId, "GSI1", "GSI1PK = :pollId AND begins_with(GSI1SK, :SK)", expressionValues);
+    }
+
+    /**
+     * Reads only the votes cast in [from, to] with a range condition on the time-ordered sort key.
+     * Votes written before time-ordered IDs are not matched.
+     * @param from inclusive start, or null for no lower bound.
+     * @param to inclusive end, or null for no upper bound.
+     */
+    @Override
+    @WithSpan
+    public Iterable<Map<String, AttributeValue>> getVotesByPollId(@SpanAttribute("poll.id") String pollId, Instant from, Instant to) {
+        if (from == null && to == null) {
+            return getVotesByPollId(pollId);
+        }
+        log.debug("Querying votes for PollID: {} from {} to {}", pollId, from, to);
+
         Map<String, AttributeValue> expressionValues = Map.of(
                 ":pollId", AttributeValue.builder().s(pollId).build(),
-                ":SK", AttributeValue.builder().s(SK_VOTE).build()
+                ":from", AttributeValue.builder().s(GSI1SK_VOTE_PREFIX + Ulid.lowerBound(from == null ? Instant.EPOCH : from)).build(),
+                ":to", AttributeValue.builder().s(GSI1SK_VOTE_PREFIX + Ulid.upperBound(to == null ? Instant.now() : to)).build()
         );
 
-        return dynamoDbHelper.queryItems("GSI1", "GSI1PK = :pollId AND GSI1SK = :SK", expressionValues);
+        return dynamoDbHelper.queryAllItems(pollId, "GSI1", "GSI1PK = :pollId AND GSI1SK BETWEEN :from AND :to", expressionValues);
     }
 
     @Override
-    public QueryResponse getOptionsByPollId(String pollId) {
+    @WithSpan
+    public QueryResponse getOptionsByPollId(@SpanAttribute("poll.id") String pollId) {
         log.debug("Querying options for PollID: {}", pollId);
 
+        return optionReads.execute(pollId, () -> queryOptions(pollId));
+    }
+
+    @Override
+    @WithSpan
+    public QueryResponse getOptionsByPollIdUncoalesced(@SpanAttribute("poll.id") String pollId) {
+        log.debug("Querying options for PollID: {} without coalescing", pollId);
+
+        return queryOptions(pollId);
+    }
+
+    private QueryResponse queryOptions(String pollId) {
         Map<String, AttributeValue> expressionValues = Map.of(
                 ":pollId", AttributeValue.builder().s(pollId).build(),
-                ":SK", AttributeValue.builder().s(SK_OPTION).build()
+                ":SK", OPTION
         );
 
-        return dynamoDbHelper.queryItems("GSI1", "GSI1PK = :pollId AND GSI1SK = :SK", expressionValues);
+        return dynamoDbHelper.queryItems(pollId, "GSI1", "GSI1PK = :pollId AND GSI1SK = :SK", expressionValues);
     }
 
     @Override
+    @WithSpan
     public boolean createPoll(Map<String, List<String>> newPollData) {
         log.info("Creating a new poll with data: {}", newPollData);
 
@@ -128,4 +260,69 @@ public class PollRepositoryImpl implements PollRepository {
 
         return dynamoDbHelper.createPollAndOptions(newPollData);
     }
+
+    @Override
+    @WithSpan
+    public boolean createPoll(Map<String, List<String>> newPollData, Instant endsAt) {
+        return createPoll(newPollData, endsAt, false);
+    }
+
+    @Override
+    @WithSpan
+    public boolean createPoll(Map<String, List<String>> newPollData, Instant endsAt, boolean ranked) {
+        log.info("Creating a new {}poll ending at {} with data: {}", ranked ? "ranked " : "", endsAt, newPollData);
+
+        if (newPollData.size() != 1) {
+            log.error("Invalid poll data format. Expected exactly one entry, but got: {}", newPollData.size());
+            throw new IllegalArgumentException("New poll data should have exactly one entry");
+        }
+
+        return dynamoDbHelper.createPollAndOptions(newPollData, endsAt, ranked);
+    }
+
+    /**
+     * Closes every option first and only then writes the snapshot onto the poll item. Once an option carries
+     * closedAt the vote update can no longer succeed, so the count returned by closing it is final.
+     * Closing again after a partial failure is safe: closedAt is only set once and the snapshot is recomputed.
+     */
+    @Override
+    @WithSpan
+    public Map<String, Integer> closePoll(@SpanAttribute("poll.id") String pollId, Collection<String> optionIds) {
+        log.info("Closing PollID: {}", pollId);
+
+        AttributeValue now = epochMillis(Instant.now());
+        Map<String, Integer> finalResults = new HashMap<>();
+        for (String optionId : optionIds) {
+            Map<String, AttributeValue> key = key(optionId, OPTION);
+            Map<String, AttributeValue> values = Map.of(
+                    ":now", now,
+                    ":pollId", AttributeValue.builder().s(pollId).build()
+            );
+
+            UpdateItemResponse response = dynamoDbHelper.updateItem(pollId, key, "SET closedAt = if_not_exists(closedAt, :now)",
+                    "pollId = :pollId", values);
+            AttributeValue votes = response.attributes().get("votes");
+            finalResults.put(optionId, votes == null ? 0 : Integer.parseInt(votes.n()));
+        }
+
+        Map<String, AttributeValue> pollKey = key(pollId, POLL);
+        Map<String, AttributeValue> values = Map.of(
+                ":now", now,
+                ":results", Poll.finalResultsAttribute(finalResults)
+        );
+
+        try {
+            dynamoDbHelper.updateItem(pollId, pollKey, "SET closedAt = :now, finalResults = :results",
+                    "attribute_exists(PK) AND attribute_not_exists(finalResults)", values);
+        } catch (ConditionalCheckFailedException e) {
+            if (e.item() == null || !e.item().containsKey("finalResults")) {
+                throw new NotFoundException("Poll not found with ID: " + pollId);
+            }
+            log.info("PollID: {} was already closed, keeping the existing snapshot", pollId);
+            return Poll.fromDynamoDbItem(e.item()).finalResults();
+        }
+
+        log.info("PollID: {} closed with final results: {}", pollId, finalResults);
+        return finalResults;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.isap.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into one call whose result, or exception, is shared by every caller.
+ *
+ * The first caller for a key runs the call; callers arriving while it is in flight wait for its result for at most
+ * {@code followerTimeout} and then make their own call, so a slow request cannot hold up a whole burst. Nothing is
+ * kept once the call completes, so this is not a cache: a caller arriving after completion starts a new call.
+ *
+ * Publishes {@code poll.repository.coalesced.requests} and {@code poll.repository.coalesced.calls} tagged with the
+ * operation; requests divided by calls is the fan-in ratio. Follower timeouts are counted in
+ * {@code poll.repository.coalesced.timeouts}.
+ */
+@Slf4j
+public class SingleFlight<K, V> {
+
+    private final String operation;
+    private final long followerTimeoutNanos;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter requests;
+    private final Counter calls;
+    private final Counter timeouts;
+
+    public SingleFlight(String operation, Duration followerTimeout, MeterRegistry registry) {
+        this.operation = operation;
+        this.followerTimeoutNanos = followerTimeout.toNanos();
+        this.requests = counter("poll.repository.coalesced.requests", operation, registry);
+        this.calls = counter("poll.repository.coalesced.calls", operation, registry);
+        this.timeouts = counter("poll.repository.coalesced.timeouts", operation, registry);
+    }
+
+    private static Counter counter(String name, String operation, MeterRegistry registry) {
+        return Counter.builder(name).tag("operation", operation).register(registry);
+    }
+
+    public V execute(K key, Supplier<V> call) {
+        requests.increment();
+
+        CompletableFuture<V> leader = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, leader);
+        if (existing == null) {
+            return lead(key, leader, call);
+        }
+
+        try {
+            return existing.get(followerTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            log.debug("Timed out waiting for in-flight {} of {}, calling directly", operation, key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight " + operation, e);
+        }
+
+        calls.increment();
+        return call.get();
+    }
+
+    private V lead(K key, CompletableFuture<V> future, Supplier<V> call) {
+        calls.increment();
+        try {
+            V result = call.get();
+            future.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+}
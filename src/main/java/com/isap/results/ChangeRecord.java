@@ -0,0 +1,14 @@
+package com.isap.results;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One item-level change read from a table's change stream.
+ * @param newImage the item after the change, or null when it was deleted.
+ * @param createdAt approximately when the change was made.
+ */
+public record ChangeRecord(String eventName, Map<String, AttributeValue> newImage, Instant createdAt) {
+}
@@ -0,0 +1,18 @@
+package com.isap.results;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Source of the item changes of the poll tables.
+ *
+ * A batch is handed to the consumer on a reader thread. If the consumer throws, the same batch is delivered again, so
+ * consumers must be idempotent. Changes to one item arrive in order within a shard, but no order holds across shards.
+ */
+public interface ChangeStream extends AutoCloseable {
+
+    void start(Consumer<List<ChangeRecord>> consumer);
+
+    @Override
+    void close();
+}
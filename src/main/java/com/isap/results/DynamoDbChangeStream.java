@@ -0,0 +1,158 @@
+package com.isap.results;
+
+import com.isap.utils.DynamoDbHelper;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.dynamodb.model.DescribeStreamResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetRecordsResponse;
+import software.amazon.awssdk.services.dynamodb.model.Record;
+import software.amazon.awssdk.services.dynamodb.model.Shard;
+import software.amazon.awssdk.services.dynamodb.model.ShardIteratorType;
+import software.amazon.awssdk.services.dynamodb.streams.DynamoDbStreamsClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Reads DynamoDB Streams, one reader thread per table. The tables need a stream with new images
+ * ({@code NEW_IMAGE} or {@code NEW_AND_OLD_IMAGES}).
+ *
+ * Reading starts at the latest position of the shards open at start; shards that appear later are read from their
+ * beginning. The shard list is refreshed every {@code SHARD_REFRESH}. Positions are only kept in memory, so changes
+ * made while no reader runs are not seen: rebuild the results after downtime.
+ */
+@Slf4j
+public class DynamoDbChangeStream implements ChangeStream {
+
+    static final Duration SHARD_REFRESH = Duration.ofSeconds(30);
+    static final int BATCH_SIZE = 1000;
+
+    private final DynamoDbStreamsClient streamsClient;
+    private final DynamoDbHelper dynamoDbHelper;
+    private final Duration idleDelay;
+    private final List<Thread> readers = new ArrayList<>();
+    private volatile boolean running;
+
+    public DynamoDbChangeStream(DynamoDbStreamsClient streamsClient, DynamoDbHelper dynamoDbHelper, Duration idleDelay) {
+        this.streamsClient = streamsClient;
+        this.dynamoDbHelper = dynamoDbHelper;
+        this.idleDelay = idleDelay;
+    }
+
+    @Override
+    public void start(Consumer<List<ChangeRecord>> consumer) {
+        running = true;
+        for (String table : dynamoDbHelper.allTables()) {
+            String streamArn = dynamoDbHelper.latestStreamArn(table);
+            if (streamArn == null) {
+                throw new IllegalStateException("Streams are not enabled on " + table);
+            }
+
+            Thread reader = new Thread(() -> read(table, streamArn, consumer), "change-stream-" + table);
+            reader.setDaemon(true);
+            reader.start();
+            readers.add(reader);
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        readers.forEach(Thread::interrupt);
+    }
+
+    private void read(String table, String streamArn, Consumer<List<ChangeRecord>> consumer) {
+        log.info("Reading change stream of {}", table);
+        Map<String, String> iterators = new LinkedHashMap<>();
+        Set<String> knownShards = new HashSet<>();
+        long refreshAt = System.nanoTime();
+        boolean initial = true;
+
+        while (running) {
+            try {
+                if (System.nanoTime() - refreshAt >= 0) {
+                    discoverShards(streamArn, iterators, knownShards, initial);
+                    initial = false;
+                    refreshAt = System.nanoTime() + SHARD_REFRESH.toNanos();
+                }
+
+                boolean delivered = false;
+                for (Iterator<Map.Entry<String, String>> shards = iterators.entrySet().iterator(); shards.hasNext(); ) {
+                    Map.Entry<String, String> shard = shards.next();
+                    GetRecordsResponse response = streamsClient.getRecords(request -> request
+                            .shardIterator(shard.getValue())
+                            .limit(BATCH_SIZE));
+                    if (!response.records().isEmpty()) {
+                        // Only moves past the batch once the consumer has taken it
+                        consumer.accept(toChangeRecords(response.records()));
+                        delivered = true;
+                    }
+                    if (response.nextShardIterator() == null) {
+                        shards.remove();
+                    } else {
+                        shard.setValue(response.nextShardIterator());
+                    }
+                }
+
+                if (!delivered) {
+                    Thread.sleep(idleDelay.toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (SdkException | IllegalStateException e) {
+                log.warn("Failed to process change stream of {}, retrying: {}", table, e.getMessage());
+                try {
+                    Thread.sleep(idleDelay.toMillis() * 10);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void discoverShards(String streamArn, Map<String, String> iterators, Set<String> knownShards, boolean initial) {
+        String startShardId = null;
+        do {
+            String exclusiveStart = startShardId;
+            DescribeStreamResponse response = streamsClient.describeStream(request -> request
+                    .streamArn(streamArn)
+                    .exclusiveStartShardId(exclusiveStart));
+            for (Shard shard : response.streamDescription().shards()) {
+                if (!knownShards.add(shard.shardId())) {
+                    continue;
+                }
+                boolean closed = shard.sequenceNumberRange().endingSequenceNumber() != null;
+                if (initial && closed) {
+                    continue;
+                }
+
+                String iterator = streamsClient.getShardIterator(request -> request
+                        .streamArn(streamArn)
+                        .shardId(shard.shardId())
+                        .shardIteratorType(initial ? ShardIteratorType.LATEST : ShardIteratorType.TRIM_HORIZON))
+                        .shardIterator();
+                iterators.put(shard.shardId(), iterator);
+            }
+            startShardId = response.streamDescription().lastEvaluatedShardId();
+        } while (startShardId != null);
+    }
+
+    private static List<ChangeRecord> toChangeRecords(List<Record> records) {
+        List<ChangeRecord> changes = new ArrayList<>(records.size());
+        for (Record record : records) {
+            changes.add(new ChangeRecord(record.eventNameAsString(),
+                    record.dynamodb().hasNewImage() ? record.dynamodb().newImage() : null,
+                    record.dynamodb().approximateCreationDateTime()));
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,45 @@
+package com.isap.results;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Stand-in for a table's change stream in tests: published batches go straight to the consumer on the caller's
+ * thread, and a batch the consumer fails on is redelivered until it is taken.
+ */
+public class InMemoryChangeStream implements ChangeStream {
+
+    private Consumer<List<ChangeRecord>> consumer;
+
+    @Override
+    public synchronized void start(Consumer<List<ChangeRecord>> consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * @param maxAttempts deliveries tried before the batch is given up on.
+     * @return true if the consumer took the batch.
+     */
+    public synchronized boolean publish(List<ChangeRecord> batch, int maxAttempts) {
+        if (consumer == null) {
+            throw new IllegalStateException("Change stream not started");
+        }
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                consumer.accept(batch);
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt == maxAttempts) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized void close() {
+        consumer = null;
+    }
+}
@@ -0,0 +1,55 @@
+package com.isap.results;
+
+import com.isap.domain.OptionResponse;
+import com.isap.domain.PollResults;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.isap.codec.Attributes.instant;
+
+/**
+ * The results item of a poll as written by {@link ResultsStore}.
+ * @param options option texts and vote counts by optionId, in optionId order.
+ * @param appliedAt when the newest change folded into the item was made.
+ */
+public record MaterializedResults(String pollId, Map<String, OptionResponse> options, Instant endsAt,
+                                  Instant closedAt, Instant appliedAt) {
+
+    static MaterializedResults fromItem(String pollId, Map<String, AttributeValue> item) {
+        Map<String, OptionResponse> options = new TreeMap<>();
+        for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+            String name = attribute.getKey();
+            if (name.startsWith(ResultsStore.TEXT_PREFIX)) {
+                String optionId = name.substring(ResultsStore.TEXT_PREFIX.length());
+                AttributeValue votes = item.get(ResultsStore.VOTES_PREFIX + optionId);
+                options.put(optionId, new OptionResponse(optionId, attribute.getValue().s(),
+                        votes == null ? 0 : Integer.parseInt(votes.n())));
+            }
+        }
+
+        return new MaterializedResults(pollId, options, instant(item.get("endsAt")), instant(item.get("closedAt")),
+                instant(item.get("appliedAt")));
+    }
+
+    /**
+     * @return when voting stopped or stops, or null for a poll without end time that is still open.
+     */
+    public Instant votingEndsAt() {
+        return closedAt != null ? closedAt : endsAt;
+    }
+
+    public boolean hasEnded(Instant now) {
+        Instant end = votingEndsAt();
+        return end != null && !end.isAfter(now);
+    }
+
+    public PollResults toPollResults() {
+        List<OptionResponse> results = new ArrayList<>(options.values());
+        return new PollResults(pollId, results);
+    }
+}
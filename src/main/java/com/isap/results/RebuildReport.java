@@ -0,0 +1,7 @@
+package com.isap.results;
+
+import java.time.Instant;
+
+public record RebuildReport(Instant startedAt, long durationMillis, long itemsScanned, long pollsRebuilt,
+                            double consumedReadUnits) {
+}
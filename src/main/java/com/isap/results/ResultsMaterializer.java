@@ -0,0 +1,126 @@
+package com.isap.results;
+
+import com.isap.utils.DynamoDbHelper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.streams.DynamoDbStreamsClient;
+import software.amazon.awssdk.services.dynamodb.streams.DynamoDbStreamsClientBuilder;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feeds the table's change stream into {@link ResultsStore}, on the instances started with
+ * {@code poll.results.materialized.consume=true}. DynamoDB Streams serves at most two readers per shard, so run it on
+ * one or two instances only.
+ *
+ * Lag, from a change being made to its batch being folded, is published as the {@code poll.results.stream.lag}
+ * timer, and for the latest batch as the {@code poll.results.stream.lag.current} gauge in seconds. Folded changes
+ * are counted in {@code poll.results.stream.changes} and counts skipped as stale in {@code poll.results.stream.stale}.
+ */
+@Slf4j
+@ApplicationScoped
+public class ResultsMaterializer {
+
+    private final ResultsStore resultsStore;
+    private final DynamoDbHelper dynamoDbHelper;
+    private final boolean consume;
+    private final Optional<URI> endpoint;
+    private final Optional<String> region;
+    private final Duration idleDelay;
+    private final Timer lag;
+    private final AtomicLong currentLagMillis = new AtomicLong();
+    private final Counter changes;
+    private final Counter stale;
+    private ChangeStream changeStream;
+    private DynamoDbStreamsClient streamsClient;
+
+    @Inject
+    public ResultsMaterializer(ResultsStore resultsStore, DynamoDbHelper dynamoDbHelper,
+                               @ConfigProperty(name = "poll.results.materialized.consume", defaultValue = "false") boolean consume,
+                               @ConfigProperty(name = "quarkus.dynamodb.endpoint-url") Optional<URI> endpoint,
+                               @ConfigProperty(name = "quarkus.dynamodb.region") Optional<String> region,
+                               @ConfigProperty(name = "poll.results.stream.idle-delay", defaultValue = "250ms") Duration idleDelay) {
+        this(resultsStore, dynamoDbHelper, consume, endpoint, region, idleDelay, Metrics.globalRegistry);
+    }
+
+    ResultsMaterializer(ResultsStore resultsStore, DynamoDbHelper dynamoDbHelper, boolean consume, Optional<URI> endpoint,
+                        Optional<String> region, Duration idleDelay, MeterRegistry registry) {
+        this.resultsStore = resultsStore;
+        this.dynamoDbHelper = dynamoDbHelper;
+        this.consume = consume;
+        this.endpoint = endpoint;
+        this.region = region;
+        this.idleDelay = idleDelay;
+        this.lag = Timer.builder("poll.results.stream.lag").publishPercentiles(0.5, 0.99).register(registry);
+        Gauge.builder("poll.results.stream.lag.current", currentLagMillis, millis -> millis.get() / 1000.0)
+                .baseUnit("seconds")
+                .register(registry);
+        this.changes = Counter.builder("poll.results.stream.changes").register(registry);
+        this.stale = Counter.builder("poll.results.stream.stale").register(registry);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!consume) {
+            return;
+        }
+
+        DynamoDbStreamsClientBuilder builder = DynamoDbStreamsClient.builder().httpClientBuilder(UrlConnectionHttpClient.builder());
+        endpoint.ifPresent(builder::endpointOverride);
+        region.map(Region::of).ifPresent(builder::region);
+        streamsClient = builder.build();
+        start(new DynamoDbChangeStream(streamsClient, dynamoDbHelper, idleDelay));
+    }
+
+    void start(ChangeStream stream) {
+        changeStream = stream;
+        stream.start(this::accept);
+        log.info("Materializing poll results from the change stream");
+    }
+
+    @PreDestroy
+    void stop() {
+        if (changeStream != null) {
+            changeStream.close();
+        }
+        if (streamsClient != null) {
+            streamsClient.close();
+        }
+    }
+
+    void accept(List<ChangeRecord> batch) {
+        int staleCounts = resultsStore.apply(batch);
+
+        Instant now = Instant.now();
+        Instant newest = null;
+        for (ChangeRecord change : batch) {
+            if (change.createdAt() != null) {
+                lag.record(Duration.between(change.createdAt(), now));
+                if (newest == null || change.createdAt().isAfter(newest)) {
+                    newest = change.createdAt();
+                }
+            }
+        }
+        if (newest != null) {
+            currentLagMillis.set(Duration.between(newest, now).toMillis());
+        }
+        changes.increment(batch.size());
+        stale.increment(staleCounts);
+    }
+}
@@ -0,0 +1,269 @@
+package com.isap.results;
+
+import com.isap.domain.Option;
+import com.isap.utils.DynamoDbHelper;
+import com.isap.utils.RateLimiter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.isap.codec.Attributes.*;
+import static com.isap.domain.Option.SK_OPTION;
+import static com.isap.domain.Vote.SK_VOTE;
+
+/**
+ * Keeps one results item per poll, PK=pollId and SK=results, holding every option's text and vote count as
+ * {@code t#<optionId>} and {@code v#<optionId>}, so the results of a poll are one strongly consistent GetItem
+ * instead of a query over its option items.
+ *
+ * The item is fed from the change stream: a batch of changes is folded into one update per poll. A count is only
+ * written if it is not lower than the stored one, which makes folding idempotent and independent of the order in
+ * which shards are read. Vote inserts move {@code lastVoteAt}. A counter lowered by the reconciler is not picked up
+ * that way; {@link #rebuild} rewrites every results item from the option items.
+ */
+@Slf4j
+@ApplicationScoped
+public class ResultsStore {
+
+    public static final String SK_RESULTS = "results";
+    static final AttributeValue RESULTS = s(SK_RESULTS);
+    static final String VOTES_PREFIX = "v#";
+    static final String TEXT_PREFIX = "t#";
+
+    private final DynamoDbHelper dynamoDbHelper;
+    private final boolean readEnabled;
+    private final int pageSize;
+    private final double readUnitsPerSecond;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    @Inject
+    public ResultsStore(DynamoDbHelper dynamoDbHelper,
+                        @ConfigProperty(name = "poll.results.materialized.read", defaultValue = "false") boolean readEnabled,
+                        @ConfigProperty(name = "poll.results.rebuild.page-size", defaultValue = "500") int pageSize,
+                        @ConfigProperty(name = "poll.results.rebuild.read-units-per-second", defaultValue = "100") double readUnitsPerSecond) {
+        this.dynamoDbHelper = dynamoDbHelper;
+        this.readEnabled = readEnabled;
+        this.pageSize = pageSize;
+        this.readUnitsPerSecond = readUnitsPerSecond;
+    }
+
+    /**
+     * True when the results endpoint should read the results item.
+     */
+    public boolean readEnabled() {
+        return readEnabled;
+    }
+
+    /**
+     * @return the poll's results item read with strong consistency, or null if it has none yet.
+     */
+    public MaterializedResults load(String pollId) {
+        GetItemResponse response = dynamoDbHelper.getItemConsistent(pollId, key(pollId, RESULTS));
+        if (response == null || !response.hasItem() || response.item().isEmpty()) {
+            return null;
+        }
+        return MaterializedResults.fromItem(pollId, response.item());
+    }
+
+    /**
+     * Folds a batch of changes into the results items.
+     *
+     * @return the number of option counts not written because the stored count was already higher.
+     */
+    public int apply(List<ChangeRecord> batch) {
+        Map<String, PollChanges> polls = new LinkedHashMap<>();
+        for (ChangeRecord change : batch) {
+            Map<String, AttributeValue> image = change.newImage();
+            AttributeValue sk = image == null ? null : image.get(SK);
+            if (sk == null) {
+                continue;
+            }
+
+            if (SK_OPTION.equals(sk.s())) {
+                Option option = Option.fromDynamoDbItem(image);
+                polls.computeIfAbsent(option.pollId(), id -> new PollChanges()).option(option, image, change.createdAt());
+            } else if (SK_VOTE.equals(sk.s())) {
+                polls.computeIfAbsent(image.get("pollId").s(), id -> new PollChanges()).vote(change.createdAt());
+            }
+        }
+
+        int stale = 0;
+        for (Map.Entry<String, PollChanges> poll : polls.entrySet()) {
+            stale += write(poll.getKey(), poll.getValue());
+        }
+        return stale;
+    }
+
+    private int write(String pollId, PollChanges changes) {
+        try {
+            update(pollId, changes, true);
+            return 0;
+        } catch (ConditionalCheckFailedException e) {
+            if (changes.options.size() <= 1) {
+                return changes.options.size();
+            }
+        }
+
+        // At least one count is behind the stored one; write the others on their own
+        int stale = 0;
+        for (OptionChange option : changes.options.values()) {
+            try {
+                update(pollId, changes.only(option), true);
+            } catch (ConditionalCheckFailedException e) {
+                stale++;
+            }
+        }
+        return stale;
+    }
+
+    /**
+     * @param monotone when true, every count is conditioned on not lowering the stored one.
+     */
+    private void update(String pollId, PollChanges changes, boolean monotone) {
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        List<String> conditions = new ArrayList<>();
+        StringBuilder update = new StringBuilder("SET appliedAt = :appliedAt");
+        values.put(":appliedAt", epochMillis(changes.appliedAt == null ? Instant.now() : changes.appliedAt));
+
+        int i = 0;
+        for (OptionChange option : changes.options.values()) {
+            names.put("#v" + i, VOTES_PREFIX + option.optionId());
+            names.put("#t" + i, TEXT_PREFIX + option.optionId());
+            values.put(":v" + i, n(option.votes()));
+            values.put(":t" + i, s(option.text()));
+            update.append(", #v").append(i).append(" = :v").append(i).append(", #t").append(i).append(" = :t").append(i);
+            if (monotone) {
+                conditions.add("(attribute_not_exists(#v" + i + ") OR #v" + i + " <= :v" + i + ")");
+            }
+            i++;
+        }
+        if (changes.endsAt != null) {
+            update.append(", endsAt = :endsAt");
+            values.put(":endsAt", epochMillis(changes.endsAt));
+        }
+        if (changes.closedAt != null) {
+            update.append(", closedAt = :closedAt");
+            values.put(":closedAt", epochMillis(changes.closedAt));
+        }
+        if (changes.lastVoteAt != null) {
+            update.append(", lastVoteAt = :lastVoteAt");
+            values.put(":lastVoteAt", epochMillis(changes.lastVoteAt));
+        }
+
+        dynamoDbHelper.updateItem(pollId, key(pollId, RESULTS), update.toString(),
+                conditions.isEmpty() ? null : String.join(" AND ", conditions), names, values);
+    }
+
+    /**
+     * Rewrites the results item of every poll from its option items, replacing whatever the stream folded in. Reads
+     * are limited to {@code read-units-per-second}.
+     *
+     * @throws IllegalStateException if a rebuild is already in progress.
+     */
+    public RebuildReport rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("A results rebuild is already in progress");
+        }
+
+        try {
+            return runRebuild();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Results rebuild interrupted", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private RebuildReport runRebuild() throws InterruptedException {
+        Instant startedAt = Instant.now();
+        RateLimiter rateLimiter = new RateLimiter(readUnitsPerSecond);
+        log.info("Rebuilding results items at {} RCU/s", readUnitsPerSecond);
+
+        Map<String, PollChanges> polls = new HashMap<>();
+        long scanned = 0;
+        double consumedReadUnits = 0;
+        for (String table : dynamoDbHelper.allTables()) {
+            Map<String, AttributeValue> startKey = null;
+            do {
+                ScanResponse page = dynamoDbHelper.scanSegment(table, 0, 1, "SK = :option", null,
+                        Map.of(":option", OPTION), startKey, pageSize);
+                scanned += page.scannedCount();
+                for (Map<String, AttributeValue> item : page.items()) {
+                    Option option = Option.fromDynamoDbItem(item);
+                    polls.computeIfAbsent(option.pollId(), id -> new PollChanges()).option(option, item, startedAt);
+                }
+
+                double consumed = page.consumedCapacity() == null ? 0 : page.consumedCapacity().capacityUnits();
+                consumedReadUnits += consumed;
+                rateLimiter.acquire(consumed);
+                startKey = page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty() ? page.lastEvaluatedKey() : null;
+            } while (startKey != null);
+        }
+
+        for (Map.Entry<String, PollChanges> poll : polls.entrySet()) {
+            update(poll.getKey(), poll.getValue(), false);
+        }
+
+        log.info("Rebuilt results of {} polls from {} scanned items", polls.size(), scanned);
+        return new RebuildReport(startedAt, Duration.between(startedAt, Instant.now()).toMillis(), scanned, polls.size(),
+                consumedReadUnits);
+    }
+
+    private record OptionChange(String optionId, String text, long votes) {
+    }
+
+    /**
+     * What a batch of changes says about one poll: the highest count seen per option and the latest times.
+     */
+    private static final class PollChanges {
+
+        private final Map<String, OptionChange> options = new LinkedHashMap<>();
+        private Instant endsAt;
+        private Instant closedAt;
+        private Instant lastVoteAt;
+        private Instant appliedAt;
+
+        void option(Option option, Map<String, AttributeValue> item, Instant at) {
+            options.merge(option.optionId(), new OptionChange(option.optionId(), option.text(), option.votes()),
+                    (current, next) -> next.votes() >= current.votes() ? next : current);
+            endsAt = later(endsAt, instant(item.get("endsAt")));
+            closedAt = later(closedAt, instant(item.get("closedAt")));
+            appliedAt = later(appliedAt, at);
+        }
+
+        void vote(Instant at) {
+            lastVoteAt = later(lastVoteAt, at);
+            appliedAt = later(appliedAt, at);
+        }
+
+        PollChanges only(OptionChange option) {
+            PollChanges single = new PollChanges();
+            single.options.put(option.optionId(), option);
+            single.endsAt = endsAt;
+            single.closedAt = closedAt;
+            single.lastVoteAt = lastVoteAt;
+            single.appliedAt = appliedAt;
+            return single;
+        }
+
+        private static Instant later(Instant current, Instant next) {
+            return current == null || (next != null && next.isAfter(current)) ? next : current;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.isap.routing;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * @param itemsMisplaced items found in a table other than the one the current layout assigns them to.
+ * @param itemsMoved     misplaced items copied to their table and deleted from the old one; zero on a dry run.
+ */
+public record RebalanceReport(Instant startedAt,
+                              long durationMillis,
+                              boolean dryRun,
+                              List<String> tables,
+                              long itemsScanned,
+                              long itemsMisplaced,
+                              long itemsMoved,
+                              double consumedReadUnits) {
+}
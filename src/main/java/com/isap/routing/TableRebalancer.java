@@ -0,0 +1,263 @@
+package com.isap.routing;
+
+import com.isap.utils.DynamoDbHelper;
+import com.isap.utils.RateLimiter;
+import com.isap.voters.VoterSketchStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.isap.domain.Option.SK_OPTION;
+import static com.isap.domain.Poll.SK_POLL;
+import static com.isap.results.ResultsStore.SK_RESULTS;
+import static com.isap.voters.VoterSketchStore.SK_VOTERS;
+
+/**
+ * Moves items to the table the current layout assigns them to, while the service keeps serving them.
+ *
+ * To add a table: create it with {@link #addTable}, deploy with the new table appended to {@code poll.tables} and
+ * the old list in {@code poll.tables.previous}, run {@link #rebalance}, then deploy again without
+ * {@code poll.tables.previous}. Between the two deploys new items are written to their new table, and reads and
+ * conditional updates that find nothing there fall back to the old one.
+ *
+ * Each item is copied before it is deleted, so it is always readable from one of the two tables. A write can still
+ * land on the old copy if it missed the new one just before the copy was made; the delete is conditioned on the old
+ * copy being unchanged, and a changed copy is moved again. Vote counters are moved by adding the difference between
+ * the old count and the part already moved, recorded in {@code movedVotes}, so increments made on either side during
+ * the move are kept. Voter sketches are moved by merging them into the target's sketch, which is safe to repeat;
+ * results items only fill in what the target's copy lacks.
+ */
+@Slf4j
+@ApplicationScoped
+public class TableRebalancer {
+
+    static final int MAX_MOVE_ATTEMPTS = 10;
+
+    private final DynamoDbHelper dynamoDbHelper;
+    private final TableRouter tableRouter;
+    private final int pageSize;
+    private final double readUnitsPerSecond;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Inject
+    public TableRebalancer(DynamoDbHelper dynamoDbHelper, TableRouter tableRouter,
+                           @ConfigProperty(name = "poll.rebalance.page-size", defaultValue = "500") int pageSize,
+                           @ConfigProperty(name = "poll.rebalance.read-units-per-second", defaultValue = "100") double readUnitsPerSecond) {
+        this.dynamoDbHelper = dynamoDbHelper;
+        this.tableRouter = tableRouter;
+        this.pageSize = pageSize;
+        this.readUnitsPerSecond = readUnitsPerSecond;
+    }
+
+    /**
+     * Creates a table with the same keys and indexes as the first table of the current layout.
+     */
+    public void addTable(String table) {
+        if (tableRouter.allTables().contains(table)) {
+            throw new IllegalArgumentException("Table is already part of the layout: " + table);
+        }
+        dynamoDbHelper.createTableLike(tableRouter.allTables().get(0), table);
+    }
+
+    /**
+     * @param dryRun when true, misplaced items are counted but not moved.
+     * @throws IllegalStateException if a run is already in progress.
+     */
+    public RebalanceReport rebalance(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A rebalance is already in progress");
+        }
+
+        try {
+            return run(dryRun);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rebalance interrupted", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private RebalanceReport run(boolean dryRun) throws InterruptedException {
+        Instant startedAt = Instant.now();
+        RateLimiter rateLimiter = new RateLimiter(readUnitsPerSecond);
+        List<String> tables = tableRouter.allTables();
+        log.info("Starting rebalance over {} (dry run: {})", tables, dryRun);
+
+        long scanned = 0;
+        long misplaced = 0;
+        long moved = 0;
+        double consumedReadUnits = 0;
+        for (String table : tables) {
+            Map<String, AttributeValue> startKey = null;
+            do {
+                ScanResponse page = dynamoDbHelper.scanSegment(table, 0, 1, null, null, null, startKey, pageSize);
+                scanned += page.scannedCount();
+                for (Map<String, AttributeValue> item : page.items()) {
+                    String target = tableRouter.tableFor(DynamoDbHelper.routingKeyOf(item));
+                    if (target.equals(table)) {
+                        continue;
+                    }
+                    misplaced++;
+                    if (!dryRun && move(table, target, item)) {
+                        moved++;
+                    }
+                }
+
+                double consumed = page.consumedCapacity() == null ? 0 : page.consumedCapacity().capacityUnits();
+                consumedReadUnits += consumed;
+                rateLimiter.acquire(consumed);
+                startKey = page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty() ? page.lastEvaluatedKey() : null;
+            } while (startKey != null);
+        }
+
+        RebalanceReport report = new RebalanceReport(startedAt, Duration.between(startedAt, Instant.now()).toMillis(),
+                dryRun, tables, scanned, misplaced, moved, consumedReadUnits);
+        log.info("Rebalance finished: {} items scanned, {} misplaced, {} moved", scanned, misplaced, moved);
+        return report;
+    }
+
+    /**
+     * @return true if this call moved the item, false if it was already gone from the source table.
+     */
+    boolean move(String source, String target, Map<String, AttributeValue> scanned) {
+        Map<String, AttributeValue> key = Map.of("PK", scanned.get("PK"), "SK", scanned.get("SK"));
+        String sk = scanned.get("SK").s();
+
+        for (int attempt = 1; attempt <= MAX_MOVE_ATTEMPTS; attempt++) {
+            Map<String, AttributeValue> item = dynamoDbHelper.getItemFromTable(source, key, true).item();
+            if (item == null || item.isEmpty()) {
+                return false;
+            }
+
+            try {
+                if (SK_OPTION.equals(sk)) {
+                    moveCounter(source, target, key, item);
+                } else if (SK_POLL.equals(sk)) {
+                    movePoll(source, target, key, item);
+                } else if (SK_VOTERS.equals(sk)) {
+                    moveVoterSketch(source, target, key, item);
+                } else if (SK_RESULTS.equals(sk)) {
+                    moveResults(source, target, key, item);
+                } else {
+                    copyIfAbsent(target, item, "attribute_not_exists(PK)");
+                    dynamoDbHelper.deleteItemFromTable(source, key, null, null);
+                }
+                log.debug("Moved {} {} from {} to {}", sk, key.get("PK").s(), source, target);
+                return true;
+            } catch (ConditionalCheckFailedException e) {
+                log.debug("{} {} changed while moving it, attempt {}", sk, key.get("PK").s(), attempt);
+            }
+        }
+        throw new IllegalStateException("Could not move " + sk + " " + key.get("PK").s() + " after "
+                + MAX_MOVE_ATTEMPTS + " attempts");
+    }
+
+    private void moveCounter(String source, String target, Map<String, AttributeValue> key, Map<String, AttributeValue> item) {
+        long votes = number(item.get("votes"));
+        Map<String, AttributeValue> existing = dynamoDbHelper.getItemFromTable(target, key, true).item();
+        AttributeValue movedVotes = existing == null ? null : existing.get("movedVotes");
+
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        StringBuilder update = new StringBuilder("SET ");
+        for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+            String name = attribute.getKey();
+            if (name.equals("PK") || name.equals("SK") || name.equals("votes") || name.equals("movedVotes")) {
+                continue;
+            }
+            String placeholder = "a" + names.size();
+            names.put("#" + placeholder, name);
+            values.put(":" + placeholder, attribute.getValue());
+            update.append('#').append(placeholder).append(" = if_not_exists(#").append(placeholder)
+                    .append(", :").append(placeholder).append("), ");
+        }
+        update.append("movedVotes = :votes ADD votes :delta");
+        values.put(":votes", AttributeValue.builder().n(String.valueOf(votes)).build());
+        values.put(":delta", AttributeValue.builder().n(String.valueOf(votes - number(movedVotes))).build());
+
+        String condition;
+        if (movedVotes == null) {
+            condition = "attribute_not_exists(movedVotes)";
+        } else {
+            condition = "movedVotes = :moved";
+            values.put(":moved", movedVotes);
+        }
+        dynamoDbHelper.updateItemInTable(target, key, update.toString(), condition, names, values);
+
+        dynamoDbHelper.deleteItemFromTable(source, key, "votes = :votes",
+                Map.of(":votes", AttributeValue.builder().n(String.valueOf(votes)).build()));
+    }
+
+    /**
+     * Merges the old sketch into the one voters may already have started on the target, then deletes the old one if
+     * no flush changed it meanwhile.
+     */
+    private void moveVoterSketch(String source, String target, Map<String, AttributeValue> key, Map<String, AttributeValue> item) {
+        Map<String, AttributeValue> existing = dynamoDbHelper.getItemFromTable(target, key, true).item();
+        VoterSketchStore.Update update = VoterSketchStore.union(existing, VoterSketchStore.decode(item));
+        if (update != null) {
+            dynamoDbHelper.updateItemInTable(target, key, VoterSketchStore.UPDATE_EXPRESSION, update.condition(), null, update.values());
+        }
+
+        dynamoDbHelper.deleteItemFromTable(source, key, "version = :version", Map.of(":version", item.get("version")));
+    }
+
+    /**
+     * The change stream may already have written fresher counts to the target; only attributes it lacks are copied.
+     */
+    private void moveResults(String source, String target, Map<String, AttributeValue> key, Map<String, AttributeValue> item) {
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        StringBuilder update = new StringBuilder("SET ");
+        for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+            String name = attribute.getKey();
+            if (name.equals("PK") || name.equals("SK")) {
+                continue;
+            }
+            String placeholder = "a" + names.size();
+            names.put("#" + placeholder, name);
+            values.put(":" + placeholder, attribute.getValue());
+            if (names.size() > 1) {
+                update.append(", ");
+            }
+            update.append('#').append(placeholder).append(" = if_not_exists(#").append(placeholder)
+                    .append(", :").append(placeholder).append(')');
+        }
+        dynamoDbHelper.updateItemInTable(target, key, update.toString(), null, names, values);
+
+        dynamoDbHelper.deleteItemFromTable(source, key, "appliedAt = :appliedAt",
+                Map.of(":appliedAt", item.get("appliedAt")));
+    }
+
+    private void movePoll(String source, String target, Map<String, AttributeValue> key, Map<String, AttributeValue> item) {
+        boolean closed = item.containsKey("finalResults");
+        // A poll closed on the old copy after it was copied replaces an open copy, never a closed one
+        copyIfAbsent(target, item, closed ? "attribute_not_exists(PK) OR attribute_not_exists(finalResults)" : "attribute_not_exists(PK)");
+        dynamoDbHelper.deleteItemFromTable(source, key,
+                closed ? "attribute_exists(finalResults)" : "attribute_not_exists(finalResults)", null);
+    }
+
+    private void copyIfAbsent(String target, Map<String, AttributeValue> item, String condition) {
+        try {
+            dynamoDbHelper.putItemToTable(target, item, condition);
+        } catch (ConditionalCheckFailedException e) {
+            // Already in the target table, which is authoritative from then on
+        }
+    }
+
+    private static long number(AttributeValue value) {
+        return value == null || value.n() == null ? 0 : Long.parseLong(value.n());
+    }
+}
@@ -0,0 +1,149 @@
+package com.isap.routing;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Maps a routing key, the pollId, to the table holding the poll, its options and its votes.
+ *
+ * Keys are spread over {@code poll.tables} with rendezvous hashing: every table gets a score for the key and the
+ * highest wins, so adding a table moves only the keys the new table wins, about 1/n of them, and removing one moves
+ * only its own keys. Keys listed in {@code poll.tables.pinned} as {@code key=table} bypass the hash, which isolates
+ * a noisy poll on a table of its own.
+ *
+ * While polls are being moved to a new layout, {@code poll.tables.previous} holds the layout they are moving from.
+ * Reads that miss in the current table fall back to it; see {@link TableRebalancer}.
+ */
+@ApplicationScoped
+public class TableRouter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Layout current;
+    private final Layout previous;
+
+    @Inject
+    public TableRouter(@ConfigProperty(name = "poll.tables", defaultValue = "PollTable") List<String> tables,
+                       @ConfigProperty(name = "poll.tables.pinned") Optional<List<String>> pinned,
+                       @ConfigProperty(name = "poll.tables.previous") Optional<List<String>> previousTables) {
+        Map<String, String> pins = parsePins(pinned.orElse(List.of()));
+        this.current = new Layout(tables, pins);
+        this.previous = previousTables.filter(previousList -> !previousList.isEmpty())
+                .map(previousList -> new Layout(previousList, pins))
+                .orElse(null);
+    }
+
+    public static TableRouter single(String table) {
+        return new TableRouter(List.of(table), Optional.empty(), Optional.empty());
+    }
+
+    public String tableFor(String routingKey) {
+        return current.tableFor(routingKey);
+    }
+
+    /**
+     * @return the table the key lived in under the previous layout, or null when it has not moved.
+     */
+    public String previousTableFor(String routingKey) {
+        if (previous == null) {
+            return null;
+        }
+        String table = previous.tableFor(routingKey);
+        return table.equals(current.tableFor(routingKey)) ? null : table;
+    }
+
+    public boolean isRebalancing() {
+        return previous != null;
+    }
+
+    /**
+     * @return every table of the current and previous layouts, e.g. for full table scans.
+     */
+    public List<String> allTables() {
+        Set<String> tables = new LinkedHashSet<>(current.tables);
+        if (previous != null) {
+            tables.addAll(previous.tables);
+        }
+        return List.copyOf(tables);
+    }
+
+    private static Map<String, String> parsePins(List<String> entries) {
+        Map<String, String> pins = new HashMap<>();
+        for (String entry : entries) {
+            int separator = entry.indexOf('=');
+            if (separator <= 0 || separator == entry.length() - 1) {
+                throw new IllegalArgumentException("Pinned table entries must look like key=table: " + entry);
+            }
+            pins.put(entry.substring(0, separator).trim(), entry.substring(separator + 1).trim());
+        }
+        return pins;
+    }
+
+    static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * MurmurHash3 finalizer, so that scores of similar keys and tables are uncorrelated.
+     */
+    static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private static final class Layout {
+        private final List<String> tables;
+        private final long[] tableHashes;
+        private final Map<String, String> pins;
+
+        private Layout(List<String> tables, Map<String, String> pins) {
+            if (tables.isEmpty()) {
+                throw new IllegalArgumentException("At least one table is required");
+            }
+            this.tables = List.copyOf(tables);
+            this.tableHashes = tables.stream().mapToLong(TableRouter::hash).toArray();
+            this.pins = pins;
+        }
+
+        private String tableFor(String routingKey) {
+            String pinned = pins.get(routingKey);
+            if (pinned != null) {
+                return pinned;
+            }
+            if (tables.size() == 1) {
+                return tables.get(0);
+            }
+
+            long keyHash = hash(routingKey);
+            int best = 0;
+            long bestScore = Long.MIN_VALUE;
+            for (int i = 0; i < tables.size(); i++) {
+                long score = mix(keyHash ^ tableHashes[i]);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = i;
+                }
+            }
+            return tables.get(best);
+        }
+    }
+}
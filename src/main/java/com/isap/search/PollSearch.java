@@ -0,0 +1,297 @@
+package com.isap.search;
+
+import com.isap.domain.Poll;
+import com.isap.results.ChangeRecord;
+import com.isap.results.ChangeStream;
+import com.isap.results.DynamoDbChangeStream;
+import com.isap.utils.DynamoDbHelper;
+import com.isap.utils.RateLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.streams.DynamoDbStreamsClient;
+import software.amazon.awssdk.services.dynamodb.streams.DynamoDbStreamsClientBuilder;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.isap.codec.Attributes.GSI3PK;
+import static com.isap.domain.Poll.SK_POLL;
+
+/**
+ * Full-text search over poll questions and option texts, served from a {@link SearchIndex} held in memory.
+ *
+ * The index is built at startup from a parallel segmented scan of GSI3, which holds only poll items, throttled to
+ * {@code read-units-per-second}, and searches answer from what has been indexed so far until the build finishes.
+ * Polls created before {@code createdAt} was recorded have no GSI3 keys; with {@code poll.search.legacy-polls} they
+ * are found by also scanning the tables for poll items without them, which reads every item of the tables.
+ * Polls created through this instance are added as soon as their transaction commits. On instances started with
+ * {@code poll.search.stream.consume=true}, polls created elsewhere, on other instances or by the bulk importer, are
+ * added from the tables' change stream as they are written; DynamoDB Streams serves at most two readers per shard, so
+ * count them together with the results materializer. Other instances find those polls after the next rebuild, which
+ * builds a new index while the current one keeps serving.
+ *
+ * Publishes the {@code poll.search.queries} timer and the {@code poll.search.polls} and {@code poll.search.terms}
+ * gauges.
+ */
+@Slf4j
+@ApplicationScoped
+public class PollSearch {
+
+    // Sparse: only poll items carry its keys
+    static final String INDEX = "GSI3";
+    static final String LEGACY_POLL_FILTER = "SK = :poll AND attribute_not_exists(" + GSI3PK + ")";
+
+    private final DynamoDbHelper dynamoDbHelper;
+    private final boolean enabled;
+    private final int segments;
+    private final double readUnitsPerSecond;
+    private final int pageSize;
+    private final int maxExpansions;
+    private final boolean legacyPolls;
+    private final boolean consumeStream;
+    private final Optional<URI> endpoint;
+    private final Optional<String> region;
+    private final Duration idleDelay;
+    private final Timer queries;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile SearchIndex index = new SearchIndex();
+    private volatile SearchIndex next;
+    private volatile boolean complete;
+    private ChangeStream changeStream;
+    private DynamoDbStreamsClient streamsClient;
+
+    @Inject
+    public PollSearch(DynamoDbHelper dynamoDbHelper,
+                      @ConfigProperty(name = "poll.search.enabled", defaultValue = "true") boolean enabled,
+                      @ConfigProperty(name = "poll.search.segments", defaultValue = "4") int segments,
+                      @ConfigProperty(name = "poll.search.read-units-per-second", defaultValue = "100") double readUnitsPerSecond,
+                      @ConfigProperty(name = "poll.search.page-size", defaultValue = "500") int pageSize,
+                      @ConfigProperty(name = "poll.search.max-expansions", defaultValue = "50") int maxExpansions,
+                      @ConfigProperty(name = "poll.search.legacy-polls", defaultValue = "true") boolean legacyPolls,
+                      @ConfigProperty(name = "poll.search.stream.consume", defaultValue = "false") boolean consumeStream,
+                      @ConfigProperty(name = "quarkus.dynamodb.endpoint-url") Optional<URI> endpoint,
+                      @ConfigProperty(name = "quarkus.dynamodb.region") Optional<String> region,
+                      @ConfigProperty(name = "poll.search.stream.idle-delay", defaultValue = "250ms") Duration idleDelay) {
+        this(dynamoDbHelper, enabled, segments, readUnitsPerSecond, pageSize, maxExpansions, legacyPolls, consumeStream,
+                endpoint, region, idleDelay, Metrics.globalRegistry);
+    }
+
+    PollSearch(DynamoDbHelper dynamoDbHelper, boolean enabled, int segments, double readUnitsPerSecond, int pageSize,
+               int maxExpansions, boolean legacyPolls, boolean consumeStream, Optional<URI> endpoint,
+               Optional<String> region, Duration idleDelay, MeterRegistry registry) {
+        this.dynamoDbHelper = dynamoDbHelper;
+        this.enabled = enabled;
+        this.segments = segments;
+        this.readUnitsPerSecond = readUnitsPerSecond;
+        this.pageSize = pageSize;
+        this.maxExpansions = maxExpansions;
+        this.legacyPolls = legacyPolls;
+        this.consumeStream = consumeStream;
+        this.endpoint = endpoint;
+        this.region = region;
+        this.idleDelay = idleDelay;
+        this.queries = Timer.builder("poll.search.queries").publishPercentiles(0.5, 0.99).register(registry);
+        Gauge.builder("poll.search.polls", this, search -> search.index.polls()).register(registry);
+        Gauge.builder("poll.search.terms", this, search -> search.index.terms()).register(registry);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        dynamoDbHelper.onPollCreated(this::add);
+        // Before the build, so polls written while it runs are not missed
+        if (consumeStream) {
+            DynamoDbStreamsClientBuilder builder = DynamoDbStreamsClient.builder().httpClientBuilder(UrlConnectionHttpClient.builder());
+            endpoint.ifPresent(builder::endpointOverride);
+            region.map(Region::of).ifPresent(builder::region);
+            streamsClient = builder.build();
+            follow(new DynamoDbChangeStream(streamsClient, dynamoDbHelper, idleDelay));
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Building the search index failed: {}", e.getMessage(), e);
+            }
+        }, "poll-search-indexer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void follow(ChangeStream stream) {
+        changeStream = stream;
+        stream.start(this::accept);
+        log.info("Indexing polls from the change stream");
+    }
+
+    @PreDestroy
+    void stop() {
+        if (changeStream != null) {
+            changeStream.close();
+        }
+        if (streamsClient != null) {
+            streamsClient.close();
+        }
+    }
+
+    /**
+     * Adds the polls written in a batch of changes; polls already indexed are left as they are, so a redelivered
+     * batch changes nothing.
+     */
+    void accept(List<ChangeRecord> batch) {
+        for (ChangeRecord change : batch) {
+            Map<String, AttributeValue> item = change.newImage();
+            if (item != null && item.get("SK") != null && SK_POLL.equals(item.get("SK").s())) {
+                add(Poll.fromDynamoDbItem(item));
+            }
+        }
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public SearchResults search(String query, int limit) {
+        long started = System.nanoTime();
+        SearchIndex current = index;
+        SearchIndex.Matches matches = current.search(query, limit, maxExpansions);
+        queries.record(Duration.ofNanos(System.nanoTime() - started));
+        return new SearchResults(query, matches.total(), matches.hits(), current.polls(), complete);
+    }
+
+    /**
+     * Adds a poll to the index serving searches and to the one being built, if any.
+     */
+    synchronized void add(Poll poll) {
+        index.add(poll.pollId(), poll.question(), poll.options().values());
+        if (next != null) {
+            next.add(poll.pollId(), poll.question(), poll.options().values());
+        }
+    }
+
+    /**
+     * Builds a new index from the poll items and swaps it in once complete.
+     *
+     * @throws IllegalStateException if a build is already in progress.
+     */
+    public SearchIndexReport rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("The search index is already being built");
+        }
+
+        try {
+            return runRebuild();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search index build interrupted", e);
+        } finally {
+            synchronized (this) {
+                next = null;
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    private SearchIndexReport runRebuild() throws InterruptedException {
+        Instant startedAt = Instant.now();
+        RateLimiter rateLimiter = new RateLimiter(readUnitsPerSecond);
+        // The first build fills the index that is already serving, so searches find polls while it runs
+        SearchIndex building = complete ? new SearchIndex() : index;
+        synchronized (this) {
+            next = building;
+        }
+        log.info("Building the search index with {} segments at {} RCU/s", segments, readUnitsPerSecond);
+
+        List<String> tables = dynamoDbHelper.allTables();
+        ExecutorService executor = Executors.newFixedThreadPool(segments);
+        long scanned = 0;
+        double consumedReadUnits = 0;
+        try {
+            List<Future<double[]>> futures = new ArrayList<>(tables.size() * segments * 2);
+            for (String table : tables) {
+                for (int segment = 0; segment < segments; segment++) {
+                    int current = segment;
+                    futures.add(executor.submit(() -> scanSegment(building, table, INDEX, null, null, current, rateLimiter)));
+                    if (legacyPolls) {
+                        futures.add(executor.submit(() -> scanSegment(building, table, null, LEGACY_POLL_FILTER,
+                                Map.of(":poll", AttributeValue.builder().s(SK_POLL).build()), current, rateLimiter)));
+                    }
+                }
+            }
+            for (Future<double[]> future : futures) {
+                double[] segmentTotals = future.get();
+                scanned += (long) segmentTotals[0];
+                consumedReadUnits += segmentTotals[1];
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search index scan failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        synchronized (this) {
+            index = building;
+            complete = true;
+        }
+        SearchIndexReport report = new SearchIndexReport(startedAt, Duration.between(startedAt, Instant.now()).toMillis(),
+                scanned, building.polls(), building.terms(), building.postingBytes(), consumedReadUnits);
+        log.info("Search index built: {} polls, {} terms, {} posting bytes in {}ms",
+                report.polls(), report.terms(), report.postingBytes(), report.durationMillis());
+        return report;
+    }
+
+    /**
+     * @param indexName GSI3, or null for the table itself.
+     * @return items scanned and read units consumed.
+     */
+    private double[] scanSegment(SearchIndex building, String table, String indexName, String filterExpression,
+                                 Map<String, AttributeValue> values, int segment, RateLimiter rateLimiter)
+            throws InterruptedException {
+        long scanned = 0;
+        double consumedReadUnits = 0;
+        Map<String, AttributeValue> startKey = null;
+        do {
+            ScanResponse page = dynamoDbHelper.scanSegment(table, indexName, segment, segments, filterExpression, null,
+                    values, startKey, pageSize);
+            for (Map<String, AttributeValue> item : page.items()) {
+                Poll poll = Poll.fromDynamoDbItem(item);
+                building.add(poll.pollId(), poll.question(), poll.options().values());
+            }
+            scanned += page.scannedCount();
+
+            double consumed = page.consumedCapacity() == null ? 0 : page.consumedCapacity().capacityUnits();
+            consumedReadUnits += consumed;
+            rateLimiter.acquire(consumed);
+
+            startKey = page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty() ? page.lastEvaluatedKey() : null;
+        } while (startKey != null);
+
+        log.debug("Search index segment {} of {} in {} done", segment, segments, indexName == null ? table : table + "/" + indexName);
+        return new double[]{scanned, consumedReadUnits};
+    }
+}
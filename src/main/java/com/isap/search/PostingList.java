@@ -0,0 +1,67 @@
+package com.isap.search;
+
+import java.util.Arrays;
+
+/**
+ * The polls containing one term, in increasing document number, as a byte array: per poll the gap from the previous
+ * document number as a varint, then one byte with the term's occurrences in the question (high 4 bits) and in the
+ * options (low 4 bits), each capped at 15. Most gaps of a common term fit in one byte, so a posting usually takes two.
+ */
+final class PostingList {
+
+    private static final int MAX_OCCURRENCES = 15;
+
+    private byte[] bytes = new byte[4];
+    private int size;
+    private int count;
+    private int lastDocument = -1;
+
+    /**
+     * @param document greater than every document added before.
+     */
+    void add(int document, int questionOccurrences, int optionOccurrences) {
+        if (size + 6 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + 6));
+        }
+        int gap = document - lastDocument;
+        while ((gap & ~0x7F) != 0) {
+            bytes[size++] = (byte) ((gap & 0x7F) | 0x80);
+            gap >>>= 7;
+        }
+        bytes[size++] = (byte) gap;
+        bytes[size++] = (byte) (Math.min(questionOccurrences, MAX_OCCURRENCES) << 4
+                | Math.min(optionOccurrences, MAX_OCCURRENCES));
+        lastDocument = document;
+        count++;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int sizeInBytes() {
+        return size;
+    }
+
+    /**
+     * Decodes every posting into {@code documents} and {@code occurrences}, from {@code offset}, as
+     * {@code questionOccurrences << 4 | optionOccurrences}.
+     */
+    void decode(int[] documents, int[] occurrences, int offset) {
+        int document = -1;
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+            int gap = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[position++];
+                gap |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+            }
+            document += gap;
+            documents[offset + i] = document;
+            occurrences[offset + i] = bytes[position++] & 0xFF;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.isap.search;
+
+public record SearchHit(String pollId, String question, double score) {
+}
@@ -0,0 +1,245 @@
+package com.isap.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over poll questions and option texts.
+ *
+ * Polls are numbered in the order they are added and every term maps to a {@link PostingList} of the polls containing
+ * it. Terms are kept sorted, so the terms starting with a prefix are one range of the dictionary.
+ *
+ * A query matches the polls containing every one of its terms, either exactly or, for terms of at least
+ * {@link #MIN_PREFIX_LENGTH} characters, as the prefix of a longer term; only the first {@code maxExpansions} longer
+ * terms of a prefix are used. Each term scores BM25 style: its inverse document frequency times a saturating weight of
+ * its occurrences, where an occurrence in the question counts twice. Prefix matches score half. Polls are ranked by the
+ * sum of their terms' scores, then by age, oldest first.
+ */
+public class SearchIndex {
+
+    static final int MIN_PREFIX_LENGTH = 2;
+    static final int MAX_QUERY_TERMS = 8;
+    private static final double PREFIX_WEIGHT = 0.5;
+    private static final double SATURATION = 1.2;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, PostingList> terms = new TreeMap<>();
+    private final Map<String, Integer> documentsByPollId = new HashMap<>();
+    private String[] pollIds = new String[1024];
+    private String[] questions = new String[1024];
+    private int documents;
+    private long postingBytes;
+
+    /**
+     * Polls do not change once created, so a poll already in the index is left as it is.
+     *
+     * @return whether the poll was added.
+     */
+    public boolean add(String pollId, String question, Collection<String> options) {
+        Map<String, int[]> occurrences = new HashMap<>();
+        for (String term : Tokenizer.tokens(question)) {
+            occurrences.computeIfAbsent(term, t -> new int[2])[0]++;
+        }
+        for (String option : options) {
+            for (String term : Tokenizer.tokens(option)) {
+                occurrences.computeIfAbsent(term, t -> new int[2])[1]++;
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (documentsByPollId.putIfAbsent(pollId, documents) != null) {
+                return false;
+            }
+            if (documents == pollIds.length) {
+                pollIds = Arrays.copyOf(pollIds, documents * 2);
+                questions = Arrays.copyOf(questions, documents * 2);
+            }
+            int document = documents++;
+            pollIds[document] = pollId;
+            questions[document] = question;
+            for (Map.Entry<String, int[]> term : occurrences.entrySet()) {
+                PostingList postings = terms.computeIfAbsent(term.getKey(), t -> new PostingList());
+                int before = postings.sizeInBytes();
+                postings.add(document, term.getValue()[0], term.getValue()[1]);
+                postingBytes += postings.sizeInBytes() - before;
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Matches search(String query, int limit, int maxExpansions) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokens(query)));
+        if (queryTerms.isEmpty()) {
+            return new Matches(0, List.of());
+        }
+        queryTerms = queryTerms.subList(0, Math.min(queryTerms.size(), MAX_QUERY_TERMS));
+
+        lock.readLock().lock();
+        try {
+            List<TermMatches> matches = new ArrayList<>(queryTerms.size());
+            for (String term : queryTerms) {
+                TermMatches termMatches = match(term, maxExpansions);
+                if (termMatches.size == 0) {
+                    return new Matches(0, List.of());
+                }
+                matches.add(termMatches);
+            }
+
+            // Intersect starting from the rarest term, so every later term only looks up the remaining candidates
+            matches.sort(Comparator.comparingInt(termMatches -> termMatches.size));
+            TermMatches first = matches.get(0);
+            int[] candidates = first.documents;
+            double[] scores = first.scores;
+            int size = first.size;
+            for (TermMatches other : matches.subList(1, matches.size())) {
+                int kept = 0;
+                int from = 0;
+                for (int i = 0; i < size && from < other.size; i++) {
+                    int found = Arrays.binarySearch(other.documents, from, other.size, candidates[i]);
+                    if (found >= 0) {
+                        candidates[kept] = candidates[i];
+                        scores[kept++] = scores[i] + other.scores[found];
+                        from = found + 1;
+                    } else {
+                        from = -found - 1;
+                    }
+                }
+                size = kept;
+            }
+
+            return new Matches(size, top(candidates, scores, size, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int polls() {
+        lock.readLock().lock();
+        try {
+            return documents;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int terms() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long postingBytes() {
+        lock.readLock().lock();
+        try {
+            return postingBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The polls containing the term or, as a prefix, one of its expansions, with the best score of each poll.
+     */
+    private TermMatches match(String term, int maxExpansions) {
+        List<PostingList> expansions = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        PostingList exact = terms.get(term);
+        if (exact != null) {
+            expansions.add(exact);
+            weights.add(1.0);
+        }
+        if (term.length() >= MIN_PREFIX_LENGTH) {
+            NavigableMap<String, PostingList> longer = terms.subMap(term, false, term + Character.MAX_VALUE, false);
+            for (PostingList postings : longer.values()) {
+                if (expansions.size() - (exact == null ? 0 : 1) == maxExpansions) {
+                    break;
+                }
+                expansions.add(postings);
+                weights.add(PREFIX_WEIGHT);
+            }
+        }
+
+        int total = 0;
+        for (PostingList postings : expansions) {
+            total += postings.count();
+        }
+        int[] documents = new int[total];
+        int[] occurrences = new int[total];
+        double[] scores = new double[total];
+        int offset = 0;
+        for (int e = 0; e < expansions.size(); e++) {
+            PostingList postings = expansions.get(e);
+            postings.decode(documents, occurrences, offset);
+            double idf = Math.log(1 + (this.documents - postings.count() + 0.5) / (postings.count() + 0.5));
+            for (int i = offset; i < offset + postings.count(); i++) {
+                int frequency = 2 * (occurrences[i] >>> 4) + (occurrences[i] & 0xF);
+                scores[i] = weights.get(e) * idf * frequency * (SATURATION + 1) / (frequency + SATURATION);
+            }
+            offset += postings.count();
+        }
+        if (expansions.size() <= 1) {
+            return new TermMatches(documents, scores, total);
+        }
+
+        // Merge the expansions in document order, keeping each poll's best score
+        long[] packed = new long[total];
+        for (int i = 0; i < total; i++) {
+            packed[i] = (long) documents[i] << 32 | Float.floatToIntBits((float) scores[i]);
+        }
+        Arrays.sort(packed);
+        int size = 0;
+        for (int i = 0; i < total; i++) {
+            int document = (int) (packed[i] >>> 32);
+            double score = Float.intBitsToFloat((int) packed[i]);
+            if (size > 0 && documents[size - 1] == document) {
+                scores[size - 1] = Math.max(scores[size - 1], score);
+            } else {
+                documents[size] = document;
+                scores[size++] = score;
+            }
+        }
+        return new TermMatches(documents, scores, size);
+    }
+
+    private List<SearchHit> top(int[] candidates, double[] scores, int size, int limit) {
+        Comparator<Integer> byRank = Comparator.<Integer>comparingDouble(i -> scores[i])
+                .thenComparing(Comparator.<Integer>comparingInt(i -> candidates[i]).reversed());
+        PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, byRank);
+        for (int i = 0; i < size; i++) {
+            best.add(i);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<Integer> ranked = new ArrayList<>(best);
+        ranked.sort(byRank.reversed());
+        List<SearchHit> hits = new ArrayList<>(ranked.size());
+        for (int i : ranked) {
+            hits.add(new SearchHit(pollIds[candidates[i]], questions[candidates[i]], Math.round(scores[i] * 1000) / 1000.0));
+        }
+        return hits;
+    }
+
+    public record Matches(int total, List<SearchHit> hits) {
+    }
+
+    private record TermMatches(int[] documents, double[] scores, int size) {
+    }
+}
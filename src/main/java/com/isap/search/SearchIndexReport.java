@@ -0,0 +1,7 @@
+package com.isap.search;
+
+import java.time.Instant;
+
+public record SearchIndexReport(Instant startedAt, long durationMillis, long itemsScanned, int polls, int terms,
+                                long postingBytes, double consumedReadUnits) {
+}
@@ -0,0 +1,10 @@
+package com.isap.search;
+
+import java.util.List;
+
+/**
+ * @param total    polls matching every term, of which {@code hits} are the best ranked.
+ * @param complete false while the index is still being built at startup, when polls may be missing.
+ */
+public record SearchResults(String query, int total, List<SearchHit> hits, int indexedPolls, boolean complete) {
+}
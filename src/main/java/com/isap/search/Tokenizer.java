@@ -0,0 +1,43 @@
+package com.isap.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits text into lower-case terms of letters and digits, with accents removed so that "café" matches "cafe".
+ * Terms longer than {@link #MAX_TERM_LENGTH} are cut.
+ */
+final class Tokenizer {
+
+    static final int MAX_TERM_LENGTH = 32;
+
+    private Tokenizer() {
+    }
+
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i < normalized.length(); ) {
+            int codePoint = normalized.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (term.length() < MAX_TERM_LENGTH) {
+                    term.appendCodePoint(Character.toLowerCase(codePoint));
+                }
+            } else if (Character.getType(codePoint) != Character.NON_SPACING_MARK && !term.isEmpty()) {
+                tokens.add(term.toString());
+                term.setLength(0);
+            }
+        }
+        if (!term.isEmpty()) {
+            tokens.add(term.toString());
+        }
+        return tokens;
+    }
+}
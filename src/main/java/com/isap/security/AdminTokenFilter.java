@@ -0,0 +1,64 @@
+package com.isap.security;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Optional;
+
+/**
+ * Guards every {@code /admin} endpoint and the bulk import with {@code poll.admin.token}, which callers send in
+ * {@value #TOKEN_HEADER}. These endpoints scan tables, create tables, write polls in bulk and write recordings to
+ * disk, so without a configured token they are refused altogether.
+ */
+@Slf4j
+@Provider
+public class AdminTokenFilter implements ContainerRequestFilter {
+
+    public static final String TOKEN_HEADER = "X-Admin-Token";
+
+    private final String token;
+
+    @Inject
+    public AdminTokenFilter(@ConfigProperty(name = "poll.admin.token") Optional<String> token) {
+        this(token.orElse(null));
+    }
+
+    AdminTokenFilter(String token) {
+        this.token = token == null || token.isBlank() ? null : token;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        if (!isAdminPath(requestContext.getUriInfo().getPath())) {
+            return;
+        }
+
+        if (token == null) {
+            log.warn("Refused {} {}: poll.admin.token is not set", requestContext.getMethod(), requestContext.getUriInfo().getPath());
+            requestContext.abortWith(Response.status(Response.Status.FORBIDDEN)
+                    .entity("Admin endpoints are disabled").build());
+            return;
+        }
+
+        String presented = requestContext.getHeaderString(TOKEN_HEADER);
+        if (presented == null || !MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8), presented.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("Refused {} {}: missing or wrong admin token", requestContext.getMethod(), requestContext.getUriInfo().getPath());
+            requestContext.abortWith(Response.status(Response.Status.UNAUTHORIZED)
+                    .entity("Missing or wrong " + TOKEN_HEADER).build());
+        }
+    }
+
+    private static boolean isAdminPath(String path) {
+        String relative = path.startsWith("/") ? path.substring(1) : path;
+        return relative.equals("admin") || relative.startsWith("admin/")
+                || relative.equals("poll/import") || relative.startsWith("poll/import/");
+    }
+}
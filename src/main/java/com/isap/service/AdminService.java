@@ -0,0 +1,64 @@
+package com.isap.service;
+
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+public interface AdminService {
+    @POST
+    @Path("/reconcile")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response reconcileVoteCounts(@QueryParam("dryRun") @DefaultValue("false") boolean dryRun);
+
+    @POST
+    @Path("/export")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response exportPollTable(@QueryParam("exportId") String exportId);
+
+    @POST
+    @Path("/tables")
+    @Produces(MediaType.TEXT_PLAIN)
+    Response addTable(@QueryParam("name") String name);
+
+    @POST
+    @Path("/rebalance")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response rebalanceTables(@QueryParam("dryRun") @DefaultValue("false") boolean dryRun);
+
+    @POST
+    @Path("/results/rebuild")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response rebuildResults();
+
+    @POST
+    @Path("/search/rebuild")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response rebuildSearchIndex();
+
+    @GET
+    @Path("/jfr")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response getRecording();
+
+    @POST
+    @Path("/jfr/start")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response startRecording(@QueryParam("requestThresholdMs") Long requestThresholdMs,
+                            @QueryParam("dynamoDbThresholdMs") Long dynamoDbThresholdMs,
+                            @QueryParam("durationSeconds") Long durationSeconds);
+
+    @POST
+    @Path("/jfr/dump")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response dumpRecording();
+
+    @POST
+    @Path("/jfr/stop")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response stopRecording(@QueryParam("dump") @DefaultValue("true") boolean dump);
+
+    @GET
+    @Path("/hotkeys")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response getHotKeys();
+}
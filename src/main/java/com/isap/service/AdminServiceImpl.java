@@ -0,0 +1,238 @@
+package com.isap.service;
+
+import com.isap.export.PollTableExporter;
+import com.isap.hotkeys.HotKeys;
+import com.isap.profiling.FlightRecordings;
+import com.isap.profiling.RecordingStatus;
+import com.isap.reconcile.VoteCountReconciler;
+import com.isap.results.ResultsStore;
+import com.isap.routing.TableRebalancer;
+import com.isap.search.PollSearch;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+@Path("/admin")
+@Slf4j
+@ApplicationScoped
+public class AdminServiceImpl implements AdminService {
+
+    private final VoteCountReconciler voteCountReconciler;
+    private final PollTableExporter pollTableExporter;
+    private final TableRebalancer tableRebalancer;
+    private final ResultsStore resultsStore;
+    private final HotKeys hotKeys;
+    private final PollSearch pollSearch;
+    private final FlightRecordings flightRecordings;
+
+    @Inject
+    public AdminServiceImpl(VoteCountReconciler voteCountReconciler, PollTableExporter pollTableExporter,
+                            TableRebalancer tableRebalancer, ResultsStore resultsStore, HotKeys hotKeys,
+                            PollSearch pollSearch, FlightRecordings flightRecordings) {
+        this.voteCountReconciler = voteCountReconciler;
+        this.pollTableExporter = pollTableExporter;
+        this.tableRebalancer = tableRebalancer;
+        this.resultsStore = resultsStore;
+        this.hotKeys = hotKeys;
+        this.pollSearch = pollSearch;
+        this.flightRecordings = flightRecordings;
+    }
+
+    @POST
+    @Path("/reconcile")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    public Response reconcileVoteCounts(@QueryParam("dryRun") @DefaultValue("false") boolean dryRun) {
+        log.info("Received request to reconcile vote counts (dry run: {})", dryRun);
+
+        try {
+            return Response.ok(voteCountReconciler.reconcile(dryRun)).build();
+        } catch (IllegalStateException e) {
+            log.warn("Vote count reconciliation rejected: {}", e.getMessage());
+            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).build();
+        } catch (DynamoDbException e) {
+            log.error("Error while reconciling vote counts: {}", e.getMessage(), e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Failed to reconcile vote counts").build();
+        }
+    }
+
+    @POST
+    @Path("/export")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    public Response exportPollTable(@QueryParam("exportId") String exportId) {
+        String id = exportId == null || exportId.isBlank() ? "export-" + System.currentTimeMillis() : exportId;
+        log.info("Received request to export PollTable as {}", id);
+
+        try {
+            return Response.ok(pollTableExporter.export(id)).build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Export rejected: {}", e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        } catch (IOException | DynamoDbException | IllegalStateException e) {
+            log.error("Error while exporting PollTable: {}", e.getMessage(), e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Failed to export PollTable").build();
+        }
+    }
+
+    @POST
+    @Path("/tables")
+    @Produces(MediaType.TEXT_PLAIN)
+    @Override
+    public Response addTable(@QueryParam("name") String name) {
+        log.info("Received request to add table {}", name);
+
+        if (name == null || name.isBlank()) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Table name is required").build();
+        }
+
+        try {
+            tableRebalancer.addTable(name);
+            return Response.status(Response.Status.CREATED)
+                    .entity("Table created: " + name + ". Add it to poll.tables and run /admin/rebalance").build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).build();
+        } catch (DynamoDbException e) {
+            log.error("Error while creating table {}: {}", name, e.getMessage(), e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Failed to create table").build();
+        }
+    }
+
+    @POST
+    @Path("/rebalance")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    public Response rebalanceTables(@QueryParam("dryRun") @DefaultValue("false") boolean dryRun) {
+        log.info("Received request to rebalance tables (dry run: {})", dryRun);
+
+        try {
+            return Response.ok(tableRebalancer.rebalance(dryRun)).build();
+        } catch (IllegalStateException e) {
+            log.warn("Rebalance rejected or stopped: {}", e.getMessage());
+            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).build();
+        } catch (DynamoDbException e) {
+            log.error("Error while rebalancing tables: {}", e.getMessage(), e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Failed to rebalance tables").build();
+        }
+    }
+
+    @POST
+    @Path("/results/rebuild")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    public Response rebuildResults() {
+        log.info("Received request to rebuild materialized results");
+
+        try {
+            return Response.ok(resultsStore.rebuild()).build();
+        } catch (IllegalStateException e) {
+            log.warn("Results rebuild rejected or stopped: {}", e.getMessage());
+            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).build();
+        } catch (DynamoDbException e) {
+            log.error("Error while rebuilding results: {}", e.getMessage(), e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Failed to rebuild results").build();
+        }
+    }
+
+    @POST
+    @Path("/search/rebuild")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    public Response rebuildSearchIndex() {
+        log.info("Received request to rebuild the search index");
+
+        if (!pollSearch.enabled()) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity("Search is disabled").build();
+        }
+
+        try {
+            return Response.ok(pollSearch.rebuild()).build();
+        } catch (IllegalStateException e) {
+            log.warn("Search index rebuild rejected or stopped: {}", e.getMessage());
+            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).build();
+        } catch (DynamoDbException e) {
+            log.error("Error while rebuilding the search index: {}", e.getMessage(), e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Failed to rebuild the search index").build();
+        }
+    }
+
+    @GET
+    @Path("/jfr")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    public Response getRecording() {
+        return Response.ok(flightRecordings.status()).build();
+    }
+
+    @POST
+    @Path("/jfr/start")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    public Response startRecording(@QueryParam("requestThresholdMs") Long requestThresholdMs,
+                                   @QueryParam("dynamoDbThresholdMs") Long dynamoDbThresholdMs,
+                                   @QueryParam("durationSeconds") Long durationSeconds) {
+        log.info("Received request to start a JFR recording");
+
+        if ((requestThresholdMs != null && requestThresholdMs < 0) || (dynamoDbThresholdMs != null && dynamoDbThresholdMs < 0)
+                || (durationSeconds != null && durationSeconds <= 0)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Thresholds must not be negative and durationSeconds must be positive").build();
+        }
+
+        return recordingResponse(() -> flightRecordings.start(
+                requestThresholdMs == null ? null : Duration.ofMillis(requestThresholdMs),
+                dynamoDbThresholdMs == null ? null : Duration.ofMillis(dynamoDbThresholdMs),
+                durationSeconds == null ? null : Duration.ofSeconds(durationSeconds)));
+    }
+
+    @POST
+    @Path("/jfr/dump")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    public Response dumpRecording() {
+        log.info("Received request to dump the JFR recording");
+        return recordingResponse(flightRecordings::dump);
+    }
+
+    @POST
+    @Path("/jfr/stop")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    public Response stopRecording(@QueryParam("dump") @DefaultValue("true") boolean dump) {
+        log.info("Received request to stop the JFR recording (dump: {})", dump);
+        return recordingResponse(() -> flightRecordings.stop(dump));
+    }
+
+    private static Response recordingResponse(Supplier<RecordingStatus> action) {
+        try {
+            return Response.ok(action.get()).build();
+        } catch (UnsupportedOperationException e) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity(e.getMessage()).build();
+        } catch (IllegalStateException e) {
+            log.warn("JFR request rejected: {}", e.getMessage());
+            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).build();
+        } catch (UncheckedIOException e) {
+            log.error("Error while writing the JFR recording: {}", e.getMessage(), e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Failed to write the recording").build();
+        }
+    }
+
+    @GET
+    @Path("/hotkeys")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    public Response getHotKeys() {
+        return Response.ok(hotKeys.report()).build();
+    }
+}
@@ -0,0 +1,17 @@
+package com.isap.service;
+
+import com.isap.tally.TallyDelta;
+import com.isap.tally.TallyReplicator;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Endpoints other instances of the service call. Not meant to be reachable from outside the deployment.
+ */
+public interface InternalService {
+    @POST
+    @Path("/tallies")
+    @Consumes(MediaType.APPLICATION_JSON)
+    Response receiveTallies(TallyDelta delta, @HeaderParam(TallyReplicator.SECRET_HEADER) String secret);
+}
@@ -0,0 +1,37 @@
+package com.isap.service;
+
+import com.isap.tally.TallyDelta;
+import com.isap.tally.TallyReplicator;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import lombok.extern.slf4j.Slf4j;
+
+@Path("/internal")
+@Slf4j
+@ApplicationScoped
+public class InternalServiceImpl implements InternalService {
+
+    private final TallyReplicator tallyReplicator;
+
+    @Inject
+    public InternalServiceImpl(TallyReplicator tallyReplicator) {
+        this.tallyReplicator = tallyReplicator;
+    }
+
+    @POST
+    @Path("/tallies")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Override
+    public Response receiveTallies(TallyDelta delta, @HeaderParam(TallyReplicator.SECRET_HEADER) String secret) {
+        log.debug("Received vote tallies of {} polls from {}", delta.polls().size(), delta.node());
+
+        if (!tallyReplicator.receive(delta, secret)) {
+            log.warn("Rejected vote tallies from {}: missing or wrong secret", delta.node());
+            return Response.status(Response.Status.FORBIDDEN).build();
+        }
+        return Response.noContent().build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.isap.service;
+
+import com.isap.domain.PollResults;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-process knowledge about which polls have ended. Final results never change once written,
+ * so they are kept for the life of the process (up to a size bound) and served without DynamoDB reads.
+ */
+@ApplicationScoped
+public class PollClosureCache {
+
+    static final int MAX_ENTRIES = 100_000;
+
+    private final ConcurrentMap<String, PollResults> finalResults = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Instant> endTimes = new ConcurrentHashMap<>();
+
+    public PollResults finalResults(String pollId) {
+        return finalResults.get(pollId);
+    }
+
+    public void recordFinalResults(PollResults results) {
+        putBounded(finalResults, results.pollId(), results);
+    }
+
+    /**
+     * Remembers when a poll stops accepting votes; Instant.MIN marks a poll known to be closed.
+     */
+    public void recordEndTime(String pollId, Instant endsAt) {
+        putBounded(endTimes, pollId, endsAt);
+    }
+
+    public boolean isClosed(String pollId, Instant now) {
+        if (finalResults.containsKey(pollId)) {
+            return true;
+        }
+        Instant endsAt = endTimes.get(pollId);
+        return endsAt != null && !now.isBefore(endsAt);
+    }
+
+    private static <V> void putBounded(ConcurrentMap<String, V> map, String key, V value) {
+        if (map.size() >= MAX_ENTRIES && !map.containsKey(key)) {
+            map.clear();
+        }
+        map.put(key, value);
+    }
+}
@@ -0,0 +1,17 @@
+package com.isap.service;
+
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.io.InputStream;
+
+public interface PollImportService {
+    @POST
+    @Consumes({"application/x-ndjson", "text/csv", MediaType.TEXT_PLAIN, MediaType.APPLICATION_OCTET_STREAM})
+    @Produces(MediaType.APPLICATION_JSON)
+    Response importPolls(InputStream body,
+                         @QueryParam("format") String format,
+                         @QueryParam("importId") String importId,
+                         @QueryParam("startRow") @DefaultValue("1") long startRow);
+}
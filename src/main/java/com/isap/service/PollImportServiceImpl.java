@@ -0,0 +1,63 @@
+package com.isap.service;
+
+import com.isap.exception.ImportCompletedException;
+import com.isap.importer.ImportFormat;
+import com.isap.importer.ImportReport;
+import com.isap.importer.PollImporter;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+@Path("/poll/import")
+@Slf4j
+@ApplicationScoped
+public class PollImportServiceImpl implements PollImportService {
+
+    private final PollImporter pollImporter;
+
+    @Inject
+    public PollImportServiceImpl(PollImporter pollImporter) {
+        this.pollImporter = pollImporter;
+    }
+
+    @RunOnVirtualThread
+    @POST
+    @Consumes({"application/x-ndjson", "text/csv", MediaType.TEXT_PLAIN, MediaType.APPLICATION_OCTET_STREAM})
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    public Response importPolls(InputStream body,
+                                @QueryParam("format") String format,
+                                @QueryParam("importId") String importId,
+                                @QueryParam("startRow") @DefaultValue("1") long startRow) {
+        ImportFormat importFormat;
+        try {
+            importFormat = ImportFormat.fromString(format);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Unsupported import format: " + format).build();
+        }
+
+        String id = importId == null || importId.isBlank() ? UUID.randomUUID().toString() : importId;
+        log.info("Received request to import polls with importId: {}", id);
+
+        try {
+            ImportReport report = pollImporter.importPolls(body, importFormat, id, startRow);
+            return Response.ok(report).build();
+        } catch (ImportCompletedException e) {
+            log.warn("Refused import {}: {}", id, e.getMessage());
+            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).build();
+        } catch (IOException e) {
+            log.error("Error reading import {}: {}", id, e.getMessage(), e);
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Error reading import data").build();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.isap.service;
+
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Recently created polls, newest first, a page at a time.
+ */
+public interface PollListService {
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    Response listPolls(@QueryParam("cursor") String cursor, @QueryParam("limit") @DefaultValue("20") int limit);
+}
@@ -0,0 +1,52 @@
+package com.isap.service;
+
+import com.isap.listing.RecentPolls;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+
+@Path("/poll/list")
+@Slf4j
+@ApplicationScoped
+public class PollListServiceImpl implements PollListService {
+
+    private final RecentPolls recentPolls;
+    private final int maxLimit;
+
+    @Inject
+    public PollListServiceImpl(RecentPolls recentPolls,
+                               @ConfigProperty(name = "poll.list.max-limit", defaultValue = "100") int maxLimit) {
+        this.recentPolls = recentPolls;
+        this.maxLimit = maxLimit;
+    }
+
+    @RunOnVirtualThread
+    @WithSpan
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    public Response listPolls(@QueryParam("cursor") String cursor, @QueryParam("limit") @DefaultValue("20") int limit) {
+        log.debug("Received request to list polls before cursor: {}", cursor);
+
+        if (limit < 1 || limit > maxLimit) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("limit must be between 1 and " + maxLimit).build();
+        }
+
+        try {
+            return Response.ok(recentPolls.list(cursor == null || cursor.isBlank() ? null : cursor, limit)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Invalid cursor").build();
+        } catch (DynamoDbException e) {
+            log.error("Error listing polls: {}", e.getMessage(), e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Failed to list polls").build();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.isap.service;
+
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Finds polls by words of their question or options.
+ */
+public interface PollSearchService {
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    Response search(@QueryParam("q") String query, @QueryParam("limit") @DefaultValue("10") int limit);
+}
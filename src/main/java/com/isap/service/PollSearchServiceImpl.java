@@ -0,0 +1,55 @@
+package com.isap.service;
+
+import com.isap.search.PollSearch;
+import io.opentelemetry.instrumentation.annotations.SpanAttribute;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@Path("/poll/search")
+@Slf4j
+@ApplicationScoped
+public class PollSearchServiceImpl implements PollSearchService {
+
+    static final int MAX_QUERY_LENGTH = 200;
+
+    private final PollSearch pollSearch;
+    private final int maxResults;
+
+    @Inject
+    public PollSearchServiceImpl(PollSearch pollSearch,
+                                 @ConfigProperty(name = "poll.search.max-results", defaultValue = "50") int maxResults) {
+        this.pollSearch = pollSearch;
+        this.maxResults = maxResults;
+    }
+
+    @RunOnVirtualThread
+    @WithSpan
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    public Response search(@QueryParam("q") @SpanAttribute("search.query") String query,
+                           @QueryParam("limit") @DefaultValue("10") int limit) {
+        log.debug("Received request to search polls for: {}", query);
+
+        if (!pollSearch.enabled()) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity("Search is disabled").build();
+        }
+        if (query == null || query.isBlank() || query.length() > MAX_QUERY_LENGTH) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("q is required and at most " + MAX_QUERY_LENGTH + " characters").build();
+        }
+        if (limit < 1 || limit > maxResults) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("limit must be between 1 and " + maxResults).build();
+        }
+
+        return Response.ok(pollSearch.search(query, limit)).build();
+    }
+}
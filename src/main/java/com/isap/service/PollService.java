@@ -1,29 +1,40 @@
 package com.isap.service;
 
+import com.isap.domain.PollRequest;
+import com.isap.domain.VoteRequest;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
-import java.util.Map;
-
 public interface PollService {
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    Response getPoll(@QueryParam("pollId") String pollId);
+    Response getPoll(@QueryParam("pollId") String pollId, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch);
+
+    @GET
+    @Path("/results")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response getResults(@QueryParam("pollId") String pollId, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch);
+
+    @POST
+    @Path("/close")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response closePoll(@QueryParam("pollId") String pollId);
 
     @POST
     @Path("/vote")
     @Consumes(MediaType.APPLICATION_JSON)
-    Response vote(Map<String, String> requestBody);
+    Response vote(VoteRequest request);
 
     @POST
     @Path("/create")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    Response createPoll(Map<String, Object> newPollData);
+    Response createPoll(PollRequest newPoll);
 
     @GET
     @Path("/votes")
     @Produces(MediaType.APPLICATION_JSON)
-    Response getPollVotes(@QueryParam("pollId") String pollId);
+    Response getPollVotes(@QueryParam("pollId") String pollId, @QueryParam("from") String from, @QueryParam("to") String to);
 }
@@ -1,42 +1,97 @@
 package com.isap.service;
 
 import com.isap.domain.Poll;
+import com.isap.domain.PollRequest;
+import com.isap.domain.PollResponse;
+import com.isap.domain.PollResults;
+import com.isap.domain.VoteRequest;
+import com.isap.domain.VotesResponse;
+import com.isap.exception.NotFoundException;
+import com.isap.exception.PollClosedException;
+import com.isap.profiling.RequestEvent;
 import com.isap.repository.PollRepository;
+import com.isap.results.MaterializedResults;
+import com.isap.results.ResultsStore;
+import com.isap.tally.VoteTally;
+import com.isap.utils.ETags;
 import com.isap.utils.ValidationUtils;
+import com.isap.voters.UniqueVoterTracker;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.instrumentation.annotations.SpanAttribute;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
 import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
 
-import java.util.HashMap;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.OptionalLong;
 
 import static com.isap.domain.Option.fromQueryResponse;
 import static com.isap.domain.Poll.fromDynamoDbItem;
 
+/**
+ * Every endpoint blocks on DynamoDB. With quarkus.virtual-threads.enabled=true on Java 21+ each request runs on its own
+ * virtual thread, so a latency spike parks cheap threads instead of exhausting the worker pool; otherwise Quarkus runs
+ * the same methods on the worker pool.
+ *
+ * Each endpoint is a span under the HTTP server span, tagged with poll.id; repository and DynamoDB spans nest below it.
+ */
 @Path("/poll")
 @Slf4j
 @ApplicationScoped
 public class PollServiceImpl implements PollService {
 
+    static final String FINAL_RESULTS_CACHE_CONTROL = "public, max-age=31536000, immutable";
+    // The unique voter estimate of a closed poll can still rise, so such responses are revalidated against their tag
+    static final String ESTIMATED_RESULTS_CACHE_CONTROL = "public, no-cache";
+
     private final PollRepository pollRepository;
+    private final PollVersionTracker versionTracker;
+    private final PollClosureCache closureCache;
+    private final UniqueVoterTracker uniqueVoters;
+    private final VoteTally voteTally;
+    private final ResultsStore resultsStore;
 
     @Inject
-    public PollServiceImpl(PollRepository pollRepository) {
+    public PollServiceImpl(PollRepository pollRepository, PollVersionTracker versionTracker, PollClosureCache closureCache,
+                           UniqueVoterTracker uniqueVoters, VoteTally voteTally, ResultsStore resultsStore) {
         this.pollRepository = pollRepository;
+        this.versionTracker = versionTracker;
+        this.closureCache = closureCache;
+        this.uniqueVoters = uniqueVoters;
+        this.voteTally = voteTally;
+        this.resultsStore = resultsStore;
     }
 
+    @RunOnVirtualThread
+    @WithSpan
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Override
-    public Response getPoll(@QueryParam("pollId") String pollId) {
+    public Response getPoll(@QueryParam("pollId") @SpanAttribute("poll.id") String pollId, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        RequestEvent event = RequestEvent.begin("getPoll", pollId);
+        Response response = null;
+        try {
+            response = readPoll(pollId, ifNoneMatch);
+            return response;
+        } finally {
+            event.finish(response == null ? 500 : response.getStatus());
+        }
+    }
+
+    private Response readPoll(String pollId, String ifNoneMatch) {
         log.info("Received request to get poll with pollId: {}", pollId);
 
         // Validate pollId
@@ -45,6 +100,14 @@ public class PollServiceImpl implements PollService {
                     .entity("Poll ID is required and cannot be empty").build();
         }
 
+        // A known tag is dropped when the poll closes or ends, so while it is kept it can be matched without a read
+        Instant now = Instant.now();
+        EntityTag knownTag = versionTracker.pollTag(pollId, now);
+        if (knownTag != null && ETags.matches(ifNoneMatch, knownTag)) {
+            log.debug("Poll {} not modified, answered from known ETag", pollId);
+            return Response.notModified(knownTag).build();
+        }
+
         log.debug("Fetching poll data for pollId: {}", pollId);
         GetItemResponse response = pollRepository.getPollByPollId(pollId);
 
@@ -56,28 +119,234 @@ public class PollServiceImpl implements PollService {
         Poll poll = fromDynamoDbItem(response.item());
         log.info("Poll retrieved successfully: {}", poll);
 
-        Map<String, Object> result = new HashMap<>();
-        result.put("pollId", poll.pollId());
-        result.put("question", poll.question());
-
         if (!ValidationUtils.validatePollOptionsCount(poll.options())) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity("Poll options must have between 2 and 7 options").build();
         }
 
-        result.put("options", poll.options());
         log.debug("Poll options: {}", poll.options());
 
-        return Response.ok(result).build();
+        if (poll.closedAt() != null) {
+            closureCache.recordEndTime(pollId, poll.closedAt());
+        } else if (poll.endsAt() != null) {
+            closureCache.recordEndTime(pollId, poll.endsAt());
+        }
+
+        EntityTag tag = ETags.forPoll(poll, now);
+        Instant openUntil = poll.isClosed(now) ? null : poll.endsAt() == null ? Instant.MAX : poll.endsAt();
+        versionTracker.recordPollTag(pollId, tag, openUntil);
+        if (ETags.matches(ifNoneMatch, tag)) {
+            return Response.notModified(tag).build();
+        }
+
+        return Response.ok(PollResponse.fromPoll(poll)).tag(tag).build();
+    }
+
+    @RunOnVirtualThread
+    @WithSpan
+    @GET
+    @Path("/results")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    public Response getResults(@QueryParam("pollId") @SpanAttribute("poll.id") String pollId, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        log.info("Received request to get results for pollId: {}", pollId);
+
+        if (!ValidationUtils.validatePollId(pollId)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Poll ID is required and cannot be empty").build();
+        }
+
+        PollResults finalResults = closureCache.finalResults(pollId);
+        if (finalResults != null) {
+            log.debug("Serving cached final results for closed pollId: {}", pollId);
+            return finalResultsResponse(finalResults, ifNoneMatch);
+        }
+
+        // The known version describes open results only; once the poll is closed the final results have to be loaded
+        OptionalLong knownVersion = versionTracker.freshResultsVersion(pollId);
+        if (knownVersion.isPresent() && !closureCache.isClosed(pollId, Instant.now())) {
+            OptionalLong estimate = uniqueVoters.estimate(pollId);
+            EntityTag knownTag = ETags.forResults(pollId, knownVersion.getAsLong(), false,
+                    estimate.isPresent() ? estimate.getAsLong() : null);
+            if (ETags.matches(ifNoneMatch, knownTag)) {
+                log.debug("Results for poll {} not modified, answered from known tag {}", pollId, knownTag);
+                return Response.notModified(knownTag).build();
+            }
+        }
+
+        PollResults tallied = voteTally.freshResults(pollId, Instant.now());
+        if (tallied != null) {
+            log.debug("Serving results for poll {} from the replicated tally", pollId);
+            return resultsResponse(tallied, ifNoneMatch);
+        }
+
+        if (resultsStore.readEnabled()) {
+            MaterializedResults materialized = resultsStore.load(pollId);
+            if (materialized != null) {
+                if (materialized.hasEnded(Instant.now())) {
+                    return endedResultsResponse(pollId, ifNoneMatch);
+                }
+                PollResults results = materialized.toPollResults();
+                versionTracker.recordResultsVersion(pollId, results.totalVotes(), ETags.resultsVersion(results));
+                voteTally.reconcileConsistent(pollId, results.options(), materialized.votingEndsAt());
+                return resultsResponse(results, ifNoneMatch);
+            }
+            log.debug("No materialized results for poll {} yet, querying its options", pollId);
+        }
+
+        QueryResponse options = pollRepository.getOptionsByPollId(pollId);
+        if (!options.hasItems() || options.items().isEmpty()) {
+            log.warn("No options found for pollId: {}", pollId);
+            return Response.status(Response.Status.NOT_FOUND).entity("Poll not found").build();
+        }
+
+        if (hasEnded(options.items(), Instant.now())) {
+            return endedResultsResponse(pollId, ifNoneMatch);
+        }
+
+        return resultsResponse(toResults(pollId, options), ifNoneMatch);
+    }
+
+    private Response endedResultsResponse(String pollId, String ifNoneMatch) {
+        try {
+            return finalResultsResponse(loadFinalResults(pollId), ifNoneMatch);
+        } catch (DynamoDbException e) {
+            log.error("Error while freezing results for ended pollId: {}: {}", pollId, e.getMessage(), e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Failed to load poll results. Please try again").build();
+        }
+    }
+
+    private Response resultsResponse(PollResults results, String ifNoneMatch) {
+        PollResults shown = withUniqueVoters(results);
+        EntityTag tag = ETags.forResults(shown);
+        if (ETags.matches(ifNoneMatch, tag)) {
+            return Response.notModified(tag).build();
+        }
+
+        return Response.ok(shown).tag(tag).build();
+    }
+
+    @RunOnVirtualThread
+    @WithSpan
+    @POST
+    @Path("/close")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    public Response closePoll(@QueryParam("pollId") @SpanAttribute("poll.id") String pollId) {
+        log.info("Received request to close poll with pollId: {}", pollId);
+
+        if (!ValidationUtils.validatePollId(pollId)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Poll ID is required and cannot be empty").build();
+        }
+
+        PollResults finalResults = closureCache.finalResults(pollId);
+        if (finalResults != null) {
+            return Response.ok(withUniqueVoters(finalResults)).build();
+        }
+
+        try {
+            return Response.ok(withUniqueVoters(loadFinalResults(pollId))).build();
+        } catch (NotFoundException e) {
+            log.warn("Poll not found for pollId: {}", pollId);
+            return Response.status(Response.Status.NOT_FOUND).entity("Poll not found").build();
+        } catch (DynamoDbException e) {
+            log.error("Error while closing pollId: {}: {}", pollId, e.getMessage(), e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Failed to close the poll. Please try again").build();
+        }
     }
 
+    /**
+     * Returns the frozen results of an ended poll, closing it first if that has not happened yet.
+     */
+    private PollResults loadFinalResults(String pollId) {
+        GetItemResponse response = pollRepository.getPollByPollId(pollId);
+        Poll poll = fromDynamoDbItem(response.item());
+
+        Map<String, Integer> finalResults = poll.finalResults();
+        if (finalResults == null) {
+            finalResults = pollRepository.closePoll(pollId, poll.options().keySet());
+        }
+
+        PollResults results = PollResults.fromFinalResults(poll, finalResults);
+        closureCache.recordFinalResults(results);
+        versionTracker.forgetPollTag(pollId);
+        return results;
+    }
+
+    private Response finalResultsResponse(PollResults finalResults, String ifNoneMatch) {
+        PollResults shown = withUniqueVoters(finalResults);
+        EntityTag tag = ETags.forResults(shown);
+        String cacheControl = shown.uniqueVoters() == null ? FINAL_RESULTS_CACHE_CONTROL : ESTIMATED_RESULTS_CACHE_CONTROL;
+        if (ETags.matches(ifNoneMatch, tag)) {
+            return Response.notModified(tag).header(HttpHeaders.CACHE_CONTROL, cacheControl).build();
+        }
+
+        return Response.ok(shown).tag(tag).header(HttpHeaders.CACHE_CONTROL, cacheControl).build();
+    }
+
+    /**
+     * The estimate is added per response rather than cached with the results: pending sketches of other instances
+     * can still raise it after the vote counts are final. The tracker reads the stored sketch at most once per
+     * {@code poll.voters.cache-ttl}, so this does not add a read to every response.
+     */
+    private PollResults withUniqueVoters(PollResults results) {
+        OptionalLong estimate = uniqueVoters.estimate(results.pollId());
+        return estimate.isPresent() ? results.withUniqueVoters(estimate.getAsLong()) : results;
+    }
+
+    /**
+     * Option items carry closedAt once the poll is closed and endsAt when it expires on its own,
+     * so the results query alone tells whether voting is over.
+     */
+    private static boolean hasEnded(List<Map<String, AttributeValue>> optionItems, Instant now) {
+        for (Map<String, AttributeValue> item : optionItems) {
+            if (item.containsKey("closedAt")) {
+                return true;
+            }
+            AttributeValue endsAt = item.get("endsAt");
+            if (endsAt != null && Long.parseLong(endsAt.n()) <= now.toEpochMilli()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static Instant endsAt(List<Map<String, AttributeValue>> optionItems) {
+        for (Map<String, AttributeValue> item : optionItems) {
+            if (item.containsKey("closedAt")) {
+                return Instant.ofEpochMilli(Long.parseLong(item.get("closedAt").n()));
+            }
+            if (item.containsKey("endsAt")) {
+                return Instant.ofEpochMilli(Long.parseLong(item.get("endsAt").n()));
+            }
+        }
+        return null;
+    }
+
+    @RunOnVirtualThread
+    @WithSpan
     @POST
     @Path("/vote")
     @Consumes(MediaType.APPLICATION_JSON)
     @Override
-    public Response vote(Map<String, String> requestBody) {
-        String pollId = requestBody.get("pollId");
-        String optionId = requestBody.get("optionId");
+    public Response vote(VoteRequest request) {
+        RequestEvent event = RequestEvent.begin("vote", request.pollId());
+        Response response = null;
+        try {
+            response = castVote(request);
+            return response;
+        } finally {
+            event.finish(response == null ? 500 : response.getStatus());
+        }
+    }
+
+    private Response castVote(VoteRequest request) {
+        String pollId = request.pollId();
+        Span.current().setAttribute("poll.id", pollId);
+        String optionId = request.optionId();
 
         if (!ValidationUtils.validatePollId(pollId)) {
             return Response.status(Response.Status.BAD_REQUEST)
@@ -91,14 +360,29 @@ public class PollServiceImpl implements PollService {
 
         log.info("Received vote request for pollId: {} and optionId: {}", pollId, optionId);
 
+        if (closureCache.isClosed(pollId, Instant.now())) {
+            log.info("Rejected vote for closed pollId: {}", pollId);
+            return Response.status(Response.Status.CONFLICT).entity("Poll is closed").build();
+        }
+
         try {
             log.debug("Attempting to increment vote count for pollId: {} and optionId: {}", pollId, optionId);
             if (pollRepository.incrementVoteCount(pollId, optionId)) {
                 log.info("Vote count updated successfully for pollId: {} and optionId: {}", pollId, optionId);
-                return Response.ok(getOptionsByPollId(pollId)).build();
+                if (request.voterId() != null && !request.voterId().isBlank()) {
+                    uniqueVoters.record(pollId, request.voterId());
+                }
+                PollResults results = getPollResults(pollId);
+                return Response.ok(results).tag(ETags.forResults(results)).build();
             } else {
                 log.error("Failed to update vote count in DynamoDB for pollId: {} and optionId: {}", pollId, optionId);
             }
+        } catch (PollClosedException e) {
+            closureCache.recordEndTime(pollId, Instant.now());
+            versionTracker.forgetPollTag(pollId);
+            return Response.status(Response.Status.CONFLICT).entity("Poll is closed").build();
+        } catch (NotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND).entity("Option not found").build();
         } catch (DynamoDbException e) {
             log.error("Error while updating vote count in DynamoDB: {}", e.getMessage(), e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -111,39 +395,66 @@ public class PollServiceImpl implements PollService {
                 .build();
     }
 
-    private Response getOptionsByPollId(String pollId) {
+    private PollResults getPollResults(String pollId) {
         log.debug("Fetching options with vote stat for pollId: {}", pollId);
 
-        if (!ValidationUtils.validatePollId(pollId)) {
-            return Response.status(Response.Status.BAD_REQUEST)
-                    .entity("Poll ID is required and cannot be empty").build();
-        }
+        // After a vote: a coalesced read may have started before it and would tag the response with an older total
+        return toResults(pollId, pollRepository.getOptionsByPollIdUncoalesced(pollId));
+    }
 
-        QueryResponse response = pollRepository.getOptionsByPollId(pollId);
+    private PollResults toResults(String pollId, QueryResponse response) {
         log.debug("Options fetched for pollId: {}: {}", pollId, response.items());
 
-        return Response.ok(fromQueryResponse(response)).build();
+        PollResults results = PollResults.fromOptions(pollId, fromQueryResponse(response));
+        versionTracker.recordResultsVersion(pollId, results.totalVotes(), ETags.resultsVersion(results));
+        if (response.hasItems()) {
+            voteTally.reconcile(pollId, results.options(), endsAt(response.items()));
+        }
+        return results;
     }
 
+    @RunOnVirtualThread
+    @WithSpan
     @POST
     @Path("/create")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @Override
-    public Response createPoll(Map<String, Object> newPollData) {
-        log.info("Received request to create a new poll: {}", newPollData);
+    public Response createPoll(PollRequest newPoll) {
+        log.info("Received request to create a new poll: {}", newPoll);
 
-        if (!ValidationUtils.validateCreatePollRequest(newPollData)) {
+        if (!ValidationUtils.validateCreatePollRequest(newPoll)) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity("Invalid poll data provided").build();
         }
 
-        try {
-            Map<String, List<String>> pollDataToPut = new HashMap<>();
-            pollDataToPut.put(newPollData.get("question").toString(), (List<String>) newPollData.get("options"));
+        String endsAt = newPoll.endsAt();
+        if (endsAt != null && !ValidationUtils.validateEndsAt(endsAt, Instant.now())) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("endsAt must be a future ISO-8601 instant").build();
+        }
+
+        if (!ValidationUtils.validatePollType(newPoll.type())) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("type must be single or ranked").build();
+        }
+
+        // Ballots are packed 3 bits per choice, so ranked polls are held to the option count of the other checks
+        if (newPoll.ranked() && !ValidationUtils.validateNewPollOptions(newPoll.options())) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Ranked polls must have between 2 and 7 options").build();
+        }
 
-            log.debug("Attempting to create a new poll with data: {}", newPollData);
-            if (pollRepository.createPoll(pollDataToPut)) {
+        try {
+            Map<String, List<String>> pollDataToPut = Map.of(newPoll.question(), newPoll.options());
+
+            log.debug("Attempting to create a new poll with data: {}", newPoll);
+            boolean created = newPoll.ranked()
+                    ? pollRepository.createPoll(pollDataToPut, endsAt == null ? null : Instant.parse(endsAt), true)
+                    : endsAt == null
+                    ? pollRepository.createPoll(pollDataToPut)
+                    : pollRepository.createPoll(pollDataToPut, Instant.parse(endsAt));
+            if (created) {
                 log.info("Poll created successfully");
                 return Response.status(Response.Status.CREATED).entity("Poll created successfully").build();
             }
@@ -153,38 +464,37 @@ public class PollServiceImpl implements PollService {
                     .entity("Error creating poll").build();
         }
 
-        log.error("Failed to create poll with data: {}", newPollData);
+        log.error("Failed to create poll with data: {}", newPoll);
         return Response.status(Response.Status.BAD_REQUEST)
                 .entity("Error creating poll")
                 .build();
     }
 
+    @RunOnVirtualThread
+    @WithSpan
     @GET
     @Path("/votes")
     @Produces(MediaType.APPLICATION_JSON)
     @Override
-    public Response getPollVotes(@QueryParam("pollId") String pollId) {
-        log.info("Received request to get votes for pollId: {}", pollId);
+    public Response getPollVotes(@QueryParam("pollId") @SpanAttribute("poll.id") String pollId, @QueryParam("from") String from,
+                                 @QueryParam("to") String to) {
+        log.info("Received request to get votes for pollId: {} from {} to {}", pollId, from, to);
 
         if (!ValidationUtils.validatePollId(pollId)) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity("Poll ID is required and cannot be empty").build();
         }
 
-        QueryResponse response = pollRepository.getVotesByPollId(pollId);
-        log.debug("Votes fetched for pollId: {}: {}", pollId, response.items());
+        if (!ValidationUtils.validateTimeRange(from, to)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("from and to must be ISO-8601 instants with from not after to").build();
+        }
 
-        List<Map<String, Object>> jsonResponse = response.items()
-                .stream()
-                .map(item -> {
-                    Map<String, Object> jsonItem = new HashMap<>();
-                    jsonItem.put("optionId", item.get("optionId").s());
-                    jsonItem.put("voteId", item.get("PK").s());
-                    jsonItem.put("timestamp", item.get("timestamp").s());
-                    return jsonItem;
-                })
-                .collect(Collectors.toList());
+        // Further pages are read as the writer streams the votes
+        Iterable<Map<String, AttributeValue>> votes = pollRepository.getVotesByPollId(pollId,
+                from == null ? null : Instant.parse(from), to == null ? null : Instant.parse(to));
+        log.debug("Streaming votes for pollId: {}", pollId);
 
-        return Response.ok(jsonResponse).build();
+        return Response.ok(new VotesResponse(votes)).build();
     }
 }
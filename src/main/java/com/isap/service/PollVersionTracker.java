@@ -0,0 +1,99 @@
+package com.isap.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.EntityTag;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers, per poll, the ETag of the poll definition and the latest known results version,
+ * so conditional GETs can be answered without reading DynamoDB.
+ *
+ * A poll's tag covers whether it is closed, so the tag of an open poll is only trusted until its end time and is
+ * dropped when the poll is closed. The tag of a closed poll never changes.
+ *
+ * The results version is a hash of the per-option vote counts. Observations are ordered by their total, which every
+ * accepted vote bumps; an observation with the same total replaces the previous one, so a recount that moves votes
+ * between options is picked up. Votes accepted by other instances and recounts that lower the total are not seen
+ * locally, so a version is only trusted for the configured staleness window.
+ */
+@ApplicationScoped
+public class PollVersionTracker {
+
+    static final int MAX_ENTRIES = 100_000;
+
+    private final long stalenessNanos;
+    private final ConcurrentMap<String, PollTag> pollTags = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ResultsVersion> resultsVersions = new ConcurrentHashMap<>();
+
+    @Inject
+    public PollVersionTracker(@ConfigProperty(name = "poll.results.version-staleness", defaultValue = "1s") Duration staleness) {
+        this.stalenessNanos = staleness.toNanos();
+    }
+
+    /**
+     * @return the poll's tag if it still describes the poll at {@code now}.
+     */
+    public EntityTag pollTag(String pollId, Instant now) {
+        PollTag known = pollTags.get(pollId);
+        if (known == null || (known.openUntil() != null && !now.isBefore(known.openUntil()))) {
+            return null;
+        }
+        return known.tag();
+    }
+
+    /**
+     * @param openUntil when the poll stops accepting votes, Instant.MAX if it has no end time, or null if it is
+     *                  already closed.
+     */
+    public void recordPollTag(String pollId, EntityTag tag, Instant openUntil) {
+        putBounded(pollTags, pollId, new PollTag(tag, openUntil));
+    }
+
+    public void forgetPollTag(String pollId) {
+        pollTags.remove(pollId);
+    }
+
+    /**
+     * @return the results version for the poll if it was observed within the staleness window.
+     */
+    public OptionalLong freshResultsVersion(String pollId) {
+        ResultsVersion version = resultsVersions.get(pollId);
+        if (version == null || System.nanoTime() - version.observedAt() > stalenessNanos) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(version.version());
+    }
+
+    /**
+     * @param totalVotes the total vote count of the observed results, which orders observations.
+     * @param version the results version, see {@link com.isap.utils.ETags#resultsVersion}.
+     */
+    public void recordResultsVersion(String pollId, long totalVotes, long version) {
+        ResultsVersion observed = new ResultsVersion(totalVotes, version, System.nanoTime());
+        if (resultsVersions.size() >= MAX_ENTRIES && !resultsVersions.containsKey(pollId)) {
+            resultsVersions.clear();
+        }
+        // Totals only move forward; a late read must not roll back a newer vote-path observation
+        resultsVersions.merge(pollId, observed, (current, next) -> next.totalVotes() >= current.totalVotes() ? next : current);
+    }
+
+    private static <V> void putBounded(ConcurrentMap<String, V> map, String key, V value) {
+        if (map.size() >= MAX_ENTRIES && !map.containsKey(key)) {
+            map.clear();
+        }
+        map.put(key, value);
+    }
+
+    private record PollTag(EntityTag tag, Instant openUntil) {
+    }
+
+    private record ResultsVersion(long totalVotes, long version, long observedAt) {
+    }
+}
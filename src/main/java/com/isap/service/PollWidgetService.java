@@ -0,0 +1,11 @@
+package com.isap.service;
+
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+public interface PollWidgetService {
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    Response getWidget(@QueryParam("pollId") String pollId);
+}
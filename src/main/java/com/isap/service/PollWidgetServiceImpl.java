@@ -0,0 +1,227 @@
+package com.isap.service;
+
+import com.isap.domain.Option;
+import com.isap.domain.Poll;
+import com.isap.domain.PollWidget;
+import com.isap.exception.NotFoundException;
+import com.isap.repository.PollRepository;
+import com.isap.utils.ValidationUtils;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.instrumentation.annotations.SpanAttribute;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * GET /poll/widget reads the poll item and queries the option items at the same time: the query runs on a small
+ * pool while the request thread reads the poll item, so the response takes as long as the slower of the two rather
+ * than their sum. When every pool thread is busy the query is rejected and runs on the request thread once the read
+ * has finished, so the poll item is never delayed by it.
+ *
+ * Either part may fail without failing the response. Without the poll item the options come from the option items,
+ * which carry their text; without the option items the options come from the poll definition, without counts. The
+ * response lists what is missing in {@code degraded}. A closed poll's counts come from its frozen final results, so
+ * it does not need the option items at all.
+ */
+@Path("/poll/widget")
+@Slf4j
+@ApplicationScoped
+public class PollWidgetServiceImpl implements PollWidgetService {
+
+    private final PollRepository pollRepository;
+    private final PollClosureCache closureCache;
+    private final long resultsTimeoutNanos;
+    private final ExecutorService executor;
+
+    @Inject
+    public PollWidgetServiceImpl(PollRepository pollRepository, PollClosureCache closureCache,
+                                 @ConfigProperty(name = "poll.widget.results-timeout", defaultValue = "1s") Duration resultsTimeout,
+                                 @ConfigProperty(name = "poll.widget.threads", defaultValue = "64") int threads) {
+        this.pollRepository = pollRepository;
+        this.closureCache = closureCache;
+        this.resultsTimeoutNanos = resultsTimeout.toNanos();
+        AtomicInteger created = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "poll-widget-" + created.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    @RunOnVirtualThread
+    @WithSpan
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    public Response getWidget(@QueryParam("pollId") @SpanAttribute("poll.id") String pollId) {
+        log.info("Received request to get poll widget for pollId: {}", pollId);
+
+        if (!ValidationUtils.validatePollId(pollId)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Poll ID is required and cannot be empty").build();
+        }
+
+        // Carries the request span over, so the query's spans stay under this request
+        Callable<QueryResponse> query = Context.current().wrap(() -> pollRepository.getOptionsByPollId(pollId));
+        Future<QueryResponse> optionQuery;
+        FutureTask<QueryResponse> deferredQuery = null;
+        try {
+            optionQuery = executor.submit(query);
+        } catch (RejectedExecutionException e) {
+            optionQuery = deferredQuery = new FutureTask<>(query);
+        }
+
+        Poll poll = null;
+        try {
+            GetItemResponse response = pollRepository.getPollByPollId(pollId);
+            poll = Poll.fromDynamoDbItem(response.item());
+        } catch (NotFoundException e) {
+            optionQuery.cancel(true);
+            return Response.status(Response.Status.NOT_FOUND).entity("Poll not found").build();
+        } catch (SdkException e) {
+            log.warn("Widget for pollId: {} without poll item: {}", pollId, e.getMessage());
+        }
+
+        List<Map<String, AttributeValue>> optionItems = null;
+        if (poll != null && poll.finalResults() != null) {
+            optionQuery.cancel(true);
+        } else {
+            if (deferredQuery != null) {
+                deferredQuery.run();
+            }
+            optionItems = awaitOptions(pollId, optionQuery);
+        }
+
+        if (poll == null && optionItems == null) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Failed to load poll").build();
+        }
+        if (poll == null && optionItems.isEmpty()) {
+            return Response.status(Response.Status.NOT_FOUND).entity("Poll not found").build();
+        }
+
+        return Response.ok(widget(pollId, poll, optionItems, Instant.now())).build();
+    }
+
+    private List<Map<String, AttributeValue>> awaitOptions(
+            String pollId, Future<QueryResponse> optionQuery) {
+        try {
+            return optionQuery.get(resultsTimeoutNanos, TimeUnit.NANOSECONDS).items();
+        } catch (TimeoutException e) {
+            optionQuery.cancel(true);
+            log.warn("Widget for pollId: {} without results: option query took over {}ms", pollId,
+                    TimeUnit.NANOSECONDS.toMillis(resultsTimeoutNanos));
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof SdkException)) {
+                throw e.getCause() instanceof RuntimeException runtimeException
+                        ? runtimeException : new IllegalStateException(e.getCause());
+            }
+            log.warn("Widget for pollId: {} without results: {}", pollId, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            optionQuery.cancel(true);
+        }
+        return null;
+    }
+
+    private PollWidget widget(String pollId, Poll poll,
+                              List<Map<String, AttributeValue>> optionItems,
+                              Instant now) {
+        List<String> degraded = new ArrayList<>(2);
+
+        // Option texts in definition order when the poll item was read, with counts from wherever they are known
+        Map<String, String> texts = new LinkedHashMap<>();
+        Map<String, Integer> counts = null;
+        if (poll != null) {
+            texts.putAll(poll.options());
+            counts = poll.finalResults();
+        } else {
+            degraded.add(PollWidget.POLL);
+        }
+        if (counts == null && optionItems != null) {
+            counts = new HashMap<>();
+            for (Option option : optionItems.stream().map(Option::fromDynamoDbItem).toList()) {
+                texts.putIfAbsent(option.optionId(), option.text());
+                counts.put(option.optionId(), option.votes());
+            }
+        }
+        if (counts == null) {
+            degraded.add(PollWidget.RESULTS);
+        }
+
+        List<String> optionIds = new ArrayList<>(texts.keySet());
+        List<PollWidget.Option> options = new ArrayList<>(optionIds.size());
+        Long totalVotes = null;
+        if (counts != null) {
+            int[] votes = new int[optionIds.size()];
+            long total = 0;
+            for (int i = 0; i < votes.length; i++) {
+                votes[i] = counts.getOrDefault(optionIds.get(i), 0);
+                total += votes[i];
+            }
+            int[] tenths = PollWidget.tenthsOfPercent(votes);
+            for (int i = 0; i < votes.length; i++) {
+                options.add(new PollWidget.Option(optionIds.get(i), texts.get(optionIds.get(i)), votes[i], tenths[i] / 10.0));
+            }
+            totalVotes = total;
+        } else {
+            for (String optionId : optionIds) {
+                options.add(new PollWidget.Option(optionId, texts.get(optionId), null, null));
+            }
+        }
+
+        Instant endsAt;
+        boolean closed;
+        if (poll != null) {
+            endsAt = poll.endsAt();
+            closed = poll.isClosed(now);
+            Instant end = poll.closedAt() != null ? poll.closedAt() : poll.endsAt();
+            if (end != null) {
+                closureCache.recordEndTime(pollId, end);
+            }
+        } else {
+            Instant end = PollServiceImpl.endsAt(optionItems);
+            endsAt = end;
+            closed = end != null && !end.isAfter(now);
+        }
+
+        return new PollWidget(pollId, poll == null ? null : poll.question(), options, endsAt, closed, totalVotes, degraded);
+    }
+}
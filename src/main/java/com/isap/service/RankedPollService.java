@@ -0,0 +1,22 @@
+package com.isap.service;
+
+import com.isap.domain.RankedVoteRequest;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Ballots and instant-runoff results of polls created with {@code "type": "ranked"}.
+ */
+public interface RankedPollService {
+    @POST
+    @Path("/vote")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    Response vote(RankedVoteRequest request);
+
+    @GET
+    @Path("/results")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response getResults(@QueryParam("pollId") String pollId);
+}
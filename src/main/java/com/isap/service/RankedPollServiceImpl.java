@@ -0,0 +1,151 @@
+package com.isap.service;
+
+import com.isap.domain.Poll;
+import com.isap.domain.RankedVoteRequest;
+import com.isap.exception.NotFoundException;
+import com.isap.exception.PollClosedException;
+import com.isap.ranked.InstantRunoff;
+import com.isap.ranked.RankedResults;
+import com.isap.ranked.RankedTally;
+import com.isap.ranked.Rankings;
+import com.isap.repository.PollRepository;
+import com.isap.utils.ValidationUtils;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.instrumentation.annotations.SpanAttribute;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A ranked ballot is counted on the option item of its first choice, in a map of ballot counts per packed ranking, so
+ * ballots spread over the option items like single-choice votes do. Results rebuild a {@link RankedTally} from the
+ * option items and run the instant-runoff count over it.
+ */
+@Path("/poll/ranked")
+@Slf4j
+@ApplicationScoped
+public class RankedPollServiceImpl implements RankedPollService {
+
+    private final PollRepository pollRepository;
+    private final PollClosureCache closureCache;
+
+    @Inject
+    public RankedPollServiceImpl(PollRepository pollRepository, PollClosureCache closureCache) {
+        this.pollRepository = pollRepository;
+        this.closureCache = closureCache;
+    }
+
+    @RunOnVirtualThread
+    @WithSpan
+    @POST
+    @Path("/vote")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    public Response vote(RankedVoteRequest request) {
+        String pollId = request.pollId();
+        Span.current().setAttribute("poll.id", pollId);
+
+        if (!ValidationUtils.validatePollId(pollId)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Poll ID is required and cannot be empty").build();
+        }
+
+        if (request.ranking() == null || request.ranking().isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Ranking is required and cannot be empty").build();
+        }
+
+        log.info("Received ranked ballot for pollId: {}: {}", pollId, request.ranking());
+
+        if (closureCache.isClosed(pollId, Instant.now())) {
+            log.info("Rejected ranked ballot for closed pollId: {}", pollId);
+            return Response.status(Response.Status.CONFLICT).entity("Poll is closed").build();
+        }
+
+        try {
+            Map<String, AttributeValue> item = pollRepository.getPollByPollId(pollId).item();
+            if (!isRanked(item)) {
+                return Response.status(Response.Status.CONFLICT).entity("Poll does not take ranked ballots").build();
+            }
+
+            Poll poll = Poll.fromDynamoDbItem(item);
+            List<String> optionIds = poll.options().keySet().stream().sorted().toList();
+            int ranking;
+            try {
+                ranking = Rankings.pack(request.ranking(), optionIds);
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+            }
+
+            if (pollRepository.addRankedBallot(pollId, request.ranking().get(0), ranking)) {
+                log.info("Ranked ballot counted for pollId: {}", pollId);
+                return Response.ok(getRankedResults(pollId)).build();
+            }
+            log.error("Failed to store ranked ballot for pollId: {}", pollId);
+        } catch (PollClosedException e) {
+            closureCache.recordEndTime(pollId, Instant.now());
+            return Response.status(Response.Status.CONFLICT).entity("Poll is closed").build();
+        } catch (NotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
+        } catch (DynamoDbException e) {
+            log.error("Error while storing ranked ballot in DynamoDB: {}", e.getMessage(), e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Failed to store the ballot. Please try again").build();
+        }
+
+        return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Failed to store the ballot. Please try again").build();
+    }
+
+    @RunOnVirtualThread
+    @WithSpan
+    @GET
+    @Path("/results")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    public Response getResults(@QueryParam("pollId") @SpanAttribute("poll.id") String pollId) {
+        log.info("Received request to get ranked results for pollId: {}", pollId);
+
+        if (!ValidationUtils.validatePollId(pollId)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Poll ID is required and cannot be empty").build();
+        }
+
+        try {
+            QueryResponse options = pollRepository.getOptionsByPollId(pollId);
+            if (!options.hasItems() || options.items().isEmpty()) {
+                return Response.status(Response.Status.NOT_FOUND).entity("Poll not found").build();
+            }
+            if (!options.items().get(0).containsKey(RankedTally.RANKINGS)) {
+                return Response.status(Response.Status.CONFLICT).entity("Poll does not take ranked ballots").build();
+            }
+            return Response.ok(InstantRunoff.count(pollId, RankedTally.fromOptionItems(options.items()))).build();
+        } catch (DynamoDbException e) {
+            log.error("Error while fetching ranked results: {}", e.getMessage(), e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Failed to fetch ranked results").build();
+        }
+    }
+
+    private RankedResults getRankedResults(String pollId) {
+        return InstantRunoff.count(pollId, RankedTally.fromOptionItems(pollRepository.getOptionsByPollId(pollId).items()));
+    }
+
+    private static boolean isRanked(Map<String, AttributeValue> pollItem) {
+        AttributeValue type = pollItem.get(RankedTally.POLL_TYPE);
+        return type != null && RankedTally.RANKED.equals(type.s());
+    }
+}
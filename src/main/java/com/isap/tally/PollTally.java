@@ -0,0 +1,80 @@
+package com.isap.tally;
+
+import com.isap.domain.OptionResponse;
+import com.isap.domain.PollResults;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vote counts of one poll. Each count only takes values that were durably in DynamoDB at some point. It is a max
+ * register: counts from peers and eventually consistent reads merge by keeping the larger, so merging is commutative,
+ * associative and idempotent. Only a strongly consistent read sets the counts to what DynamoDB holds, which also takes
+ * back a count that was corrected down, for example by the vote count reconciler.
+ */
+final class PollTally {
+
+    private final List<OptionResponse> options;
+    private final long endsAtMillis;
+    private final Map<String, AtomicLong> counts;
+    private volatile long reconciledAtNanos;
+
+    PollTally(List<OptionResponse> options, long endsAtMillis) {
+        this.options = options;
+        this.endsAtMillis = endsAtMillis;
+        this.counts = new HashMap<>();
+        for (OptionResponse option : options) {
+            counts.put(option.optionId(), new AtomicLong());
+        }
+    }
+
+    /**
+     * @return true if the count went up.
+     */
+    boolean raise(String optionId, long count) {
+        AtomicLong current = counts.get(optionId);
+        return current != null && valid(count) && current.getAndAccumulate(count, Math::max) < count;
+    }
+
+    /**
+     * @return true if the count changed.
+     */
+    boolean set(String optionId, long count) {
+        AtomicLong current = counts.get(optionId);
+        return current != null && valid(count) && current.getAndSet(count) != count;
+    }
+
+    // Counts are served as ints, as DynamoDB holds them
+    private static boolean valid(long count) {
+        return count >= 0 && count <= Integer.MAX_VALUE;
+    }
+
+    void reconciled(long nanos) {
+        reconciledAtNanos = nanos;
+    }
+
+    long reconciledAtNanos() {
+        return reconciledAtNanos;
+    }
+
+    boolean endedBy(long epochMillis) {
+        return endsAtMillis <= epochMillis;
+    }
+
+    Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new HashMap<>();
+        counts.forEach((optionId, count) -> snapshot.put(optionId, count.get()));
+        return snapshot;
+    }
+
+    PollResults results(String pollId) {
+        List<OptionResponse> results = new ArrayList<>(options.size());
+        for (OptionResponse option : options) {
+            results.add(new OptionResponse(option.optionId(), option.text(), (int) counts.get(option.optionId()).get()));
+        }
+        return new PollResults(pollId, results);
+    }
+}
@@ -0,0 +1,13 @@
+package com.isap.tally;
+
+import java.util.Map;
+
+/**
+ * Vote counts one instance sends its peers: pollId to optionId to the highest count observed.
+ */
+public record TallyDelta(String node, Map<String, Map<String, Long>> polls) {
+
+    public boolean isEmpty() {
+        return polls.isEmpty();
+    }
+}
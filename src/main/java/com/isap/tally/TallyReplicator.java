@@ -0,0 +1,161 @@
+package com.isap.tally;
+
+import com.isap.json.TallyDeltaWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exchanges {@link VoteTally} counts with the instances listed in {@code poll.tally.peers}.
+ *
+ * Every {@code sync-interval} the counts of polls that went up locally are posted to each peer's
+ * {@code /internal/tallies}. Peers are a full mesh, so received counts are merged but not forwarded. Merging is
+ * idempotent and order-independent, so a lost or repeated delta does no harm: a peer that misses one catches up on
+ * the next change or its own next DynamoDB read.
+ *
+ * {@code poll.tally.secret} is sent in {@value #SECRET_HEADER} and required on received deltas. Without it received
+ * deltas are refused, and replication to peers does not start.
+ */
+@Slf4j
+@ApplicationScoped
+public class TallyReplicator {
+
+    public static final String SECRET_HEADER = "X-Tally-Secret";
+    static final String PATH = "/internal/tallies";
+
+    private final VoteTally voteTally;
+    private final String nodeId;
+    private final List<URI> peers;
+    private final Duration syncInterval;
+    private final String secret;
+    private final HttpClient httpClient;
+    private final TallyDeltaWriter writer = new TallyDeltaWriter();
+    private final Counter sent;
+    private final Counter received;
+    private final Counter failures;
+    private ScheduledExecutorService scheduler;
+
+    @Inject
+    public TallyReplicator(VoteTally voteTally,
+                           @ConfigProperty(name = "poll.tally.node-id") Optional<String> nodeId,
+                           @ConfigProperty(name = "poll.tally.peers") Optional<List<String>> peers,
+                           @ConfigProperty(name = "poll.tally.sync-interval", defaultValue = "200ms") Duration syncInterval,
+                           @ConfigProperty(name = "poll.tally.secret") Optional<String> secret) {
+        this(voteTally, nodeId.orElseGet(() -> UUID.randomUUID().toString()),
+                peers.orElse(List.of()).stream().map(peer -> URI.create(peer).resolve(PATH)).toList(),
+                syncInterval, secret.orElse(null), Metrics.globalRegistry);
+    }
+
+    TallyReplicator(VoteTally voteTally, String nodeId, List<URI> peers, Duration syncInterval, String secret,
+                    MeterRegistry registry) {
+        this.voteTally = voteTally;
+        this.nodeId = nodeId;
+        this.peers = peers;
+        this.syncInterval = syncInterval;
+        this.secret = secret;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        this.sent = Counter.builder("poll.tally.deltas").tag("direction", "sent").register(registry);
+        this.received = Counter.builder("poll.tally.deltas").tag("direction", "received").register(registry);
+        this.failures = Counter.builder("poll.tally.deltas").tag("direction", "failed").register(registry);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (peers.isEmpty() || !voteTally.enabled()) {
+            return;
+        }
+        if (secret == null) {
+            throw new IllegalStateException("poll.tally.peers is set but poll.tally.secret is not; peers would accept "
+                    + "tallies from anyone who can reach /internal/tallies");
+        }
+
+        log.info("Replicating vote tallies as {} to {} every {}", nodeId, peers, syncInterval);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tally-replicator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                push();
+            } catch (RuntimeException | IOException e) {
+                log.warn("Failed to push vote tallies: {}", e.getMessage());
+            }
+        }, syncInterval.toMillis(), syncInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    void push() throws IOException {
+        TallyDelta delta = voteTally.drainChanges(nodeId);
+        if (delta.isEmpty()) {
+            return;
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writer.writeTo(delta, body);
+        for (URI peer : peers) {
+            HttpRequest.Builder request = HttpRequest.newBuilder(peer)
+                    .timeout(syncInterval.multipliedBy(5))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()));
+            request.header(SECRET_HEADER, secret);
+
+            httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                if (error == null && response.statusCode() / 100 == 2) {
+                    sent.increment();
+                } else {
+                    failures.increment();
+                    log.debug("Peer {} did not take vote tallies: {}", peer, error == null ? response.statusCode() : error.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * @return false if the delta was rejected because no secret is configured or it does not match.
+     */
+    public boolean receive(TallyDelta delta, String presentedSecret) {
+        if (secret == null || presentedSecret == null || !MessageDigest.isEqual(
+                secret.getBytes(StandardCharsets.UTF_8), presentedSecret.getBytes(StandardCharsets.UTF_8))) {
+            return false;
+        }
+        if (nodeId.equals(delta.node())) {
+            return true;
+        }
+
+        received.increment();
+        for (Map.Entry<String, Map<String, Long>> poll : delta.polls().entrySet()) {
+            voteTally.merge(poll.getKey(), poll.getValue());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,150 @@
+package com.isap.tally;
+
+import com.isap.domain.OptionResponse;
+import com.isap.domain.PollResults;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Vote counts of the polls this instance has read, replicated between instances by {@link TallyReplicator}.
+ *
+ * Counts only hold values DynamoDB returned: results read here, and counts peers report from their own reads. Peer
+ * counts and eventually consistent reads merge as state-based CRDTs, keeping the larger count, so a stale read cannot
+ * replace a fresher count. Only strongly consistent reads, and corrections of the vote count reconciler, set the counts
+ * to what DynamoDB holds, which also takes back a count that was corrected down. A G-counter of per-instance
+ * increments is not used because an instance cannot tell which of a peer's increments a DynamoDB read already
+ * included, and would count those twice.
+ *
+ * Results are served from here while the last DynamoDB read of the poll on this instance is younger than
+ * {@code poll.tally.max-staleness}; votes accepted by peers show up sooner, as soon as their counts arrive. A
+ * {@code max-staleness} of zero turns local serving off.
+ */
+@ApplicationScoped
+public class VoteTally {
+
+    static final int MAX_POLLS = 100_000;
+
+    private final long maxStalenessNanos;
+    private final ConcurrentHashMap<String, PollTally> polls = new ConcurrentHashMap<>();
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+
+    @Inject
+    public VoteTally(@ConfigProperty(name = "poll.tally.max-staleness", defaultValue = "0s") Duration maxStaleness) {
+        this.maxStalenessNanos = maxStaleness.toNanos();
+    }
+
+    public boolean enabled() {
+        return maxStalenessNanos > 0;
+    }
+
+    /**
+     * Records results just read from DynamoDB with an eventually consistent read, such as the option query on GSI1,
+     * which restarts the staleness window of the poll. Counts only go up: the read may predate counts already seen.
+     *
+     * @param endsAt when voting ends, or null if the poll has no end time.
+     */
+    public void reconcile(String pollId, List<OptionResponse> options, Instant endsAt) {
+        record(pollId, options, endsAt, false);
+    }
+
+    /**
+     * Records results just read from DynamoDB with a strongly consistent read, which restarts the staleness window of
+     * the poll. The counts are set to what was read, even when peers reported higher ones: DynamoDB is the source of
+     * truth.
+     *
+     * @param endsAt when voting ends, or null if the poll has no end time.
+     */
+    public void reconcileConsistent(String pollId, List<OptionResponse> options, Instant endsAt) {
+        record(pollId, options, endsAt, true);
+    }
+
+    /**
+     * Sets the count of an option the vote count reconciler just corrected in DynamoDB. Polls this instance has not
+     * read are ignored.
+     */
+    public void correct(String pollId, String optionId, long count) {
+        PollTally tally = polls.get(pollId);
+        if (tally != null && tally.set(optionId, count)) {
+            changed.add(pollId);
+        }
+    }
+
+    private void record(String pollId, List<OptionResponse> options, Instant endsAt, boolean consistent) {
+        if (!enabled()) {
+            return;
+        }
+        if (polls.size() >= MAX_POLLS && !polls.containsKey(pollId)) {
+            polls.clear();
+            changed.clear();
+        }
+
+        PollTally tally = polls.computeIfAbsent(pollId,
+                id -> new PollTally(List.copyOf(options), endsAt == null ? Long.MAX_VALUE : endsAt.toEpochMilli()));
+        boolean updated = false;
+        for (OptionResponse option : options) {
+            if (option.voteCount() != null) {
+                updated |= consistent
+                        ? tally.set(option.optionId(), option.voteCount())
+                        : tally.raise(option.optionId(), option.voteCount());
+            }
+        }
+        tally.reconciled(System.nanoTime());
+        if (updated) {
+            changed.add(pollId);
+        }
+    }
+
+    /**
+     * Merges counts a peer observed. Polls this instance has not read yet are ignored; their first read goes to
+     * DynamoDB anyway.
+     */
+    public void merge(String pollId, Map<String, Long> counts) {
+        PollTally tally = polls.get(pollId);
+        if (tally == null) {
+            return;
+        }
+        counts.forEach(tally::raise);
+    }
+
+    /**
+     * @return the poll's results if they are within the staleness bound and voting has not ended, otherwise null.
+     */
+    public PollResults freshResults(String pollId, Instant now) {
+        PollTally tally = polls.get(pollId);
+        if (tally == null || System.nanoTime() - tally.reconciledAtNanos() > maxStalenessNanos
+                || tally.endedBy(now.toEpochMilli())) {
+            return null;
+        }
+        return tally.results(pollId);
+    }
+
+    /**
+     * Counts of the polls whose counts changed locally since the last call, and drops polls that have not been read
+     * for ten staleness windows.
+     */
+    public TallyDelta drainChanges(String node) {
+        Map<String, Map<String, Long>> delta = new HashMap<>();
+        for (Iterator<String> pollIds = changed.iterator(); pollIds.hasNext(); ) {
+            String pollId = pollIds.next();
+            pollIds.remove();
+            PollTally tally = polls.get(pollId);
+            if (tally != null) {
+                delta.put(pollId, tally.snapshot());
+            }
+        }
+
+        long expiredBefore = System.nanoTime() - 10 * maxStalenessNanos;
+        polls.values().removeIf(tally -> tally.reconciledAtNanos() - expiredBefore < 0);
+        return new TallyDelta(node, delta);
+    }
+}
@@ -0,0 +1,181 @@
+package com.isap.tracing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the spans of each trace until its local root span ends, then either passes all of them to the delegate or
+ * drops them. A trace is kept when any of its spans failed, when the root took at least {@code slowThreshold}, or
+ * for a {@code baselineRatio} share of the remaining traces chosen by trace ID. Head sampling still applies first:
+ * spans that were not sampled are never buffered.
+ *
+ * Each kept trace is logged as a one-line breakdown of its leaf spans, the DynamoDB calls for a request, in the
+ * order they started. Publishes {@code poll.tracing.traces} tagged with the decision.
+ */
+@Slf4j
+public class TailSamplingSpanProcessor implements SpanProcessor {
+
+    private final SpanProcessor delegate;
+    private final long slowThresholdNanos;
+    private final long baselineBound;
+    private final int maxPendingTraces;
+    private final long pendingTimeoutNanos;
+    private final ConcurrentHashMap<String, PendingTrace> pending = new ConcurrentHashMap<>();
+    private final Counter kept;
+    private final Counter dropped;
+    private final Counter overflowed;
+
+    public TailSamplingSpanProcessor(SpanProcessor delegate, Duration slowThreshold, double baselineRatio,
+                                     int maxPendingTraces, Duration pendingTimeout, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.baselineBound = (long) (Math.max(0, Math.min(1, baselineRatio)) * Long.MAX_VALUE);
+        this.maxPendingTraces = maxPendingTraces;
+        this.pendingTimeoutNanos = pendingTimeout.toNanos();
+        this.kept = counter("kept", registry);
+        this.dropped = counter("dropped", registry);
+        this.overflowed = counter("overflowed", registry);
+    }
+
+    private static Counter counter(String decision, MeterRegistry registry) {
+        return Counter.builder("poll.tracing.traces").tag("decision", decision).register(registry);
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        SpanContext context = span.getSpanContext();
+        if (!context.isSampled()) {
+            return;
+        }
+
+        SpanContext parent = span.getParentSpanContext();
+        if (parent.isValid() && !parent.isRemote()) {
+            if (pending.size() >= maxPendingTraces && !pending.containsKey(context.getTraceId())) {
+                overflowed.increment();
+                return;
+            }
+            pending.compute(context.getTraceId(), (traceId, trace) -> {
+                PendingTrace updated = trace == null ? new PendingTrace() : trace;
+                updated.spans.add(span);
+                return updated;
+            });
+            return;
+        }
+
+        PendingTrace trace = pending.remove(context.getTraceId());
+        List<ReadableSpan> spans = trace == null ? new ArrayList<>(1) : trace.spans;
+        spans.add(span);
+        if (shouldKeep(span, spans)) {
+            kept.increment();
+            spans.forEach(delegate::onEnd);
+            if (log.isInfoEnabled()) {
+                log.info("Trace {} {} took {}ms: {}", context.getTraceId(), span.getName(),
+                        span.getLatencyNanos() / 1_000_000, breakdown(spans));
+            }
+        } else {
+            dropped.increment();
+        }
+
+        if (pending.size() > maxPendingTraces / 2) {
+            evictStale();
+        }
+    }
+
+    boolean shouldKeep(ReadableSpan root, List<ReadableSpan> spans) {
+        if (root.getLatencyNanos() >= slowThresholdNanos) {
+            return true;
+        }
+        for (ReadableSpan span : spans) {
+            if (span.toSpanData().getStatus().getStatusCode() == StatusCode.ERROR) {
+                return true;
+            }
+        }
+        // Same rule as the SDK's TraceIdRatioBased sampler, so every service keeps the same baseline traces
+        String traceId = root.getSpanContext().getTraceId();
+        return Math.abs(Long.parseUnsignedLong(traceId, 16, 32, 16)) < baselineBound;
+    }
+
+    /**
+     * Leaf spans with their offset from the start of the trace and duration, for example
+     * {@code UpdateItem +2ms 40ms, PutItem +43ms 12ms}.
+     */
+    static String breakdown(List<ReadableSpan> spans) {
+        List<String> parents = new ArrayList<>(spans.size());
+        long start = Long.MAX_VALUE;
+        for (ReadableSpan span : spans) {
+            parents.add(span.getParentSpanContext().getSpanId());
+            start = Math.min(start, span.toSpanData().getStartEpochNanos());
+        }
+
+        StringBuilder breakdown = new StringBuilder();
+        List<ReadableSpan> ordered = new ArrayList<>(spans);
+        ordered.sort(Comparator.comparingLong(span -> span.toSpanData().getStartEpochNanos()));
+        for (ReadableSpan span : ordered) {
+            if (parents.contains(span.getSpanContext().getSpanId())) {
+                continue;
+            }
+            if (!breakdown.isEmpty()) {
+                breakdown.append(", ");
+            }
+            breakdown.append(span.getName())
+                    .append(" +").append((span.toSpanData().getStartEpochNanos() - start) / 1_000_000).append("ms ")
+                    .append(span.getLatencyNanos() / 1_000_000).append("ms");
+        }
+        return breakdown.toString();
+    }
+
+    // Traces whose root ended elsewhere, or never, would otherwise stay buffered
+    private void evictStale() {
+        long now = System.nanoTime();
+        pending.values().removeIf(trace -> now - trace.createdNanos > pendingTimeoutNanos);
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return delegate.forceFlush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        pending.clear();
+        return delegate.shutdown();
+    }
+
+    // Only changed inside ConcurrentHashMap.compute, which runs one update per trace at a time
+    private static final class PendingTrace {
+        private final long createdNanos = System.nanoTime();
+        private final List<ReadableSpan> spans = new ArrayList<>();
+    }
+}
@@ -0,0 +1,34 @@
+package com.isap.tracing;
+
+import io.micrometer.core.instrument.Metrics;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.quarkus.arc.properties.IfBuildProperty;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Exports tail-sampled traces to a local JSON lines file. Quarkus adds every SpanProcessor bean to its tracer
+ * provider, next to the OTLP exporter when that is enabled.
+ */
+@ApplicationScoped
+public class TracingConfiguration {
+
+    @Produces
+    @Singleton
+    @IfBuildProperty(name = "poll.tracing.local.enabled", stringValue = "true", enableIfMissing = true)
+    public SpanProcessor localTraceProcessor(
+            @ConfigProperty(name = "poll.tracing.local.file", defaultValue = "traces/spans.jsonl") Path file,
+            @ConfigProperty(name = "poll.tracing.slow-threshold", defaultValue = "200ms") Duration slowThreshold,
+            @ConfigProperty(name = "poll.tracing.baseline-ratio", defaultValue = "0.01") double baselineRatio,
+            @ConfigProperty(name = "poll.tracing.max-pending-traces", defaultValue = "10000") int maxPendingTraces) {
+        SpanProcessor export = BatchSpanProcessor.builder(new LocalSpanExporter(file)).build();
+        return new TailSamplingSpanProcessor(export, slowThreshold, baselineRatio, maxPendingTraces,
+                Duration.ofMinutes(1), Metrics.globalRegistry);
+    }
+}
@@ -1,78 +1,412 @@
 package com.isap.utils;
 
 import com.isap.exception.DatabaseException;
+import com.isap.profiling.DynamoDbCallEvent;
+import com.isap.routing.TableRouter;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import com.isap.domain.Poll;
 import com.isap.domain.Option;
+import com.isap.ranked.RankedTally;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Every item operation takes the pollId it belongs to as routing key and runs against the table the
+ * {@link TableRouter} assigns to that poll. While polls are being rebalanced, reads that miss and conditional
+ * updates that find no item are retried against the poll's previous table, and queries merge both tables.
+ *
+ * Each DynamoDB call is a client span named after the operation, carrying the poll ID, table, index and the
+ * capacity units it consumed. Without a tracer, as in tests and the import CLI, spans are no-ops. Each call is also a
+ * JFR event, recorded while a recording enables it.
+ */
 @Slf4j
 @ApplicationScoped
 public class DynamoDbHelper {
 
-    private static final String TABLE_NAME = "PollTable";
-    
+    public static final String DEFAULT_TABLE_NAME = "PollTable";
+
+    static final AttributeKey<String> POLL_ID = AttributeKey.stringKey("poll.id");
+    static final AttributeKey<String> OPERATION = AttributeKey.stringKey("db.operation");
+    static final AttributeKey<String> TABLE = AttributeKey.stringKey("aws.dynamodb.table_names");
+    static final AttributeKey<String> INDEX = AttributeKey.stringKey("aws.dynamodb.index_name");
+    static final AttributeKey<Double> CONSUMED_CAPACITY = AttributeKey.doubleKey("aws.dynamodb.consumed_capacity_units");
+    static final AttributeKey<Long> ITEM_COUNT = AttributeKey.longKey("aws.dynamodb.count");
+    static final AttributeKey<Boolean> CONDITION_FAILED = AttributeKey.booleanKey("aws.dynamodb.condition_failed");
+
     private final DynamoDbClient dynamoDbClient;
+    private final TableRouter tableRouter;
+    private final Tracer tracer;
+    private final List<Consumer<Poll>> pollCreatedListeners = new CopyOnWriteArrayList<>();
 
     public DynamoDbHelper(DynamoDbClient dynamoDbClient) {
+        this(dynamoDbClient, TableRouter.single(DEFAULT_TABLE_NAME));
+    }
+
+    public DynamoDbHelper(DynamoDbClient dynamoDbClient, TableRouter tableRouter) {
+        this(dynamoDbClient, tableRouter, OpenTelemetry.noop().getTracer(DynamoDbHelper.class.getName()));
+    }
+
+    @Inject
+    public DynamoDbHelper(DynamoDbClient dynamoDbClient, TableRouter tableRouter, Tracer tracer) {
         this.dynamoDbClient = dynamoDbClient;
+        this.tableRouter = tableRouter;
+        this.tracer = tracer;
     }
 
-    public GetItemResponse getItem(Map<String, AttributeValue> key) {
-        GetItemRequest request = GetItemRequest.builder()
-                .tableName(TABLE_NAME)
-                .key(key)
-                .build();
+    /**
+     * Registers a listener called with every poll {@link #createPollAndOptions} created, after its transaction
+     * committed. A failing listener is logged and does not fail the creation.
+     */
+    public void onPollCreated(Consumer<Poll> listener) {
+        pollCreatedListeners.add(listener);
+    }
 
-        return dynamoDbClient.getItem(request);
+    public List<String> allTables() {
+        return tableRouter.allTables();
     }
 
-    public UpdateItemResponse updateItem(Map<String, AttributeValue> key, String updateExpression, Map<String, AttributeValue> values) {
+    public GetItemResponse getItem(String pollId, Map<String, AttributeValue> key) {
+        return getItem(pollId, key, false);
+    }
+
+    public GetItemResponse getItemConsistent(String pollId, Map<String, AttributeValue> key) {
+        return getItem(pollId, key, true);
+    }
+
+    private GetItemResponse getItem(String pollId, Map<String, AttributeValue> key, boolean consistentRead) {
+        GetItemResponse response = getItemFromTable(pollId, tableRouter.tableFor(pollId), key, consistentRead);
+
+        String previousTable = tableRouter.previousTableFor(pollId);
+        if (previousTable != null && (response == null || !response.hasItem() || response.item().isEmpty())) {
+            return getItemFromTable(pollId, previousTable, key, consistentRead);
+        }
+        return response;
+    }
+
+    public UpdateItemResponse updateItem(String pollId, Map<String, AttributeValue> key, String updateExpression,
+                                         Map<String, AttributeValue> values) {
+        String table = tableRouter.tableFor(pollId);
         UpdateItemRequest request = UpdateItemRequest.builder()
-                .tableName(TABLE_NAME)
+                .tableName(table)
                 .key(key)
                 .updateExpression(updateExpression)
                 .expressionAttributeValues(values)
                 .returnValues(ReturnValue.UPDATED_NEW)
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                .build();
+
+        return traced("UpdateItem", pollId, table, null, () -> dynamoDbClient.updateItem(request));
+    }
+
+    /**
+     * Conditional update. On a failed condition the ConditionalCheckFailedException carries the item as it was,
+     * so callers can tell why the condition did not hold without another read.
+     */
+    public UpdateItemResponse updateItem(String pollId, Map<String, AttributeValue> key, String updateExpression,
+                                         String conditionExpression, Map<String, AttributeValue> values) {
+        return updateItem(pollId, key, updateExpression, conditionExpression, null, values);
+    }
+
+    /**
+     * Conditional update with attribute name placeholders, for attribute names that are not known in advance.
+     */
+    public UpdateItemResponse updateItem(String pollId, Map<String, AttributeValue> key, String updateExpression,
+                                         String conditionExpression, Map<String, String> names,
+                                         Map<String, AttributeValue> values) {
+        try {
+            return updateItemInTable(pollId, tableRouter.tableFor(pollId), key, updateExpression, conditionExpression, names, values);
+        } catch (ConditionalCheckFailedException e) {
+            String previousTable = tableRouter.previousTableFor(pollId);
+            if (previousTable == null || (e.hasItem() && !e.item().isEmpty())) {
+                throw e;
+            }
+            // Not moved yet, the item is still in the table of the previous layout
+            return updateItemInTable(pollId, previousTable, key, updateExpression, conditionExpression, names, values);
+        }
+    }
+
+    public PutItemResponse putItem(String pollId, Map<String, AttributeValue> item) {
+        String table = tableRouter.tableFor(pollId);
+        PutItemRequest request = PutItemRequest.builder()
+                .tableName(table)
+                .item(item)
+                // PutItem accepts only NONE or ALL_OLD
+                .returnValues(ReturnValue.NONE)
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
                 .build();
 
-        return dynamoDbClient.updateItem(request);
+        return traced("PutItem", pollId, table, null, () -> dynamoDbClient.putItem(request));
     }
 
-    public PutItemResponse putItem(Map<String, AttributeValue> item) {
+    /**
+     * Writes an item unless one with the same key already exists in the poll's table.
+     * @return false if an item was there and was left as it was.
+     */
+    public boolean putItemIfAbsent(String pollId, Map<String, AttributeValue> item) {
+        String table = tableRouter.tableFor(pollId);
         PutItemRequest request = PutItemRequest.builder()
-                .tableName(TABLE_NAME)
+                .tableName(table)
                 .item(item)
-                .returnValues(ReturnValue.UPDATED_NEW)
+                .conditionExpression("attribute_not_exists(PK)")
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                .build();
+
+        try {
+            traced("PutItem", pollId, table, null, () -> dynamoDbClient.putItem(request));
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    public QueryResponse queryItems(String pollId, String indexName, String keyConditionExpression,
+                                    Map<String, AttributeValue> expressionValues) {
+        QueryResponse response = query(pollId, tableRouter.tableFor(pollId), indexName, keyConditionExpression, expressionValues);
+
+        String previousTable = tableRouter.previousTableFor(pollId);
+        if (previousTable == null) {
+            return response;
+        }
+
+        // Items being moved may briefly exist in both tables; the copy in the current table wins
+        Map<List<String>, Map<String, AttributeValue>> merged = new LinkedHashMap<>();
+        QueryResponse previous = query(pollId, previousTable, indexName, keyConditionExpression, expressionValues);
+        for (Map<String, AttributeValue> item : previous.items()) {
+            merged.put(primaryKey(item), item);
+        }
+        for (Map<String, AttributeValue> item : response.items()) {
+            merged.put(primaryKey(item), item);
+        }
+        return QueryResponse.builder()
+                .items(new ArrayList<>(merged.values()))
+                .count(merged.size())
+                .scannedCount(response.scannedCount() + previous.scannedCount())
+                .build();
+    }
+
+    /**
+     * Reads every item matching a key condition, one page at a time as the items are iterated, so callers can stream
+     * results of any size. The first page is read before this returns, so a failing query fails here; the result can
+     * be iterated once. While the poll is being moved the previous table is read after the current one, skipping the
+     * items already returned, whose primary keys are kept until then.
+     */
+    public Iterable<Map<String, AttributeValue>> queryAllItems(String pollId, String indexName, String keyConditionExpression,
+                                                               Map<String, AttributeValue> expressionValues) {
+        List<String> tables = new ArrayList<>(2);
+        tables.add(tableRouter.tableFor(pollId));
+        String previousTable = tableRouter.previousTableFor(pollId);
+        if (previousTable != null) {
+            tables.add(previousTable);
+        }
+
+        Iterator<Map<String, AttributeValue>> items = new QueryPages(pollId, tables, indexName, keyConditionExpression, expressionValues);
+        return () -> items;
+    }
+
+    private QueryResponse query(String pollId, String table, String indexName, String keyConditionExpression,
+                                Map<String, AttributeValue> expressionValues) {
+        QueryRequest request = QueryRequest.builder()
+                .tableName(table)
+                .indexName(indexName)
+                .keyConditionExpression(keyConditionExpression)
+                .expressionAttributeValues(expressionValues)
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                .build();
+
+        return traced("Query", pollId, table, indexName, () -> dynamoDbClient.query(request));
+    }
+
+    /**
+     * Writes up to 25 items in one BatchWriteItem call, each to the table of the poll it belongs to.
+     * @return the writes DynamoDB left unprocessed, to be retried by the caller.
+     */
+    public List<WriteRequest> batchWriteItems(List<WriteRequest> writeRequests) {
+        Map<String, List<WriteRequest>> byTable = new HashMap<>();
+        for (WriteRequest write : writeRequests) {
+            Map<String, AttributeValue> item = write.putRequest() != null ? write.putRequest().item() : write.deleteRequest().key();
+            byTable.computeIfAbsent(tableRouter.tableFor(routingKeyOf(item)), table -> new ArrayList<>()).add(write);
+        }
+
+        BatchWriteItemRequest request = BatchWriteItemRequest.builder()
+                .requestItems(byTable)
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
                 .build();
 
-        return dynamoDbClient.putItem(request);
+        BatchWriteItemResponse response = traced("BatchWriteItem", null, String.join(",", byTable.keySet()), null,
+                () -> dynamoDbClient.batchWriteItem(request));
+        if (!response.hasUnprocessedItems() || response.unprocessedItems().isEmpty()) {
+            return List.of();
+        }
+        return response.unprocessedItems().values().stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Reads one page of one segment of a parallel scan, reporting consumed capacity so callers can rate limit.
+     * @param exclusiveStartKey where the previous page of this segment ended, or null for the first page.
+     */
+    public ScanResponse scanSegment(String table, int segment, int totalSegments, String filterExpression,
+                                    String projectionExpression, Map<String, AttributeValue> expressionValues,
+                                    Map<String, AttributeValue> exclusiveStartKey, int limit) {
+        return scanSegment(table, null, segment, totalSegments, filterExpression, projectionExpression, expressionValues,
+                exclusiveStartKey, limit);
+    }
+
+    /**
+     * @param indexName the index to scan, e.g. a sparse one holding only the items wanted, or null for the table.
+     */
+    public ScanResponse scanSegment(String table, String indexName, int segment, int totalSegments, String filterExpression,
+                                    String projectionExpression, Map<String, AttributeValue> expressionValues,
+                                    Map<String, AttributeValue> exclusiveStartKey, int limit) {
+        ScanRequest.Builder request = ScanRequest.builder()
+                .tableName(table)
+                .indexName(indexName)
+                .segment(segment)
+                .totalSegments(totalSegments)
+                .filterExpression(filterExpression)
+                .projectionExpression(projectionExpression)
+                .expressionAttributeValues(expressionValues)
+                .limit(limit)
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        if (exclusiveStartKey != null && !exclusiveStartKey.isEmpty()) {
+            request.exclusiveStartKey(exclusiveStartKey);
+        }
+
+        return traced("Scan", null, table, indexName, () -> dynamoDbClient.scan(request.build()));
     }
 
-    public QueryResponse queryItems(String indexName, String keyConditionExpression, Map<String, AttributeValue> expressionValues) {
+    /**
+     * Reads one page of a query on one table, for indexes whose items are not routed by poll, such as GSI3.
+     * @param descending whether to read the index in descending sort key order.
+     */
+    public QueryResponse queryTable(String table, String indexName, String keyConditionExpression,
+                                    Map<String, AttributeValue> expressionValues, boolean descending, int limit) {
         QueryRequest request = QueryRequest.builder()
-                .tableName(TABLE_NAME)
+                .tableName(table)
                 .indexName(indexName)
                 .keyConditionExpression(keyConditionExpression)
                 .expressionAttributeValues(expressionValues)
+                .scanIndexForward(!descending)
+                .limit(limit)
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
                 .build();
 
-        return dynamoDbClient.query(request);
+        return traced("Query", null, table, indexName, () -> dynamoDbClient.query(request));
+    }
+
+    /**
+     * Counts the items matching a key condition on an index, following pagination. While the poll is being moved
+     * the keys of both tables are read so items present in both are counted once.
+     */
+    public long countItems(String pollId, String indexName, String keyConditionExpression,
+                           Map<String, AttributeValue> expressionValues) {
+        return countItems(pollId, indexName, keyConditionExpression, expressionValues, units -> { });
+    }
+
+    /**
+     * @param onPage called with the read units each page consumed once it has been read, e.g. to throttle a
+     *               background job.
+     */
+    public long countItems(String pollId, String indexName, String keyConditionExpression,
+                           Map<String, AttributeValue> expressionValues, DoubleConsumer onPage) {
+        String previousTable = tableRouter.previousTableFor(pollId);
+        if (previousTable == null) {
+            return count(pollId, tableRouter.tableFor(pollId), indexName, keyConditionExpression, expressionValues, null, onPage);
+        }
+
+        Set<List<String>> keys = new HashSet<>();
+        count(pollId, tableRouter.tableFor(pollId), indexName, keyConditionExpression, expressionValues, keys, onPage);
+        count(pollId, previousTable, indexName, keyConditionExpression, expressionValues, keys, onPage);
+        return keys.size();
+    }
+
+    /**
+     * @param keys when not null, collects the primary keys of the matching items instead of only counting them.
+     */
+    private long count(String pollId, String table, String indexName, String keyConditionExpression,
+                       Map<String, AttributeValue> expressionValues, Set<List<String>> keys, DoubleConsumer onPage) {
+        long count = 0;
+        Map<String, AttributeValue> startKey = null;
+        do {
+            QueryRequest.Builder request = QueryRequest.builder()
+                    .tableName(table)
+                    .indexName(indexName)
+                    .keyConditionExpression(keyConditionExpression)
+                    .expressionAttributeValues(expressionValues)
+                    .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+            if (keys == null) {
+                request.select(Select.COUNT);
+            } else {
+                request.projectionExpression("PK, SK");
+            }
+            if (startKey != null) {
+                request.exclusiveStartKey(startKey);
+            }
+
+            QueryRequest page = request.build();
+            QueryResponse response = traced("Query", pollId, table, indexName, () -> dynamoDbClient.query(page));
+            count += response.count();
+            onPage.accept(response.consumedCapacity() == null || response.consumedCapacity().capacityUnits() == null
+                    ? 0 : response.consumedCapacity().capacityUnits());
+            if (keys != null) {
+                response.items().forEach(item -> keys.add(primaryKey(item)));
+            }
+            startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty() ? response.lastEvaluatedKey() : null;
+        } while (startKey != null);
+
+        return count;
     }
 
     public TransactWriteItemsResponse transactWriteItems(TransactWriteItemsRequest request) {
-        return dynamoDbClient.transactWriteItems(request);
+        return traced("TransactWriteItems", null, null, null, () -> dynamoDbClient.transactWriteItems(request));
     }
 
     // New method to handle the poll and options creation transaction
     public boolean createPollAndOptions(Map<String, List<String>> newPollData) {
+        return createPollAndOptions(newPollData, null);
+    }
+
+    /**
+     * @param endsAt when voting stops, or null for a poll that stays open until closed. It is copied onto the
+     *               option items so the vote update can reject late votes on its own.
+     */
+    public boolean createPollAndOptions(Map<String, List<String>> newPollData, Instant endsAt) {
+        return createPollAndOptions(newPollData, endsAt, false);
+    }
+
+    /**
+     * @param ranked whether the poll takes ranked ballots; its option items then start with an empty map of
+     *               ballot counts per ranking.
+     */
+    public boolean createPollAndOptions(Map<String, List<String>> newPollData, Instant endsAt, boolean ranked) {
         if (newPollData.size() != 1) {
             log.error("Invalid poll data format. Expected exactly one entry, but got: {}", newPollData.size());
             throw new IllegalArgumentException("New poll data should have exactly one entry");
@@ -81,6 +415,7 @@ public class DynamoDbHelper {
         String pollId = UUID.randomUUID().toString();
         String question = newPollData.keySet().iterator().next();
         List<String> options = newPollData.get(question);
+        String tableName = tableRouter.tableFor(pollId);
 
         log.debug("Poll Question: {}, Options: {}", question, options);
 
@@ -88,33 +423,365 @@ public class DynamoDbHelper {
                 .collect(Collectors.toMap(option -> UUID.randomUUID().toString(), option -> option));
 
         // Build transaction request
-        TransactWriteItemsRequest.Builder transactionRequest = TransactWriteItemsRequest.builder();
+        TransactWriteItemsRequest.Builder transactionRequest = TransactWriteItemsRequest.builder()
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
 
-        Map<String, AttributeValue> pollItem = new Poll(pollId, question, optionsMap).toDynamoDbItem();
+        Poll poll = new Poll(pollId, question, optionsMap, endsAt, null, null, Instant.now());
+        Map<String, AttributeValue> pollItem = poll.toDynamoDbItem();
+        if (ranked) {
+            pollItem.put(RankedTally.POLL_TYPE, AttributeValue.fromS(RankedTally.RANKED));
+        }
         transactionRequest.transactItems(TransactWriteItem.builder()
                 .put(Put.builder()
-                        .tableName(TABLE_NAME)
+                        .tableName(tableName)
                         .item(pollItem)
                         .build())
                 .build());
 
         optionsMap.forEach((key, value) -> {
             Map<String, AttributeValue> optionItem = new Option(key, pollId, value, 0).toDynamoDbItem();
+            if (endsAt != null) {
+                optionItem.put("endsAt", AttributeValue.builder().n(String.valueOf(endsAt.toEpochMilli())).build());
+            }
+            if (ranked) {
+                optionItem.put(RankedTally.RANKINGS, AttributeValue.fromM(Map.of()));
+            }
             transactionRequest.transactItems(TransactWriteItem.builder()
                     .put(Put.builder()
-                            .tableName(TABLE_NAME)
+                            .tableName(tableName)
                             .item(optionItem)
                             .build())
                     .build());
         });
 
         try {
-            TransactWriteItemsResponse response = dynamoDbClient.transactWriteItems(transactionRequest.build());
-            log.info("Poll and options created successfully for PollID: {}", pollId);
+            TransactWriteItemsResponse response = traced("TransactWriteItems", pollId, tableName, null,
+                    () -> dynamoDbClient.transactWriteItems(transactionRequest.build()));
+            log.info("Poll and options created successfully for PollID: {} in {}", pollId, tableName);
+            for (Consumer<Poll> listener : pollCreatedListeners) {
+                try {
+                    listener.accept(poll);
+                } catch (RuntimeException e) {
+                    log.warn("Poll created listener failed for PollID: {}: {}", pollId, e.getMessage(), e);
+                }
+            }
             return response.sdkHttpResponse().isSuccessful();
         } catch (DynamoDbException e) {
             log.error("Transaction failed for PollID: {} with error: {}", pollId, e.awsErrorDetails().errorMessage());
             throw new DatabaseException("Failed to create poll and options in a transaction: " + e.getMessage(), e);
         }
     }
+
+    // Table-explicit operations, used to move items between tables
+
+    public GetItemResponse getItemFromTable(String table, Map<String, AttributeValue> key, boolean consistentRead) {
+        return getItemFromTable(null, table, key, consistentRead);
+    }
+
+    private GetItemResponse getItemFromTable(String pollId, String table, Map<String, AttributeValue> key, boolean consistentRead) {
+        GetItemRequest request = GetItemRequest.builder()
+                .tableName(table)
+                .key(key)
+                .consistentRead(consistentRead)
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                .build();
+
+        return traced("GetItem", pollId, table, null, () -> dynamoDbClient.getItem(request));
+    }
+
+    public UpdateItemResponse updateItemInTable(String table, Map<String, AttributeValue> key, String updateExpression,
+                                                String conditionExpression, Map<String, String> names,
+                                                Map<String, AttributeValue> values) {
+        return updateItemInTable(null, table, key, updateExpression, conditionExpression, names, values);
+    }
+
+    private UpdateItemResponse updateItemInTable(String pollId, String table, Map<String, AttributeValue> key,
+                                                 String updateExpression, String conditionExpression,
+                                                 Map<String, String> names, Map<String, AttributeValue> values) {
+        UpdateItemRequest.Builder request = UpdateItemRequest.builder()
+                .tableName(table)
+                .key(key)
+                .updateExpression(updateExpression)
+                .conditionExpression(conditionExpression)
+                .expressionAttributeValues(values)
+                .returnValues(ReturnValue.ALL_NEW)
+                .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        if (names != null && !names.isEmpty()) {
+            request.expressionAttributeNames(names);
+        }
+
+        return traced("UpdateItem", pollId, table, null, () -> dynamoDbClient.updateItem(request.build()));
+    }
+
+    public PutItemResponse putItemToTable(String table, Map<String, AttributeValue> item, String conditionExpression) {
+        PutItemRequest request = PutItemRequest.builder()
+                .tableName(table)
+                .item(item)
+                .conditionExpression(conditionExpression)
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                .build();
+
+        return traced("PutItem", null, table, null, () -> dynamoDbClient.putItem(request));
+    }
+
+    public DeleteItemResponse deleteItemFromTable(String table, Map<String, AttributeValue> key, String conditionExpression,
+                                                  Map<String, AttributeValue> values) {
+        DeleteItemRequest.Builder request = DeleteItemRequest.builder()
+                .tableName(table)
+                .key(key)
+                .conditionExpression(conditionExpression)
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        if (values != null && !values.isEmpty()) {
+            request.expressionAttributeValues(values);
+        }
+
+        return traced("DeleteItem", null, table, null, () -> dynamoDbClient.deleteItem(request.build()));
+    }
+
+    /**
+     * @return the ARN of the table's current stream, or null if streams are not enabled on it.
+     */
+    public String latestStreamArn(String table) {
+        return dynamoDbClient.describeTable(request -> request.tableName(table)).table().latestStreamArn();
+    }
+
+    /**
+     * Creates a table with the key schema, indexes, stream and billing mode of an existing one and waits until it is
+     * active.
+     */
+    public void createTableLike(String sourceTable, String newTable) {
+        TableDescription source = dynamoDbClient.describeTable(DescribeTableRequest.builder().tableName(sourceTable).build()).table();
+        boolean onDemand = source.billingModeSummary() != null && source.billingModeSummary().billingMode() == BillingMode.PAY_PER_REQUEST;
+
+        CreateTableRequest.Builder request = CreateTableRequest.builder()
+                .tableName(newTable)
+                .keySchema(source.keySchema())
+                .attributeDefinitions(source.attributeDefinitions())
+                .billingMode(onDemand ? BillingMode.PAY_PER_REQUEST : BillingMode.PROVISIONED);
+        if (!onDemand) {
+            request.provisionedThroughput(throughput(source.provisionedThroughput()));
+        }
+        if (source.streamSpecification() != null && Boolean.TRUE.equals(source.streamSpecification().streamEnabled())) {
+            request.streamSpecification(source.streamSpecification());
+        }
+        if (source.hasGlobalSecondaryIndexes()) {
+            request.globalSecondaryIndexes(source.globalSecondaryIndexes().stream()
+                    .map(index -> {
+                        GlobalSecondaryIndex.Builder gsi = GlobalSecondaryIndex.builder()
+                                .indexName(index.indexName())
+                                .keySchema(index.keySchema())
+                                .projection(index.projection());
+                        if (!onDemand) {
+                            gsi.provisionedThroughput(throughput(index.provisionedThroughput()));
+                        }
+                        return gsi.build();
+                    })
+                    .collect(Collectors.toList()));
+        }
+
+        dynamoDbClient.createTable(request.build());
+        dynamoDbClient.waiter().waitUntilTableExists(DescribeTableRequest.builder().tableName(newTable).build());
+        log.info("Created table {} like {}", newTable, sourceTable);
+    }
+
+    private static ProvisionedThroughput throughput(ProvisionedThroughputDescription description) {
+        return ProvisionedThroughput.builder()
+                .readCapacityUnits(description.readCapacityUnits())
+                .writeCapacityUnits(description.writeCapacityUnits())
+                .build();
+    }
+
+    /**
+     * Runs one DynamoDB call in a client span and a {@link DynamoDbCallEvent}. A failed condition is an expected outcome for the callers, so it is
+     * flagged on the span rather than marking it as an error.
+     * @param pollId the poll the call is for, or null for calls spanning polls.
+     */
+    private <T extends DynamoDbResponse> T traced(String operation, String pollId, String table, String index, Supplier<T> call) {
+        Span span = tracer.spanBuilder(operation).setSpanKind(SpanKind.CLIENT).startSpan();
+        if (span.isRecording()) {
+            span.setAttribute("db.system", "dynamodb");
+            span.setAttribute(OPERATION, operation);
+            if (pollId != null) {
+                span.setAttribute(POLL_ID, pollId);
+            }
+            if (table != null) {
+                span.setAttribute(TABLE, table);
+            }
+            if (index != null) {
+                span.setAttribute(INDEX, index);
+            }
+        }
+
+        DynamoDbCallEvent event = DynamoDbCallEvent.begin(operation, pollId, table, index);
+        try (Scope ignored = span.makeCurrent()) {
+            T response = call.get();
+            if (span.isRecording()) {
+                recordResponse(span, response);
+            }
+            if (event.recording()) {
+                event.finish(responseBytes(response), consumedUnits(response), false);
+            }
+            return response;
+        } catch (ConditionalCheckFailedException e) {
+            span.setAttribute(CONDITION_FAILED, true);
+            event.finish(0, 0, false);
+            throw e;
+        } catch (RuntimeException e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR, e.getMessage());
+            event.finish(0, 0, true);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private static void recordResponse(Span span, DynamoDbResponse response) {
+        if (response instanceof QueryResponse query) {
+            span.setAttribute(ITEM_COUNT, query.count() == null ? 0 : query.count());
+        } else if (response instanceof ScanResponse scan) {
+            span.setAttribute(ITEM_COUNT, scan.count() == null ? 0 : scan.count());
+        }
+        span.setAttribute(CONSUMED_CAPACITY, consumedUnits(response));
+    }
+
+    private static double consumedUnits(DynamoDbResponse response) {
+        if (response instanceof GetItemResponse get && get.consumedCapacity() != null) {
+            return get.consumedCapacity().capacityUnits();
+        } else if (response instanceof UpdateItemResponse update && update.consumedCapacity() != null) {
+            return update.consumedCapacity().capacityUnits();
+        } else if (response instanceof PutItemResponse put && put.consumedCapacity() != null) {
+            return put.consumedCapacity().capacityUnits();
+        } else if (response instanceof DeleteItemResponse delete && delete.consumedCapacity() != null) {
+            return delete.consumedCapacity().capacityUnits();
+        } else if (response instanceof QueryResponse query && query.consumedCapacity() != null) {
+            return query.consumedCapacity().capacityUnits();
+        } else if (response instanceof ScanResponse scan && scan.consumedCapacity() != null) {
+            return scan.consumedCapacity().capacityUnits();
+        } else if (response instanceof BatchWriteItemResponse batch && batch.hasConsumedCapacity()) {
+            return totalUnits(batch.consumedCapacity());
+        } else if (response instanceof TransactWriteItemsResponse transaction && transaction.hasConsumedCapacity()) {
+            return totalUnits(transaction.consumedCapacity());
+        }
+        return 0;
+    }
+
+    // The length of the response body as sent, or 0 for responses not read from HTTP, as in tests
+    private static long responseBytes(DynamoDbResponse response) {
+        if (response.sdkHttpResponse() == null) {
+            return 0;
+        }
+        return response.sdkHttpResponse().firstMatchingHeader("Content-Length").map(Long::parseLong).orElse(0L);
+    }
+
+    private static double totalUnits(List<ConsumedCapacity> capacities) {
+        double units = 0;
+        for (ConsumedCapacity capacity : capacities) {
+            units += capacity.capacityUnits() == null ? 0 : capacity.capacityUnits();
+        }
+        return units;
+    }
+
+    /**
+     * @return the pollId an item belongs to: its own key for poll items, the pollId attribute for the others.
+     */
+    public static String routingKeyOf(Map<String, AttributeValue> item) {
+        AttributeValue pollId = item.get("pollId");
+        return pollId != null ? pollId.s() : item.get("PK").s();
+    }
+
+    private static List<String> primaryKey(Map<String, AttributeValue> item) {
+        return List.of(item.get("PK").s(), item.get("SK").s());
+    }
+
+    /**
+     * The items of a query over one or more tables, read a page at a time. Items of a later table whose primary key
+     * was already returned from an earlier one are skipped.
+     */
+    private final class QueryPages implements Iterator<Map<String, AttributeValue>> {
+
+        private final String pollId;
+        private final List<String> tables;
+        private final String indexName;
+        private final String keyConditionExpression;
+        private final Map<String, AttributeValue> expressionValues;
+        private final Set<List<String>> returnedKeys;
+        private int table;
+        private Iterator<Map<String, AttributeValue>> page = Collections.emptyIterator();
+        private Map<String, AttributeValue> startKey;
+        private boolean lastPage;
+        private Map<String, AttributeValue> next;
+
+        private QueryPages(String pollId, List<String> tables, String indexName, String keyConditionExpression,
+                           Map<String, AttributeValue> expressionValues) {
+            this.pollId = pollId;
+            this.tables = tables;
+            this.indexName = indexName;
+            this.keyConditionExpression = keyConditionExpression;
+            this.expressionValues = expressionValues;
+            this.returnedKeys = tables.size() > 1 ? new HashSet<>() : null;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map<String, AttributeValue> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map<String, AttributeValue> item = next;
+            advance();
+            return item;
+        }
+
+        private void advance() {
+            while (true) {
+                while (page.hasNext()) {
+                    Map<String, AttributeValue> item = page.next();
+                    if (returnedKeys != null) {
+                        List<String> key = primaryKey(item);
+                        if (table > 0 && returnedKeys.contains(key)) {
+                            continue;
+                        }
+                        if (table < tables.size() - 1) {
+                            returnedKeys.add(key);
+                        }
+                    }
+                    next = item;
+                    return;
+                }
+                if (lastPage) {
+                    if (++table == tables.size()) {
+                        next = null;
+                        return;
+                    }
+                    lastPage = false;
+                }
+                readPage();
+            }
+        }
+
+        private void readPage() {
+            QueryRequest.Builder request = QueryRequest.builder()
+                    .tableName(tables.get(table))
+                    .indexName(indexName)
+                    .keyConditionExpression(keyConditionExpression)
+                    .expressionAttributeValues(expressionValues)
+                    .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+            if (startKey != null) {
+                request.exclusiveStartKey(startKey);
+            }
+
+            QueryRequest pageRequest = request.build();
+            QueryResponse response = traced("Query", pollId, tables.get(table), indexName, () -> dynamoDbClient.query(pageRequest));
+            page = response.items().iterator();
+            startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty() ? response.lastEvaluatedKey() : null;
+            lastPage = startKey == null;
+        }
+    }
 }
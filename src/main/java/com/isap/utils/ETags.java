@@ -0,0 +1,116 @@
+package com.isap.utils;
+
+import com.isap.domain.OptionResponse;
+import com.isap.domain.Poll;
+import com.isap.domain.PollResults;
+import jakarta.ws.rs.core.EntityTag;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class ETags {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Builds a strong ETag from the poll definition and its closing state. Options are hashed in key order so the tag
+     * does not depend on the iteration order of the stored map.
+     * @param poll The poll to tag.
+     * @param now The time the representation is built at, which decides whether it shows the poll as closed.
+     * @return the entity tag.
+     */
+    public static EntityTag forPoll(Poll poll, Instant now) {
+        long hash = hash(FNV_OFFSET_BASIS, poll.pollId());
+        hash = hash(hash, poll.question());
+        for (Map.Entry<String, String> option : new TreeMap<>(poll.options()).entrySet()) {
+            hash = hash(hash, option.getKey());
+            hash = hash(hash, option.getValue());
+        }
+        hash = hash(hash, poll.endsAt() == null ? "" : String.valueOf(poll.endsAt().toEpochMilli()));
+        hash = hash(hash, poll.closedAt() == null ? "" : String.valueOf(poll.closedAt().toEpochMilli()));
+        hash = hash(hash, poll.isClosed(now) ? "closed" : "open");
+
+        return new EntityTag("p-" + Long.toHexString(hash));
+    }
+
+    /**
+     * Hashes the vote count of every option, in option order. Two tallies with the same total but different counts,
+     * such as a vote-path read and a drift correction, get different versions.
+     * @param results The results to version.
+     * @return the results version.
+     */
+    public static long resultsVersion(PollResults results) {
+        TreeMap<String, Integer> counts = new TreeMap<>();
+        for (OptionResponse option : results.options()) {
+            counts.put(option.optionId(), option.voteCount());
+        }
+
+        long hash = FNV_OFFSET_BASIS;
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            hash = hash(hash, count.getKey());
+            hash = hash(hash, String.valueOf(count.getValue()));
+        }
+        return hash;
+    }
+
+    /**
+     * Builds a strong ETag for a poll's results at a given version. Final results get their own prefix: they are
+     * served as immutable, so a copy of the open results must never revalidate against them even at the same version.
+     * @param pollId The poll ID.
+     * @param version The results version, see {@link #resultsVersion(PollResults)}.
+     * @param closed Whether these are the frozen final results of a closed poll.
+     * @param uniqueVoters The unique voter estimate sent with the results, or null if none is.
+     * @return the entity tag.
+     */
+    public static EntityTag forResults(String pollId, long version, boolean closed, Long uniqueVoters) {
+        return new EntityTag((closed ? "f-" : "r-") + Long.toHexString(hash(FNV_OFFSET_BASIS, pollId)) + "-" + Long.toHexString(version)
+                + (uniqueVoters == null ? "" : "-u" + uniqueVoters));
+    }
+
+    public static EntityTag forResults(PollResults results) {
+        return forResults(results.pollId(), resultsVersion(results), results.closed(), results.uniqueVoters());
+    }
+
+    /**
+     * Evaluates an If-None-Match header against the current tag, using weak comparison as required by RFC 9110.
+     * @param ifNoneMatch The raw header value, may be null.
+     * @param current The tag of the current representation.
+     * @return true if the client's copy is current and a 304 can be sent.
+     */
+    public static boolean matches(String ifNoneMatch, EntityTag current) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+
+        String currentValue = current.getValue();
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")
+                    && tag.regionMatches(1, currentValue, 0, tag.length() - 2)
+                    && tag.length() - 2 == currentValue.length()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static long hash(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        // Field separator so ("ab", "c") and ("a", "bc") hash differently
+        hash ^= 0xff;
+        hash *= FNV_PRIME;
+        return hash;
+    }
+}
@@ -0,0 +1,70 @@
+package com.isap.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket for background jobs that must stay under a capacity budget, such as read units per second.
+ * Callers may take more permits than are available; the debt is paid back by waiting, which suits
+ * DynamoDB where the consumed capacity of a page is only known after it has been read. Callers that would rather
+ * skip work than wait use {@link #tryAcquire}.
+ */
+public class RateLimiter {
+
+    private final double permitsPerSecond;
+    private final double maxBurst;
+    private final ReentrantLock lock = new ReentrantLock();
+    private double available;
+    private long lastRefill = System.nanoTime();
+
+    public RateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.maxBurst = permitsPerSecond;
+        this.available = permitsPerSecond;
+    }
+
+    /**
+     * Takes the permits, blocking until the bucket is no longer in debt.
+     */
+    public void acquire(double permits) throws InterruptedException {
+        long waitNanos;
+        lock.lock();
+        try {
+            refill();
+            available -= permits;
+            waitNanos = available >= 0 ? 0 : (long) (-available / permitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+        } finally {
+            lock.unlock();
+        }
+
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Takes the permits only if the bucket holds them, without waiting or going into debt.
+     */
+    public boolean tryAcquire(double permits) {
+        lock.lock();
+        try {
+            refill();
+            if (available < permits) {
+                return false;
+            }
+            available -= permits;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        available = Math.min(maxBurst, available + (now - lastRefill) * permitsPerSecond / TimeUnit.SECONDS.toNanos(1));
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,86 @@
+package com.isap.utils;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ULIDs: 48 bits of epoch millis followed by 80 random bits, as 26 Crockford base32 characters.
+ * IDs sort by creation time, to the millisecond, both as strings and as DynamoDB sort keys.
+ *
+ * Randomness comes from ThreadLocalRandom rather than the SecureRandom behind UUID.randomUUID(), which is shared
+ * by all threads and contended under load. Vote IDs only need to be unique, not unpredictable.
+ */
+public final class Ulid {
+
+    public static final int LENGTH = 26;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final long MAX_TIME = (1L << 48) - 1;
+
+    private Ulid() {
+    }
+
+    public static String next() {
+        return next(Instant.now());
+    }
+
+    public static String next(Instant time) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return encode(time.toEpochMilli(), random.nextInt(1 << 16), random.nextLong());
+    }
+
+    /**
+     * @return the smallest ULID with the given millisecond.
+     */
+    public static String lowerBound(Instant time) {
+        return encode(time.toEpochMilli(), 0, 0);
+    }
+
+    /**
+     * @return the largest ULID with the given millisecond.
+     */
+    public static String upperBound(Instant time) {
+        return encode(time.toEpochMilli(), 0xFFFF, -1L);
+    }
+
+    public static Instant timestamp(String ulid) {
+        if (ulid == null || ulid.length() != LENGTH) {
+            throw new IllegalArgumentException("Not a ULID: " + ulid);
+        }
+        long millis = 0;
+        for (int i = 0; i < 10; i++) {
+            millis = (millis << 5) | decode(ulid.charAt(i));
+        }
+        return Instant.ofEpochMilli(millis);
+    }
+
+    private static String encode(long millis, int randomHigh, long randomLow) {
+        if (millis < 0 || millis > MAX_TIME) {
+            throw new IllegalArgumentException("Time out of ULID range: " + millis);
+        }
+
+        char[] chars = new char[LENGTH];
+        // 10 characters hold the 48-bit time, padded to 50 bits
+        for (int i = 9; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (millis & 31)];
+            millis >>>= 5;
+        }
+        // 16 characters hold the 80 random bits: 16 high bits then 64 low bits
+        long low = randomLow;
+        long high = randomHigh & 0xFFFFL;
+        for (int i = LENGTH - 1; i >= 10; i--) {
+            chars[i] = ALPHABET[(int) (low & 31)];
+            low = (low >>> 5) | ((high & 31) << 59);
+            high >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private static int decode(char c) {
+        for (int i = 0; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == c) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Invalid ULID character: " + c);
+    }
+}
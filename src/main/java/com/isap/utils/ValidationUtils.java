@@ -1,5 +1,9 @@
 package com.isap.utils;
 
+import com.isap.domain.PollRequest;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 
@@ -34,14 +38,69 @@ public class ValidationUtils {
 
     /**
      * Validates the entire request for creating a new poll.
-     * @param pollData The data for creating a new poll.
+     * @param pollRequest The parsed request for creating a new poll.
      * @return true if valid, false if invalid.
      */
-    public static boolean validateCreatePollRequest(Map<String, Object> pollData) {
-        if (!pollData.containsKey("question") || !(pollData.get("question") instanceof String)) {
+    public static boolean validateCreatePollRequest(PollRequest pollRequest) {
+        return pollRequest != null && pollRequest.question() != null && pollRequest.options() != null;
+    }
+
+    /**
+     * Validates the option texts of a new poll: between 2 and 7 options, none of them blank.
+     * @param options The option texts.
+     * @return true if valid, false if invalid.
+     */
+    public static boolean validateNewPollOptions(List<?> options) {
+        if (options.size() < 2 || options.size() > 7) {
+            return false;
+        }
+
+        for (Object option : options) {
+            if (!(option instanceof String text) || text.isBlank()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Validates the optional type of a new poll.
+     * @param type The requested type, or null for a single-choice poll.
+     * @return true if it is absent or a known type, false otherwise.
+     */
+    public static boolean validatePollType(String type) {
+        return type == null || PollRequest.TYPE_SINGLE.equals(type) || PollRequest.TYPE_RANKED.equals(type);
+    }
+
+    /**
+     * Validates the optional end time of a new poll.
+     * @param endsAt The requested end time, expected to be an ISO-8601 instant string.
+     * @param now The current time.
+     * @return true if it is a valid instant in the future, false otherwise.
+     */
+    public static boolean validateEndsAt(Object endsAt, Instant now) {
+        if (!(endsAt instanceof String text)) {
             return false;
         }
 
-        return pollData.containsKey("options") && pollData.get("options") instanceof List;
+        try {
+            return Instant.parse(text).isAfter(now);
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param from optional ISO-8601 instant.
+     * @param to optional ISO-8601 instant, not before from.
+     */
+    public static boolean validateTimeRange(String from, String to) {
+        try {
+            Instant start = from == null ? null : Instant.parse(from);
+            Instant end = to == null ? null : Instant.parse(to);
+            return start == null || end == null || !end.isBefore(start);
+        } catch (DateTimeParseException e) {
+            return false;
+        }
     }
 }
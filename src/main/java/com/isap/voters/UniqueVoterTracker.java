@@ -0,0 +1,173 @@
+package com.isap.voters;
+
+import com.isap.utils.HyperLogLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estimates the number of distinct voters per poll.
+ *
+ * Votes only add the voter id to an in-memory sketch of their poll. Every {@code flush-interval} each pending sketch is
+ * merged into the stored one in a single conditional write, so a poll costs at most one sketch write per instance per
+ * interval however many votes it takes. Union is idempotent, so a sketch that is merged again after a failed flush
+ * counts nobody twice. With a zero interval every vote is merged as it is recorded.
+ *
+ * Estimates add what is still pending here to the stored sketch, which is read at most once per {@code cache-ttl} per
+ * poll and kept up to date with this instance's own flushes in between, so serving results does not cost a read per
+ * response. Pending sketches of other instances show up after their next flush and the next read. The standard error
+ * is {@link HyperLogLog#STANDARD_ERROR}.
+ */
+@Slf4j
+@ApplicationScoped
+public class UniqueVoterTracker {
+
+    private final VoterSketchStore store;
+    private final Duration flushInterval;
+    static final int MAX_CACHED_SKETCHES = 100_000;
+
+    private final Duration cacheTtl;
+    private final ConcurrentHashMap<String, HyperLogLog> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, StoredSketch> stored = new ConcurrentHashMap<>();
+    private final Counter flushFailures;
+    private ScheduledExecutorService scheduler;
+
+    @Inject
+    public UniqueVoterTracker(VoterSketchStore store,
+                              @ConfigProperty(name = "poll.voters.flush-interval", defaultValue = "1s") Duration flushInterval,
+                              @ConfigProperty(name = "poll.voters.cache-ttl", defaultValue = "5s") Duration cacheTtl) {
+        this(store, flushInterval, cacheTtl, Metrics.globalRegistry);
+    }
+
+    UniqueVoterTracker(VoterSketchStore store, Duration flushInterval, Duration cacheTtl, MeterRegistry registry) {
+        this.store = store;
+        this.flushInterval = flushInterval;
+        this.cacheTtl = cacheTtl;
+        this.flushFailures = Counter.builder("poll.voters.flush.failures").register(registry);
+    }
+
+    private boolean batched() {
+        return !flushInterval.isZero() && !flushInterval.isNegative();
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!batched()) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "voter-sketch-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        flush();
+    }
+
+    public void record(String pollId, String voterId) {
+        long hash = HyperLogLog.hash(voterId);
+        pending.compute(pollId, (id, sketch) -> {
+            HyperLogLog updated = sketch == null ? new HyperLogLog() : sketch;
+            updated.addHash(hash);
+            return updated;
+        });
+
+        if (!batched()) {
+            flush(pollId);
+        }
+    }
+
+    public void flush() {
+        for (String pollId : pending.keySet()) {
+            flush(pollId);
+        }
+    }
+
+    private void flush(String pollId) {
+        HyperLogLog delta = pending.remove(pollId);
+        if (delta == null) {
+            return;
+        }
+
+        try {
+            store.merge(pollId, delta);
+            stored.computeIfPresent(pollId, (id, cached) -> cached.merged(delta));
+        } catch (DynamoDbException | IllegalStateException e) {
+            flushFailures.increment();
+            log.warn("Failed to flush voter sketch of poll {}, keeping it for the next flush: {}", pollId, e.getMessage());
+            pending.merge(pollId, delta, (current, failed) -> {
+                current.merge(failed);
+                return current;
+            });
+        }
+    }
+
+    /**
+     * @return empty if the stored sketch could not be read.
+     */
+    public OptionalLong estimate(String pollId) {
+        StoredSketch cached = stored.get(pollId);
+        if (cached == null || System.nanoTime() - cached.loadedAt() > cacheTtl.toNanos()) {
+            try {
+                cached = new StoredSketch(store.load(pollId), System.nanoTime());
+            } catch (DynamoDbException e) {
+                log.warn("Failed to load voter sketch of poll {}: {}", pollId, e.getMessage());
+                return OptionalLong.empty();
+            }
+            if (stored.size() >= MAX_CACHED_SKETCHES && !stored.containsKey(pollId)) {
+                stored.clear();
+            }
+            stored.put(pollId, cached);
+        }
+
+        HyperLogLog sketch = cached.copy();
+        pending.computeIfPresent(pollId, (id, local) -> {
+            sketch.merge(local);
+            return local;
+        });
+        return OptionalLong.of(sketch.estimate());
+    }
+
+    int pendingPolls() {
+        return pending.size();
+    }
+
+    /**
+     * The stored sketch as last read. Its sketch is never changed in place, so readers need no lock.
+     */
+    private record StoredSketch(HyperLogLog sketch, long loadedAt) {
+
+        StoredSketch merged(HyperLogLog delta) {
+            HyperLogLog union = copy();
+            union.merge(delta);
+            return new StoredSketch(union, loadedAt);
+        }
+
+        HyperLogLog copy() {
+            HyperLogLog copy = new HyperLogLog();
+            copy.merge(sketch);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.isap.voters;
+
+import com.isap.utils.DynamoDbHelper;
+import com.isap.utils.HyperLogLog;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.isap.codec.Attributes.key;
+import static com.isap.codec.Attributes.n;
+import static com.isap.codec.Attributes.s;
+
+/**
+ * Keeps one HyperLogLog of voter ids per poll on an item next to the poll, PK=pollId and SK=voters, with the
+ * registers packed into the binary {@code registers} attribute and a {@code version} bumped on every write.
+ *
+ * A merge reads the stored sketch, takes the union with the delta and writes it back on condition that the version
+ * is unchanged. A conflicting writer's item comes back with the failed condition, so a retry needs no extra read.
+ */
+@Slf4j
+@ApplicationScoped
+public class VoterSketchStore {
+
+    public static final String SK_VOTERS = "voters";
+    static final AttributeValue VOTERS = s(SK_VOTERS);
+    public static final String UPDATE_EXPRESSION = "SET registers = :registers, version = :next";
+    static final int MAX_MERGE_ATTEMPTS = 5;
+
+    private final DynamoDbHelper dynamoDbHelper;
+
+    @Inject
+    public VoterSketchStore(DynamoDbHelper dynamoDbHelper) {
+        this.dynamoDbHelper = dynamoDbHelper;
+    }
+
+    public HyperLogLog load(String pollId) {
+        GetItemResponse response = dynamoDbHelper.getItem(pollId, key(pollId, VOTERS));
+        return response == null || !response.hasItem() ? new HyperLogLog() : decode(response.item());
+    }
+
+    public void merge(String pollId, HyperLogLog delta) {
+        Map<String, AttributeValue> key = key(pollId, VOTERS);
+        GetItemResponse response = dynamoDbHelper.getItem(pollId, key);
+        Map<String, AttributeValue> stored = response == null || !response.hasItem() ? null : response.item();
+
+        for (int attempt = 1; attempt <= MAX_MERGE_ATTEMPTS; attempt++) {
+            Update update = union(stored, delta);
+            if (update == null) {
+                return;
+            }
+
+            try {
+                dynamoDbHelper.updateItem(pollId, key, UPDATE_EXPRESSION, update.condition(), update.values());
+                return;
+            } catch (ConditionalCheckFailedException e) {
+                log.debug("Voter sketch of poll {} changed concurrently, attempt {}", pollId, attempt);
+                stored = e.item();
+            }
+        }
+        throw new IllegalStateException("Could not merge voter sketch of poll " + pollId + " after "
+                + MAX_MERGE_ATTEMPTS + " attempts");
+    }
+
+    /**
+     * The conditional update that writes the union of {@code stored} and {@code delta} over {@code stored}, or null if
+     * the delta adds nothing to it.
+     */
+    public static Update union(Map<String, AttributeValue> stored, HyperLogLog delta) {
+        boolean exists = stored != null && !stored.isEmpty();
+        HyperLogLog merged = decode(stored);
+        if (!merged.merge(delta) && exists) {
+            return null;
+        }
+
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":registers", AttributeValue.fromB(SdkBytes.fromByteArrayUnsafe(merged.toBytes())));
+        if (!exists) {
+            values.put(":next", n(1));
+            return new Update("attribute_not_exists(PK)", values);
+        }
+
+        AttributeValue version = stored.get("version");
+        values.put(":next", n(Long.parseLong(version.n()) + 1));
+        values.put(":version", version);
+        return new Update("version = :version", values);
+    }
+
+    public static HyperLogLog decode(Map<String, AttributeValue> item) {
+        AttributeValue registers = item == null ? null : item.get("registers");
+        return registers == null ? new HyperLogLog() : HyperLogLog.fromBytes(registers.b().asByteArrayUnsafe());
+    }
+
+    public record Update(String condition, Map<String, AttributeValue> values) {
+    }
+}
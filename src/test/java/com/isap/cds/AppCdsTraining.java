@@ -0,0 +1,260 @@
+package com.isap.cds;
+
+import com.isap.utils.DynamoDbHelper;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Trains an application class-data archive for the JVM images and reports what it changes.
+ *
+ * Starts the packaged application three times against a local DynamoDB: without an archive, with
+ * {@code -XX:ArchiveClassesAtExit} while the training workload runs, and with the archive. The workload creates polls,
+ * reads them, votes and lists votes, so the archive also holds the Jackson, AWS SDK and RESTEasy classes first loaded
+ * by requests and not only those loaded at startup. The first and last run measure Quarkus' reported startup time,
+ * the time from launch until the first answered request, and the latency of the first GET /poll and POST /poll/vote.
+ *
+ * The Gradle task {@code appCdsArchive} passes the arguments; {@code java} is the command that starts a JVM, such as
+ * {@code docker run ... <image> java}, so the archive is dumped by the same JVM the image runs:
+ * <pre>
+ * java -cp ... com.isap.cds.AppCdsTraining archive report dynamoDbEndpoint iterations jar java...
+ * </pre>
+ */
+public class AppCdsTraining {
+
+    private static final int PORT = 8089;
+    private static final String TABLE = "PollTable";
+    private static final Pattern STARTED_IN = Pattern.compile("started in (\\d+\\.\\d+)s");
+    private static final Duration READY_TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    private final URI base = URI.create("http://localhost:" + PORT);
+
+    private record Measurement(double startedInMillis, long readyMillis, long firstGetMillis, long firstVoteMillis) {
+    }
+
+    private record ProbePoll(String pollId, String optionId) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 6) {
+            System.err.println("Usage: AppCdsTraining archive report dynamoDbEndpoint iterations jar java...");
+            System.exit(2);
+        }
+        String archive = args[0];
+        Path report = Path.of(args[1]);
+        String endpoint = args[2];
+        int iterations = Integer.parseInt(args[3]);
+        String jar = args[4];
+        List<String> java = List.of(args).subList(5, args.length);
+
+        ProbePoll probe = seed(endpoint);
+        AppCdsTraining training = new AppCdsTraining();
+
+        Measurement before = training.run(java, jar, List.of(), endpoint, probe, 0);
+        training.run(java, jar, List.of("-XX:ArchiveClassesAtExit=" + archive), endpoint, probe, iterations);
+        Measurement after = training.run(java, jar, List.of("-XX:SharedArchiveFile=" + archive, "-Xshare:auto"),
+                endpoint, probe, 0);
+
+        String markdown = report(before, after, iterations, java);
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        Files.writeString(report, markdown);
+        System.out.println(markdown);
+    }
+
+    private Measurement run(List<String> java, String jar, List<String> options, String endpoint, ProbePoll probe,
+                            int iterations) throws Exception {
+        List<String> command = new ArrayList<>(java);
+        command.addAll(options);
+        command.add("-Dquarkus.http.port=" + PORT);
+        command.add("-Dquarkus.dynamodb.endpoint-url=" + endpoint);
+        command.add("-jar");
+        command.add(jar);
+        System.out.println("Starting " + String.join(" ", command));
+
+        long launched = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        AtomicReference<Double> startedIn = new AtomicReference<>(Double.NaN);
+        Thread output = new Thread(() -> copyOutput(process, startedIn));
+        output.setDaemon(true);
+        output.start();
+        try {
+            long readyMillis = awaitReady(launched);
+            long firstGetMillis = timed(() -> send("GET", "/poll?pollId=" + probe.pollId(), null));
+            long firstVoteMillis = timed(() -> send("POST", "/poll/vote",
+                    "{\"pollId\":\"" + probe.pollId() + "\",\"optionId\":\"" + probe.optionId() + "\"}"));
+            for (int i = 0; i < iterations; i++) {
+                workload(probe, i);
+            }
+            return new Measurement(startedIn.get() * 1000, readyMillis, firstGetMillis, firstVoteMillis);
+        } finally {
+            // SIGTERM, forwarded by docker run; the JVM writes ArchiveClassesAtExit on a normal exit only
+            process.destroy();
+            if (!process.waitFor(60, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new IllegalStateException("Application did not stop within 60s");
+            }
+            output.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private void workload(ProbePoll probe, int iteration) {
+        send("POST", "/poll/create", "{\"question\":\"AppCDS training " + iteration + "\","
+                + "\"options\":[\"Yes\",\"No\"],\"endsAt\":\"" + Instant.now().plus(Duration.ofDays(1)) + "\"}");
+        send("GET", "/poll?pollId=" + probe.pollId(), null);
+        send("POST", "/poll/vote", "{\"pollId\":\"" + probe.pollId() + "\",\"optionId\":\"" + probe.optionId()
+                + "\",\"voterId\":\"voter-" + iteration + "\"}");
+        send("GET", "/poll/results?pollId=" + probe.pollId(), null);
+        send("GET", "/poll/votes?pollId=" + probe.pollId(), null);
+    }
+
+    private long awaitReady(long launched) throws InterruptedException {
+        long deadline = launched + READY_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                HttpResponse<Void> response = http.send(HttpRequest.newBuilder(base.resolve("/q/metrics")).build(),
+                        HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - launched);
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        throw new IllegalStateException("Application did not answer within " + READY_TIMEOUT);
+    }
+
+    private int send(String method, String path, String body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(base.resolve(path)).timeout(Duration.ofSeconds(10));
+        if (body == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.header("Content-Type", "application/json").method(method, HttpRequest.BodyPublishers.ofString(body));
+        }
+        try {
+            int status = http.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status >= 500) {
+                throw new IllegalStateException(method + " " + path + " answered " + status);
+            }
+            return status;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long timed(Runnable request) {
+        long started = System.nanoTime();
+        request.run();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    private static void copyOutput(Process process, AtomicReference<Double> startedIn) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                System.out.println("  | " + line);
+                Matcher matcher = STARTED_IN.matcher(line);
+                if (matcher.find()) {
+                    startedIn.set(Double.parseDouble(matcher.group(1)));
+                }
+            }
+        } catch (IOException e) {
+            // Process ended
+        }
+    }
+
+    // Creates the table if needed and one poll every run reads and votes on, so first requests are comparable
+    private static ProbePoll seed(String endpoint) {
+        try (DynamoDbClient client = DynamoDbClient.builder()
+                .endpointOverride(URI.create(endpoint))
+                .region(Region.EU_WEST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("local", "local")))
+                .build()) {
+            if (!client.listTables().tableNames().contains(TABLE)) {
+                createTable(client);
+            }
+
+            String question = "AppCDS probe " + UUID.randomUUID();
+            new DynamoDbHelper(client).createPollAndOptions(Map.of(question, List.of("Yes", "No")));
+            Map<String, AttributeValue> poll = client.scan(ScanRequest.builder()
+                    .tableName(TABLE)
+                    .filterExpression("question = :question")
+                    .expressionAttributeValues(Map.of(":question", AttributeValue.fromS(question)))
+                    .build()).items().get(0);
+            return new ProbePoll(poll.get("PK").s(), poll.get("options").m().keySet().iterator().next());
+        }
+    }
+
+    private static void createTable(DynamoDbClient client) {
+        ProvisionedThroughput throughput = ProvisionedThroughput.builder().readCapacityUnits(5L).writeCapacityUnits(5L).build();
+        client.createTable(CreateTableRequest.builder()
+                .tableName(TABLE)
+                .keySchema(key("PK", KeyType.HASH), key("SK", KeyType.RANGE))
+                .attributeDefinitions(attribute("PK"), attribute("SK"), attribute("GSI1PK"), attribute("GSI1SK"),
+                        attribute("GSI2PK"), attribute("GSI2SK"), attribute("GSI3PK"), attribute("GSI3SK"))
+                .provisionedThroughput(throughput)
+                .globalSecondaryIndexes(index("GSI1", throughput), index("GSI2", throughput), index("GSI3", throughput))
+                .build());
+    }
+
+    private static GlobalSecondaryIndex index(String name, ProvisionedThroughput throughput) {
+        return GlobalSecondaryIndex.builder()
+                .indexName(name)
+                .keySchema(key(name + "PK", KeyType.HASH), key(name + "SK", KeyType.RANGE))
+                .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
+                .provisionedThroughput(throughput)
+                .build();
+    }
+
+    private static KeySchemaElement key(String name, KeyType type) {
+        return KeySchemaElement.builder().attributeName(name).keyType(type).build();
+    }
+
+    private static AttributeDefinition attribute(String name) {
+        return AttributeDefinition.builder().attributeName(name).attributeType(ScalarAttributeType.S).build();
+    }
+
+    private static String report(Measurement before, Measurement after, int iterations, List<String> java) {
+        return "# Application class-data archive\n\n"
+                + "JVM: `" + String.join(" ", java) + "`, trained on " + iterations + " iterations of "
+                + "create, get, vote, results and votes.\n\n"
+                + "| | without archive | with archive |\n"
+                + "|---|---:|---:|\n"
+                + row("Quarkus startup (ms)", before.startedInMillis(), after.startedInMillis())
+                + row("Launch to first answer (ms)", before.readyMillis(), after.readyMillis())
+                + row("First GET /poll (ms)", before.firstGetMillis(), after.firstGetMillis())
+                + row("First POST /poll/vote (ms)", before.firstVoteMillis(), after.firstVoteMillis());
+    }
+
+    private static String row(String name, double before, double after) {
+        return String.format("| %s | %.0f | %.0f |%n", name, before, after);
+    }
+}
@@ -0,0 +1,185 @@
+package com.isap.chaos;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.http.ExecutableHttpRequest;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.HttpExecuteResponse;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.retries.api.BackoffStrategy;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ChaosInterceptorTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // Bodies of the requests that reached the HTTP client
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+
+    /**
+     * A client whose HTTP layer answers every request with an empty success, so only injected faults fail calls.
+     */
+    private DynamoDbClient client(ChaosSettings.Latency latency, Map<String, Double> failureRates, int partitions,
+                                  double units) {
+        ChaosInterceptor interceptor = new ChaosInterceptor(new ChaosSettings(latency, Map.of(), 0, failureRates,
+                partitions, units, units), registry);
+        return DynamoDbClient.builder()
+                .httpClient(new RecordingHttpClient())
+                .endpointOverride(URI.create("http://localhost:8000"))
+                .region(Region.EU_WEST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret")))
+                .overrideConfiguration(config -> config
+                        .addExecutionInterceptor(interceptor)
+                        .retryStrategy(AwsRetryStrategy.standardRetryStrategy().toBuilder()
+                                .maxAttempts(MAX_ATTEMPTS)
+                                .backoffStrategy(BackoffStrategy.retryImmediately())
+                                .throttlingBackoffStrategy(BackoffStrategy.retryImmediately())
+                                .build()))
+                .build();
+    }
+
+    private static GetItemRequest get(String pk) {
+        return GetItemRequest.builder().tableName("PollTable").key(Map.of("PK", AttributeValue.fromS(pk))).build();
+    }
+
+    private static WriteRequest put(String pk) {
+        return WriteRequest.builder().putRequest(PutRequest.builder()
+                .item(Map.of("PK", AttributeValue.fromS(pk), "SK", AttributeValue.fromS("vote"))).build()).build();
+    }
+
+    private double faults(String kind, String operation) {
+        return registry.counter("poll.chaos.faults", "kind", kind, "operation", operation).count();
+    }
+
+    @Test
+    public void testGetItem_throttlesOnlyThePartitionThatRanOutOfUnits() {
+        //given
+        DynamoDbClient client = client(ChaosSettings.Latency.NONE, Map.of(), 4, 2);
+        String cold = "poll-0";
+        for (int i = 1; ChaosInterceptor.partitionOf(cold, 4) == ChaosInterceptor.partitionOf("hot", 4); i++) {
+            cold = "poll-" + i;
+        }
+
+        //when
+        client.getItem(get("hot"));
+        client.getItem(get("hot"));
+        ProvisionedThroughputExceededException e = assertThrows(ProvisionedThroughputExceededException.class,
+                () -> client.getItem(get("hot")));
+        client.getItem(get(cold));
+
+        //then every attempt of the third call was throttled before reaching the HTTP client
+        assertThat(e.statusCode()).isEqualTo(400);
+        assertThat(sent).hasSize(3);
+        assertThat(faults("throttle", "GetItem")).isEqualTo(MAX_ATTEMPTS);
+    }
+
+    @Test
+    public void testFailureRates_areRetriedByTheClient() {
+        //given
+        DynamoDbClient client = client(ChaosSettings.Latency.NONE, Map.of("GetItem", 1.0), 4, 1000);
+
+        //when
+        InternalServerErrorException e = assertThrows(InternalServerErrorException.class, () -> client.getItem(get("p1")));
+        client.putItem(PutItemRequest.builder().tableName("PollTable").item(Map.of("PK", AttributeValue.fromS("p1"))).build());
+
+        //then
+        assertThat(e.statusCode()).isEqualTo(500);
+        assertThat(sent).hasSize(1);  // Only the PutItem
+        assertThat(faults("failure", "GetItem")).isEqualTo(MAX_ATTEMPTS);
+    }
+
+    @Test
+    public void testBatchWriteItem_returnsWritesToThrottledPartitionsAsUnprocessed() {
+        //given
+        DynamoDbClient client = client(ChaosSettings.Latency.NONE, Map.of(), 1, 1);
+        BatchWriteItemRequest request = BatchWriteItemRequest.builder()
+                .requestItems(Map.of("PollTable", List.of(put("a"), put("b"), put("c"))))
+                .build();
+
+        //when
+        BatchWriteItemResponse response = client.batchWriteItem(request);
+
+        //then
+        assertThat(sent).hasSize(1);
+        assertThat(sent.get(0)).contains("\"S\":\"a\"");
+        assertThat(sent.get(0)).doesNotContain("\"S\":\"b\"");
+        assertThat(response.unprocessedItems().get("PollTable")).containsExactly(put("b"), put("c")).inOrder();
+        assertThrows(ProvisionedThroughputExceededException.class, () -> client.batchWriteItem(request));
+        assertThat(sent).hasSize(1);
+    }
+
+    @Test
+    public void testLatency_delaysEveryCallAndParsesPerOperationSettings() {
+        //given
+        DynamoDbClient client = client(new ChaosSettings.Latency(Duration.ofMillis(30), Duration.ofMillis(30)),
+                Map.of(), 4, 1000);
+
+        //when
+        long started = System.nanoTime();
+        client.getItem(get("p1"));
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        Map<String, ChaosSettings.Latency> latencies = ChaosSettings.parseLatencies(List.of("Query=8/60"));
+
+        //then
+        assertThat(elapsedMillis).isAtLeast(30);
+        assertThat(latencies.get("Query")).isEqualTo(new ChaosSettings.Latency(Duration.ofMillis(8), Duration.ofMillis(60)));
+        assertThrows(IllegalArgumentException.class, () -> ChaosSettings.parseLatencies(List.of("Query=60/8")));
+    }
+
+    private final class RecordingHttpClient implements SdkHttpClient {
+
+        @Override
+        public ExecutableHttpRequest prepareRequest(HttpExecuteRequest request) {
+            return new ExecutableHttpRequest() {
+                @Override
+                public HttpExecuteResponse call() {
+                    sent.add(request.contentStreamProvider().map(provider -> read(provider.newStream())).orElse(""));
+                    // Without consumed capacity, a call is charged one unit
+                    byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+                    return HttpExecuteResponse.builder()
+                            .response(SdkHttpResponse.builder().statusCode(200).build())
+                            .responseBody(AbortableInputStream.create(new ByteArrayInputStream(body)))
+                            .build();
+                }
+
+                @Override
+                public void abort() {
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private String read(InputStream in) {
+            try (in) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
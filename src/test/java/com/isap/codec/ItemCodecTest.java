@@ -0,0 +1,66 @@
+package com.isap.codec;
+
+import com.isap.domain.Option;
+import com.isap.domain.Poll;
+import com.isap.domain.Vote;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class ItemCodecTest {
+
+    @Test
+    public void testPollCodec_roundTripsOptionalAttributes() {
+        //given
+        Poll poll = new Poll("poll-1", "Favourite colour?", Map.of("o1", "Red", "o2", "Blue"),
+                Instant.ofEpochMilli(1_000), Instant.ofEpochMilli(2_000), Map.of("o1", 3, "o2", 0),
+                Instant.ofEpochMilli(500));
+
+        //when
+        Map<String, AttributeValue> item = PollCodec.INSTANCE.encode(poll);
+
+        //then
+        assertThat(item.get("SK")).isSameInstanceAs(Attributes.POLL);
+        assertThat(item.get("GSI3SK").s()).isEqualTo("0000000000500#poll-1");
+        assertThat(PollCodec.INSTANCE.decode(item)).isEqualTo(poll);
+        assertThat(PollCodec.INSTANCE.decode(PollCodec.INSTANCE.encode(new Poll("poll-2", "Open?", Map.of("o1", "Yes")))))
+                .isEqualTo(new Poll("poll-2", "Open?", Map.of("o1", "Yes")));
+    }
+
+    @Test
+    public void testFromQueryResponse_keepsPollIdOfEachOption() {
+        //given
+        QueryResponse response = QueryResponse.builder().items(
+                new Option("o1", "poll-1", "Red", 0).toDynamoDbItem(),
+                Map.of("PK", AttributeValue.fromS("o2"), "SK", AttributeValue.fromS("option"),
+                        "GSI1PK", AttributeValue.fromS("poll-1"), "text", AttributeValue.fromS("Blue"),
+                        "votes", AttributeValue.fromN("7"))).build();
+
+        //when
+        List<Option> options = Option.fromQueryResponse(response);
+
+        //then
+        assertThat(options).containsExactly(new Option("o1", "poll-1", "Red", 0), new Option("o2", "poll-1", "Blue", 7)).inOrder();
+    }
+
+    @Test
+    public void testVoteCodec_roundTripsAndSharesConstants() {
+        //given
+        Vote vote = Vote.create("poll-1", "o1", Instant.ofEpochMilli(5_000));
+
+        //when
+        Map<String, AttributeValue> item = VoteCodec.INSTANCE.encode(vote);
+
+        //then
+        assertThat(item.get("SK")).isSameInstanceAs(Attributes.VOTE);
+        assertThat(item.get("GSI2SK")).isSameInstanceAs(Attributes.OPTION);
+        assertThat(item.get("GSI1SK").s()).isEqualTo("vote#" + vote.voteId());
+        assertThat(VoteCodec.INSTANCE.decode(item)).isEqualTo(vote);
+    }
+}
@@ -0,0 +1,88 @@
+package com.isap.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Measures write and read throughput of the votes file format on synthetic data, and compares its size with
+ * gzipped JSON lines of the same votes.
+ *
+ * <pre>
+ * java -cp ... com.isap.export.ColumnarExportBenchmark [votes=2000000] [polls=1000] [rowGroupSize=65536]
+ * </pre>
+ */
+public class ColumnarExportBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int votes = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int polls = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int rowGroupSize = args.length > 2 ? Integer.parseInt(args[2]) : 65_536;
+
+        String[] pollIds = new String[polls];
+        String[][] optionIds = new String[polls][4];
+        for (int i = 0; i < polls; i++) {
+            pollIds[i] = UUID.randomUUID().toString();
+            for (int j = 0; j < 4; j++) {
+                optionIds[i][j] = UUID.randomUUID().toString();
+            }
+        }
+
+        Path directory = Files.createTempDirectory("columnar-benchmark");
+        Path columnar = directory.resolve("votes.pcol.gz");
+        Path jsonLines = directory.resolve("votes.jsonl.gz");
+        long start = 1_734_000_000_000L;
+
+        long writeStarted = System.nanoTime();
+        try (ColumnarFileWriter writer = new ColumnarFileWriter(columnar, ColumnarSchema.VOTES, rowGroupSize)) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < votes; i++) {
+                int poll = random.nextInt(polls);
+                writer.write(UUID.randomUUID().toString(), pollIds[poll], optionIds[poll][random.nextInt(4)],
+                        start + random.nextLong(86_400_000L));
+            }
+        }
+        long writeNanos = System.nanoTime() - writeStarted;
+
+        long readStarted = System.nanoTime();
+        long read = 0;
+        try (ColumnarFileReader reader = new ColumnarFileReader(columnar)) {
+            while (reader.next() != null) {
+                read++;
+            }
+        }
+        long readNanos = System.nanoTime() - readStarted;
+
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(jsonLines));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < votes; i++) {
+                int poll = random.nextInt(polls);
+                writer.write("{\"voteId\":\"" + UUID.randomUUID() + "\",\"pollId\":\"" + pollIds[poll]
+                        + "\",\"optionId\":\"" + optionIds[poll][random.nextInt(4)] + "\",\"timestamp\":\""
+                        + Instant.ofEpochMilli(start + random.nextLong(86_400_000L)) + "\"}\n");
+            }
+        }
+
+        long columnarBytes = Files.size(columnar);
+        long jsonBytes = Files.size(jsonLines);
+        System.out.printf("Votes: %d across %d polls, row groups of %d%n", votes, polls, rowGroupSize);
+        System.out.printf("Write: %.0f rows/s%n", votes / (writeNanos / 1e9));
+        System.out.printf("Read:  %.0f rows/s (%d rows)%n", read / (readNanos / 1e9), read);
+        System.out.printf("Size:  %d bytes columnar (%.1f B/row), %d bytes gzipped JSON lines (%.1f B/row)%n",
+                columnarBytes, (double) columnarBytes / votes, jsonBytes, (double) jsonBytes / votes);
+
+        Files.delete(columnar);
+        Files.delete(jsonLines);
+        Files.delete(directory);
+    }
+}
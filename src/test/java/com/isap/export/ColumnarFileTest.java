@@ -0,0 +1,100 @@
+package com.isap.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ColumnarFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static List<Object[]> readAll(Path file) throws IOException {
+        List<Object[]> rows = new ArrayList<>();
+        try (ColumnarFileReader reader = new ColumnarFileReader(file)) {
+            Object[] row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    public void testRoundTrip_sortsVotesByTimestampWithinRowGroup() throws IOException {
+        //given
+        Path file = tempDir.resolve("votes.pcol.gz");
+        try (ColumnarFileWriter writer = new ColumnarFileWriter(file, ColumnarSchema.VOTES, 3)) {
+            writer.write("vote1", "poll1", "option1", 3_000L);
+            writer.write("vote2", "poll1", "option2", 1_000L);
+            writer.write("vote3", "poll1", "option1", 2_000L);
+            writer.write("vote4", "poll2", "option3", 500L);
+        }
+
+        //when
+        List<Object[]> rows = readAll(file);
+
+        //then
+        assertThat(rows).hasSize(4);
+        assertThat(rows.get(0)).asList().containsExactly("vote2", "poll1", "option2", 1_000L).inOrder();
+        assertThat(rows.get(1)).asList().containsExactly("vote3", "poll1", "option1", 2_000L).inOrder();
+        assertThat(rows.get(2)).asList().containsExactly("vote1", "poll1", "option1", 3_000L).inOrder();
+        assertThat(rows.get(3)).asList().containsExactly("vote4", "poll2", "option3", 500L).inOrder();
+    }
+
+    @Test
+    public void testRoundTrip_keepsNullsAndScanOrder() throws IOException {
+        //given
+        Path file = tempDir.resolve("polls.pcol.gz");
+        try (ColumnarFileWriter writer = new ColumnarFileWriter(file, ColumnarSchema.POLLS, 10)) {
+            writer.write("poll2", "Favourite colour?", 1_700_000_000_000L, null);
+            writer.write("poll1", "Favourite język?", null, null);
+        }
+
+        //when
+        List<Object[]> rows;
+        ColumnarSchema schema;
+        try (ColumnarFileReader reader = new ColumnarFileReader(file)) {
+            schema = reader.schema();
+        }
+        rows = readAll(file);
+
+        //then
+        assertThat(schema).isEqualTo(ColumnarSchema.POLLS);
+        assertThat(rows.get(0)).asList().containsExactly("poll2", "Favourite colour?", 1_700_000_000_000L, null).inOrder();
+        assertThat(rows.get(1)).asList().containsExactly("poll1", "Favourite język?", null, null).inOrder();
+    }
+
+    @Test
+    public void testRoundTrip_emptyFile() throws IOException {
+        //given
+        Path file = tempDir.resolve("options.pcol.gz");
+        new ColumnarFileWriter(file, ColumnarSchema.OPTIONS, 10).close();
+
+        //when
+        List<Object[]> rows = readAll(file);
+
+        //then
+        assertThat(rows).isEmpty();
+    }
+
+    @Test
+    public void testReader_rejectsOtherFiles() throws IOException {
+        //given
+        Path file = tempDir.resolve("other.gz");
+        try (var out = new java.util.zip.GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write("not columnar".getBytes());
+        }
+
+        //when //then
+        assertThrows(IOException.class, () -> new ColumnarFileReader(file));
+    }
+}
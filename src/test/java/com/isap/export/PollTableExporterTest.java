@@ -0,0 +1,95 @@
+package com.isap.export;
+
+import com.isap.utils.DynamoDbHelper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class PollTableExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final DynamoDbHelper dynamoDbHelper = mock(DynamoDbHelper.class);
+
+    private static AttributeValue s(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private static AttributeValue n(long value) {
+        return AttributeValue.builder().n(String.valueOf(value)).build();
+    }
+
+    @Test
+    public void testExport_writesOnePartPerSegmentAndTable() throws IOException {
+        //given
+        PollTableExporter exporter = new PollTableExporter(dynamoDbHelper, tempDir, 2, 100, 100, 1000);
+        when(dynamoDbHelper.allTables()).thenReturn(List.of("PollTable"));
+        Map<String, AttributeValue> lastKey = Map.of("PK", s("option1"), "SK", s("option"));
+        when(dynamoDbHelper.scanSegment(eq("PollTable"), eq(0), eq(2), any(), any(), any(), isNull(), anyInt()))
+                .thenReturn(ScanResponse.builder()
+                        .items(Map.of("PK", s("poll1"), "SK", s("poll"), "question", s("Colour?"), "endsAt", n(5000)),
+                                Map.of("PK", s("option1"), "SK", s("option"), "pollId", s("poll1"), "text", s("Red"), "votes", n(1)))
+                        .lastEvaluatedKey(lastKey)
+                        .build());
+        when(dynamoDbHelper.scanSegment(eq("PollTable"), eq(0), eq(2), any(), any(), any(), eq(lastKey), anyInt()))
+                .thenReturn(ScanResponse.builder()
+                        .items(Map.of("PK", s("vote1"), "SK", s("vote"), "pollId", s("poll1"), "optionId", s("option1"),
+                                "timestamp", s("2024-12-20T12:34:56Z")))
+                        .build());
+        when(dynamoDbHelper.scanSegment(eq("PollTable"), eq(1), eq(2), any(), any(), any(), isNull(), anyInt()))
+                .thenReturn(ScanResponse.builder()
+                        .items(Map.of("PK", s("vote2"), "SK", s("vote"), "pollId", s("poll1"), "optionId", s("option1"),
+                                "timestamp", s("2024-12-20T12:35:00Z")))
+                        .build());
+
+        //when
+        ExportReport report = exporter.export("export1");
+
+        //then
+        assertThat(report.pollsExported()).isEqualTo(1);
+        assertThat(report.optionsExported()).isEqualTo(1);
+        assertThat(report.votesExported()).isEqualTo(2);
+        assertThat(report.files()).containsExactly(
+                "polls-00000.pcol.gz", "options-00000.pcol.gz", "votes-00000.pcol.gz",
+                "polls-00001.pcol.gz", "options-00001.pcol.gz", "votes-00001.pcol.gz");
+        try (ColumnarFileReader reader = new ColumnarFileReader(tempDir.resolve("export1/votes-00000.pcol.gz"))) {
+            assertThat(reader.next()).asList()
+                    .containsExactly("vote1", "poll1", "option1", 1734698096000L).inOrder();
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    public void testExport_rejectsPathLikeExportIds() {
+        //given
+        PollTableExporter exporter = new PollTableExporter(dynamoDbHelper, tempDir, 1, 100, 100, 1000);
+
+        //when //then
+        assertThrows(IllegalArgumentException.class, () -> exporter.export("../outside"));
+        assertThrows(IllegalArgumentException.class, () -> exporter.export(".."));
+        verifyNoInteractions(dynamoDbHelper);
+    }
+
+    @Test
+    public void testExport_rejectsExistingExport() throws IOException {
+        //given
+        PollTableExporter exporter = new PollTableExporter(dynamoDbHelper, tempDir, 1, 100, 100, 1000);
+        Files.createDirectories(tempDir.resolve("export1"));
+
+        //when //then
+        assertThrows(IllegalArgumentException.class, () -> exporter.export("export1"));
+    }
+}
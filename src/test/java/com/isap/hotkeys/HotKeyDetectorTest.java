@@ -0,0 +1,78 @@
+package com.isap.hotkeys;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class HotKeyDetectorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    // 10s window of 5 buckets; hot at 10 requests per second, so 100 requests per window
+    private HotKeyDetector detector(int topK) {
+        return new HotKeyDetector("vote", Duration.ofSeconds(10), 5, topK, 10, registry, clock::get);
+    }
+
+    @Test
+    public void testRecord_keyOverThresholdIsHot() {
+        //given
+        HotKeyDetector detector = detector(5);
+        for (int i = 0; i < 99; i++) {
+            assertThat(detector.record("op1")).isFalse();
+        }
+
+        //when
+        boolean hot = detector.record("op1");
+
+        //then
+        assertThat(hot).isTrue();
+        assertThat(detector.isHot("op2")).isFalse();
+        assertThat(detector.top().get(0)).isEqualTo(new HotKey("op1", 100, 10.0, true));
+        assertThat(registry.get("poll.hotkeys.detected").tag("path", "vote").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testTop_keepsTheMostFrequentKeys() {
+        //given
+        HotKeyDetector detector = detector(2);
+
+        //when
+        for (int key = 1; key <= 5; key++) {
+            for (int i = 0; i < key * 10; i++) {
+                detector.record("op" + key);
+            }
+        }
+
+        //then
+        List<HotKey> top = detector.top();
+        assertThat(top.stream().map(HotKey::key).toList()).containsExactly("op5", "op4").inOrder();
+        assertThat(top.get(0).count()).isAtLeast(50);
+    }
+
+    @Test
+    public void testRecord_countsSlideOutOfTheWindow() {
+        //given
+        HotKeyDetector detector = detector(5);
+        for (int i = 0; i < 150; i++) {
+            detector.record("op1");
+        }
+        assertThat(detector.isHot("op1")).isTrue();
+
+        //when
+        clock.addAndGet(Duration.ofSeconds(6).toMillis());
+        detector.record("op2");
+        boolean stillCounted = detector.isHot("op1");
+        clock.addAndGet(Duration.ofSeconds(6).toMillis());
+
+        //then
+        assertThat(stillCounted).isTrue();
+        assertThat(detector.isHot("op1")).isFalse();
+        assertThat(detector.top().stream().map(HotKey::key).toList()).doesNotContain("op1");
+    }
+}
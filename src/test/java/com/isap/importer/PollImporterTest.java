@@ -0,0 +1,192 @@
+package com.isap.importer;
+
+import com.isap.exception.ImportCompletedException;
+import com.isap.utils.DynamoDbHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class PollImporterTest {
+
+    private static final String IMPORT_ID = "import1";
+
+    private final DynamoDbHelper dynamoDbHelper = mock(DynamoDbHelper.class);
+    private final PollImporter pollImporter = new PollImporter(dynamoDbHelper, 2);
+
+    @BeforeEach
+    public void setUp() {
+        // A new importId: its marker item did not exist yet
+        when(dynamoDbHelper.putItemIfAbsent(eq(PollImporter.MARKER_PREFIX + IMPORT_ID), any())).thenReturn(true);
+    }
+
+    private static ByteArrayInputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testImportJsonLines_success() throws IOException {
+        //given
+        Set<String> writtenKeys = ConcurrentHashMap.newKeySet();
+        when(dynamoDbHelper.batchWriteItems(any())).thenAnswer(invocation -> {
+            List<WriteRequest> writes = invocation.getArgument(0);
+            assertThat(writes.size()).isAtMost(PollImporter.MAX_BATCH_ITEMS);
+            writes.forEach(write -> writtenKeys.add(write.putRequest().item().get("PK").s()));
+            return List.of();
+        });
+        String jsonl = IntStream.range(0, 10)
+                .mapToObj(i -> "{\"question\": \"Question " + i + "?\", \"options\": [\"Red\", \"Blue\", \"Green\"]}")
+                .collect(Collectors.joining("\n"));
+
+        //when
+        ImportReport report = pollImporter.importPolls(input(jsonl), ImportFormat.JSONL, IMPORT_ID, 1);
+
+        //then
+        assertThat(report.rowsRead()).isEqualTo(10);
+        assertThat(report.rowsImported()).isEqualTo(10);
+        assertThat(report.resumeFromRow()).isNull();
+        assertThat(report.errors()).isEmpty();
+        assertThat(writtenKeys).hasSize(40);  // 10 polls with 3 options each
+        assertThat(writtenKeys).contains(PollImporter.deterministicId(IMPORT_ID, 1, -1));
+    }
+
+    @Test
+    public void testImport_rejectsInvalidRows() throws IOException {
+        //given
+        when(dynamoDbHelper.batchWriteItems(any())).thenReturn(List.of());
+        String jsonl = """
+                {"question": "Valid?", "options": ["Yes", "No"]}
+                {"question": "One option?", "options": ["Yes"]}
+                not json
+                {"options": ["Yes", "No"]}
+                """;
+
+        //when
+        ImportReport report = pollImporter.importPolls(input(jsonl), ImportFormat.JSONL, IMPORT_ID, 1);
+
+        //then
+        assertThat(report.rowsImported()).isEqualTo(1);
+        assertThat(report.rowsRejected()).isEqualTo(3);
+        assertThat(report.errors().stream().map(RowError::row).collect(Collectors.toList()))
+                .containsExactly(2L, 3L, 4L);
+        assertThat(report.resumeFromRow()).isNull();
+    }
+
+    @Test
+    public void testImportCsv_quotedFieldsAndHeader() throws IOException {
+        //given
+        when(dynamoDbHelper.batchWriteItems(any())).thenReturn(List.of());
+        String csv = "question,option1,option2\r\n"
+                + "\"Favourite, colour?\",Red,\"Dark \"\"blue\"\"\"\r\n"
+                + "\"Multi\nline?\",Yes,No\r\n";
+
+        //when
+        ImportReport report = pollImporter.importPolls(input(csv), ImportFormat.CSV, IMPORT_ID, 1);
+
+        //then
+        assertThat(report.rowsRead()).isEqualTo(2);
+        assertThat(report.rowsImported()).isEqualTo(2);
+        verify(dynamoDbHelper).batchWriteItems(argThat(writes -> writes.stream()
+                .anyMatch(write -> "Dark \"blue\"".equals(write.putRequest().item().get("text") == null
+                        ? null : write.putRequest().item().get("text").s()))));
+    }
+
+    @Test
+    public void testImport_failedBatchSetsResumeRow() throws IOException {
+        //given
+        when(dynamoDbHelper.batchWriteItems(any())).thenThrow(DynamoDbException.builder().message("boom").build());
+        String jsonl = "{\"question\": \"Q?\", \"options\": [\"Yes\", \"No\"]}\n".repeat(3);
+
+        //when
+        ImportReport report = pollImporter.importPolls(input(jsonl), ImportFormat.JSONL, IMPORT_ID, 1);
+
+        //then
+        assertThat(report.rowsFailed()).isEqualTo(3);
+        assertThat(report.resumeFromRow()).isEqualTo(1L);
+        assertThat(report.errors()).hasSize(3);
+    }
+
+    @Test
+    public void testImport_skipsRowsBeforeStartRow() throws IOException {
+        //given
+        when(dynamoDbHelper.batchWriteItems(any())).thenReturn(List.of());
+        String jsonl = "{\"question\": \"Q?\", \"options\": [\"Yes\", \"No\"]}\n".repeat(5);
+
+        //when
+        ImportReport report = pollImporter.importPolls(input(jsonl), ImportFormat.JSONL, IMPORT_ID, 4);
+
+        //then
+        assertThat(report.rowsRead()).isEqualTo(5);
+        assertThat(report.rowsImported()).isEqualTo(2);
+    }
+
+    @Test
+    public void testImport_refusesCompletedImport() {
+        //given
+        when(dynamoDbHelper.putItemIfAbsent(eq(PollImporter.MARKER_PREFIX + IMPORT_ID), any())).thenReturn(false);
+        when(dynamoDbHelper.getItemConsistent(eq(PollImporter.MARKER_PREFIX + IMPORT_ID), any()))
+                .thenReturn(GetItemResponse.builder().item(Map.of(
+                        "PK", AttributeValue.builder().s(PollImporter.MARKER_PREFIX + IMPORT_ID).build(),
+                        "completedAt", AttributeValue.builder().n("1").build())).build());
+        String jsonl = "{\"question\": \"Q?\", \"options\": [\"Yes\", \"No\"]}\n";
+
+        //when
+        assertThrows(ImportCompletedException.class,
+                () -> pollImporter.importPolls(input(jsonl), ImportFormat.JSONL, IMPORT_ID, 1));
+
+        //then
+        verify(dynamoDbHelper, never()).batchWriteItems(any());
+    }
+
+    @Test
+    public void testImport_resumedImportLeavesExistingItemsAlone() throws IOException {
+        //given an import that started before and did not complete
+        when(dynamoDbHelper.putItemIfAbsent(eq(PollImporter.MARKER_PREFIX + IMPORT_ID), any())).thenReturn(false);
+        when(dynamoDbHelper.getItemConsistent(eq(PollImporter.MARKER_PREFIX + IMPORT_ID), any()))
+                .thenReturn(GetItemResponse.builder().item(Map.of(
+                        "PK", AttributeValue.builder().s(PollImporter.MARKER_PREFIX + IMPORT_ID).build())).build());
+        String jsonl = "{\"question\": \"Q?\", \"options\": [\"Yes\", \"No\"]}\n".repeat(2);
+
+        //when
+        ImportReport report = pollImporter.importPolls(input(jsonl), ImportFormat.JSONL, IMPORT_ID, 1);
+
+        //then
+        assertThat(report.rowsImported()).isEqualTo(2);
+        verify(dynamoDbHelper, never()).batchWriteItems(any());
+        // The poll item and its two options, each routed by the poll
+        verify(dynamoDbHelper, times(3)).putItemIfAbsent(eq(PollImporter.deterministicId(IMPORT_ID, 1, -1)), any());
+        verify(dynamoDbHelper, times(3)).putItemIfAbsent(eq(PollImporter.deterministicId(IMPORT_ID, 2, -1)), any());
+        verify(dynamoDbHelper).putItem(eq(PollImporter.MARKER_PREFIX + IMPORT_ID),
+                argThat(item -> item.containsKey("completedAt")));
+    }
+
+    @Test
+    public void testImport_failedImportIsNotMarkedCompleted() throws IOException {
+        //given
+        when(dynamoDbHelper.batchWriteItems(any())).thenThrow(DynamoDbException.builder().message("boom").build());
+        String jsonl = "{\"question\": \"Q?\", \"options\": [\"Yes\", \"No\"]}\n";
+
+        //when
+        pollImporter.importPolls(input(jsonl), ImportFormat.JSONL, IMPORT_ID, 1);
+
+        //then
+        verify(dynamoDbHelper, never()).putItem(any(), any());
+    }
+}
@@ -0,0 +1,106 @@
+package com.isap.json;
+
+import com.isap.domain.PollRequest;
+import com.isap.domain.VoteRequest;
+import com.isap.exception.RequestRejectedException;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonEntityReaderTest {
+
+    private static final RequestLimits LIMITS = new RequestLimits(256, 4, 32);
+
+    @Test
+    public void testReadVoteRequest_ignoresUnknownFields() throws IOException {
+        //when
+        VoteRequest request = new VoteRequestReader(LIMITS).read("{\"pollId\":\"poll1\",\"extra\":{\"a\":[1]},\"optionId\":\"op1\"}");
+
+        //then
+        assertThat(request).isEqualTo(new VoteRequest("poll1", "op1"));
+    }
+
+    @Test
+    public void testReadPollRequest_readsOptionsAndEndsAt() throws IOException {
+        //when
+        PollRequest request = new PollRequestReader(LIMITS)
+                .read("{\"question\":\"Q?\",\"options\":[\"Java\",\"Python\"],\"endsAt\":\"2030-01-01T00:00:00Z\"}");
+
+        //then
+        assertThat(request).isEqualTo(new PollRequest("Q?", List.of("Java", "Python"), "2030-01-01T00:00:00Z"));
+    }
+
+    @Test
+    public void testRead_rejectsMalformedAndWronglyTypedBodies() {
+        //given
+        VoteRequestReader votes = new VoteRequestReader(LIMITS);
+        PollRequestReader polls = new PollRequestReader(LIMITS);
+
+        //then
+        assertThat(status(() -> votes.read("{\"pollId\":"))).isEqualTo(400);
+        assertThat(status(() -> votes.read("[\"poll1\"]"))).isEqualTo(400);
+        assertThat(status(() -> votes.read("{\"pollId\":7}"))).isEqualTo(400);
+        assertThat(status(() -> votes.read("{\"pollId\":\"poll1\"} {}"))).isEqualTo(400);
+        assertThat(status(() -> polls.read("{\"question\":\"Q?\",\"options\":[\"Java\",1]}"))).isEqualTo(400);
+    }
+
+    @Test
+    public void testRead_rejectsBodiesOverLimitsWhileReading() {
+        //given
+        VoteRequestReader votes = new VoteRequestReader(LIMITS);
+        PollRequestReader polls = new PollRequestReader(LIMITS);
+
+        //then
+        assertThat(status(() -> votes.read("{\"pollId\":\"" + "x".repeat(33) + "\"}"))).isEqualTo(413);
+        assertThat(status(() -> votes.read("{\"a\":1,\"b\":2,\"c\":3,\"d\":4,\"e\":5}"))).isEqualTo(413);
+        assertThat(status(() -> polls.read("{\"options\":[\"a\",\"b\",\"c\",\"d\",\"e\"]}"))).isEqualTo(413);
+        // The stream never ends, so only a limit applied while reading can stop it
+        assertThat(status(() -> votes.read(endless("{\"pollId\":\"poll1\",\"extra\":[")))).isEqualTo(413);
+    }
+
+    @Test
+    public void testReadFrom_rejectsDeclaredLengthBeforeReading() {
+        //given
+        MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+        headers.putSingle("Content-Length", "1000000");
+        InputStream untouched = new InputStream() {
+            @Override
+            public int read() {
+                throw new AssertionError("Body should not be read");
+            }
+        };
+
+        //then
+        assertThat(status(() -> new VoteRequestReader(LIMITS).readFrom(VoteRequest.class, VoteRequest.class, null, null, headers, untouched)))
+                .isEqualTo(413);
+    }
+
+    private interface Read {
+        Object run() throws IOException;
+    }
+
+    private static int status(Read read) {
+        return assertThrows(RequestRejectedException.class, read::run).getResponse().getStatus();
+    }
+
+    private static InputStream endless(String prefix) {
+        byte[] start = prefix.getBytes(StandardCharsets.UTF_8);
+        return new InputStream() {
+            private int position;
+
+            @Override
+            public int read() {
+                return position < start.length ? start[position++] : (position++ - start.length) % 2 == 0 ? '1' : ',';
+            }
+        };
+    }
+
+}
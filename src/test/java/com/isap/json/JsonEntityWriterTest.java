@@ -0,0 +1,78 @@
+package com.isap.json;
+
+import com.isap.domain.OptionResponse;
+import com.isap.domain.PollResponse;
+import com.isap.domain.PollResults;
+import com.isap.domain.VotesResponse;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class JsonEntityWriterTest {
+
+    private static final String POLL_ID = "poll1";
+    private static final String QUESTION = "What is your favorite programming language?";
+
+    private static <T> String render(JsonEntityWriter<T> writer, T entity) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(entity, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testWritePollResponse_omitsVoteCount() throws IOException {
+        //given
+        PollResponse poll = new PollResponse(POLL_ID, QUESTION, List.of(new OptionResponse("op1", "Java", null)));
+
+        //when
+        String json = render(new PollResponseWriter(), poll);
+
+        //then
+        assertThat(json).isEqualTo("{\"pollId\":\"poll1\",\"question\":\"" + QUESTION + "\","
+                + "\"options\":[{\"optionId\":\"op1\",\"text\":\"Java\"}],\"closed\":false}");
+    }
+
+    @Test
+    public void testWritePollResults_includesVoteCount() throws IOException {
+        //given
+        PollResults results = new PollResults(POLL_ID, List.of(
+                new OptionResponse("op1", "Java", 3),
+                new OptionResponse("op2", "Py\"thon", 0)));
+
+        //when
+        String json = render(new PollResultsWriter(), results);
+
+        //then
+        assertThat(json).isEqualTo("{\"pollId\":\"poll1\",\"options\":["
+                + "{\"optionId\":\"op1\",\"text\":\"Java\",\"voteCount\":3},"
+                + "{\"optionId\":\"op2\",\"text\":\"Py\\\"thon\",\"voteCount\":0}],\"closed\":false}");
+    }
+
+    @Test
+    public void testWriteVotesResponse() throws IOException {
+        //given
+        Map<String, AttributeValue> vote = Map.of(
+                "PK", AttributeValue.builder().s("vote1").build(),
+                "optionId", AttributeValue.builder().s("op1").build(),
+                "timestamp", AttributeValue.builder().s("2024-12-20T12:34:56Z").build());
+
+        //when
+        String json = render(new VotesResponseWriter(), new VotesResponse(List.of(vote, vote)));
+
+        //then
+        String expectedVote = "{\"optionId\":\"op1\",\"voteId\":\"vote1\",\"timestamp\":\"2024-12-20T12:34:56Z\"}";
+        assertThat(json).isEqualTo("[" + expectedVote + "," + expectedVote + "]");
+    }
+
+    @Test
+    public void testWriteVotesResponse_empty() throws IOException {
+        assertThat(render(new VotesResponseWriter(), new VotesResponse(List.of()))).isEqualTo("[]");
+    }
+}
@@ -0,0 +1,98 @@
+package com.isap.listing;
+
+import com.isap.domain.Poll;
+import com.isap.domain.PollPage;
+import com.isap.utils.DynamoDbHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class RecentPollsTest {
+
+    private final DynamoDbHelper dynamoDbHelper = mock(DynamoDbHelper.class);
+    private final List<Map<String, AttributeValue>> table = new ArrayList<>();
+    private final RecentPolls recentPolls = new RecentPolls(dynamoDbHelper, 2, Duration.ofDays(90), 4);
+
+    @AfterEach
+    public void tearDown() {
+        recentPolls.stop();
+    }
+
+    // Answers GSI3 queries from the poll items in the table list
+    private void givenPolls(int count, Duration apart) {
+        Instant now = Instant.now();
+        for (int i = 0; i < count; i++) {
+            table.add(new Poll("poll-" + i, "Question " + i, Map.of("o1", "Yes"), null, null, null,
+                    now.minus(apart.multipliedBy(i))).toDynamoDbItem());
+        }
+        when(dynamoDbHelper.allTables()).thenReturn(List.of("PollTable"));
+        when(dynamoDbHelper.queryTable(eq("PollTable"), eq("GSI3"), anyString(), anyMap(), eq(true), anyInt()))
+                .thenAnswer(invocation -> {
+                    Map<String, AttributeValue> values = invocation.getArgument(3);
+                    AttributeValue before = values.get(":before");
+                    List<Map<String, AttributeValue>> items = table.stream()
+                            .filter(item -> item.get("GSI3PK").equals(values.get(":bucket")))
+                            .filter(item -> before == null || item.get("GSI3SK").s().compareTo(before.s()) < 0)
+                            .sorted(Comparator.comparing((Map<String, AttributeValue> item) -> item.get("GSI3SK").s()).reversed())
+                            .limit(invocation.<Integer>getArgument(5))
+                            .toList();
+                    return QueryResponse.builder().items(items).build();
+                });
+    }
+
+    @Test
+    public void testList_pagesNewestFirstAcrossDaysAndShards() {
+        //given
+        givenPolls(50, Duration.ofHours(3));
+
+        //when
+        List<String> listed = new ArrayList<>();
+        List<PollPage> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            PollPage page = recentPolls.list(cursor, 20);
+            pages.add(page);
+            page.polls().forEach(poll -> listed.add(poll.pollId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        //then
+        assertThat(pages.stream().map(page -> page.polls().size()).toList()).containsExactly(20, 20, 10).inOrder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            expected.add("poll-" + i);
+        }
+        assertThat(listed).containsExactlyElementsIn(expected).inOrder();
+    }
+
+    @Test
+    public void testList_stopsAtLookback() {
+        //given
+        givenPolls(3, Duration.ofDays(60));
+
+        //when
+        PollPage page = recentPolls.list(null, 20);
+
+        //then
+        assertThat(page.polls().stream().map(Poll::pollId).toList()).containsExactly("poll-0", "poll-1").inOrder();
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    public void testList_rejectsForeignCursor() {
+        assertThrows(IllegalArgumentException.class, () -> recentPolls.list("bm90LWEtY3Vyc29y", 20));
+    }
+}
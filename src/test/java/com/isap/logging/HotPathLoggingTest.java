@@ -0,0 +1,114 @@
+package com.isap.logging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class HotPathLoggingTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Counter sampled = registry.counter("sampled");
+    private final Counter rateLimited = registry.counter("rate_limited");
+    private final Counter overflowed = registry.counter("overflow");
+
+    @AfterEach
+    public void clearMdc() {
+        MDC.clear();
+    }
+
+    private static LogRecord record(Level level, String message) {
+        LogRecord record = new LogRecord(level, message);
+        record.setLoggerName("com.isap.service.PollServiceImpl");
+        return record;
+    }
+
+    @Test
+    public void testLogSampler_samplesByEndpointAndRateLimitsWarnings() {
+        //given
+        LogSampler sampler = new LogSampler(HotPathLogging.parseSampleRates(List.of("vote=0", "getPoll = 1.0")),
+                1.0, 2, sampled, rateLimited);
+
+        //when
+        MDC.put(LogSampler.ENDPOINT_MDC_KEY, "vote");
+        boolean voteInfo = sampler.isLoggable(record(Level.INFO, "Vote registered for poll {}"));
+        int warnings = 0;
+        for (int i = 0; i < 10; i++) {
+            warnings += sampler.isLoggable(record(Level.WARNING, "Poll not found for pollId: {}")) ? 1 : 0;
+        }
+        boolean otherWarning = sampler.isLoggable(record(Level.SEVERE, "Error while updating vote count: {}"));
+        MDC.put(LogSampler.ENDPOINT_MDC_KEY, "getPoll");
+        boolean getPollInfo = sampler.isLoggable(record(Level.INFO, "Poll retrieved successfully: {}"));
+
+        //then
+        assertThat(voteInfo).isFalse();
+        assertThat(warnings).isEqualTo(2);
+        assertThat(otherWarning).isTrue();
+        assertThat(getPollInfo).isTrue();
+        assertThat(sampled.count()).isEqualTo(1);
+        assertThat(rateLimited.count()).isEqualTo(8);
+    }
+
+    @Test
+    public void testRingBufferHandler_countsRecordsThatDoNotFit() throws InterruptedException {
+        //given
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> written = new CopyOnWriteArrayList<>();
+        Handler slow = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.add(record.getMessage());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        RingBufferHandler handler = new RingBufferHandler(List.of(slow), 2, overflowed);
+
+        //when
+        handler.publish(record(Level.INFO, "first"));
+        while (handler.buffered() > 0) {
+            TimeUnit.MILLISECONDS.sleep(5);  // the writer holds "first" until released
+        }
+        for (int i = 0; i < 5; i++) {
+            handler.publish(record(Level.INFO, "next" + i));
+        }
+        release.countDown();
+        handler.close();
+
+        //then
+        assertThat(written).containsExactly("first", "next0", "next1").inOrder();
+        assertThat(overflowed.count()).isEqualTo(3);
+    }
+
+    @Test
+    public void testParseSampleRates_rejectsEntriesWithoutRate() {
+        //then
+        assertThat(HotPathLogging.parseSampleRates(List.of("vote=0.05"))).isEqualTo(Map.of("vote", 0.05));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> HotPathLogging.parseSampleRates(List.of("vote")));
+        assertThat(e).hasMessageThat().contains("vote");
+    }
+}
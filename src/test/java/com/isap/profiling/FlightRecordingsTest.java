@@ -0,0 +1,122 @@
+package com.isap.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FlightRecordingsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FlightRecordings recordings;
+
+    private FlightRecordings recordings(int maxDumps) {
+        recordings = new FlightRecordings(tempDir, Duration.ofMinutes(1), 10, maxDumps, Duration.ofMillis(20),
+                Duration.ofMillis(10), false);
+        return recordings;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (recordings != null) {
+            recordings.close();
+        }
+    }
+
+    @Test
+    public void testStop_writesRequestAndDynamoDbEventsAboveThresholds() throws IOException {
+        //given
+        FlightRecordings recordings = recordings(5);
+        recordings.start(Duration.ZERO, Duration.ZERO, null);
+
+        //when
+        RequestEvent request = RequestEvent.begin("getPoll", "poll1");
+        DynamoDbCallEvent call = DynamoDbCallEvent.begin("GetItem", "poll1", "PollTable", null);
+        call.finish(512, 0.5, false);
+        request.finish(200);
+        RecordingStatus status = recordings.stop(true);
+
+        //then
+        assertThat(status.file()).isNotNull();
+        List<RecordedEvent> events = RecordingFile.readAllEvents(Path.of(status.file()));
+        RecordedEvent recordedCall = single(events, DynamoDbCallEvent.NAME);
+        assertThat(recordedCall.getString("operation")).isEqualTo("GetItem");
+        assertThat(recordedCall.getString("pollId")).isEqualTo("poll1");
+        assertThat(recordedCall.getLong("bytes")).isEqualTo(512);
+        RecordedEvent recordedRequest = single(events, RequestEvent.NAME);
+        assertThat(recordedRequest.getString("endpoint")).isEqualTo("getPoll");
+        assertThat(recordedRequest.getInt("status")).isEqualTo(200);
+        assertThat(recordedRequest.getInt("dynamoDbCalls")).isEqualTo(1);
+        assertThat(recordedRequest.getLong("dynamoDbBytes")).isEqualTo(512);
+    }
+
+    @Test
+    public void testFinish_clearsRequestOfRecordingStoppedMidRequest() {
+        //given
+        FlightRecordings recordings = recordings(5);
+        recordings.start(Duration.ZERO, Duration.ZERO, null);
+        RequestEvent request = RequestEvent.begin("vote", "poll1");
+
+        //when
+        recordings.stop(false);
+        request.finish(200);
+
+        //then
+        assertThat(RequestEvent.current()).isNull();
+    }
+
+    @Test
+    public void testStart_rejectsSecondRecordingAndStopWithoutOne() {
+        //given
+        FlightRecordings recordings = recordings(5);
+
+        //when
+        IllegalStateException notStarted = assertThrows(IllegalStateException.class, () -> recordings.stop(true));
+        recordings.start(null, null, Duration.ofMinutes(5));
+
+        //then
+        assertThat(notStarted).hasMessageThat().contains("No recording");
+        assertThrows(IllegalStateException.class, () -> recordings.start(null, null, null));
+        RecordingStatus status = recordings.status();
+        assertThat(status.state()).isEqualTo("RUNNING");
+        assertThat(status.requestThreshold()).isEqualTo(Duration.ofMillis(20));
+        assertThat(status.duration()).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    @Test
+    public void testDump_keepsRecordingAndOnlyTheNewestDumps() throws IOException {
+        //given
+        FlightRecordings recordings = recordings(2);
+        recordings.start(null, null, null);
+
+        //when
+        for (int i = 0; i < 3; i++) {
+            recordings.dump();
+        }
+
+        //then
+        assertThat(recordings.status().state()).isEqualTo("RUNNING");
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.count()).isEqualTo(2);
+        }
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream().filter(event -> event.getEventType().getName().equals(name)).toList();
+        assertThat(matching).hasSize(1);
+        return matching.get(0);
+    }
+}
@@ -0,0 +1,98 @@
+package com.isap.ranked;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class InstantRunoffTest {
+
+    private static final Map<String, String> OPTIONS = Map.of("a", "Java", "b", "Kotlin", "c", "Scala");
+
+    @Test
+    public void testRankings_everyRankingHasItsOwnIndex() {
+        //given
+        List<String> optionIds = List.of("1", "2", "3", "4", "5", "6", "7");
+        Set<Integer> codes = new HashSet<>();
+
+        //when
+        for (int index = 0; index < Rankings.count(7); index++) {
+            int code = Rankings.code(7, index);
+            codes.add(code);
+            assertThat(Rankings.index(7, code)).isEqualTo(index);
+            assertThat(Rankings.pack(Rankings.unpack(code, optionIds), optionIds)).isEqualTo(code);
+        }
+
+        //then
+        assertThat(Rankings.count(7)).isEqualTo(13_699);
+        assertThat(codes).hasSize(13_699);
+        assertThrows(IllegalArgumentException.class, () -> Rankings.pack(List.of("1", "1"), optionIds));
+        assertThrows(IllegalArgumentException.class, () -> Rankings.pack(List.of("8"), optionIds));
+    }
+
+    @Test
+    public void testCount_eliminatedOptionTransfersToNextChoice() {
+        //given
+        RankedTally tally = new RankedTally(OPTIONS);
+        tally.add(tally.pack(List.of("a", "c")), 40);
+        tally.add(tally.pack(List.of("b")), 35);
+        tally.add(tally.pack(List.of("c", "b")), 25);
+
+        //when
+        RankedResults results = InstantRunoff.count("poll1", tally);
+
+        //then
+        assertThat(results.ballots()).isEqualTo(100);
+        assertThat(results.winner()).isEqualTo("b");
+        assertThat(results.rounds()).containsExactly(
+                new RankedRound(Map.of("a", 40L, "b", 35L, "c", 25L), 0, "c"),
+                new RankedRound(Map.of("a", 40L, "b", 60L), 0, null)).inOrder();
+    }
+
+    @Test
+    public void testCount_exhaustedBallotsLeaveTheMajority() {
+        //given
+        RankedTally tally = new RankedTally(OPTIONS);
+        tally.add(tally.pack(List.of("a")), 4);
+        tally.add(tally.pack(List.of("b")), 3);
+        tally.add(tally.pack(List.of("c")), 2);
+
+        //when
+        RankedResults results = InstantRunoff.count("poll1", tally);
+
+        //then
+        assertThat(results.winner()).isEqualTo("a");
+        assertThat(results.rounds().get(1)).isEqualTo(new RankedRound(Map.of("a", 4L, "b", 3L), 2, null));
+    }
+
+    @Test
+    public void testCount_millionsOfBallotsOverEveryRanking() {
+        //given
+        Map<String, String> options = Map.of("1", "a", "2", "b", "3", "c", "4", "d", "5", "e", "6", "f", "7", "g");
+        RankedTally tally = new RankedTally(options);
+        Random random = new Random(42);
+        long cast = 0;
+        for (int index = 0; index < Rankings.count(7); index++) {
+            long ballots = random.nextInt(500);
+            tally.add(Rankings.code(7, index), ballots);
+            cast += ballots;
+        }
+        tally.add(tally.pack(List.of("4")), 1_000_000);
+
+        //when
+        long started = System.nanoTime();
+        RankedResults results = InstantRunoff.count("poll1", tally);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        //then
+        assertThat(results.ballots()).isEqualTo(cast + 1_000_000);
+        assertThat(results.winner()).isEqualTo("4");
+        assertThat(elapsedMillis).isLessThan(1000L);
+    }
+}
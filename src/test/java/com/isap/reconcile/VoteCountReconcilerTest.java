@@ -0,0 +1,184 @@
+package com.isap.reconcile;
+
+import com.isap.tally.VoteTally;
+import com.isap.utils.DynamoDbHelper;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleConsumer;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class VoteCountReconcilerTest {
+
+    private final DynamoDbHelper dynamoDbHelper = mock(DynamoDbHelper.class);
+    private final VoteTally voteTally = mock(VoteTally.class);
+    private final VoteCountReconciler reconciler =
+            new VoteCountReconciler(dynamoDbHelper, voteTally, 1, 1000, 100, Duration.ZERO, Duration.ZERO);
+
+    private static Map<String, AttributeValue> option(String optionId, long votes) {
+        return Map.of(
+                "PK", AttributeValue.builder().s(optionId).build(),
+                "SK", AttributeValue.builder().s("option").build(),
+                "pollId", AttributeValue.builder().s("poll1").build(),
+                "votes", AttributeValue.builder().n(String.valueOf(votes)).build()
+        );
+    }
+
+    private static Map<String, AttributeValue> vote(String voteId, String optionId) {
+        return Map.of(
+                "PK", AttributeValue.builder().s(voteId).build(),
+                "SK", AttributeValue.builder().s("vote").build(),
+                "optionId", AttributeValue.builder().s(optionId).build()
+        );
+    }
+
+    private void givenScan(List<Map<String, AttributeValue>> items) {
+        when(dynamoDbHelper.allTables()).thenReturn(List.of("PollTable"));
+        when(dynamoDbHelper.scanSegment(eq("PollTable"), eq(0), eq(1), anyString(), anyString(), any(), any(), anyInt()))
+                .thenReturn(ScanResponse.builder()
+                        .items(items)
+                        .scannedCount(items.size())
+                        .consumedCapacity(ConsumedCapacity.builder().capacityUnits(1.0).build())
+                        .build());
+    }
+
+    private void givenStoredCount(String optionId, long votes) {
+        when(dynamoDbHelper.getItemConsistent(eq("poll1"), argThat(key -> key != null && optionId.equals(key.get("PK").s()))))
+                .thenReturn(GetItemResponse.builder().item(option(optionId, votes)).build());
+    }
+
+    private void givenPoll(boolean closed) {
+        Map<String, AttributeValue> poll = new HashMap<>(Map.of(
+                "PK", AttributeValue.builder().s("poll1").build(),
+                "SK", AttributeValue.builder().s("poll").build()));
+        if (closed) {
+            poll.put("finalResults", AttributeValue.builder().m(Map.of(
+                    "option1", AttributeValue.builder().n("3").build())).build());
+        }
+        when(dynamoDbHelper.getItemConsistent(eq("poll1"), argThat(key -> key != null && "poll".equals(key.get("SK").s()))))
+                .thenReturn(GetItemResponse.builder().item(poll).build());
+    }
+
+    @Test
+    public void testReconcile_fixesDriftedCounter() {
+        //given
+        givenScan(List.of(option("option1", 3), option("option2", 1),
+                vote("vote1", "option1"), vote("vote2", "option2")));
+        givenStoredCount("option1", 3);
+        givenPoll(false);
+        when(dynamoDbHelper.countItems(eq("poll1"), eq("GSI2"), anyString(), any(), any())).thenReturn(1L);
+
+        //when
+        ReconciliationReport report = reconciler.reconcile(false);
+
+        //then
+        assertThat(report.optionsChecked()).isEqualTo(2);
+        assertThat(report.itemsScanned()).isEqualTo(4);
+        assertThat(report.driftsFixed()).isEqualTo(1);
+        assertThat(report.drifts()).containsExactly(
+                new CountDrift("option1", "poll1", 3L, 1, CountDrift.Action.FIXED));
+        verify(dynamoDbHelper).updateItem(eq("poll1"), argThat(key -> key != null && key.get("PK").s().equals("option1")),
+                eq("SET votes = :actual"), eq("votes = :seen"),
+                argThat(values -> values != null && values.get(":seen").n().equals("3")
+                        && values.get(":actual").n().equals("1")));
+        verify(voteTally).correct("poll1", "option1", 1);
+    }
+
+    @Test
+    public void testReconcile_dryRunDoesNotWrite() {
+        //given
+        givenScan(List.of(option("option1", 3), vote("vote1", "option1")));
+        givenStoredCount("option1", 3);
+        givenPoll(false);
+        when(dynamoDbHelper.countItems(eq("poll1"), eq("GSI2"), anyString(), any(), any())).thenReturn(1L);
+
+        //when
+        ReconciliationReport report = reconciler.reconcile(true);
+
+        //then
+        assertThat(report.driftsDetected()).isEqualTo(1);
+        assertThat(report.driftsFixed()).isEqualTo(0);
+        assertThat(report.drifts().get(0).action()).isEqualTo(CountDrift.Action.REPORTED);
+        verify(dynamoDbHelper, never()).updateItem(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testReconcile_skipsCounterThatChangesWhileVerifying() {
+        //given
+        givenScan(List.of(option("option1", 3), vote("vote1", "option1")));
+        when(dynamoDbHelper.getItemConsistent(any(), any()))
+                .thenReturn(GetItemResponse.builder().item(option("option1", 3)).build())
+                .thenReturn(GetItemResponse.builder().item(option("option1", 4)).build());
+        when(dynamoDbHelper.countItems(eq("poll1"), eq("GSI2"), anyString(), any(), any())).thenReturn(1L, 2L);
+
+        //when
+        ReconciliationReport report = reconciler.reconcile(false);
+
+        //then
+        assertThat(report.drifts().get(0).action()).isEqualTo(CountDrift.Action.SKIPPED_CONCURRENT_UPDATE);
+        verify(dynamoDbHelper, never()).updateItem(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testReconcile_reportsOrphanedVotes() {
+        //given
+        givenScan(List.of(vote("vote1", "missing"), vote("vote2", "missing")));
+
+        //when
+        ReconciliationReport report = reconciler.reconcile(false);
+
+        //then
+        assertThat(report.drifts()).containsExactly(
+                new CountDrift("missing", null, null, 2, CountDrift.Action.ORPHANED_VOTES));
+        verify(dynamoDbHelper, never()).getItemConsistent(any(), any());
+    }
+
+    @Test
+    public void testReconcile_leavesClosedPollAlone() {
+        //given
+        givenScan(List.of(option("option1", 3), vote("vote1", "option1")));
+        givenStoredCount("option1", 3);
+        givenPoll(true);
+        when(dynamoDbHelper.countItems(eq("poll1"), eq("GSI2"), anyString(), any(), any())).thenReturn(1L);
+
+        //when
+        ReconciliationReport report = reconciler.reconcile(false);
+
+        //then
+        assertThat(report.drifts()).containsExactly(
+                new CountDrift("option1", "poll1", 3L, 1, CountDrift.Action.SKIPPED_CLOSED_POLL));
+        verify(dynamoDbHelper, never()).updateItem(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testReconcile_chargesEveryCountPageToTheReadBudget() {
+        //given a budget of 1000 RCU/s and a count whose pages take 600 RCU per check
+        givenScan(List.of(option("option1", 3), vote("vote1", "option1")));
+        givenStoredCount("option1", 3);
+        givenPoll(false);
+        when(dynamoDbHelper.countItems(eq("poll1"), eq("GSI2"), anyString(), any(), any())).thenAnswer(invocation -> {
+            DoubleConsumer onPage = invocation.getArgument(4);
+            onPage.accept(300);
+            onPage.accept(300);
+            return 1L;
+        });
+
+        //when
+        long started = System.nanoTime();
+        reconciler.reconcile(true);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        //then the second check waits for the units the first one went over budget by
+        assertThat(elapsedMillis).isAtLeast(150);
+    }
+}
@@ -1,6 +1,8 @@
 package com.isap.repository;
 
+import com.isap.domain.Option;
 import com.isap.domain.Poll;
+import com.isap.hotkeys.HotKeys;
 import com.isap.utils.DynamoDbHelper;
 import com.isap.repository.PollRepositoryImpl;
 import com.google.common.truth.Truth;
@@ -12,6 +14,7 @@ import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -37,7 +40,8 @@ public class PollRepositoryIntegrationTest {
                 .build();
 
         dynamoDbHelper = new DynamoDbHelper(dynamoDbClient);
-        pollRepository = new PollRepositoryImpl(dynamoDbHelper);
+        pollRepository = new PollRepositoryImpl(dynamoDbHelper, Duration.ofMillis(500),
+                new HotKeys(true, Duration.ofSeconds(10), 5, 20, 50, 500, Duration.ofMillis(20)));
 
         // Create table for tests
         createPollTable();
@@ -61,7 +65,9 @@ public class PollRepositoryIntegrationTest {
                         AttributeDefinition.builder().attributeName("GSI1PK").attributeType(ScalarAttributeType.S).build(),
                         AttributeDefinition.builder().attributeName("GSI1SK").attributeType(ScalarAttributeType.S).build(),
                         AttributeDefinition.builder().attributeName("GSI2PK").attributeType(ScalarAttributeType.S).build(),
-                        AttributeDefinition.builder().attributeName("GSI2SK").attributeType(ScalarAttributeType.S).build())
+                        AttributeDefinition.builder().attributeName("GSI2SK").attributeType(ScalarAttributeType.S).build(),
+                        AttributeDefinition.builder().attributeName("GSI3PK").attributeType(ScalarAttributeType.S).build(),
+                        AttributeDefinition.builder().attributeName("GSI3SK").attributeType(ScalarAttributeType.S).build())
                 .provisionedThroughput(
                         ProvisionedThroughput.builder().readCapacityUnits(5L).writeCapacityUnits(5L).build())
                 .globalSecondaryIndexes(
@@ -80,6 +86,15 @@ public class PollRepositoryIntegrationTest {
                                         KeySchemaElement.builder().attributeName("GSI2PK").keyType(KeyType.HASH).build(),
                                         KeySchemaElement.builder().attributeName("GSI2SK").keyType(KeyType.RANGE).build())
                                 .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
+                                .provisionedThroughput(
+                                        ProvisionedThroughput.builder().readCapacityUnits(5L).writeCapacityUnits(5L).build())
+                                .build(),
+                        GlobalSecondaryIndex.builder()
+                                .indexName("GSI3")
+                                .keySchema(
+                                        KeySchemaElement.builder().attributeName("GSI3PK").keyType(KeyType.HASH).build(),
+                                        KeySchemaElement.builder().attributeName("GSI3SK").keyType(KeyType.RANGE).build())
+                                .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
                                 .provisionedThroughput(
                                         ProvisionedThroughput.builder().readCapacityUnits(5L).writeCapacityUnits(5L).build())
                                 .build()
@@ -101,6 +116,14 @@ public class PollRepositoryIntegrationTest {
                 .build();
 
         dynamoDbClient.putItem(putItemRequest);
+
+        // Insert the option items the vote path updates
+        for (Option option : List.of(new Option(OPTION_ID, POLL_ID, "Java", 0), new Option(OPTION_ID2, POLL_ID, "Python", 0))) {
+            dynamoDbClient.putItem(PutItemRequest.builder()
+                    .tableName("PollTable")
+                    .item(option.toDynamoDbItem())
+                    .build());
+        }
     }
 
     @Test
@@ -124,6 +147,15 @@ public class PollRepositoryIntegrationTest {
         Truth.assertThat(result).isTrue();
     }
 
+    @Test
+    public void testIncrementVoteCount_writesVoteItem() {
+        // When: Voting, which writes the vote item with PutItem
+        pollRepository.incrementVoteCount(POLL_ID, OPTION_ID2);
+
+        // Then: Verify that DynamoDB accepted the vote item
+        Truth.assertThat(pollRepository.getVotesByPollId(POLL_ID)).isNotEmpty();
+    }
+
     @Test
     public void testCreatePoll() {
         // When: Creating a new poll
@@ -140,11 +172,10 @@ public class PollRepositoryIntegrationTest {
     @Test
     public void testGetVotesByPollId() {
         // When: Retrieving the votes for a poll
-        QueryResponse response = pollRepository.getVotesByPollId(POLL_ID);
+        Iterable<Map<String, AttributeValue>> votes = pollRepository.getVotesByPollId(POLL_ID);
 
         // Then: Verify the response
-        Truth.assertThat(response).isNotNull();
-        Truth.assertThat(response.items()).isNotEmpty();
+        Truth.assertThat(votes).isNotEmpty();
     }
 
     @Test
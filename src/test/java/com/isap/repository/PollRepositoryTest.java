@@ -2,19 +2,32 @@ package com.isap.repository;
 
 import com.isap.domain.Poll;
 import com.isap.exception.NotFoundException;
+import com.isap.exception.PollClosedException;
+import com.isap.exception.RequestRejectedException;
+import com.isap.hotkeys.HotKeys;
 import com.isap.utils.DynamoDbHelper;
+import com.isap.utils.Ulid;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import software.amazon.awssdk.http.SdkHttpResponse;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.*;
 
@@ -23,7 +36,9 @@ public class PollRepositoryTest {
     @Mock
     private DynamoDbHelper dynamoDbHelper;
 
-    @InjectMocks
+    @Mock
+    private HotKeys hotKeys;
+
     private PollRepositoryImpl pollRepository;
 
     private static final String POLL_ID = "poll1";
@@ -34,6 +49,8 @@ public class PollRepositoryTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);  // Initialize mocks
+        when(hotKeys.coalescingWindow()).thenReturn(Duration.ofMillis(200));
+        pollRepository = new PollRepositoryImpl(dynamoDbHelper, Duration.ofMillis(500), hotKeys);
     }
 
     private Map<String, AttributeValue> createPollItem() {
@@ -55,7 +72,7 @@ public class PollRepositoryTest {
         GetItemResponse mockResponse = GetItemResponse.builder()
                 .item(mockItem)
                 .build();
-        when(dynamoDbHelper.getItem(any())).thenReturn(mockResponse);
+        when(dynamoDbHelper.getItem(eq(POLL_ID), any())).thenReturn(mockResponse);
 
         //when
         GetItemResponse response = pollRepository.getPollByPollId(POLL_ID);
@@ -70,7 +87,7 @@ public class PollRepositoryTest {
         assertThat(response.item().get("options").m()).containsKey(OPTION_ID2);
         assertThat(response.item().get("options").m().get(OPTION_ID2).s()).isEqualTo("Python");
 
-        verify(dynamoDbHelper).getItem(any());
+        verify(dynamoDbHelper).getItem(eq(POLL_ID), any());
     }
 
     // Failure Path - Poll not found
@@ -78,7 +95,7 @@ public class PollRepositoryTest {
     public void testGetPollByPollId_pollIdNotFound() {
         //given
         GetItemResponse mockResponse = GetItemResponse.builder().build();
-        when(dynamoDbHelper.getItem(any())).thenReturn(mockResponse);
+        when(dynamoDbHelper.getItem(eq(POLL_ID), any())).thenReturn(mockResponse);
 
         //when
         try {
@@ -90,7 +107,7 @@ public class PollRepositoryTest {
         }
 
         //then
-        verify(dynamoDbHelper).getItem(any());
+        verify(dynamoDbHelper).getItem(eq(POLL_ID), any());
     }
 
     // Happy Path - Successfully increment vote count
@@ -101,22 +118,53 @@ public class PollRepositoryTest {
         SdkHttpResponse mockHttpResponse = SdkHttpResponse.builder().statusCode(200).build();
 
         //given
-        when(dynamoDbHelper.updateItem(any(), any(), any())).thenReturn(mockUpdateResponse);
+        when(dynamoDbHelper.updateItem(eq(POLL_ID), any(), any(), any(), any())).thenReturn(mockUpdateResponse);
         when(mockUpdateResponse.sdkHttpResponse()).thenReturn(mockHttpResponse);
 
-        when(dynamoDbHelper.putItem(any())).thenReturn(mockPutResponse);
+        when(dynamoDbHelper.putItem(eq(POLL_ID), any())).thenReturn(mockPutResponse);
         when(mockPutResponse.sdkHttpResponse()).thenReturn(mockHttpResponse);
 
         //when then
         assertThat(pollRepository.incrementVoteCount(POLL_ID, OPTION_ID)).isTrue();
-        verify(dynamoDbHelper).updateItem(any(), any(), any());
+        verify(dynamoDbHelper).updateItem(eq(POLL_ID), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testIncrementVoteCount_hotOptionCoalescesIncrements() throws Exception {
+        //given
+        UpdateItemResponse updateResponse = (UpdateItemResponse) UpdateItemResponse.builder()
+                .sdkHttpResponse(SdkHttpResponse.builder().statusCode(200).build()).build();
+        PutItemResponse putResponse = (PutItemResponse) PutItemResponse.builder()
+                .sdkHttpResponse(SdkHttpResponse.builder().statusCode(200).build()).build();
+        when(hotKeys.recordVote(OPTION_ID)).thenReturn(true);
+        when(dynamoDbHelper.updateItem(eq(POLL_ID), any(), any(), any(), any())).thenReturn(updateResponse);
+        when(dynamoDbHelper.putItem(eq(POLL_ID), any())).thenReturn(putResponse);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        //when
+        List<Future<Boolean>> votes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            votes.add(executor.submit(() -> pollRepository.incrementVoteCount(POLL_ID, OPTION_ID)));
+        }
+
+        //then
+        for (Future<Boolean> vote : votes) {
+            assertThat(vote.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+        executor.shutdown();
+        ArgumentCaptor<Map<String, AttributeValue>> values = ArgumentCaptor.forClass(Map.class);
+        verify(dynamoDbHelper, atLeastOnce()).updateItem(eq(POLL_ID), any(), any(), any(), values.capture());
+        long increments = values.getAllValues().stream().mapToLong(v -> Long.parseLong(v.get(":increment").n())).sum();
+        assertThat(increments).isEqualTo(4);
+        assertThat(values.getAllValues().size()).isLessThan(4);
+        verify(dynamoDbHelper, times(4)).putItem(eq(POLL_ID), any());
     }
 
     // Failure Path - Vote update fails
     @Test
     public void testIncrementVoteCount_failure() {
         //given
-        when(dynamoDbHelper.updateItem(any(), any(), any())).thenThrow(DynamoDbException.class);
+        when(dynamoDbHelper.updateItem(eq(POLL_ID), any(), any(), any(), any())).thenThrow(DynamoDbException.class);
 
         //when then
         try {
@@ -126,7 +174,7 @@ public class PollRepositoryTest {
             assertThat(e).isInstanceOf(DynamoDbException.class);
         }
 
-        verify(dynamoDbHelper).updateItem(any(), any(), any());
+        verify(dynamoDbHelper).updateItem(eq(POLL_ID), any(), any(), any(), any());
     }
 
     // Failure Path - Put vote fails
@@ -136,9 +184,9 @@ public class PollRepositoryTest {
         SdkHttpResponse mockHttpResponse = SdkHttpResponse.builder().statusCode(200).build();
 
         //given
-        when(dynamoDbHelper.updateItem(any(), any(), any())).thenReturn(mockUpdateResponse);
+        when(dynamoDbHelper.updateItem(eq(POLL_ID), any(), any(), any(), any())).thenReturn(mockUpdateResponse);
         when(mockUpdateResponse.sdkHttpResponse()).thenReturn(mockHttpResponse);
-        when(dynamoDbHelper.putItem(any())).thenThrow(DynamoDbException.class);
+        when(dynamoDbHelper.putItem(eq(POLL_ID), any())).thenThrow(DynamoDbException.class);
 
         //when then
         try {
@@ -147,7 +195,81 @@ public class PollRepositoryTest {
         } catch (DynamoDbException e) {
             assertThat(e).isInstanceOf(DynamoDbException.class);
         }
-        verify(dynamoDbHelper).updateItem(any(), any(), any());
+        verify(dynamoDbHelper).updateItem(eq(POLL_ID), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testIncrementVoteCount_rankedPollRejectsSingleChoiceVote() {
+        //given
+        Map<String, AttributeValue> rankedOption = Map.of(
+                "pollId", AttributeValue.builder().s(POLL_ID).build(),
+                "rankings", AttributeValue.fromM(Map.of()));
+        when(dynamoDbHelper.updateItem(eq(POLL_ID), any(), any(), any(), any()))
+                .thenThrow(ConditionalCheckFailedException.builder().item(rankedOption).build());
+
+        //when then
+        RequestRejectedException e = assertThrows(RequestRejectedException.class,
+                () -> pollRepository.incrementVoteCount(POLL_ID, OPTION_ID));
+        assertThat(e.getResponse().getStatus()).isEqualTo(409);
+        verify(dynamoDbHelper, never()).putItem(any(), any());
+    }
+
+    // Failure Path - Poll is closed
+    @Test
+    public void testIncrementVoteCount_pollClosed() {
+        //given
+        Map<String, AttributeValue> closedOption = Map.of(
+                "pollId", AttributeValue.builder().s(POLL_ID).build(),
+                "closedAt", AttributeValue.builder().n("1").build());
+        when(dynamoDbHelper.updateItem(eq(POLL_ID), any(), any(), any(), any()))
+                .thenThrow(ConditionalCheckFailedException.builder().item(closedOption).build());
+
+        //when then
+        try {
+            pollRepository.incrementVoteCount(POLL_ID, OPTION_ID);
+            fail("Expected exception but none was thrown");
+        } catch (PollClosedException e) {
+            assertThat(e.getMessage()).contains(POLL_ID);
+        }
+        verify(dynamoDbHelper, never()).putItem(any(), any());
+    }
+
+    // Failure Path - Option belongs to another poll
+    @Test
+    public void testIncrementVoteCount_optionOfOtherPoll() {
+        //given
+        Map<String, AttributeValue> otherOption = Map.of("pollId", AttributeValue.builder().s("poll2").build());
+        when(dynamoDbHelper.updateItem(eq(POLL_ID), any(), any(), any(), any()))
+                .thenThrow(ConditionalCheckFailedException.builder().item(otherOption).build());
+
+        //when then
+        try {
+            pollRepository.incrementVoteCount(POLL_ID, OPTION_ID);
+            fail("Expected exception but none was thrown");
+        } catch (NotFoundException e) {
+            assertThat(e.getMessage()).contains(OPTION_ID);
+        }
+        verify(dynamoDbHelper, never()).putItem(any(), any());
+    }
+
+    // Happy Path: Closing a poll freezes the option counts onto the poll item
+    @Test
+    public void testClosePoll_success() {
+        //given
+        when(dynamoDbHelper.updateItem(eq(POLL_ID), argThat(key -> key != null && key.get("PK").s().equals(OPTION_ID)), any(), any(), any()))
+                .thenReturn(UpdateItemResponse.builder()
+                        .attributes(Map.of("votes", AttributeValue.builder().n("5").build())).build());
+        when(dynamoDbHelper.updateItem(eq(POLL_ID), argThat(key -> key != null && key.get("PK").s().equals(POLL_ID)), any(), any(), any()))
+                .thenReturn(UpdateItemResponse.builder().build());
+
+        //when
+        Map<String, Integer> finalResults = pollRepository.closePoll(POLL_ID, List.of(OPTION_ID));
+
+        //then
+        assertThat(finalResults).containsExactly(OPTION_ID, 5);
+        verify(dynamoDbHelper).updateItem(eq(POLL_ID), argThat(key -> key != null && key.get("PK").s().equals(POLL_ID)),
+                eq("SET closedAt = :now, finalResults = :results"), any(),
+                argThat(values -> values.get(":results").m().get(OPTION_ID).n().equals("5")));
     }
 
     // Happy Path: Successfully create a poll
@@ -181,4 +303,43 @@ public class PollRepositoryTest {
         assertThat(result).isFalse();
         verify(dynamoDbHelper).createPollAndOptions(newPollData);
     }
+
+    // Happy Path: Votes in a time window are read with a range condition on the sort key
+    @Test
+    public void testGetVotesByPollId_timeWindow() {
+        Instant from = Instant.parse("2024-12-20T12:00:00Z");
+        Instant to = Instant.parse("2024-12-20T12:05:00Z");
+
+        //given
+        when(dynamoDbHelper.queryAllItems(eq(POLL_ID), eq("GSI1"), any(), any())).thenReturn(List.of());
+
+        //when
+        pollRepository.getVotesByPollId(POLL_ID, from, to);
+
+        //then
+        verify(dynamoDbHelper).queryAllItems(eq(POLL_ID), eq("GSI1"), eq("GSI1PK = :pollId AND GSI1SK BETWEEN :from AND :to"),
+                argThat(values -> values != null
+                        && values.get(":from").s().equals("vote#" + Ulid.lowerBound(from))
+                        && values.get(":to").s().equals("vote#" + Ulid.upperBound(to))));
+    }
+
+    // Happy Path: Votes are stored under their time-ordered ID
+    @Test
+    public void testIncrementVoteCount_storesTimeOrderedVote() {
+        //given
+        UpdateItemResponse mockUpdateResponse = (UpdateItemResponse) UpdateItemResponse.builder()
+                .sdkHttpResponse(SdkHttpResponse.builder().statusCode(200).build()).build();
+        PutItemResponse mockPutResponse = (PutItemResponse) PutItemResponse.builder()
+                .sdkHttpResponse(SdkHttpResponse.builder().statusCode(200).build()).build();
+        when(dynamoDbHelper.updateItem(eq(POLL_ID), any(), any(), any(), any())).thenReturn(mockUpdateResponse);
+        when(dynamoDbHelper.putItem(eq(POLL_ID), any())).thenReturn(mockPutResponse);
+
+        //when
+        pollRepository.incrementVoteCount(POLL_ID, OPTION_ID);
+
+        //then
+        verify(dynamoDbHelper).putItem(eq(POLL_ID), argThat(item -> item != null
+                && item.get("GSI1SK").s().equals("vote#" + item.get("PK").s())
+                && Ulid.timestamp(item.get("PK").s()).equals(Instant.parse(item.get("timestamp").s()).truncatedTo(ChronoUnit.MILLIS))));
+    }
 }
@@ -0,0 +1,135 @@
+package com.isap.repository;
+
+import com.isap.exception.NotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SingleFlightTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private double count(String name) {
+        return registry.get(name).tag("operation", "test").counter().count();
+    }
+
+    @Test
+    public void testExecute_concurrentCallersShareOneCall() throws Exception {
+        //given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(5), registry);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //when
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("poll1", () -> {
+                calls.incrementAndGet();
+                await(release);
+                return "result";
+            })));
+        }
+        while (count("poll.repository.coalesced.requests") < 8) {
+            Thread.onSpinWait();
+        }
+        TimeUnit.MILLISECONDS.sleep(100);  // let the last caller reach the in-flight map
+        release.countDown();
+
+        //then
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        }
+        executor.shutdown();
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(count("poll.repository.coalesced.calls")).isEqualTo(1);
+        assertThat(singleFlight.inFlightCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testExecute_followersGetTheLeadersException() throws Exception {
+        //given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(5), registry);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> leader = executor.submit(() -> singleFlight.execute("poll1", () -> {
+            await(release);
+            throw new NotFoundException("Poll not found with ID: poll1");
+        }));
+        while (singleFlight.inFlightCount() == 0) {
+            Thread.onSpinWait();
+        }
+
+        //when
+        Thread releaser = new Thread(() -> {
+            while (count("poll.repository.coalesced.requests") < 2) {
+                Thread.onSpinWait();
+            }
+            sleep(100);
+            release.countDown();
+        });
+        releaser.start();
+
+        //then
+        assertThrows(NotFoundException.class, () -> singleFlight.execute("poll1", () -> "unused"));
+        assertThat(count("poll.repository.coalesced.calls")).isEqualTo(1);
+        releaser.join();
+        executor.shutdown();
+        assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testExecute_followerFallsBackAfterTimeout() throws Exception {
+        //given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", Duration.ofMillis(20), registry);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<String> leader = executor.submit(() -> singleFlight.execute("poll1", () -> {
+            await(release);
+            return "slow";
+        }));
+        while (singleFlight.inFlightCount() == 0) {
+            Thread.onSpinWait();
+        }
+
+        //when
+        String result = singleFlight.execute("poll1", () -> "direct");
+
+        //then
+        assertThat(result).isEqualTo("direct");
+        assertThat(count("poll.repository.coalesced.timeouts")).isEqualTo(1);
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+        executor.shutdown();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
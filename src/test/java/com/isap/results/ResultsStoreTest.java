@@ -0,0 +1,118 @@
+package com.isap.results;
+
+import com.isap.domain.Option;
+import com.isap.domain.OptionResponse;
+import com.isap.domain.Vote;
+import com.isap.utils.DynamoDbHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ResultsStoreTest {
+
+    private static final String POLL_ID = "poll1";
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    private final DynamoDbHelper dynamoDbHelper = mock(DynamoDbHelper.class);
+    private final ResultsStore resultsStore = new ResultsStore(dynamoDbHelper, true, 100, 1000);
+
+    private static ChangeRecord optionChange(String optionId, int votes) {
+        return new ChangeRecord("MODIFY", new Option(optionId, POLL_ID, "Text " + optionId, votes).toDynamoDbItem(), NOW);
+    }
+
+    @Test
+    public void testApply_foldsBatchIntoOneMonotoneUpdatePerPoll() {
+        //given
+        List<ChangeRecord> batch = List.of(
+                optionChange("op1", 1),
+                new ChangeRecord("INSERT", Vote.create(POLL_ID, "op1", NOW).toDynamoDbItem(), NOW),
+                optionChange("op1", 2),
+                optionChange("op2", 5),
+                new ChangeRecord("REMOVE", null, NOW));
+
+        //when
+        int stale = resultsStore.apply(batch);
+
+        //then
+        assertThat(stale).isEqualTo(0);
+        verify(dynamoDbHelper, times(1)).updateItem(eq(POLL_ID), any(),
+                argThat(update -> update.contains("lastVoteAt = :lastVoteAt")),
+                eq("(attribute_not_exists(#v0) OR #v0 <= :v0) AND (attribute_not_exists(#v1) OR #v1 <= :v1)"),
+                argThat(names -> names.get("#v0").equals("v#op1") && names.get("#v1").equals("v#op2")),
+                argThat(values -> values.get(":v0").n().equals("2") && values.get(":v1").n().equals("5")));
+    }
+
+    @Test
+    public void testApply_writesOtherCountsWhenOneIsStale() {
+        //given the stored count of op1 is already above the one in the batch
+        when(dynamoDbHelper.updateItem(eq(POLL_ID), any(), any(), any(), anyMap(), argThat(values -> values.containsKey(":v1"))))
+                .thenThrow(ConditionalCheckFailedException.builder().build());
+        when(dynamoDbHelper.updateItem(eq(POLL_ID), any(), any(), any(), anyMap(),
+                argThat(values -> !values.containsKey(":v1") && values.get(":v0").n().equals("1"))))
+                .thenThrow(ConditionalCheckFailedException.builder().build());
+
+        //when
+        int stale = resultsStore.apply(List.of(optionChange("op1", 1), optionChange("op2", 5)));
+
+        //then
+        assertThat(stale).isEqualTo(1);
+        verify(dynamoDbHelper).updateItem(eq(POLL_ID), any(), any(), any(), anyMap(),
+                argThat(values -> !values.containsKey(":v1") && values.get(":v0").n().equals("5")));
+    }
+
+    @Test
+    public void testLoad_readsResultsItemConsistently() {
+        //given
+        Map<String, AttributeValue> item = Map.of(
+                "PK", AttributeValue.fromS(POLL_ID),
+                "SK", AttributeValue.fromS(ResultsStore.SK_RESULTS),
+                "t#op2", AttributeValue.fromS("Python"), "v#op2", AttributeValue.fromN("4"),
+                "t#op1", AttributeValue.fromS("Java"), "v#op1", AttributeValue.fromN("7"),
+                "endsAt", AttributeValue.fromN(String.valueOf(NOW.toEpochMilli())));
+        when(dynamoDbHelper.getItemConsistent(eq(POLL_ID), any())).thenReturn(GetItemResponse.builder().item(item).build());
+
+        //when
+        MaterializedResults results = resultsStore.load(POLL_ID);
+
+        //then
+        assertThat(results.toPollResults().options()).containsExactly(
+                new OptionResponse("op1", "Java", 7), new OptionResponse("op2", "Python", 4)).inOrder();
+        assertThat(results.hasEnded(NOW.minusSeconds(1))).isFalse();
+        assertThat(results.hasEnded(NOW)).isTrue();
+    }
+
+    @Test
+    public void testAccept_redeliveredBatchFoldsOnceAndRecordsLag() {
+        //given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ResultsMaterializer materializer = new ResultsMaterializer(resultsStore, dynamoDbHelper, false,
+                Optional.empty(), Optional.empty(), Duration.ofMillis(10), registry);
+        InMemoryChangeStream stream = new InMemoryChangeStream();
+        materializer.start(stream);
+        when(dynamoDbHelper.updateItem(eq(POLL_ID), any(), any(), any(), anyMap(), anyMap()))
+                .thenThrow(new IllegalStateException("table unavailable"))
+                .thenReturn(null);
+
+        //when
+        boolean taken = stream.publish(List.of(optionChange("op1", 3)), 3);
+
+        //then
+        assertThat(taken).isTrue();
+        verify(dynamoDbHelper, times(2)).updateItem(eq(POLL_ID), any(), any(), any(), anyMap(), anyMap());
+        assertThat(registry.get("poll.results.stream.changes").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("poll.results.stream.lag").timer().count()).isEqualTo(1);
+        assertThat(registry.get("poll.results.stream.lag.current").gauge().value()).isGreaterThan(0.0);
+    }
+}
@@ -0,0 +1,77 @@
+package com.isap.routing;
+
+import com.isap.utils.DynamoDbHelper;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class TableRebalancerTest {
+
+    private static final Map<String, AttributeValue> KEY = Map.of(
+            "PK", AttributeValue.builder().s("option1").build(),
+            "SK", AttributeValue.builder().s("option").build());
+
+    private final DynamoDbHelper dynamoDbHelper = mock(DynamoDbHelper.class);
+    private final TableRebalancer rebalancer =
+            new TableRebalancer(dynamoDbHelper, TableRouter.single("PollTable2"), 100, 1000);
+
+    private static Map<String, AttributeValue> option(long votes) {
+        return Map.of(
+                "PK", KEY.get("PK"),
+                "SK", KEY.get("SK"),
+                "pollId", AttributeValue.builder().s("poll1").build(),
+                "text", AttributeValue.builder().s("Java").build(),
+                "votes", AttributeValue.builder().n(String.valueOf(votes)).build());
+    }
+
+    private static GetItemResponse found(Map<String, AttributeValue> item) {
+        return GetItemResponse.builder().item(item).build();
+    }
+
+    @Test
+    public void testMove_counterKeepsIncrementsMadeOnTheOldCopyDuringTheMove() {
+        //given the old copy goes from 5 to 6 votes between the copy and the delete
+        when(dynamoDbHelper.getItemFromTable(eq("PollTable"), eq(KEY), eq(true)))
+                .thenReturn(found(option(5)), found(option(6)));
+        when(dynamoDbHelper.getItemFromTable(eq("PollTable2"), eq(KEY), eq(true)))
+                .thenReturn(GetItemResponse.builder().build(),
+                        found(Map.of("movedVotes", AttributeValue.builder().n("5").build())));
+        when(dynamoDbHelper.deleteItemFromTable(eq("PollTable"), eq(KEY), eq("votes = :votes"), any()))
+                .thenThrow(ConditionalCheckFailedException.builder().build())
+                .thenReturn(null);
+
+        //when
+        boolean moved = rebalancer.move("PollTable", "PollTable2", option(5));
+
+        //then
+        assertThat(moved).isTrue();
+        verify(dynamoDbHelper).updateItemInTable(eq("PollTable2"), eq(KEY), contains("ADD votes :delta"),
+                eq("attribute_not_exists(movedVotes)"), any(),
+                argThat(values -> values != null && values.get(":delta").n().equals("5")));
+        verify(dynamoDbHelper).updateItemInTable(eq("PollTable2"), eq(KEY), contains("ADD votes :delta"),
+                eq("movedVotes = :moved"), any(),
+                argThat(values -> values != null && values.get(":delta").n().equals("1")
+                        && values.get(":votes").n().equals("6")));
+    }
+
+    @Test
+    public void testMove_itemAlreadyGoneIsNotMoved() {
+        //given
+        when(dynamoDbHelper.getItemFromTable(eq("PollTable"), eq(KEY), eq(true)))
+                .thenReturn(GetItemResponse.builder().build());
+
+        //when
+        boolean moved = rebalancer.move("PollTable", "PollTable2", option(5));
+
+        //then
+        assertThat(moved).isFalse();
+        verify(dynamoDbHelper, never()).deleteItemFromTable(any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,69 @@
+package com.isap.routing;
+
+import com.google.common.collect.Range;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class TableRouterTest {
+
+    private static final List<String> POLL_IDS = IntStream.range(0, 10_000)
+            .mapToObj(i -> UUID.nameUUIDFromBytes(("poll" + i).getBytes()).toString())
+            .collect(Collectors.toList());
+
+    @Test
+    public void testTableFor_spreadsKeysEvenly() {
+        //given
+        TableRouter router = new TableRouter(List.of("PollTable", "PollTable2", "PollTable3", "PollTable4"),
+                Optional.empty(), Optional.empty());
+
+        //when
+        Map<String, Integer> counts = new HashMap<>();
+        POLL_IDS.forEach(pollId -> counts.merge(router.tableFor(pollId), 1, Integer::sum));
+
+        //then
+        assertThat(counts).hasSize(4);
+        counts.values().forEach(count -> assertThat(count).isIn(Range.closed(2_250, 2_750)));
+    }
+
+    @Test
+    public void testTableFor_addingATableOnlyMovesKeysToIt() {
+        //given
+        TableRouter before = new TableRouter(List.of("PollTable", "PollTable2"), Optional.empty(), Optional.empty());
+        TableRouter after = new TableRouter(List.of("PollTable", "PollTable2", "PollTable3"),
+                Optional.empty(), Optional.of(List.of("PollTable", "PollTable2")));
+
+        //when
+        long moved = POLL_IDS.stream().filter(pollId -> after.previousTableFor(pollId) != null).count();
+
+        //then
+        for (String pollId : POLL_IDS) {
+            if (!before.tableFor(pollId).equals(after.tableFor(pollId))) {
+                assertThat(after.tableFor(pollId)).isEqualTo("PollTable3");
+                assertThat(after.previousTableFor(pollId)).isEqualTo(before.tableFor(pollId));
+            }
+        }
+        assertThat(moved).isIn(Range.closed(3_000L, 3_700L));
+        assertThat(after.allTables()).containsExactly("PollTable", "PollTable2", "PollTable3");
+    }
+
+    @Test
+    public void testTableFor_pinnedKeysBypassTheHash() {
+        //given
+        TableRouter router = new TableRouter(List.of("PollTable", "PollTable2"),
+                Optional.of(List.of("hot-poll=HotPollTable")), Optional.empty());
+
+        //when //then
+        assertThat(router.tableFor("hot-poll")).isEqualTo("HotPollTable");
+        assertThat(router.previousTableFor("hot-poll")).isNull();
+        assertThat(router.isRebalancing()).isFalse();
+    }
+}
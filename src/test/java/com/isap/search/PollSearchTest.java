@@ -0,0 +1,84 @@
+package com.isap.search;
+
+import com.isap.domain.Option;
+import com.isap.domain.Poll;
+import com.isap.results.ChangeRecord;
+import com.isap.results.InMemoryChangeStream;
+import com.isap.utils.DynamoDbHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class PollSearchTest {
+
+    private final DynamoDbHelper dynamoDbHelper = mock(DynamoDbHelper.class);
+    private final PollSearch pollSearch = new PollSearch(dynamoDbHelper, true, 1, 1000, 100, 50, false, false,
+            Optional.empty(), Optional.empty(), Duration.ZERO, new SimpleMeterRegistry());
+
+    private static Poll poll(String pollId, String question) {
+        return new Poll(pollId, question, Map.of(pollId + "-a", "Java", pollId + "-b", "Python"));
+    }
+
+    @Test
+    public void testRebuild_scansOnlyThePollIndex() {
+        //given
+        when(dynamoDbHelper.allTables()).thenReturn(List.of("PollTable"));
+        when(dynamoDbHelper.scanSegment(eq("PollTable"), eq("GSI3"), eq(0), eq(1), isNull(), isNull(), isNull(), isNull(), anyInt()))
+                .thenReturn(ScanResponse.builder().items(poll("p1", "Favourite language?").toDynamoDbItem()).scannedCount(1).build());
+
+        //when
+        SearchIndexReport report = pollSearch.rebuild();
+
+        //then
+        assertThat(report.polls()).isEqualTo(1);
+        assertThat(pollSearch.search("language", 10).total()).isEqualTo(1);
+        verify(dynamoDbHelper, never()).scanSegment(any(), anyInt(), anyInt(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    public void testRebuild_findsPollsWithoutIndexKeys() {
+        //given a poll created before createdAt was recorded
+        PollSearch withLegacyPolls = new PollSearch(dynamoDbHelper, true, 1, 1000, 100, 50, true, false,
+                Optional.empty(), Optional.empty(), Duration.ZERO, new SimpleMeterRegistry());
+        when(dynamoDbHelper.allTables()).thenReturn(List.of("PollTable"));
+        when(dynamoDbHelper.scanSegment(eq("PollTable"), eq("GSI3"), eq(0), eq(1), isNull(), isNull(), isNull(), isNull(), anyInt()))
+                .thenReturn(ScanResponse.builder().items(poll("p1", "Favourite language?").toDynamoDbItem()).scannedCount(1).build());
+        when(dynamoDbHelper.scanSegment(eq("PollTable"), isNull(), eq(0), eq(1), eq(PollSearch.LEGACY_POLL_FILTER), isNull(), any(), isNull(), anyInt()))
+                .thenReturn(ScanResponse.builder().items(poll("p0", "Oldest language?").toDynamoDbItem()).scannedCount(5).build());
+
+        //when
+        SearchIndexReport report = withLegacyPolls.rebuild();
+
+        //then
+        assertThat(report.polls()).isEqualTo(2);
+        assertThat(withLegacyPolls.search("language", 10).total()).isEqualTo(2);
+    }
+
+    @Test
+    public void testFollow_indexesPollsWrittenElsewhere() {
+        //given
+        InMemoryChangeStream stream = new InMemoryChangeStream();
+        pollSearch.follow(stream);
+        Instant now = Instant.now();
+
+        //when another instance creates a poll and votes on an option
+        stream.publish(List.of(
+                new ChangeRecord("INSERT", poll("p2", "Best coffee?").toDynamoDbItem(), now),
+                new ChangeRecord("MODIFY", new Option("p2-a", "p2", "Java coffee", 1).toDynamoDbItem(), now),
+                new ChangeRecord("REMOVE", null, now)), 1);
+
+        //then
+        assertThat(pollSearch.search("coffee", 10).total()).isEqualTo(1);
+        assertThat(pollSearch.search("coffee", 10).indexedPolls()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,81 @@
+package com.isap.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class SearchIndexTest {
+
+    private final SearchIndex index = new SearchIndex();
+
+    private List<String> pollIds(SearchIndex.Matches matches) {
+        return matches.hits().stream().map(SearchHit::pollId).toList();
+    }
+
+    @Test
+    public void testSearch_matchesEveryTermInQuestionOrOptions() {
+        //given
+        index.add("p1", "Favourite programming language?", List.of("Java", "Python"));
+        index.add("p2", "Favourite coffee?", List.of("Espresso", "Latte"));
+        index.add("p3", "Best language for scripting?", List.of("Python", "Bash"));
+
+        //when
+        SearchIndex.Matches matches = index.search("python LANGUAGE", 10, 50);
+
+        //then
+        assertThat(matches.total()).isEqualTo(2);
+        assertThat(pollIds(matches)).containsExactly("p1", "p3");
+        assertThat(index.search("python coffee", 10, 50).total()).isEqualTo(0);
+    }
+
+    @Test
+    public void testSearch_prefixMatchesRankBelowExactMatches() {
+        //given
+        index.add("p1", "Which framework do you use?", List.of("Quarkus", "Spring"));
+        index.add("p2", "Spring or autumn?", List.of("Spring", "Autumn"));
+        index.add("p3", "Is it going to rain?", List.of("Yes", "No"));
+        index.add("p4", "Where do the Simpsons live?", List.of("Springfield", "Shelbyville"));
+
+        //when
+        SearchIndex.Matches matches = index.search("spring", 10, 50);
+
+        //then
+        assertThat(pollIds(matches)).containsExactly("p2", "p1", "p4").inOrder();
+        assertThat(pollIds(index.search("sprin", 10, 50))).containsExactly("p1", "p2", "p4");
+        assertThat(index.search("s", 10, 50).total()).isEqualTo(0);
+    }
+
+    @Test
+    public void testSearch_ignoresCaseAccentsAndDuplicatePolls() {
+        //given
+        index.add("p1", "Café or tea?", List.of("Café", "Tea"));
+
+        //when
+        boolean addedAgain = index.add("p1", "Café or tea?", List.of("Café", "Tea"));
+        SearchIndex.Matches matches = index.search("CAFE", 10, 50);
+
+        //then
+        assertThat(addedAgain).isFalse();
+        assertThat(index.polls()).isEqualTo(1);
+        assertThat(matches.hits()).hasSize(1);
+        assertThat(matches.hits().get(0).question()).isEqualTo("Café or tea?");
+    }
+
+    @Test
+    public void testSearch_returnsTheBestRankedUpToLimit() {
+        //given
+        for (int i = 0; i < 1000; i++) {
+            index.add("p" + i, "Poll number " + i, List.of("yes", "no"));
+        }
+        index.add("best", "Yes yes yes?", List.of("yes", "no"));
+
+        //when
+        SearchIndex.Matches matches = index.search("yes", 5, 50);
+
+        //then
+        assertThat(matches.total()).isEqualTo(1001);
+        assertThat(pollIds(matches)).containsExactly("best", "p0", "p1", "p2", "p3").inOrder();
+    }
+}
@@ -0,0 +1,68 @@
+package com.isap.security;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class AdminTokenFilterTest {
+
+    private static ContainerRequestContext request(String path, String token) {
+        UriInfo uriInfo = mock(UriInfo.class);
+        when(uriInfo.getPath()).thenReturn(path);
+        ContainerRequestContext request = mock(ContainerRequestContext.class);
+        when(request.getUriInfo()).thenReturn(uriInfo);
+        when(request.getMethod()).thenReturn("POST");
+        when(request.getHeaderString(AdminTokenFilter.TOKEN_HEADER)).thenReturn(token);
+        return request;
+    }
+
+    private static int abortedWith(ContainerRequestContext request) {
+        ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+        verify(request).abortWith(response.capture());
+        return response.getValue().getStatus();
+    }
+
+    @Test
+    public void testFilter_adminRequiresTheToken() {
+        //given
+        AdminTokenFilter filter = new AdminTokenFilter("s3cret");
+        ContainerRequestContext missing = request("/admin/jfr/start", null);
+        ContainerRequestContext wrong = request("/admin/reconcile", "guess");
+        ContainerRequestContext right = request("/admin/tables", "s3cret");
+        ContainerRequestContext bulkImport = request("/poll/import", null);
+        ContainerRequestContext publicPath = request("/poll/results", null);
+
+        //when
+        filter.filter(missing);
+        filter.filter(wrong);
+        filter.filter(right);
+        filter.filter(bulkImport);
+        filter.filter(publicPath);
+
+        //then
+        assertThat(abortedWith(missing)).isEqualTo(401);
+        assertThat(abortedWith(wrong)).isEqualTo(401);
+        assertThat(abortedWith(bulkImport)).isEqualTo(401);
+        verify(right, never()).abortWith(any());
+        verify(publicPath, never()).abortWith(any());
+    }
+
+    @Test
+    public void testFilter_adminRefusedWithoutConfiguredToken() {
+        //given
+        AdminTokenFilter filter = new AdminTokenFilter((String) null);
+        ContainerRequestContext request = request("admin/hotkeys", "");
+
+        //when
+        filter.filter(request);
+
+        //then
+        assertThat(abortedWith(request)).isEqualTo(403);
+    }
+}
@@ -1,14 +1,26 @@
 package com.isap.service;
 
 import com.isap.domain.Poll;
+import com.isap.domain.PollRequest;
+import com.isap.domain.PollResponse;
+import com.isap.domain.PollResults;
+import com.isap.domain.VoteRequest;
+import com.isap.exception.PollClosedException;
 import com.isap.repository.PollRepository;
 import com.isap.repository.PollRepositoryImpl;
+import com.isap.results.ResultsStore;
+import com.isap.tally.VoteTally;
+import com.isap.utils.ETags;
+import com.isap.voters.UniqueVoterTracker;
 import jakarta.ws.rs.core.Response;
 import org.junit.jupiter.api.Test;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
-import java.util.HashMap;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
 
 import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.Mockito.*;
@@ -16,7 +28,11 @@ import static org.mockito.Mockito.*;
 public class PollServiceTest {
 
     private final PollRepository pollRepository = mock(PollRepositoryImpl.class);
-    private final PollService pollService = new PollServiceImpl(pollRepository);
+    private final UniqueVoterTracker uniqueVoters = mock(UniqueVoterTracker.class);
+    private final ResultsStore resultsStore = mock(ResultsStore.class);
+    private final PollService pollService = new PollServiceImpl(pollRepository,
+            new PollVersionTracker(Duration.ofSeconds(1)), new PollClosureCache(), uniqueVoters,
+            new VoteTally(Duration.ZERO), resultsStore);
 
     private static final String POLL_ID = "poll1";
     private static final String QUESTION = "What is your favorite programming language?";
@@ -49,15 +65,15 @@ public class PollServiceTest {
         when(pollRepository.getPollByPollId(POLL_ID)).thenReturn(mockResponse);
 
         //when
-        Response response = pollService.getPoll(POLL_ID);
+        Response response = pollService.getPoll(POLL_ID, null);
 
         //then
         assertThat(response.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
-        assertThat(response.getEntity()).isInstanceOf(Map.class);
-        Map<String, Object> result = (Map<String, Object>) response.getEntity();
-        assertThat(result).containsEntry("pollId", POLL_ID);
-        assertThat(result).containsEntry("question", QUESTION);
-        assertThat(result).containsKey("options");
+        assertThat(response.getEntity()).isInstanceOf(PollResponse.class);
+        PollResponse result = (PollResponse) response.getEntity();
+        assertThat(result.pollId()).isEqualTo(POLL_ID);
+        assertThat(result.question()).isEqualTo(QUESTION);
+        assertThat(result.options()).hasSize(2);
 
         verify(pollRepository).getPollByPollId(POLL_ID);  // Ensure the repository method was called
     }
@@ -69,7 +85,7 @@ public class PollServiceTest {
         when(pollRepository.getPollByPollId(POLL_ID)).thenReturn(mockResponse);
 
         //when
-        Response response = pollService.getPoll(INVALID_OPTION_ID);
+        Response response = pollService.getPoll(INVALID_OPTION_ID, null);
 
         //then
         assertThat(response.getStatus()).isEqualTo(Response.Status.NOT_FOUND.getStatusCode());
@@ -80,19 +96,287 @@ public class PollServiceTest {
     @Test
     public void testGetPoll_missingPollId() {
         //when
-        Response response = pollService.getPoll("");
+        Response response = pollService.getPoll("", null);
 
         //then
         assertThat(response.getStatus()).isEqualTo(Response.Status.BAD_REQUEST.getStatusCode());
         assertThat(response.getEntity()).isEqualTo("Poll ID is required and cannot be empty");
     }
 
+    @Test
+    public void testGetPoll_notModifiedWithoutRead() {
+        //given
+        GetItemResponse mockResponse = GetItemResponse.builder().item(createPollItem()).build();
+        when(pollRepository.getPollByPollId(POLL_ID)).thenReturn(mockResponse);
+        String etag = pollService.getPoll(POLL_ID, null).getEntityTag().toString();
+
+        //when
+        Response response = pollService.getPoll(POLL_ID, etag);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(Response.Status.NOT_MODIFIED.getStatusCode());
+        assertThat(response.getEntityTag().toString()).isEqualTo(etag);
+        verify(pollRepository, times(1)).getPollByPollId(POLL_ID);  // Only the first request reads DynamoDB
+    }
+
+    @Test
+    public void testGetPoll_modifiedAfterClose() {
+        //given
+        GetItemResponse open = GetItemResponse.builder().item(createPollItem()).build();
+        when(pollRepository.getPollByPollId(POLL_ID)).thenReturn(open, open, createClosedPollResponse());
+        when(pollRepository.closePoll(eq(POLL_ID), any())).thenReturn(Map.of(OPTION_ID, 3, OPTION_ID2, 2));
+        String etag = pollService.getPoll(POLL_ID, null).getEntityTag().toString();
+
+        //when
+        pollService.closePoll(POLL_ID);
+        Response response = pollService.getPoll(POLL_ID, etag);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+        assertThat(((PollResponse) response.getEntity()).closed()).isTrue();
+        assertThat(response.getEntityTag().toString()).isNotEqualTo(etag);
+    }
+
+    @Test
+    public void testGetPoll_knownTagExpiresAtEndsAt() {
+        //given
+        Poll ending = new Poll(POLL_ID, QUESTION, Map.of(OPTION_ID, "Java", OPTION_ID2, "Python"),
+                Instant.now().plusMillis(50), null, null);
+        when(pollRepository.getPollByPollId(POLL_ID))
+                .thenReturn(GetItemResponse.builder().item(ending.toDynamoDbItem()).build());
+        String etag = pollService.getPoll(POLL_ID, null).getEntityTag().toString();
+
+        //when
+        await(Duration.ofMillis(100));
+        Response response = pollService.getPoll(POLL_ID, etag);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+        assertThat(((PollResponse) response.getEntity()).closed()).isTrue();
+    }
+
+    private static void await(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void testGetResults_etagChangesAfterVote() {
+        //given
+        when(pollRepository.getOptionsByPollId(POLL_ID))
+                .thenReturn(createOptionsResponse(1))
+                .thenReturn(createOptionsResponse(2));
+        when(pollRepository.getOptionsByPollIdUncoalesced(POLL_ID)).thenReturn(createOptionsResponse(2));
+        when(pollRepository.incrementVoteCount(POLL_ID, OPTION_ID)).thenReturn(true);
+        String etag = pollService.getResults(POLL_ID, null).getEntityTag().toString();
+
+        //when
+        Response cached = pollService.getResults(POLL_ID, etag);
+        pollService.vote(new VoteRequest(POLL_ID, OPTION_ID));
+        Response afterVote = pollService.getResults(POLL_ID, etag);
+
+        //then
+        assertThat(cached.getStatus()).isEqualTo(Response.Status.NOT_MODIFIED.getStatusCode());
+        assertThat(afterVote.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+        assertThat(afterVote.getEntityTag().toString()).isNotEqualTo(etag);
+    }
+
+    @Test
+    public void testGetResults_servedFromTallyWithinStaleness() {
+        //given
+        VoteTally voteTally = new VoteTally(Duration.ofMinutes(1));
+        PollService tallied = new PollServiceImpl(pollRepository, new PollVersionTracker(Duration.ZERO),
+                new PollClosureCache(), uniqueVoters, voteTally, resultsStore);
+        when(pollRepository.getOptionsByPollId(POLL_ID)).thenReturn(createOptionsResponse(1));
+        tallied.getResults(POLL_ID, null);
+
+        //when a peer reports a vote this instance has not read
+        voteTally.merge(POLL_ID, Map.of(OPTION_ID, 2L));
+        Response response = tallied.getResults(POLL_ID, null);
+
+        //then
+        assertThat(((PollResults) response.getEntity()).totalVotes()).isEqualTo(2);
+        verify(pollRepository, times(1)).getOptionsByPollId(POLL_ID);
+    }
+
+    @Test
+    public void testGetResults_includesUniqueVoterEstimate() {
+        //given
+        when(pollRepository.incrementVoteCount(POLL_ID, OPTION_ID)).thenReturn(true);
+        when(pollRepository.getOptionsByPollId(POLL_ID)).thenReturn(createOptionsResponse(1));
+        when(pollRepository.getOptionsByPollIdUncoalesced(POLL_ID)).thenReturn(createOptionsResponse(1));
+        when(uniqueVoters.estimate(POLL_ID)).thenReturn(OptionalLong.of(1));
+
+        //when
+        pollService.vote(new VoteRequest(POLL_ID, OPTION_ID, "voter-1"));
+        Response response = pollService.getResults(POLL_ID, null);
+
+        //then
+        verify(uniqueVoters).record(POLL_ID, "voter-1");
+        assertThat(((PollResults) response.getEntity()).uniqueVoters()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testGetResults_closedPollWithEstimateIsRevalidated() {
+        //given
+        when(pollRepository.getPollByPollId(POLL_ID)).thenReturn(createClosedPollResponse());
+        when(uniqueVoters.estimate(POLL_ID)).thenReturn(OptionalLong.of(4), OptionalLong.of(4), OptionalLong.of(5));
+        pollService.closePoll(POLL_ID);
+        String etag = pollService.getResults(POLL_ID, null).getEntityTag().toString();
+
+        //when another instance's voters raise the estimate
+        Response response = pollService.getResults(POLL_ID, etag);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+        assertThat(response.getHeaderString("Cache-Control")).doesNotContain("immutable");
+        assertThat(((PollResults) response.getEntity()).uniqueVoters()).isEqualTo(5L);
+    }
+
+    @Test
+    public void testGetResults_openResultsTagRevalidatedAfterClose() {
+        //given open results with the same total the final results will have
+        when(pollRepository.getOptionsByPollId(POLL_ID)).thenReturn(createOptionsResponse(5));
+        when(pollRepository.getPollByPollId(POLL_ID)).thenReturn(createClosedPollResponse());
+        String etag = pollService.getResults(POLL_ID, null).getEntityTag().toString();
+        pollService.closePoll(POLL_ID);
+
+        //when
+        Response response = pollService.getResults(POLL_ID, etag);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+        assertThat(((PollResults) response.getEntity()).closed()).isTrue();
+        assertThat(response.getEntityTag().toString()).isNotEqualTo(etag);
+    }
+
+    @Test
+    public void testGetResults_recountWithSameTotalChangesTag() {
+        //given a recount moves a vote from op1 to op2
+        when(pollRepository.getOptionsByPollId(POLL_ID))
+                .thenReturn(createOptionsResponse(2, 1), createOptionsResponse(1, 2), createOptionsResponse(1, 2));
+        String etag = pollService.getResults(POLL_ID, null).getEntityTag().toString();
+        pollService.getResults(POLL_ID, null);
+
+        //when
+        Response response = pollService.getResults(POLL_ID, etag);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+        assertThat(((PollResults) response.getEntity()).totalVotes()).isEqualTo(3);
+        assertThat(response.getEntityTag().toString()).isNotEqualTo(etag);
+    }
+
+    private QueryResponse createOptionsResponse(int votes, int votes2) {
+        return QueryResponse.builder()
+                .items(List.of(
+                        Map.of("PK", AttributeValue.builder().s(OPTION_ID).build(),
+                                "SK", AttributeValue.builder().s("option").build(),
+                                "text", AttributeValue.builder().s("Java").build(),
+                                "votes", AttributeValue.builder().n(String.valueOf(votes)).build()),
+                        Map.of("PK", AttributeValue.builder().s(OPTION_ID2).build(),
+                                "SK", AttributeValue.builder().s("option").build(),
+                                "text", AttributeValue.builder().s("Python").build(),
+                                "votes", AttributeValue.builder().n(String.valueOf(votes2)).build())))
+                .build();
+    }
+
+    private QueryResponse createOptionsResponse(int votes) {
+        return QueryResponse.builder()
+                .items(List.of(Map.of(
+                        "PK", AttributeValue.builder().s(OPTION_ID).build(),
+                        "SK", AttributeValue.builder().s("option").build(),
+                        "text", AttributeValue.builder().s("Java").build(),
+                        "votes", AttributeValue.builder().n(String.valueOf(votes)).build())))
+                .build();
+    }
+
+    @Test
+    public void testVote_closedPollRejectedBeforeWrite() {
+        //given
+        when(pollRepository.getPollByPollId(POLL_ID)).thenReturn(createClosedPollResponse());
+        pollService.closePoll(POLL_ID);
+
+        //when
+        Response response = pollService.vote(new VoteRequest(POLL_ID, OPTION_ID));
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(Response.Status.CONFLICT.getStatusCode());
+        verify(pollRepository, never()).incrementVoteCount(any(), any());
+    }
+
+    @Test
+    public void testVote_lateVoteRejectedByCondition() {
+        //given
+        when(pollRepository.incrementVoteCount(POLL_ID, OPTION_ID)).thenThrow(new PollClosedException("closed"));
+
+        //when
+        Response first = pollService.vote(new VoteRequest(POLL_ID, OPTION_ID));
+        Response second = pollService.vote(new VoteRequest(POLL_ID, OPTION_ID));
+
+        //then
+        assertThat(first.getStatus()).isEqualTo(Response.Status.CONFLICT.getStatusCode());
+        assertThat(second.getStatus()).isEqualTo(Response.Status.CONFLICT.getStatusCode());
+        verify(pollRepository, times(1)).incrementVoteCount(POLL_ID, OPTION_ID);
+    }
+
+    @Test
+    public void testGetResults_closedPollServedFromSnapshot() {
+        //given
+        QueryResponse closedOptions = QueryResponse.builder()
+                .items(List.of(Map.of(
+                        "PK", AttributeValue.builder().s(OPTION_ID).build(),
+                        "SK", AttributeValue.builder().s("option").build(),
+                        "text", AttributeValue.builder().s("Java").build(),
+                        "votes", AttributeValue.builder().n("3").build(),
+                        "closedAt", AttributeValue.builder().n("1").build())))
+                .build();
+        when(pollRepository.getOptionsByPollId(POLL_ID)).thenReturn(closedOptions);
+        when(pollRepository.getPollByPollId(POLL_ID)).thenReturn(createClosedPollResponse());
+
+        //when
+        Response first = pollService.getResults(POLL_ID, null);
+        Response second = pollService.getResults(POLL_ID, null);
+
+        //then
+        assertThat(second.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+        assertThat(second.getHeaderString("Cache-Control")).contains("immutable");
+        PollResults results = (PollResults) second.getEntity();
+        assertThat(results.closed()).isTrue();
+        assertThat(results.totalVotes()).isEqualTo(5);
+        assertThat(first.getEntityTag()).isEqualTo(second.getEntityTag());
+        verify(pollRepository, times(1)).getOptionsByPollId(POLL_ID);
+        verify(pollRepository, never()).closePoll(any(), any());
+    }
+
+    private GetItemResponse createClosedPollResponse() {
+        Poll closed = new Poll(POLL_ID, QUESTION, Map.of(OPTION_ID, "Java", OPTION_ID2, "Python"),
+                null, Instant.now(), Map.of(OPTION_ID, 3, OPTION_ID2, 2));
+        return GetItemResponse.builder().item(closed.toDynamoDbItem()).build();
+    }
+
+    @Test
+    public void testCreatePoll_pastEndsAtRejected() {
+        //given
+        PollRequest newPoll = new PollRequest(QUESTION, List.of("Java", "Python"), "2000-01-01T00:00:00Z");
+
+        //when
+        Response response = pollService.createPoll(newPoll);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(Response.Status.BAD_REQUEST.getStatusCode());
+        verify(pollRepository, never()).createPoll(any(), any());
+    }
+
     @Test
     public void testVote_success() {
         //given
         when(pollRepository.incrementVoteCount(POLL_ID, OPTION_ID)).thenReturn(true);
-        Map<String, String> requestBody = Map.of("optionId", OPTION_ID, "pollId", POLL_ID);
-        when(pollRepository.getOptionsByPollId(POLL_ID)).thenReturn(QueryResponse.builder().build());
+        VoteRequest requestBody = new VoteRequest(POLL_ID, OPTION_ID);
+        when(pollRepository.getOptionsByPollIdUncoalesced(POLL_ID)).thenReturn(QueryResponse.builder().build());
 
         //when
         Response response = pollService.vote(requestBody);
@@ -103,10 +387,26 @@ public class PollServiceTest {
         verify(pollRepository).incrementVoteCount(POLL_ID, OPTION_ID);  // Ensure the repository method was called
     }
 
+    @Test
+    public void testVote_tagsResultsReadAfterTheVote() {
+        //given a coalesced read that started before the vote still holds one vote
+        when(pollRepository.incrementVoteCount(POLL_ID, OPTION_ID)).thenReturn(true);
+        when(pollRepository.getOptionsByPollId(POLL_ID)).thenReturn(createOptionsResponse(1));
+        when(pollRepository.getOptionsByPollIdUncoalesced(POLL_ID)).thenReturn(createOptionsResponse(2));
+
+        //when
+        Response response = pollService.vote(new VoteRequest(POLL_ID, OPTION_ID));
+
+        //then
+        assertThat(((PollResults) response.getEntity()).totalVotes()).isEqualTo(2);
+        assertThat(response.getEntityTag()).isEqualTo(ETags.forResults((PollResults) response.getEntity()));
+        verify(pollRepository, never()).getOptionsByPollId(POLL_ID);
+    }
+
     @Test
     public void testVote_missingOptionId() {
         //given
-        Map<String, String> requestBody = new HashMap<>();
+        VoteRequest requestBody = new VoteRequest(null, null);
 
         //when
         Response response = pollService.vote(requestBody);
@@ -120,7 +420,7 @@ public class PollServiceTest {
     public void testVote_failure() {
         //given
         when(pollRepository.incrementVoteCount(POLL_ID, OPTION_ID)).thenThrow(DynamoDbException.class);
-        Map<String, String> requestBody = Map.of("optionId", OPTION_ID, "pollId", POLL_ID);
+        VoteRequest requestBody = new VoteRequest(POLL_ID, OPTION_ID);
 
         //when
         Response response = pollService.vote(requestBody);
@@ -129,4 +429,30 @@ public class PollServiceTest {
         assertThat(response.getStatus()).isEqualTo(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
         assertThat(response.getEntity()).isEqualTo("Failed to update the vote count. Please try again");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetPollVotes_invalidTimeRange() {
+        //when
+        Response unparseable = pollService.getPollVotes(POLL_ID, "yesterday", null);
+        Response reversed = pollService.getPollVotes(POLL_ID, "2024-12-20T12:05:00Z", "2024-12-20T12:00:00Z");
+
+        //then
+        assertThat(unparseable.getStatus()).isEqualTo(Response.Status.BAD_REQUEST.getStatusCode());
+        assertThat(reversed.getStatus()).isEqualTo(Response.Status.BAD_REQUEST.getStatusCode());
+        verifyNoInteractions(pollRepository);
+    }
+
+    @Test
+    public void testGetPollVotes_timeWindow() {
+        //given
+        Instant from = Instant.parse("2024-12-20T12:00:00Z");
+        when(pollRepository.getVotesByPollId(POLL_ID, from, null)).thenReturn(List.of());
+
+        //when
+        Response response = pollService.getPollVotes(POLL_ID, "2024-12-20T12:00:00Z", null);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+        verify(pollRepository).getVotesByPollId(POLL_ID, from, null);
+    }
+}
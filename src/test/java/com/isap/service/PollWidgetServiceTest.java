@@ -0,0 +1,141 @@
+package com.isap.service;
+
+import com.isap.domain.Option;
+import com.isap.domain.Poll;
+import com.isap.domain.PollWidget;
+import com.isap.exception.NotFoundException;
+import com.isap.repository.PollRepository;
+import com.isap.repository.PollRepositoryImpl;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.*;
+
+public class PollWidgetServiceTest {
+
+    private static final String POLL_ID = "poll1";
+
+    private final PollRepository pollRepository = mock(PollRepositoryImpl.class);
+    private final PollWidgetServiceImpl widgetService = new PollWidgetServiceImpl(pollRepository,
+            new PollClosureCache(), Duration.ofSeconds(1), 4);
+
+    @AfterEach
+    public void tearDown() {
+        widgetService.stop();
+    }
+
+    private GetItemResponse pollItem() {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("op1", "Java");
+        options.put("op2", "Python");
+        options.put("op3", "Go");
+        return GetItemResponse.builder().item(new Poll(POLL_ID, "Favourite language?", options).toDynamoDbItem()).build();
+    }
+
+    private QueryResponse optionItems() {
+        return QueryResponse.builder().items(
+                new Option("op1", POLL_ID, "Java", 2).toDynamoDbItem(),
+                new Option("op2", POLL_ID, "Python", 1).toDynamoDbItem(),
+                new Option("op3", POLL_ID, "Go", 0).toDynamoDbItem()).build();
+    }
+
+    @Test
+    public void testGetWidget_mergesPollAndResults() {
+        //given
+        when(pollRepository.getPollByPollId(POLL_ID)).thenReturn(pollItem());
+        when(pollRepository.getOptionsByPollId(POLL_ID)).thenReturn(optionItems());
+
+        //when
+        Response response = widgetService.getWidget(POLL_ID);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(200);
+        PollWidget widget = (PollWidget) response.getEntity();
+        assertThat(widget.question()).isEqualTo("Favourite language?");
+        assertThat(widget.totalVotes()).isEqualTo(3);
+        assertThat(widget.degraded()).isEmpty();
+        assertThat(widget.options()).containsExactly(
+                new PollWidget.Option("op1", "Java", 2, 66.7),
+                new PollWidget.Option("op2", "Python", 1, 33.3),
+                new PollWidget.Option("op3", "Go", 0, 0.0));
+    }
+
+    @Test
+    public void testGetWidget_resultsFailureReturnsPollWithoutCounts() {
+        //given
+        when(pollRepository.getPollByPollId(POLL_ID)).thenReturn(pollItem());
+        when(pollRepository.getOptionsByPollId(POLL_ID))
+                .thenThrow(ProvisionedThroughputExceededException.builder().message("throttled").build());
+
+        //when
+        Response response = widgetService.getWidget(POLL_ID);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(200);
+        PollWidget widget = (PollWidget) response.getEntity();
+        assertThat(widget.degraded()).containsExactly(PollWidget.RESULTS);
+        assertThat(widget.totalVotes()).isNull();
+        assertThat(widget.options()).contains(new PollWidget.Option("op3", "Go", null, null));
+    }
+
+    @Test
+    public void testGetWidget_pollFailureReturnsResultsFromOptionItems() {
+        //given
+        when(pollRepository.getPollByPollId(POLL_ID))
+                .thenThrow(ProvisionedThroughputExceededException.builder().message("throttled").build());
+        when(pollRepository.getOptionsByPollId(POLL_ID)).thenReturn(optionItems());
+
+        //when
+        Response response = widgetService.getWidget(POLL_ID);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(200);
+        PollWidget widget = (PollWidget) response.getEntity();
+        assertThat(widget.degraded()).containsExactly(PollWidget.POLL);
+        assertThat(widget.question()).isNull();
+        assertThat(widget.totalVotes()).isEqualTo(3);
+        assertThat(widget.options().stream().map(PollWidget.Option::text).toList()).containsExactly("Java", "Python", "Go");
+    }
+
+    @Test
+    public void testGetWidget_notFound() {
+        //given
+        when(pollRepository.getPollByPollId(POLL_ID)).thenThrow(new NotFoundException("Poll not found"));
+        when(pollRepository.getOptionsByPollId(POLL_ID)).thenReturn(QueryResponse.builder().items(List.of()).build());
+
+        //when
+        Response response = widgetService.getWidget(POLL_ID);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    public void testGetWidget_busyPoolQueriesOptionsAfterThePollItem() {
+        //given a pool that rejects the option query
+        widgetService.stop();
+        when(pollRepository.getPollByPollId(POLL_ID)).thenReturn(pollItem());
+        when(pollRepository.getOptionsByPollId(POLL_ID)).thenReturn(optionItems());
+
+        //when
+        Response response = widgetService.getWidget(POLL_ID);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(((PollWidget) response.getEntity()).totalVotes()).isEqualTo(3);
+        InOrder reads = inOrder(pollRepository);
+        reads.verify(pollRepository).getPollByPollId(POLL_ID);
+        reads.verify(pollRepository).getOptionsByPollId(POLL_ID);
+    }
+}
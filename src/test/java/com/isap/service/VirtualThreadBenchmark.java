@@ -0,0 +1,221 @@
+package com.isap.service;
+
+import com.isap.domain.Option;
+import com.isap.domain.Poll;
+import com.isap.hotkeys.HotKeys;
+import com.isap.repository.PollRepositoryImpl;
+import com.isap.results.ResultsStore;
+import com.isap.tally.VoteTally;
+import com.isap.utils.DynamoDbHelper;
+import com.isap.voters.UniqueVoterTracker;
+import com.isap.voters.VoterSketchStore;
+import jdk.jfr.consumer.RecordingStream;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares a fixed worker pool sized like Quarkus' default with a virtual thread per request, running
+ * GET /poll/results through the real service, repository and helper against a DynamoDB stand-in that answers after
+ * a fixed latency. Each request reads a different poll so coalescing does not hide the DynamoDB calls.
+ *
+ * While virtual threads run, jdk.VirtualThreadPinned events are recorded with JFR and the pinned frames reported.
+ * Virtual threads need Java 21; on older JVMs only the worker pool is measured.
+ *
+ * <pre>
+ * java -cp ... com.isap.service.VirtualThreadBenchmark [latenciesMs=5,50,200] [concurrency=50,200,1000,5000]
+ * </pre>
+ */
+public class VirtualThreadBenchmark {
+
+    private static final int WORKER_THREADS = Math.max(8 * Runtime.getRuntime().availableProcessors(), 200);
+    private static final int REQUESTS_PER_CLIENT = 5;
+
+    public static void main(String[] args) throws Exception {
+        int[] latencies = parse(args.length > 0 ? args[0] : "5,50,200");
+        int[] concurrencies = parse(args.length > 1 ? args[1] : "50,200,1000,5000");
+        ExecutorServiceFactory virtual = virtualThreadFactory();
+        if (virtual == null) {
+            System.out.println("Virtual threads are not available on Java " + Runtime.version().feature()
+                    + ", measuring the worker pool only");
+        }
+
+        System.out.printf("%-8s %-12s %-8s %12s %10s %10s%n", "mode", "latency(ms)", "clients", "requests/s", "p50(ms)", "p99(ms)");
+        for (int latency : latencies) {
+            PollServiceImpl service = service(Duration.ofMillis(latency));
+            for (int concurrency : concurrencies) {
+                run("worker", service, latency, concurrency, () -> Executors.newFixedThreadPool(WORKER_THREADS));
+                if (virtual != null) {
+                    try (PinningMonitor pinning = new PinningMonitor()) {
+                        run("virtual", service, latency, concurrency, virtual);
+                        pinning.report();
+                    }
+                }
+            }
+        }
+    }
+
+    private static void run(String mode, PollServiceImpl service, int latency, int concurrency,
+                            ExecutorServiceFactory executors) throws Exception {
+        int requests = concurrency * REQUESTS_PER_CLIENT;
+        long[] latencies = new long[requests];
+        AtomicInteger failures = new AtomicInteger();
+        Semaphore clients = new Semaphore(concurrency);
+        CountDownLatch done = new CountDownLatch(requests);
+        ExecutorService executor = executors.create();
+
+        long started = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            clients.acquire();
+            int request = i;
+            long submitted = System.nanoTime();
+            executor.execute(() -> {
+                try {
+                    if (service.getResults("poll-" + latency + "-" + concurrency + "-" + mode + "-" + request, null).getStatus() != 200) {
+                        failures.incrementAndGet();
+                    }
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                } finally {
+                    latencies[request] = System.nanoTime() - submitted;
+                    clients.release();
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - started;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        Arrays.sort(latencies);
+        System.out.printf("%-8s %-12d %-8d %12.0f %10.1f %10.1f%s%n", mode, latency, concurrency,
+                requests / (elapsed / 1e9), latencies[requests / 2] / 1e6, latencies[(int) (requests * 0.99)] / 1e6,
+                failures.get() == 0 ? "" : "  (" + failures.get() + " failed)");
+    }
+
+    private static PollServiceImpl service(Duration latency) {
+        DynamoDbHelper helper = new DynamoDbHelper(new SlowDynamoDbClient(latency));
+        return new PollServiceImpl(new PollRepositoryImpl(helper, Duration.ofMillis(500),
+                new HotKeys(true, Duration.ofSeconds(10), 5, 20, 50, 500, Duration.ofMillis(20))),
+                new PollVersionTracker(Duration.ofSeconds(1)), new PollClosureCache(),
+                new UniqueVoterTracker(new VoterSketchStore(helper), Duration.ZERO, Duration.ofSeconds(5)), new VoteTally(Duration.ZERO),
+                new ResultsStore(helper, false, 500, 100));
+    }
+
+    private static int[] parse(String values) {
+        return Arrays.stream(values.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    private interface ExecutorServiceFactory {
+        ExecutorService create() throws Exception;
+    }
+
+    /**
+     * Looked up reflectively so the benchmark compiles and runs on Java 17.
+     */
+    private static ExecutorServiceFactory virtualThreadFactory() {
+        try {
+            var factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return () -> (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Counts carrier pinning by virtual threads and the frames that caused it.
+     */
+    private static final class PinningMonitor implements AutoCloseable {
+        private final RecordingStream stream = new RecordingStream();
+        private final AtomicLong pinned = new AtomicLong();
+        private final Map<String, Integer> frames = new ConcurrentHashMap<>();
+
+        private PinningMonitor() {
+            stream.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            stream.onEvent("jdk.VirtualThreadPinned", event -> {
+                pinned.incrementAndGet();
+                if (event.getStackTrace() != null && !event.getStackTrace().getFrames().isEmpty()) {
+                    var frame = event.getStackTrace().getFrames().get(0);
+                    frames.merge(frame.getMethod().getType().getName() + "." + frame.getMethod().getName(), 1, Integer::sum);
+                }
+            });
+            stream.startAsync();
+        }
+
+        private void report() throws InterruptedException {
+            TimeUnit.MILLISECONDS.sleep(1500);  // JFR flushes about once a second
+            if (pinned.get() > 0) {
+                System.out.printf("         pinned %d times: %s%n", pinned.get(), frames);
+            }
+        }
+
+        @Override
+        public void close() {
+            stream.close();
+        }
+    }
+
+    /**
+     * Answers poll reads and option queries after a fixed delay, like a DynamoDB with that latency.
+     */
+    private static final class SlowDynamoDbClient implements DynamoDbClient {
+        private final Duration latency;
+
+        private SlowDynamoDbClient(Duration latency) {
+            this.latency = latency;
+        }
+
+        private void waitForLatency() {
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public GetItemResponse getItem(GetItemRequest request) {
+            waitForLatency();
+            String pollId = request.key().get("PK").s();
+            return GetItemResponse.builder()
+                    .item(new Poll(pollId, "Question?", Map.of(pollId + "-a", "Yes", pollId + "-b", "No")).toDynamoDbItem())
+                    .build();
+        }
+
+        @Override
+        public QueryResponse query(QueryRequest request) {
+            waitForLatency();
+            String pollId = request.expressionAttributeValues().get(":pollId").s();
+            List<Map<String, AttributeValue>> items = List.of(
+                    new Option(pollId + "-a", pollId, "Yes", 0).toDynamoDbItem(),
+                    new Option(pollId + "-b", pollId, "No", 0).toDynamoDbItem());
+            return QueryResponse.builder().items(items).count(items.size()).build();
+        }
+
+        @Override
+        public String serviceName() {
+            return "dynamodb";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
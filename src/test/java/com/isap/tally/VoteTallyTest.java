@@ -0,0 +1,130 @@
+package com.isap.tally;
+
+import com.isap.domain.OptionResponse;
+import com.isap.domain.PollResults;
+import com.isap.json.TallyDeltaReader;
+import com.isap.json.TallyDeltaWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class VoteTallyTest {
+
+    private static final String POLL_ID = "poll1";
+
+    private static List<OptionResponse> options(int java, int python) {
+        return List.of(new OptionResponse("op1", "Java", java), new OptionResponse("op2", "Python", python));
+    }
+
+    private static TallyReplicator replicator(VoteTally tally, String node) {
+        return new TallyReplicator(tally, node, List.of(), Duration.ofMillis(200), "secret", new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void testFreshResults_mergeKeepsHighestObservedCounts() {
+        //given
+        VoteTally tally = new VoteTally(Duration.ofMinutes(1));
+        tally.reconcile(POLL_ID, options(5, 3), null);
+
+        //when
+        tally.merge(POLL_ID, Map.of("op1", 4L, "op2", 7L));
+        tally.merge(POLL_ID, Map.of("op2", 7L));
+        tally.merge(POLL_ID, Map.of("op1", 1L + Integer.MAX_VALUE));
+
+        //then
+        PollResults results = tally.freshResults(POLL_ID, Instant.now());
+        assertThat(results.options()).containsExactly(
+                new OptionResponse("op1", "Java", 5), new OptionResponse("op2", "Python", 7)).inOrder();
+    }
+
+    @Test
+    public void testReconcileConsistent_setsCountsToWhatDynamoDbHolds() {
+        //given a peer reported a count that was later corrected down in DynamoDB
+        VoteTally tally = new VoteTally(Duration.ofMinutes(1));
+        tally.reconcile(POLL_ID, options(5, 3), null);
+        tally.merge(POLL_ID, Map.of("op1", 2_000_000L));
+
+        //when
+        tally.reconcileConsistent(POLL_ID, options(6, 3), null);
+
+        //then
+        PollResults results = tally.freshResults(POLL_ID, Instant.now());
+        assertThat(results.options()).containsExactly(
+                new OptionResponse("op1", "Java", 6), new OptionResponse("op2", "Python", 3)).inOrder();
+    }
+
+    @Test
+    public void testReconcile_staleReadDoesNotLowerCounts() {
+        //given a peer reported a vote the eventually consistent read below does not include yet
+        VoteTally tally = new VoteTally(Duration.ofMinutes(1));
+        tally.reconcile(POLL_ID, options(5, 3), null);
+        tally.merge(POLL_ID, Map.of("op1", 6L));
+
+        //when
+        tally.reconcile(POLL_ID, options(5, 4), null);
+        PollResults raised = tally.freshResults(POLL_ID, Instant.now());
+        tally.correct(POLL_ID, "op1", 4);
+
+        //then
+        assertThat(raised.options()).containsExactly(
+                new OptionResponse("op1", "Java", 6), new OptionResponse("op2", "Python", 4)).inOrder();
+        assertThat(tally.freshResults(POLL_ID, Instant.now()).options().get(0).voteCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void testFreshResults_notServedWhenStaleOrEnded() {
+        //given
+        VoteTally stale = new VoteTally(Duration.ofNanos(1));
+        VoteTally ended = new VoteTally(Duration.ofMinutes(1));
+        Instant now = Instant.now();
+
+        //when
+        stale.reconcile(POLL_ID, options(1, 1), null);
+        ended.reconcile(POLL_ID, options(1, 1), now.minusSeconds(1));
+
+        //then
+        assertThat(stale.freshResults(POLL_ID, now.plusSeconds(1))).isNull();
+        assertThat(ended.freshResults(POLL_ID, now)).isNull();
+        assertThat(ended.freshResults("unknown", now)).isNull();
+    }
+
+    @Test
+    public void testReceive_peersConvergeOnExchangedDeltas() throws IOException {
+        //given two instances that each read the poll and then saw different votes
+        VoteTally first = new VoteTally(Duration.ofMinutes(1));
+        VoteTally second = new VoteTally(Duration.ofMinutes(1));
+        first.reconcile(POLL_ID, options(10, 2), null);
+        second.reconcile(POLL_ID, options(8, 4), null);
+
+        //when each sends its changes to the other over the wire format
+        TallyReplicator firstReplicator = replicator(first, "a");
+        TallyReplicator secondReplicator = replicator(second, "b");
+        assertThat(secondReplicator.receive(roundTrip(first.drainChanges("a")), "secret")).isTrue();
+        assertThat(firstReplicator.receive(roundTrip(second.drainChanges("b")), "secret")).isTrue();
+        boolean forged = firstReplicator.receive(new TallyDelta("c", Map.of(POLL_ID, Map.of("op1", 1000L))), "wrong");
+        boolean unsigned = new TallyReplicator(first, "a", List.of(), Duration.ofMillis(200), null, new SimpleMeterRegistry())
+                .receive(new TallyDelta("c", Map.of(POLL_ID, Map.of("op1", 1000L))), null);
+
+        //then
+        assertThat(forged).isFalse();
+        assertThat(unsigned).isFalse();
+        assertThat(first.freshResults(POLL_ID, Instant.now())).isEqualTo(second.freshResults(POLL_ID, Instant.now()));
+        assertThat(first.freshResults(POLL_ID, Instant.now()).totalVotes()).isEqualTo(14);
+        assertThat(first.drainChanges("a").isEmpty()).isTrue();
+    }
+
+    private static TallyDelta roundTrip(TallyDelta delta) throws IOException {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        new TallyDeltaWriter().writeTo(delta, json);
+        return new TallyDeltaReader().read(new ByteArrayInputStream(json.toByteArray()));
+    }
+}
@@ -0,0 +1,133 @@
+package com.isap.tracing;
+
+import com.isap.routing.TableRouter;
+import com.isap.utils.DynamoDbHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TailSamplingSpanProcessorTest {
+
+    private final List<ReadableSpan> exported = new CopyOnWriteArrayList<>();
+
+    private Tracer tracer(Duration slowThreshold, double baselineRatio) {
+        SpanProcessor collector = new SpanProcessor() {
+            @Override
+            public void onStart(Context parentContext, ReadWriteSpan span) {
+            }
+
+            @Override
+            public boolean isStartRequired() {
+                return false;
+            }
+
+            @Override
+            public void onEnd(ReadableSpan span) {
+                exported.add(span);
+            }
+
+            @Override
+            public boolean isEndRequired() {
+                return true;
+            }
+
+            @Override
+            public CompletableResultCode shutdown() {
+                return CompletableResultCode.ofSuccess();
+            }
+        };
+        TailSamplingSpanProcessor processor = new TailSamplingSpanProcessor(collector, slowThreshold, baselineRatio,
+                100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        return SdkTracerProvider.builder().addSpanProcessor(processor).build().get("test");
+    }
+
+    private void trace(Tracer tracer, long rootMillis, boolean childFails) {
+        long start = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        Span root = tracer.spanBuilder("POST /poll/vote").setStartTimestamp(start, TimeUnit.NANOSECONDS).startSpan();
+        try (Scope ignored = root.makeCurrent()) {
+            Span child = tracer.spanBuilder("UpdateItem").setStartTimestamp(start + 1_000_000, TimeUnit.NANOSECONDS).startSpan();
+            if (childFails) {
+                child.setStatus(StatusCode.ERROR);
+            }
+            child.end(start + 2_000_000, TimeUnit.NANOSECONDS);
+        }
+        root.end(start + TimeUnit.MILLISECONDS.toNanos(rootMillis), TimeUnit.NANOSECONDS);
+    }
+
+    @Test
+    public void testOnEnd_keepsWholeTraceWhenRootIsSlow() {
+        //given
+        Tracer tracer = tracer(Duration.ofMillis(200), 0);
+
+        //when
+        trace(tracer, 300, false);
+
+        //then
+        assertThat(exported).hasSize(2);
+        assertThat(exported.get(0).getName()).isEqualTo("UpdateItem");
+        assertThat(TailSamplingSpanProcessor.breakdown(exported)).isEqualTo("UpdateItem +1ms 1ms");
+    }
+
+    @Test
+    public void testOnEnd_dropsFastTracesUnlessAChildFailed() {
+        //given
+        Tracer tracer = tracer(Duration.ofMillis(200), 0);
+
+        //when
+        trace(tracer, 5, false);
+        trace(tracer, 5, true);
+
+        //then
+        assertThat(exported).hasSize(2);
+        assertThat(exported.get(0).getSpanContext().getTraceId()).isEqualTo(exported.get(1).getSpanContext().getTraceId());
+    }
+
+    @Test
+    public void testDynamoDbHelper_spanCarriesPollIdAndConsumedCapacity() {
+        //given
+        Tracer tracer = tracer(Duration.ofMillis(200), 1.0);
+        DynamoDbClient client = mock(DynamoDbClient.class);
+        when(client.getItem(any(GetItemRequest.class))).thenReturn(GetItemResponse.builder()
+                .item(Map.of("PK", AttributeValue.fromS("poll1")))
+                .consumedCapacity(ConsumedCapacity.builder().capacityUnits(0.5).build())
+                .build());
+        DynamoDbHelper helper = new DynamoDbHelper(client, TableRouter.single("PollTable"), tracer);
+
+        //when
+        helper.getItem("poll1", Map.of("PK", AttributeValue.fromS("poll1"), "SK", AttributeValue.fromS("poll")));
+
+        //then
+        assertThat(exported).hasSize(1);
+        ReadableSpan span = exported.get(0);
+        assertThat(span.getName()).isEqualTo("GetItem");
+        assertThat(span.getAttribute(AttributeKey.stringKey("poll.id"))).isEqualTo("poll1");
+        assertThat(span.getAttribute(AttributeKey.stringKey("aws.dynamodb.table_names"))).isEqualTo("PollTable");
+        assertThat(span.getAttribute(AttributeKey.doubleKey("aws.dynamodb.consumed_capacity_units"))).isEqualTo(0.5);
+    }
+}
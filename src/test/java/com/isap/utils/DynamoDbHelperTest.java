@@ -0,0 +1,116 @@
+package com.isap.utils;
+
+import com.isap.hotkeys.HotKeys;
+import com.isap.repository.PollRepositoryImpl;
+import com.isap.routing.TableRouter;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class DynamoDbHelperTest {
+
+    private static final String POLL_ID = "poll1";
+    private static final Map<String, AttributeValue> VALUES = Map.of(":pollId", AttributeValue.fromS(POLL_ID));
+
+    private final DynamoDbClient client = mock(DynamoDbClient.class);
+
+    private static Map<String, AttributeValue> vote(String voteId) {
+        return Map.of("PK", AttributeValue.fromS(voteId), "SK", AttributeValue.fromS("vote"));
+    }
+
+    @SafeVarargs
+    private static QueryResponse page(Map<String, AttributeValue> lastKey, Map<String, AttributeValue>... items) {
+        QueryResponse.Builder response = QueryResponse.builder().items(items).count(items.length);
+        return lastKey == null ? response.build() : response.lastEvaluatedKey(lastKey).build();
+    }
+
+    private static List<String> voteIds(Iterable<Map<String, AttributeValue>> items) {
+        List<String> voteIds = new ArrayList<>();
+        items.forEach(item -> voteIds.add(item.get("PK").s()));
+        return voteIds;
+    }
+
+    @Test
+    public void testQueryAllItems_readsEveryPageAsItIsIterated() {
+        //given
+        DynamoDbHelper helper = new DynamoDbHelper(client, TableRouter.single("PollTable"));
+        when(client.query(any(QueryRequest.class)))
+                .thenReturn(page(vote("v2"), vote("v1"), vote("v2")))
+                .thenReturn(page(null, vote("v3")));
+
+        //when
+        Iterable<Map<String, AttributeValue>> items = helper.queryAllItems(POLL_ID, "GSI1", "GSI1PK = :pollId", VALUES);
+
+        //then only the first page is read before iterating
+        verify(client, times(1)).query(any(QueryRequest.class));
+        assertThat(voteIds(items)).containsExactly("v1", "v2", "v3").inOrder();
+        verify(client).query(argThat((QueryRequest request) -> vote("v2").equals(request.exclusiveStartKey())));
+    }
+
+    @Test
+    public void testQueryAllItems_skipsItemsAlreadyReadFromTheCurrentTableDuringAMove() {
+        //given
+        TableRouter moving = new TableRouter(List.of("PollTable2"), Optional.empty(), Optional.of(List.of("PollTable")));
+        DynamoDbHelper helper = new DynamoDbHelper(client, moving);
+        when(client.query(argThat((QueryRequest request) -> request != null && "PollTable2".equals(request.tableName()))))
+                .thenReturn(page(null, vote("v1")));
+        when(client.query(argThat((QueryRequest request) -> request != null && "PollTable".equals(request.tableName()))))
+                .thenReturn(page(vote("v1"), vote("v1")))
+                .thenReturn(page(null, vote("v2")));
+
+        //when
+        List<String> voteIds = voteIds(helper.queryAllItems(POLL_ID, "GSI1", "GSI1PK = :pollId", VALUES));
+
+        //then
+        assertThat(voteIds).containsExactly("v1", "v2").inOrder();
+        verify(client, times(3)).query(any(QueryRequest.class));
+    }
+
+    @Test
+    public void testUpdateItem_rankedVoteForAnOptionNotMovedYetGoesToThePreviousTable() {
+        //given the option is still in PollTable, so the conditional update on PollTable2 finds no item
+        TableRouter moving = new TableRouter(List.of("PollTable2"), Optional.empty(), Optional.of(List.of("PollTable")));
+        HotKeys hotKeys = mock(HotKeys.class);
+        when(hotKeys.coalescingWindow()).thenReturn(Duration.ofMillis(200));
+        PollRepositoryImpl pollRepository = new PollRepositoryImpl(new DynamoDbHelper(client, moving), Duration.ofMillis(500), hotKeys);
+        when(client.updateItem(argThat((UpdateItemRequest request) -> request != null && "PollTable2".equals(request.tableName()))))
+                .thenThrow(ConditionalCheckFailedException.builder().build());
+        when(client.updateItem(argThat((UpdateItemRequest request) -> request != null && "PollTable".equals(request.tableName()))))
+                .thenReturn(UpdateItemResponse.builder().build());
+        when(client.putItem(any(PutItemRequest.class))).thenReturn((PutItemResponse) PutItemResponse.builder()
+                .sdkHttpResponse(SdkHttpResponse.builder().statusCode(200).build()).build());
+
+        //when
+        boolean added = pollRepository.addRankedBallot(POLL_ID, "option1", 3);
+
+        //then
+        assertThat(added).isTrue();
+        verify(client).updateItem(argThat((UpdateItemRequest request) -> request != null
+                && "PollTable".equals(request.tableName()) && "3".equals(request.expressionAttributeNames().get("#ranking"))));
+    }
+
+    @Test
+    public void testPutItem_asksForNoReturnValues() {
+        //given
+        DynamoDbHelper helper = new DynamoDbHelper(client, TableRouter.single("PollTable"));
+        when(client.putItem(any(PutItemRequest.class))).thenReturn(PutItemResponse.builder().build());
+
+        //when
+        helper.putItem(POLL_ID, vote("v1"));
+
+        //then
+        verify(client).putItem(argThat((PutItemRequest request) -> request.returnValues() == ReturnValue.NONE));
+    }
+}
@@ -0,0 +1,61 @@
+package com.isap.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class HyperLogLogTest {
+
+    private static HyperLogLog sketchOf(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.add("voter-" + i);
+        }
+        return sketch;
+    }
+
+    @Test
+    public void testEstimate_withinThreeStandardErrors() {
+        //given
+        int[] cardinalities = {10, 1_000, 10_000, 200_000};
+
+        for (int cardinality : cardinalities) {
+            //when
+            long estimate = sketchOf(0, cardinality).estimate();
+
+            //then
+            assertThat((double) estimate).isWithin(3 * HyperLogLog.STANDARD_ERROR * cardinality + 1).of(cardinality);
+        }
+    }
+
+    @Test
+    public void testMerge_unionCountsSharedVotersOnce() {
+        //given
+        HyperLogLog first = sketchOf(0, 30_000);
+        HyperLogLog second = sketchOf(20_000, 50_000);
+
+        //when
+        first.merge(second);
+        boolean changedAgain = first.merge(second);
+
+        //then
+        assertThat(changedAgain).isFalse();
+        assertThat((double) first.estimate()).isWithin(3 * HyperLogLog.STANDARD_ERROR * 50_000).of(50_000);
+    }
+
+    @Test
+    public void testToBytes_roundTrip() {
+        //given
+        HyperLogLog sketch = sketchOf(0, 5_000);
+
+        //when
+        byte[] bytes = sketch.toBytes();
+        HyperLogLog decoded = HyperLogLog.fromBytes(bytes);
+
+        //then
+        assertThat(bytes).hasLength(HyperLogLog.SERIALIZED_BYTES);
+        assertThat(decoded.estimate()).isEqualTo(sketch.estimate());
+        assertThat(decoded.toBytes()).isEqualTo(bytes);
+        assertThat(new HyperLogLog().isEmpty()).isTrue();
+    }
+}
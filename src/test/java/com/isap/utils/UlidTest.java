@@ -0,0 +1,50 @@
+package com.isap.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class UlidTest {
+
+    @Test
+    public void testNext_sortsByTimeAndKeepsIt() {
+        //given
+        Instant earlier = Instant.parse("2024-12-20T12:34:56.789Z");
+        Instant later = earlier.plusMillis(1);
+
+        //when
+        String first = Ulid.next(earlier);
+        String second = Ulid.next(later);
+
+        //then
+        assertThat(first).hasLength(Ulid.LENGTH);
+        assertThat(first).isLessThan(second);
+        assertThat(Ulid.timestamp(first)).isEqualTo(earlier);
+        assertThat(Ulid.timestamp(second)).isEqualTo(later);
+    }
+
+    @Test
+    public void testBounds_encloseEveryIdOfTheMillisecond() {
+        //given
+        Instant time = Instant.parse("2024-12-20T12:34:56.789Z");
+
+        //when
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(Ulid.next(time));
+        }
+
+        //then
+        assertThat(ids).hasSize(1000);
+        for (String id : ids) {
+            assertThat(id).isAtLeast(Ulid.lowerBound(time));
+            assertThat(id).isAtMost(Ulid.upperBound(time));
+        }
+        assertThat(Ulid.upperBound(time.minusMillis(1))).isLessThan(Ulid.lowerBound(time));
+        assertThat(Ulid.upperBound(time)).isEqualTo(Ulid.lowerBound(time).substring(0, 10) + "ZZZZZZZZZZZZZZZZ");
+    }
+}
@@ -0,0 +1,111 @@
+package com.isap.voters;
+
+import com.isap.utils.DynamoDbHelper;
+import com.isap.utils.HyperLogLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class UniqueVoterTrackerTest {
+
+    private static final String POLL_ID = "poll1";
+
+    private final DynamoDbHelper dynamoDbHelper = mock(DynamoDbHelper.class);
+    private final VoterSketchStore store = new VoterSketchStore(dynamoDbHelper);
+    private final UniqueVoterTracker tracker = new UniqueVoterTracker(store, Duration.ofSeconds(1), Duration.ofSeconds(5),
+            new SimpleMeterRegistry());
+
+    private static Map<String, AttributeValue> storedSketch(long version, String... voters) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (String voter : voters) {
+            sketch.add(voter);
+        }
+        return Map.of(
+                "PK", AttributeValue.fromS(POLL_ID),
+                "SK", AttributeValue.fromS(VoterSketchStore.SK_VOTERS),
+                "registers", AttributeValue.fromB(SdkBytes.fromByteArray(sketch.toBytes())),
+                "version", AttributeValue.fromN(String.valueOf(version)));
+    }
+
+    @Test
+    public void testFlush_mergesBatchedVotersInOneConditionalWrite() {
+        //given
+        when(dynamoDbHelper.getItem(eq(POLL_ID), any())).thenReturn(GetItemResponse.builder().build());
+        tracker.record(POLL_ID, "alice");
+        tracker.record(POLL_ID, "bob");
+        tracker.record(POLL_ID, "alice");
+
+        //when
+        tracker.flush();
+
+        //then
+        verify(dynamoDbHelper, times(1)).updateItem(eq(POLL_ID), any(), eq(VoterSketchStore.UPDATE_EXPRESSION),
+                eq("attribute_not_exists(PK)"), argThat(values -> VoterSketchStore.decode(
+                        Map.of("registers", values.get(":registers"))).estimate() == 2));
+        assertThat(tracker.pendingPolls()).isEqualTo(0);
+    }
+
+    @Test
+    public void testFlush_retriesOnTheItemReturnedByAConflict() {
+        //given another instance wrote version 1 between our read and our write
+        when(dynamoDbHelper.getItem(eq(POLL_ID), any())).thenReturn(GetItemResponse.builder().build());
+        when(dynamoDbHelper.updateItem(eq(POLL_ID), any(), any(), eq("attribute_not_exists(PK)"), any()))
+                .thenThrow(ConditionalCheckFailedException.builder().item(storedSketch(1, "carol")).build());
+        tracker.record(POLL_ID, "alice");
+
+        //when
+        tracker.flush();
+
+        //then
+        verify(dynamoDbHelper).updateItem(eq(POLL_ID), any(), any(), eq("version = :version"), argThat(values ->
+                values.get(":next").n().equals("2")
+                        && VoterSketchStore.decode(Map.of("registers", values.get(":registers"))).estimate() == 2));
+        verify(dynamoDbHelper, times(1)).getItem(eq(POLL_ID), any());
+    }
+
+    @Test
+    public void testEstimate_includesVotersNotFlushedYet() {
+        //given the first flush fails and the voters stay pending
+        when(dynamoDbHelper.getItem(eq(POLL_ID), any())).thenReturn(GetItemResponse.builder().item(storedSketch(3, "carol")).build());
+        when(dynamoDbHelper.updateItem(eq(POLL_ID), any(), any(), any(), any()))
+                .thenThrow(ProvisionedThroughputExceededException.builder().message("throttled").build());
+        tracker.record(POLL_ID, "alice");
+        tracker.record(POLL_ID, "carol");
+        tracker.flush();
+
+        //when
+        long estimate = tracker.estimate(POLL_ID).getAsLong();
+
+        //then
+        assertThat(estimate).isEqualTo(2);
+        assertThat(tracker.pendingPolls()).isEqualTo(1);
+    }
+
+    @Test
+    public void testEstimate_reusesStoredSketchWithinTtl() {
+        //given
+        when(dynamoDbHelper.getItem(eq(POLL_ID), any())).thenReturn(GetItemResponse.builder().item(storedSketch(1, "carol")).build());
+        long before = tracker.estimate(POLL_ID).getAsLong();
+        tracker.record(POLL_ID, "alice");
+        tracker.flush();
+
+        //when
+        long after = tracker.estimate(POLL_ID).getAsLong();
+
+        //then one read for the first estimate and one for the flush, none for the second estimate
+        assertThat(before).isEqualTo(1);
+        assertThat(after).isEqualTo(2);
+        verify(dynamoDbHelper, times(2)).getItem(eq(POLL_ID), any());
+    }
+}